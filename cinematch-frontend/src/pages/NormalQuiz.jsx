@@ -19,6 +19,7 @@ export default function NormalQuiz() {
     const [questions, setQuestions] = useState([]);
     const [userAnswers, setUserAnswers] = useState({});
     const [score, setScore] = useState(null);
+    const [sessionId, setSessionId] = useState(null);
     const [loading, setLoading] = useState(true);
     const [currentQuestionIndex, setCurrentQuestionIndex] = useState(0); // Move this outside
 
@@ -45,9 +46,14 @@ export default function NormalQuiz() {
                     throw new Error("Failed to fetch quiz");
                 }
 
+                // The answers stay on the server, under this session
+                setSessionId(response.headers.get("X-Quiz-Session"));
+
                 const data = await response.json();
-                // 🔀 Shuffle questions
-                const shuffled = [...data].sort(() => Math.random() - 0.5);
+                // 🔀 Shuffle questions (each keeps its original index for grading)
+                const shuffled = data
+                    .map((q, index) => ({ ...q, index }))
+                    .sort(() => Math.random() - 0.5);
                 setQuestions(shuffled);
                 setCurrentQuestionIndex(0);
             } catch (error) {
@@ -74,21 +80,35 @@ export default function NormalQuiz() {
     // ==============================
     // 3. Submit Quiz
     // ==============================
-    const handleSubmit = () => {
+    const handleSubmit = async () => {
         if (Object.keys(userAnswers).length < questions.length) {
             alert("Please answer all questions before submitting.");
             return;
         }
 
-        let calculatedScore = 0;
-
-        questions.forEach((q, index) => {
-            if (userAnswers[index] === q.correctAnswerIndex) {
-                calculatedScore++;
+        try {
+            const response = await fetch("http://localhost:8080/api/quiz/submit", {
+                method: "POST",
+                headers: {
+                    "Content-Type": "application/json",
+                    "X-Quiz-Session": sessionId,
+                },
+                body: JSON.stringify({
+                    userAnswers: questions.map((q, i) => ({
+                        questionIndex: q.index,
+                        selectedOptionIndex: userAnswers[i],
+                    })),
+                }),
+            });
+
+            if (!response.ok) {
+                throw new Error("Failed to submit quiz");
             }
-        });
 
-        setScore(calculatedScore);
+            setScore(await response.json());
+        } catch (error) {
+            console.error(error);
+        }
     };
 
     // ==============================
@@ -21,7 +21,7 @@ export default function RankedQuiz() {
     const [answers, setAnswers] = useState({});
     const [current, setCurrent] = useState(0);
     const [loading, setLoading] = useState(true);
-    const startTimeRef = useRef(null);
+    const sessionIdRef = useRef(null);
     const navigate = useNavigate();
     const [submitting, setSubmitting] = useState(false);
     const [showResult, setShowResult] = useState(false);
@@ -38,9 +38,10 @@ export default function RankedQuiz() {
     async function loadQuiz() {
         try {
             const res = await fetch("http://localhost:8080/api/quiz/ranked");
+            // The answers stay on the server, under this session
+            sessionIdRef.current = res.headers.get("X-Quiz-Session");
             const data = await res.json();
             setQuestions(data);
-            startTimeRef.current = Date.now();
         } catch (e) {
             console.error(e);
         } finally {
@@ -57,30 +58,33 @@ export default function RankedQuiz() {
         setSubmitting(true);
 
         try {
-            const timeTakenSeconds = Math.floor(
-                (Date.now() - startTimeRef.current) / 1000
-            );
-
-            let correct = 0;
-            let wrong = 0;
-
-            questions.forEach((q, i) => {
-                if (answers[i] === q.correctAnswerIndex) correct++;
-                else wrong++;
-            });
+            const { data: { session } } = await supabase.auth.getSession();
+            const user = session.user;
 
+            // Graded on the server, from the quiz session and the signed-in user
             const scoreRes = await fetch(
                 "http://localhost:8080/api/quiz/ranked/score",
                 {
                     method: "POST",
-                    headers: { "Content-Type": "application/json" },
-                    body: JSON.stringify({ correct, wrong, timeTakenSeconds })
+                    headers: {
+                        "Content-Type": "application/json",
+                        "Authorization": `Bearer ${session.access_token}`,
+                        "X-Quiz-Session": sessionIdRef.current
+                    },
+                    body: JSON.stringify({
+                        userAnswers: Object.entries(answers).map(([i, option]) => ({
+                            questionIndex: Number(i),
+                            selectedOptionIndex: option
+                        }))
+                    })
                 }
             );
 
-            const score = await scoreRes.json();
+            if (!scoreRes.ok) {
+                throw new Error("Failed to submit ranked quiz");
+            }
 
-            const { data: { user } } = await supabase.auth.getUser();
+            const { correct, wrong, timeTakenSeconds, score } = await scoreRes.json();
 
             await supabase.from("ranked_quiz_attempts").insert({
                 user_id: user.id,
@@ -101,6 +105,8 @@ export default function RankedQuiz() {
             });
 
             setShowResult(true);
+        } catch (e) {
+            console.error(e);
         } finally {
             setSubmitting(false);
         }
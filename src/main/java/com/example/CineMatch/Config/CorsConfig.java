@@ -15,10 +15,13 @@
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import java.io.IOException;
 
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
 public class CorsConfig implements Filter {
 
     @Override
@@ -35,8 +38,9 @@ public class CorsConfig implements Filter {
         );
         response.setHeader(
                 "Access-Control-Allow-Headers",
-                "Content-Type, Authorization"
+                "Content-Type, Authorization, X-Quiz-Session"
         );
+        response.setHeader("Access-Control-Expose-Headers", "X-Quiz-Session");
         response.setHeader("Access-Control-Allow-Credentials", "true");
 
         if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
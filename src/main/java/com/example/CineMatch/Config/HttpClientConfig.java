@@ -0,0 +1,84 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * One pooled Reactor Netty client shared by every outbound call (TMDB,
+ * Hugging Face, OpenRouter, the image proxy). Connections are kept alive and
+ * reused, HTTP/2 is negotiated where the server supports it, and responses
+ * are requested gzip-compressed. response-timeout is for TMDB; the LLM and
+ * Hugging Face clients override it with their own, longer timeouts.
+ * Pool statistics are published under reactor.netty.connection.provider.*.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider connectionProvider(
+            @Value("${http.client.max-connections:100}") int maxConnections,
+            @Value("${http.client.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+            @Value("${http.client.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${http.client.max-life-time:5m}") Duration maxLifeTime
+    ) {
+        return ConnectionProvider.builder("cinematch")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public HttpClient httpClient(
+            ConnectionProvider connectionProvider,
+            @Value("${http.client.connect-timeout:3s}") Duration connectTimeout,
+            @Value("${http.client.response-timeout:15s}") Duration responseTimeout
+    ) {
+        return HttpClient.create(connectionProvider)
+                .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(responseTimeout)
+                .compress(true);
+    }
+
+    @Bean
+    public ClientHttpRequestFactory clientHttpRequestFactory(HttpClient httpClient) {
+        return new ReactorClientHttpRequestFactory(httpClient);
+    }
+
+    @Bean
+    public RestTemplate inferenceRestTemplate(
+            HttpClient httpClient,
+            @Value("${http.client.inference-response-timeout:120s}") Duration inferenceResponseTimeout
+    ) {
+        // Same connection pool, but a cold Hugging Face model can take minutes to load and answer
+        return new RestTemplate(new ReactorClientHttpRequestFactory(httpClient.responseTimeout(inferenceResponseTimeout)));
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Config;
+
+import com.example.CineMatch.Repository.TmdbStaleness;
+import com.example.CineMatch.dto.DiscoverQuery;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the final JSON bytes of the /api/tmdb trending, search and discover
+ * responses, together with a gzip copy and a strong ETag. A hit is written
+ * straight to the output stream without touching the controller or Jackson,
+ * and a matching If-None-Match is answered with 304.
+ *
+ * Runs after CorsConfig so cached responses keep their CORS headers. It is
+ * left out of the "reactive" profile, whose controllers complete
+ * asynchronously.
+ */
+@Component
+@Profile("!reactive")
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ListResponseCacheFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final Pattern CACHEABLE = Pattern.compile("^/api/tmdb/(trending|search|discover)/[^/]+$");
+    private static final int ETAG_HASH_BYTES = 12;
+
+    private record Encoded(byte[] identity, byte[] gzip, String etag, String gzipEtag,
+                           String contentType, long expiresAt) {
+        long size() {
+            return identity.length + gzip.length;
+        }
+    }
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Clock clock;
+
+    // Access-ordered, so iteration starts from the least recently used entry
+    private final LinkedHashMap<String, Encoded> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public ListResponseCacheFilter(
+            @Value("${tmdb.response-cache.enabled:true}") boolean enabled,
+            @Value("${tmdb.response-cache.ttl:60s}") Duration ttl,
+            @Value("${tmdb.response-cache.max-entries:500}") int maxEntries,
+            @Value("${tmdb.response-cache.max-bytes:33554432}") long maxBytes
+    ) {
+        this(enabled, ttl, maxEntries, maxBytes, Clock.systemUTC());
+    }
+
+    public ListResponseCacheFilter(boolean enabled, Duration ttl, int maxEntries, long maxBytes, Clock clock) {
+        this.enabled = enabled;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.clock = clock;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !"GET".equals(request.getMethod())
+                || !CACHEABLE.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = key(request);
+
+        Encoded cached = get(key);
+        if (cached != null) {
+            hits.increment();
+            write(request, response, cached);
+            return;
+        }
+        misses.increment();
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        String contentType = wrapper.getContentType();
+        // Stale fallbacks are not cached, so the fresh answer shows up as soon as TMDB is back
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && !TmdbStaleness.isStale(request)
+                && contentType != null && contentType.startsWith("application/json")) {
+            Encoded encoded = encode(wrapper.getContentAsByteArray(), contentType);
+            put(key, encoded);
+            write(request, response, encoded);
+        } else {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, Encoded encoded)
+            throws IOException {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.ETAG, gzip ? encoded.gzipEtag() : encoded.etag());
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), encoded)) {
+            notModified.increment();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = gzip ? encoded.gzip() : encoded.identity();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(encoded.contentType());
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private Encoded encode(byte[] identity, String contentType) {
+        String hash;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(identity);
+            hash = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Arrays.copyOf(digest, ETAG_HASH_BYTES));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream(identity.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(identity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return new Encoded(identity, gzip.toByteArray(), "\"" + hash + "\"", "\"" + hash + "-gzip\"",
+                contentType, clock.millis() + ttlMillis);
+    }
+
+    /* Path plus the query parameters in sorted order, so ?a=1&b=2 and ?b=2&a=1 share an entry */
+    private static String key(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        try {
+            // Discover filters have a canonical form that also drops defaults
+            if (uri.equals("/api/tmdb/discover/movies")) {
+                return uri + DiscoverQuery.forMovies(singleValued(request)).toQueryString();
+            }
+            if (uri.equals("/api/tmdb/discover/tv")) {
+                return uri + DiscoverQuery.forTv(singleValued(request)).toQueryString();
+            }
+        } catch (ResponseStatusException e) {
+            // Invalid filters: fall through, the controller answers with 400
+        }
+
+        StringBuilder key = new StringBuilder(uri);
+        char separator = '?';
+        for (Map.Entry<String, String[]> param : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String value : param.getValue()) {
+                key.append(separator)
+                        .append(URLEncoder.encode(param.getKey(), StandardCharsets.UTF_8))
+                        .append('=')
+                        .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    // Same view of the parameters as @RequestParam Map<String, String>
+    private static Map<String, String> singleValued(HttpServletRequest request) {
+        Map<String, String> params = new LinkedHashMap<>();
+        request.getParameterMap().forEach((name, values) -> params.put(name, values[0]));
+        return params;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = Arrays.stream(parts).skip(1)
+                    .map(String::trim)
+                    .anyMatch(param -> param.matches("(?i)q\\s*=\\s*0(\\.0*)?"));
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // If-None-Match uses weak comparison, and either encoding's tag counts
+    private static boolean matches(String ifNoneMatch, Encoded encoded) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(encoded.etag()) || candidate.equals(encoded.gzipEtag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // =================================================================
+    // STORE
+    // =================================================================
+
+    private Encoded get(String key) {
+        lock.lock();
+        try {
+            Encoded encoded = entries.get(key);
+            if (encoded == null) {
+                return null;
+            }
+            if (clock.millis() >= encoded.expiresAt()) {
+                bytes -= entries.remove(key).size();
+                return null;
+            }
+            return encoded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(String key, Encoded encoded) {
+        if (encoded.size() > maxBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            Encoded previous = entries.put(key, encoded);
+            if (previous != null) {
+                bytes -= previous.size();
+            }
+            bytes += encoded.size();
+
+            Iterator<Encoded> eldest = entries.values().iterator();
+            while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+                bytes -= eldest.next().size();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // =================================================================
+    // STATS
+    // =================================================================
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int getSize() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tmdb.response-cache.requests", this, ListResponseCacheFilter::getHits)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("tmdb.response-cache.requests", this, ListResponseCacheFilter::getMisses)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("tmdb.response-cache.not-modified", this, ListResponseCacheFilter::getNotModified)
+                .register(registry);
+        Gauge.builder("tmdb.response-cache.size", this, ListResponseCacheFilter::getSize)
+                .register(registry);
+        Gauge.builder("tmdb.response-cache.bytes", this, ListResponseCacheFilter::getBytes)
+                .baseUnit("bytes").register(registry);
+    }
+}
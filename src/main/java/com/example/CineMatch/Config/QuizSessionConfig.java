@@ -0,0 +1,51 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Config;
+
+import com.example.CineMatch.Repository.QuizSessionEntryRepository;
+import com.example.CineMatch.service.InMemoryQuizSessionStore;
+import com.example.CineMatch.service.PostgresQuizSessionStore;
+import com.example.CineMatch.service.QuizSessionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Picks the quiz session store: "memory" (default) keeps sessions in this
+ * instance, optionally spilling the overflow to Postgres; "postgres" keeps
+ * them all in the database, for several replicas.
+ */
+@Configuration
+public class QuizSessionConfig {
+
+    @Bean
+    public QuizSessionStore quizSessionStore(
+            QuizSessionEntryRepository entries,
+            @Value("${quiz.sessions.store:memory}") String store,
+            @Value("${quiz.sessions.max-sessions:50000}") int maxSessions,
+            @Value("${quiz.sessions.spill:false}") boolean spill,
+            @Value("${quiz.sessions.purge-interval:10m}") Duration purgeInterval
+    ) {
+        return switch (store) {
+            case "postgres" -> new PostgresQuizSessionStore(entries, purgeInterval, Clock.systemUTC());
+            case "memory" -> new InMemoryQuizSessionStore(maxSessions,
+                    spill ? new PostgresQuizSessionStore(entries, purgeInterval, Clock.systemUTC()) : null,
+                    Clock.systemUTC());
+            default -> throw new IllegalArgumentException("Unknown quiz.sessions.store: " + store);
+        };
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Config;
+
+import com.example.CineMatch.Repository.TmdbStaleness;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds a "110 Response is Stale" Warning header to responses that were built
+ * from an old copy of TMDB data because TMDB could not be reached
+ * (see {@link TmdbStaleness}).
+ */
+@RestControllerAdvice
+@Profile("!reactive")
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String WARNING = "Warning";
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && TmdbStaleness.isStale(servletRequest.getServletRequest())) {
+            response.getHeaders().set(WARNING, STALE_WARNING);
+        }
+        return body;
+    }
+}
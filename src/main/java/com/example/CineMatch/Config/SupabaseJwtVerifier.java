@@ -0,0 +1,101 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Checks the Supabase access token the frontend sends as
+ * "Authorization: Bearer ...": an HS256 JWT signed with the project's JWT
+ * secret (supabase.jwt.secret). Without a secret every token is refused, so
+ * nothing that needs a signed-in user can be spoofed by a misconfigured
+ * instance.
+ */
+@Component
+public class SupabaseJwtVerifier {
+
+    public record Principal(UUID id, String name) {}
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Base64.Decoder BASE64URL = Base64.getUrlDecoder();
+
+    private final byte[] secret;
+    private final Clock clock;
+
+    @Autowired
+    public SupabaseJwtVerifier(@Value("${supabase.jwt.secret:}") String secret) {
+        this(secret, Clock.systemUTC());
+    }
+
+    public SupabaseJwtVerifier(String secret, Clock clock) {
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.clock = clock;
+        if (secret.isBlank()) {
+            System.err.println("supabase.jwt.secret is not set: signed-in requests (ranked scores) will be refused");
+        }
+    }
+
+    /**
+     * The signed-in user of an Authorization header, or empty when the header
+     * is missing, malformed, not signed with the secret, expired, or not for
+     * an authenticated user.
+     */
+    public Optional<Principal> verify(String authorization) {
+        if (secret.length == 0 || authorization == null || !authorization.startsWith("Bearer ")) {
+            return Optional.empty();
+        }
+        String[] parts = authorization.substring("Bearer ".length()).trim().split("\\.");
+        if (parts.length != 3) {
+            return Optional.empty();
+        }
+        try {
+            JsonNode header = MAPPER.readTree(BASE64URL.decode(parts[0]));
+            if (!"HS256".equals(header.path("alg").asText())) {
+                return Optional.empty();
+            }
+
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            byte[] expected = mac.doFinal((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+            if (!MessageDigest.isEqual(expected, BASE64URL.decode(parts[2]))) {
+                return Optional.empty();
+            }
+
+            JsonNode claims = MAPPER.readTree(BASE64URL.decode(parts[1]));
+            if (!claims.path("exp").canConvertToLong() || claims.path("exp").asLong() * 1000 <= clock.millis()
+                    || !"authenticated".equals(claims.path("role").asText())) {
+                return Optional.empty();
+            }
+            String name = claims.path("user_metadata").path("name").asText(null);
+            return Optional.of(new Principal(UUID.fromString(claims.path("sub").asText()), name));
+        } catch (GeneralSecurityException | IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Config;
+
+import com.example.CineMatch.Repository.CachingReactiveTmdbRepository;
+import com.example.CineMatch.Repository.CachingTmdbRepository;
+import com.example.CineMatch.Repository.CatalogEntryRepository;
+import com.example.CineMatch.Repository.CatalogTmdbRepository;
+import com.example.CineMatch.Repository.CircuitBreakerTmdbRepository;
+import com.example.CineMatch.Repository.CoalescingTmdbRepository;
+import com.example.CineMatch.Repository.HedgingTmdbRepository;
+import com.example.CineMatch.Repository.ReactiveTmdbRepository;
+import com.example.CineMatch.Repository.ReactiveTmdbRepositoryImpl;
+import com.example.CineMatch.Repository.ThrottledReactiveTmdbRepository;
+import com.example.CineMatch.Repository.ThrottledTmdbRepository;
+import com.example.CineMatch.Repository.TmdbCachePolicy;
+import com.example.CineMatch.Repository.TmdbLane;
+import com.example.CineMatch.Repository.TmdbRepository;
+import com.example.CineMatch.Repository.TmdbRepositoryImpl;
+import com.example.CineMatch.Repository.TmdbResponseCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Builds the TmdbRepository the services actually use. From the outside in:
+ * request coalescing, the response cache, the local catalog mirror (when
+ * enabled), the rate limiter, the circuit breaker, request hedging (when
+ * enabled) and finally the raw HTTP repository. "upstreamTmdbRepository" is
+ * just the last four, for callers that must bypass the caches.
+ * The "reactive" profile additionally gets a cached ReactiveTmdbRepository,
+ * which takes its tokens from the same rate limiter. It does not go through
+ * the circuit breaker, hedging, coalescing or the catalog mirror.
+ */
+@Configuration
+public class TmdbRepositoryConfig {
+
+    @Bean
+    public TmdbResponseCache tmdbResponseCache(
+            @Value("${tmdb.cache.max-entries:5000}") int maxEntries,
+            @Value("${tmdb.cache.max-bytes:67108864}") long maxBytes,
+            @Value("${tmdb.cache.disk-dir:}") String diskDir,
+            @Value("${tmdb.cache.disk-max-bytes:536870912}") long diskMaxBytes,
+            @Value("${tmdb.cache.disk-sweep-interval:10m}") Duration diskSweepInterval,
+            @Value("${tmdb.cache.retain-stale:1d}") Duration retainStale
+    ) {
+        return new TmdbResponseCache(maxEntries, maxBytes, diskDir.isBlank() ? null : Path.of(diskDir),
+                diskMaxBytes, diskSweepInterval, retainStale, Clock.systemUTC());
+    }
+
+    @Bean
+    public TmdbCachePolicy tmdbCachePolicy(
+            @Value("${tmdb.cache.ttl.trending:1h}") Duration trending,
+            @Value("${tmdb.cache.ttl.discover:30m}") Duration discover,
+            @Value("${tmdb.cache.ttl.search:10m}") Duration search,
+            @Value("${tmdb.cache.ttl.details:12h}") Duration details,
+            @Value("${tmdb.cache.ttl.credits:24h}") Duration credits,
+            @Value("${tmdb.cache.ttl.default:10m}") Duration fallback
+    ) {
+        return new TmdbCachePolicy(trending, discover, search, details, credits, fallback);
+    }
+
+    @Bean
+    public TmdbRepository upstreamTmdbRepository(
+            TmdbRepositoryImpl http,
+            MeterRegistry meterRegistry,
+            @Value("${tmdb.hedging.enabled:false}") boolean hedgingEnabled,
+            @Value("${tmdb.hedging.percentile:0.95}") double hedgingPercentile,
+            @Value("${tmdb.hedging.min-delay:50ms}") Duration hedgingMinDelay,
+            @Value("${tmdb.hedging.max-delay:2s}") Duration hedgingMaxDelay,
+            @Value("${tmdb.hedging.budget-percent:5}") double hedgingBudgetPercent,
+            @Value("${tmdb.circuit-breaker.enabled:true}") boolean breakerEnabled,
+            @Value("${tmdb.circuit-breaker.window-size:50}") int windowSize,
+            @Value("${tmdb.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${tmdb.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${tmdb.circuit-breaker.slow-call-rate-threshold:0.8}") double slowCallRateThreshold,
+            @Value("${tmdb.circuit-breaker.slow-call-duration:3s}") Duration slowCallDuration,
+            @Value("${tmdb.circuit-breaker.open-duration:30s}") Duration openDuration,
+            @Value("${tmdb.circuit-breaker.half-open-probes:3}") int halfOpenProbes,
+            @Value("${tmdb.throttle.enabled:true}") boolean throttleEnabled,
+            @Value("${tmdb.throttle.requests-per-second:40}") double requestsPerSecond,
+            @Value("${tmdb.throttle.burst:20}") int burst,
+            @Value("${tmdb.throttle.interactive.queue-capacity:200}") int interactiveCapacity,
+            @Value("${tmdb.throttle.interactive.max-wait:3s}") Duration interactiveMaxWait,
+            @Value("${tmdb.throttle.prefetch.queue-capacity:100}") int prefetchCapacity,
+            @Value("${tmdb.throttle.prefetch.max-wait:30s}") Duration prefetchMaxWait,
+            @Value("${tmdb.throttle.sync.queue-capacity:50}") int syncCapacity,
+            @Value("${tmdb.throttle.sync.max-wait:2m}") Duration syncMaxWait
+    ) {
+        TmdbRepository repository = http;
+
+        // Hedges only see TMDB's own latency, and the breaker sees one outcome per call
+        if (hedgingEnabled) {
+            repository = new HedgingTmdbRepository(repository, hedgingPercentile, hedgingMinDelay,
+                    hedgingMaxDelay, hedgingBudgetPercent);
+        }
+        // Below the rate limiter, so time spent in our own queue doesn't count as TMDB latency
+        if (breakerEnabled) {
+            repository = new CircuitBreakerTmdbRepository(bound(repository, meterRegistry),
+                    new CircuitBreakerTmdbRepository.Settings(windowSize, minimumCalls, failureRateThreshold,
+                            slowCallRateThreshold, slowCallDuration, openDuration, halfOpenProbes),
+                    Clock.systemUTC());
+        }
+        if (throttleEnabled) {
+            repository = new ThrottledTmdbRepository(bound(repository, meterRegistry), requestsPerSecond, burst, Map.of(
+                    TmdbLane.INTERACTIVE, new ThrottledTmdbRepository.LaneLimits(interactiveCapacity, interactiveMaxWait),
+                    TmdbLane.PREFETCH, new ThrottledTmdbRepository.LaneLimits(prefetchCapacity, prefetchMaxWait),
+                    TmdbLane.SYNC, new ThrottledTmdbRepository.LaneLimits(syncCapacity, syncMaxWait)));
+        }
+        // The outermost decorator is the bean itself, so Boot binds its metrics
+        return repository;
+    }
+
+    // Binds the metrics of a decorator that is about to be wrapped
+    private static TmdbRepository bound(TmdbRepository repository, MeterRegistry registry) {
+        if (repository instanceof MeterBinder binder) {
+            binder.bindTo(registry);
+        }
+        return repository;
+    }
+
+    @Bean
+    @Primary
+    public TmdbRepository tmdbRepository(
+            @Qualifier("upstreamTmdbRepository") TmdbRepository upstream,
+            TmdbResponseCache cache,
+            TmdbCachePolicy policy,
+            CatalogEntryRepository catalogEntries,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${tmdb.catalog.enabled:false}") boolean catalogEnabled,
+            @Value("${tmdb.cache.enabled:true}") boolean cacheEnabled,
+            @Value("${tmdb.cache.stale-while-revalidate:5m}") Duration staleWhileRevalidate,
+            @Value("${tmdb.cache.early-expiration-beta:1.0}") double earlyExpirationBeta,
+            @Value("${tmdb.coalescing.enabled:true}") boolean coalescingEnabled
+    ) {
+        TmdbRepository repository = upstream;
+
+        if (catalogEnabled) {
+            CatalogTmdbRepository catalog = new CatalogTmdbRepository(repository, catalogEntries, objectMapper);
+            catalog.bindTo(meterRegistry);
+            repository = catalog;
+        }
+        if (cacheEnabled) {
+            CachingTmdbRepository caching = new CachingTmdbRepository(repository, cache, policy, objectMapper,
+                    staleWhileRevalidate, earlyExpirationBeta);
+            caching.bindTo(meterRegistry);
+            repository = caching;
+        }
+        if (coalescingEnabled) {
+            CoalescingTmdbRepository coalescing = new CoalescingTmdbRepository(repository);
+            coalescing.bindTo(meterRegistry);
+            repository = coalescing;
+        }
+        return repository;
+    }
+
+    @Bean
+    @Primary
+    @Profile("reactive")
+    public ReactiveTmdbRepository reactiveTmdbRepository(
+            ReactiveTmdbRepositoryImpl upstream,
+            @Qualifier("upstreamTmdbRepository") TmdbRepository blockingUpstream,
+            TmdbResponseCache cache,
+            TmdbCachePolicy policy,
+            @Value("${tmdb.cache.enabled:true}") boolean cacheEnabled
+    ) {
+        ReactiveTmdbRepository repository = upstream;
+
+        // One TMDB quota for both stacks: the blocking rate limiter is the outermost upstream decorator
+        if (blockingUpstream instanceof ThrottledTmdbRepository throttle) {
+            repository = new ThrottledReactiveTmdbRepository(repository, throttle);
+        }
+        return cacheEnabled ? new CachingReactiveTmdbRepository(repository, cache, policy) : repository;
+    }
+}
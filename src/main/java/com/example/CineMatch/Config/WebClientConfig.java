@@ -13,16 +13,26 @@
  * If not, see <https://www.gnu.org/licenses/>.
  */package com.example.CineMatch.Config;
 
-
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
     @Bean
-    public WebClient webClient() {
-        return WebClient.builder().build();
+    public WebClient webClient(
+            HttpClient httpClient,
+            @Value("${http.client.llm-response-timeout:90s}") Duration llmResponseTimeout
+    ) {
+        // Same connection pool, but the LLM needs far longer than TMDB to answer
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient.responseTimeout(llmResponseTimeout)))
+                .build();
     }
 }
\ No newline at end of file
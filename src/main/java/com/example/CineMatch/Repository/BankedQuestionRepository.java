@@ -0,0 +1,65 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import com.example.CineMatch.dto.BankedQuestion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BankedQuestionRepository extends JpaRepository<BankedQuestion, Long> {
+
+    // Just what the quiz assembler needs to pick questions
+    interface Candidate {
+        Long getId();
+
+        String getEra();
+
+        int getServedCount();
+    }
+
+    boolean existsByContentKey(String contentKey);
+
+    long countByServedCount(int servedCount);
+
+    // Questions sharing at least one LSH band with a new one
+    @Query("select distinct q from BankedQuestion q join q.bands b where b in :bands")
+    List<BankedQuestion> findByAnyBand(@Param("bands") Collection<Long> bands);
+
+    @Query("select q.id as id, q.era as era, q.servedCount as servedCount from BankedQuestion q"
+            + " order by q.servedCount asc, q.id desc")
+    List<Candidate> findLeastServed(Pageable pageable);
+
+    @Query("select distinct q.id as id, q.era as era, q.servedCount as servedCount from BankedQuestion q"
+            + " join q.genres g where g in :genres and not exists"
+            + " (select s.id from ServedQuestion s where s.userId = :userId and s.questionId = q.id)"
+            + " order by q.servedCount asc, q.id desc")
+    List<Candidate> findUnseenByGenres(@Param("genres") Collection<String> genres,
+                                       @Param("userId") UUID userId,
+                                       Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("update BankedQuestion q set q.servedCount = q.servedCount + 1 where q.id in :ids")
+    int markServed(@Param("ids") Collection<Long> ids);
+}
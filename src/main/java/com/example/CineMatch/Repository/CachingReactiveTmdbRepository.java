@@ -0,0 +1,59 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+/**
+ * ReactiveTmdbRepository decorator backed by the same {@link TmdbResponseCache}
+ * as the blocking stack. When the cache has a disk tier, lookups and writes
+ * are moved off the event loop because they may touch the file system.
+ */
+public class CachingReactiveTmdbRepository implements ReactiveTmdbRepository {
+
+    private final ReactiveTmdbRepository delegate;
+    private final TmdbResponseCache cache;
+    private final TmdbCachePolicy policy;
+
+    public CachingReactiveTmdbRepository(ReactiveTmdbRepository delegate, TmdbResponseCache cache,
+                                         TmdbCachePolicy policy) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.policy = policy;
+    }
+
+    @Override
+    public Mono<byte[]> callBytes(String endpoint) {
+        Duration ttl = policy.ttlFor(endpoint);
+        if (!ttl.isPositive()) {
+            return delegate.callBytes(endpoint);
+        }
+
+        Mono<byte[]> cached = Mono.fromCallable(() -> cache.get(endpoint));
+        if (cache.isDiskBacked()) {
+            cached = cached.subscribeOn(Schedulers.boundedElastic());
+        }
+
+        return cached.switchIfEmpty(Mono.defer(() -> {
+            Mono<byte[]> fetched = delegate.callBytes(endpoint);
+            if (cache.isDiskBacked()) {
+                fetched = fetched.publishOn(Schedulers.boundedElastic());
+            }
+            return fetched.doOnNext(body -> cache.put(endpoint, body, ttl));
+        }));
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TmdbRepository decorator that serves responses from a {@link TmdbResponseCache}
+ * and only goes upstream on a miss. Bodies are cached as raw UTF-8 bytes, so
+ * callBytes(), call() and callMap() for the same endpoint share one entry.
+ *
+ * Expired entries are revalidated with a conditional request, and a 304 just
+ * extends the cached body. Within the stale-while-revalidate window a stale
+ * body is returned at once and refreshed in the background. Fresh entries
+ * may also be refreshed a little early, at random, with a probability that
+ * grows towards expiry (XFetch). That way popular keys don't all expire in
+ * the same instant.
+ *
+ * When TMDB is unreachable (circuit open, 5xx or I/O error), an expired entry
+ * that is still retained is returned instead of the error, and the request
+ * is marked stale (see {@link TmdbStaleness}).
+ */
+public class CachingTmdbRepository implements TmdbRepository, MeterBinder {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final TmdbRepository delegate;
+    private final TmdbResponseCache cache;
+    private final TmdbCachePolicy policy;
+    private final ObjectMapper objectMapper;
+    private final long staleWhileRevalidateMillis;
+    private final double earlyExpirationBeta;
+
+    private final ExecutorService refresher = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder modified = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder staleRefreshes = new LongAdder();
+    private final LongAdder earlyRefreshes = new LongAdder();
+    private final LongAdder staleFallbacks = new LongAdder();
+
+    public CachingTmdbRepository(TmdbRepository delegate, TmdbResponseCache cache,
+                                 TmdbCachePolicy policy, ObjectMapper objectMapper) {
+        this(delegate, cache, policy, objectMapper, Duration.ZERO, 0);
+    }
+
+    public CachingTmdbRepository(TmdbRepository delegate, TmdbResponseCache cache,
+                                 TmdbCachePolicy policy, ObjectMapper objectMapper,
+                                 Duration staleWhileRevalidate, double earlyExpirationBeta) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.policy = policy;
+        this.objectMapper = objectMapper;
+        this.staleWhileRevalidateMillis = staleWhileRevalidate.toMillis();
+        this.earlyExpirationBeta = earlyExpirationBeta;
+    }
+
+    @Override
+    public byte[] callBytes(String endpoint) {
+        Duration ttl = policy.ttlFor(endpoint);
+        if (!ttl.isPositive()) {
+            return delegate.callBytes(endpoint);
+        }
+
+        long now = cache.currentTimeMillis();
+        TmdbResponseCache.Entry cached = cache.lookup(endpoint);
+        if (cached != null) {
+            if (cached.isFresh(now)) {
+                if (shouldRefreshEarly(cached, now)) {
+                    earlyRefreshes.increment();
+                    refreshInBackground(endpoint, cached, ttl);
+                }
+                return cached.body();
+            }
+            if (now < cached.expiresAt() + staleWhileRevalidateMillis) {
+                staleRefreshes.increment();
+                refreshInBackground(endpoint, cached, ttl);
+                return cached.body();
+            }
+        }
+
+        try {
+            return fetch(endpoint, cached, ttl);
+        } catch (RuntimeException e) {
+            if (cached == null || !isOutage(e)) {
+                throw e;
+            }
+            staleFallbacks.increment();
+            TmdbStaleness.markStale();
+            return cached.body();
+        }
+    }
+
+    private static boolean isOutage(RuntimeException e) {
+        return e instanceof TmdbUnavailableException || CircuitBreakerTmdbRepository.isFailure(e);
+    }
+
+    @Override
+    public Map<String, Object> callMap(String endpoint) {
+        byte[] body = callBytes(endpoint);
+        return body == null ? null : objectMapper.readValue(body, MAP_TYPE);
+    }
+
+    /*
+     * XFetch: refresh when now - delta * beta * ln(rand) >= expiry, where delta
+     * is how long the last upstream call took. Slow endpoints start earlier.
+     */
+    private boolean shouldRefreshEarly(TmdbResponseCache.Entry cached, long now) {
+        if (earlyExpirationBeta <= 0 || cached.fetchMillis() <= 0) {
+            return false;
+        }
+        double gap = -cached.fetchMillis() * earlyExpirationBeta
+                * Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        return now + gap >= cached.expiresAt();
+    }
+
+    private void refreshInBackground(String endpoint, TmdbResponseCache.Entry cached, Duration ttl) {
+        if (!refreshing.add(endpoint)) {
+            return;
+        }
+        refresher.execute(() -> {
+            try {
+                TmdbLane.run(TmdbLane.PREFETCH, () -> fetch(endpoint, cached, ttl));
+            } catch (RuntimeException e) {
+                refreshFailures.increment();
+                System.err.println("Background refresh of " + endpoint + " failed: " + e.getMessage());
+            } finally {
+                refreshing.remove(endpoint);
+            }
+        });
+    }
+
+    // Goes upstream, conditionally when there is a cached body to fall back on
+    private byte[] fetch(String endpoint, TmdbResponseCache.Entry cached, Duration ttl) {
+        long start = System.nanoTime();
+        TmdbResponse response = cached == null
+                ? delegate.callConditional(endpoint, null, null)
+                : delegate.callConditional(endpoint, cached.etag(), cached.lastModified());
+        long fetchMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        if (cached != null && response.notModified()) {
+            notModified.increment();
+            cache.put(endpoint, cached.body(),
+                    response.etag() != null ? response.etag() : cached.etag(),
+                    response.lastModified() != null ? response.lastModified() : cached.lastModified(),
+                    ttl, fetchMillis);
+            return cached.body();
+        }
+        if (cached != null) {
+            modified.increment();
+        }
+
+        byte[] body = response.body();
+        if (body != null) {
+            cache.put(endpoint, body, response.etag(), response.lastModified(), ttl, fetchMillis);
+        }
+        return body;
+    }
+
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    public long getModified() {
+        return modified.sum();
+    }
+
+    public long getRefreshFailures() {
+        return refreshFailures.sum();
+    }
+
+    public long getStaleRefreshes() {
+        return staleRefreshes.sum();
+    }
+
+    public long getEarlyRefreshes() {
+        return earlyRefreshes.sum();
+    }
+
+    public long getStaleFallbacks() {
+        return staleFallbacks.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tmdb.cache.revalidations", this, CachingTmdbRepository::getNotModified)
+                .tag("result", "not-modified").register(registry);
+        FunctionCounter.builder("tmdb.cache.revalidations", this, CachingTmdbRepository::getModified)
+                .tag("result", "modified").register(registry);
+        FunctionCounter.builder("tmdb.cache.revalidations", this, CachingTmdbRepository::getRefreshFailures)
+                .tag("result", "failed").register(registry);
+        FunctionCounter.builder("tmdb.cache.background-refreshes", this, CachingTmdbRepository::getStaleRefreshes)
+                .tag("trigger", "stale").register(registry);
+        FunctionCounter.builder("tmdb.cache.background-refreshes", this, CachingTmdbRepository::getEarlyRefreshes)
+                .tag("trigger", "early").register(registry);
+        FunctionCounter.builder("tmdb.cache.stale-fallbacks", this, CachingTmdbRepository::getStaleFallbacks)
+                .register(registry);
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import com.example.CineMatch.dto.CatalogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CatalogEntryRepository extends JpaRepository<CatalogEntry, String> {
+
+    // Which of the given ids are already mirrored
+    @Query("select distinct e.tmdbId from CatalogEntry e where e.mediaType = :mediaType and e.tmdbId in :ids")
+    List<Long> findMirroredIds(@Param("mediaType") String mediaType, @Param("ids") Collection<Long> ids);
+
+    long countByMediaType(String mediaType);
+
+    // Pages through the mirror, e.g. only the details bodies with "%credits"
+    Slice<CatalogEntry> findByEndpointNotLike(String pattern, Pageable pageable);
+}
@@ -0,0 +1,149 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import com.example.CineMatch.dto.CatalogEntry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * TmdbRepository decorator that answers movie, TV and person detail and
+ * credits endpoints from the local catalog mirror, and only goes to TMDB
+ * for titles the mirror does not have. "?append_to_response=credits" is
+ * put together from the two mirrored bodies.
+ *
+ * If the mirror cannot be read, requests fall back to TMDB.
+ */
+public class CatalogTmdbRepository implements TmdbRepository, MeterBinder {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    // /movie/550, /movie/550/credits, /person/287/movie_credits, /tv/1399?append_to_response=credits
+    private static final Pattern MIRRORED = Pattern.compile(
+            "^/(movie|tv|person)/(\\d+)(?:/(credits|movie_credits))?(?:\\?append_to_response=(credits|movie_credits))?$");
+
+    private final TmdbRepository delegate;
+    private final CatalogEntryRepository entries;
+    private final ObjectMapper objectMapper;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public CatalogTmdbRepository(TmdbRepository delegate, CatalogEntryRepository entries, ObjectMapper objectMapper) {
+        this.delegate = delegate;
+        this.entries = entries;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte[] callBytes(String endpoint) {
+        byte[] mirrored = lookup(endpoint);
+        return mirrored != null ? mirrored : delegate.callBytes(endpoint);
+    }
+
+    @Override
+    public TmdbResponse callConditional(String endpoint, String etag, String lastModified) {
+        byte[] mirrored = lookup(endpoint);
+        return mirrored != null ? TmdbResponse.of(mirrored) : delegate.callConditional(endpoint, etag, lastModified);
+    }
+
+    @Override
+    public Map<String, Object> callMap(String endpoint) {
+        byte[] mirrored = lookup(endpoint);
+        return mirrored != null ? objectMapper.readValue(mirrored, MAP_TYPE) : delegate.callMap(endpoint);
+    }
+
+    private byte[] lookup(String endpoint) {
+        Matcher matcher = MIRRORED.matcher(endpoint);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String part = matcher.group(3);
+        String appended = matcher.group(4);
+        if (part != null && appended != null) {
+            return null;
+        }
+
+        byte[] body;
+        try {
+            if (appended == null) {
+                body = find(endpoint);
+            } else {
+                String base = "/" + matcher.group(1) + "/" + matcher.group(2);
+                body = combine(find(base), find(base + "/" + appended), appended);
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+            System.err.println("Catalog lookup for " + endpoint + " failed: " + e.getMessage());
+            return null;
+        }
+
+        (body != null ? hits : misses).increment();
+        return body;
+    }
+
+    private byte[] find(String endpoint) {
+        return entries.findById(endpoint)
+                .map(CatalogEntry::getBody)
+                .map(body -> body.getBytes(StandardCharsets.UTF_8))
+                .orElse(null);
+    }
+
+    // Same shape TMDB returns for append_to_response: the credits nested under their name
+    private byte[] combine(byte[] details, byte[] credits, String field) {
+        if (details == null || credits == null) {
+            return null;
+        }
+        JsonNode tree = objectMapper.readTree(details);
+        if (!(tree instanceof ObjectNode node)) {
+            return null;
+        }
+        node.set(field, objectMapper.readTree(credits));
+        return objectMapper.writeValueAsBytes(node);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tmdb.catalog.requests", this, CatalogTmdbRepository::getHits)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("tmdb.catalog.requests", this, CatalogTmdbRepository::getMisses)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("tmdb.catalog.requests", this, CatalogTmdbRepository::getFailures)
+                .tag("result", "failed").register(registry);
+    }
+}
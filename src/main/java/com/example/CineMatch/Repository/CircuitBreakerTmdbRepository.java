@@ -0,0 +1,241 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * TmdbRepository decorator that stops calling TMDB while it is failing.
+ *
+ * The outcomes of the last windowSize calls are kept. Once there are at least
+ * minimumCalls of them, the circuit opens if too many failed (5xx, I/O error
+ * or timeout) or too many were slow. Client errors such as 404 count as
+ * successes. While open, every call fails at once with
+ * {@link TmdbUnavailableException}. After openDuration, up to halfOpenProbes
+ * calls are let through as probes. If they all succeed the circuit closes
+ * again; if one fails or is slow it opens again.
+ */
+public class CircuitBreakerTmdbRepository implements TmdbRepository, MeterBinder {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public record Settings(int windowSize, int minimumCalls, double failureRateThreshold,
+                           double slowCallRateThreshold, Duration slowCallDuration,
+                           Duration openDuration, int halfOpenProbes) {}
+
+    private final TmdbRepository delegate;
+    private final Settings settings;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private State state = State.CLOSED;
+    // Ring of the latest outcomes while closed
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int next;
+    private int recorded;
+    private int failed;
+    private int slow;
+    private long openedAt;
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder slowSuccesses = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public CircuitBreakerTmdbRepository(TmdbRepository delegate, Settings settings, Clock clock) {
+        this.delegate = delegate;
+        this.settings = settings;
+        this.clock = clock;
+        this.failedCalls = new boolean[settings.windowSize()];
+        this.slowCalls = new boolean[settings.windowSize()];
+    }
+
+    @Override
+    public byte[] callBytes(String endpoint) {
+        return execute(() -> delegate.callBytes(endpoint));
+    }
+
+    @Override
+    public TmdbResponse callConditional(String endpoint, String etag, String lastModified) {
+        return execute(() -> delegate.callConditional(endpoint, etag, lastModified));
+    }
+
+    @Override
+    public Map<String, Object> callMap(String endpoint) {
+        return execute(() -> delegate.callMap(endpoint));
+    }
+
+    private <T> T execute(Supplier<T> call) {
+        boolean probe = acquirePermission();
+        long start = clock.millis();
+        try {
+            T result = call.get();
+            record(probe, false, clock.millis() - start);
+            return result;
+        } catch (RuntimeException | Error e) {
+            // Errors say nothing about TMDB, but a probe must still hand its slot back
+            record(probe, e instanceof RuntimeException runtime && isFailure(runtime), clock.millis() - start);
+            throw e;
+        }
+    }
+
+    static boolean isFailure(RuntimeException e) {
+        return e instanceof HttpServerErrorException || e instanceof ResourceAccessException;
+    }
+
+    // Returns whether the call is a half-open probe
+    private boolean acquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (clock.millis() - openedAt < settings.openDuration().toMillis()) {
+                    rejected.increment();
+                    throw new TmdbUnavailableException();
+                }
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+                probesSucceeded = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesInFlight >= settings.halfOpenProbes()) {
+                    rejected.increment();
+                    throw new TmdbUnavailableException();
+                }
+                probesInFlight++;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean probe, boolean failedCall, long millis) {
+        boolean slowCall = !failedCall && millis >= settings.slowCallDuration().toMillis();
+        (failedCall ? failures : slowCall ? slowSuccesses : successes).increment();
+
+        lock.lock();
+        try {
+            if (probe) {
+                // Late probes of an already decided round are ignored
+                if (state != State.HALF_OPEN) {
+                    return;
+                }
+                probesInFlight--;
+                if (failedCall || slowCall) {
+                    open();
+                } else if (++probesSucceeded >= settings.halfOpenProbes()) {
+                    close();
+                }
+                return;
+            }
+            // Calls that started before the circuit opened don't count
+            if (state != State.CLOSED) {
+                return;
+            }
+
+            if (recorded == failedCalls.length) {
+                if (failedCalls[next]) failed--;
+                if (slowCalls[next]) slow--;
+            } else {
+                recorded++;
+            }
+            failedCalls[next] = failedCall;
+            slowCalls[next] = slowCall;
+            if (failedCall) failed++;
+            if (slowCall) slow++;
+            next = (next + 1) % failedCalls.length;
+
+            if (recorded >= settings.minimumCalls()
+                    && ((double) failed / recorded >= settings.failureRateThreshold()
+                    || (double) slow / recorded >= settings.slowCallRateThreshold())) {
+                open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller must hold the lock
+    private void open() {
+        System.err.println("TMDB circuit breaker opened (" + failed + " failed, " + slow + " slow of "
+                + recorded + " calls), retrying in " + settings.openDuration());
+        state = State.OPEN;
+        openedAt = clock.millis();
+        opened.increment();
+    }
+
+    // Caller must hold the lock
+    private void close() {
+        System.err.println("TMDB circuit breaker closed");
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failed = 0;
+        slow = 0;
+    }
+
+    // =================================================================
+    // STATS
+    // =================================================================
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getOpened() {
+        return opened.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tmdb.circuit.open", this, repository -> repository.getState() == State.CLOSED ? 0 : 1)
+                .register(registry);
+        FunctionCounter.builder("tmdb.circuit.calls", successes, LongAdder::sum)
+                .tag("result", "success").register(registry);
+        FunctionCounter.builder("tmdb.circuit.calls", slowSuccesses, LongAdder::sum)
+                .tag("result", "slow").register(registry);
+        FunctionCounter.builder("tmdb.circuit.calls", failures, LongAdder::sum)
+                .tag("result", "failure").register(registry);
+        FunctionCounter.builder("tmdb.circuit.calls", rejected, LongAdder::sum)
+                .tag("result", "rejected").register(registry);
+        FunctionCounter.builder("tmdb.circuit.opened", opened, LongAdder::sum)
+                .register(registry);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.io.Serial;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * TmdbRepository decorator that collapses concurrent identical requests
+ * (single-flight). The first caller for a normalized endpoint in a TMDB lane
+ * fetches it, everyone in that lane arriving while the fetch is running waits
+ * for the same result. If the fetching thread is interrupted, the waiters
+ * fetch again themselves instead of failing with it.
+ * Failures are handed to all waiters and are never remembered, so the next
+ * caller tries again. When the shared result was served from an old copy,
+ * every waiter's request is marked stale, not only the fetching one.
+ *
+ * Results handed out by callMap() are shared between callers and must be
+ * treated as read-only.
+ */
+public class CoalescingTmdbRepository implements TmdbRepository, MeterBinder {
+
+    private final TmdbRepository delegate;
+
+    private final ConcurrentHashMap<String, CompletableFuture<TmdbStaleness.Tracked<byte[]>>> inFlightCalls = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<TmdbStaleness.Tracked<Map<String, Object>>>> inFlightMaps = new ConcurrentHashMap<>();
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+
+    public CoalescingTmdbRepository(TmdbRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] callBytes(String endpoint) {
+        return coalesce(inFlightCalls, endpoint, delegate::callBytes);
+    }
+
+    @Override
+    public Map<String, Object> callMap(String endpoint) {
+        return coalesce(inFlightMaps, endpoint, delegate::callMap);
+    }
+
+    private <T> T coalesce(ConcurrentHashMap<String, CompletableFuture<TmdbStaleness.Tracked<T>>> inFlight,
+                           String endpoint,
+                           Function<String, T> fetch) {
+        // Only calls of the same lane share a fetch, so nobody waits out another lane's queue
+        String key = TmdbLane.current() + " " + TmdbEndpoints.normalize(endpoint);
+        while (true) {
+            CompletableFuture<TmdbStaleness.Tracked<T>> mine = new CompletableFuture<>();
+            CompletableFuture<TmdbStaleness.Tracked<T>> existing = inFlight.putIfAbsent(key, mine);
+
+            if (existing != null) {
+                followers.increment();
+                TmdbStaleness.Tracked<T> shared;
+                try {
+                    shared = await(existing);
+                } catch (LeaderInterruptedException e) {
+                    // The leader's caller gave up, not TMDB: fetch again for this one
+                    continue;
+                }
+                if (shared.stale()) {
+                    TmdbStaleness.markStale();
+                }
+                return shared.value();
+            }
+
+            leaders.increment();
+            TmdbStaleness.Tracked<T> result;
+            try {
+                // The leader's own request is marked by whoever fell back to the old copy
+                result = TmdbStaleness.track(() -> fetch.apply(endpoint));
+            } catch (RuntimeException | Error e) {
+                // Out of the map first, so retrying followers do not find this call again
+                inFlight.remove(key, mine);
+                mine.completeExceptionally(Thread.currentThread().isInterrupted()
+                        ? new LeaderInterruptedException(e) : e);
+                throw e;
+            }
+            inFlight.remove(key, mine);
+            mine.complete(result);
+            return result.value();
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // Re-throw what the leader saw, so waiters fail the same way it did
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    // Handed to followers when the leader failed because its own thread was interrupted
+    private static final class LeaderInterruptedException extends RuntimeException {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        LeaderInterruptedException(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    // =================================================================
+    // STATS
+    // =================================================================
+
+    public long getLeaders() {
+        return leaders.sum();
+    }
+
+    public long getFollowers() {
+        return followers.sum();
+    }
+
+    public int getInFlight() {
+        return inFlightCalls.size() + inFlightMaps.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tmdb.coalescing.requests", this, CoalescingTmdbRepository::getLeaders)
+                .tag("role", "leader").register(registry);
+        FunctionCounter.builder("tmdb.coalescing.requests", this, CoalescingTmdbRepository::getFollowers)
+                .tag("role", "follower").register(registry);
+        Gauge.builder("tmdb.coalescing.in-flight", this, CoalescingTmdbRepository::getInFlight)
+                .register(registry);
+    }
+}
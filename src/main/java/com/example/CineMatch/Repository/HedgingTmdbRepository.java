@@ -0,0 +1,245 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * TmdbRepository decorator that sends a second, identical request when the
+ * first has not answered within the current latency percentile (hedging).
+ * Whichever succeeds first is returned and the other is cancelled. All TMDB
+ * calls are idempotent GETs, so the duplicate is harmless.
+ *
+ * The delay comes from the latencies of recent successful attempts and is
+ * kept between minDelay and maxDelay. Until enough of them have been seen no
+ * request is hedged. Every call earns budgetPercent / 100 of a hedge and
+ * every hedge spends one, so hedges never add more than budgetPercent
+ * percent of extra load.
+ */
+public class HedgingTmdbRepository implements TmdbRepository, MeterBinder {
+
+    private static final int SAMPLES = 512;
+    private static final int MIN_SAMPLES = 50;
+    // The delay is recomputed after this many new samples
+    private static final int RECOMPUTE_EVERY = 64;
+    // Unused budget is capped so a quiet period can't fund a burst of hedges
+    private static final double MAX_SAVED_HEDGES = 10;
+
+    private final TmdbRepository delegate;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final double budgetPerCall;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] samples = new long[SAMPLES];
+    private int next;
+    private int recorded;
+    private int sinceRecompute;
+    private volatile long delayNanos = -1;
+    private double budget;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder overBudget = new LongAdder();
+
+    public HedgingTmdbRepository(TmdbRepository delegate, double percentile, Duration minDelay,
+                                 Duration maxDelay, double budgetPercent) {
+        this.delegate = delegate;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.budgetPerCall = budgetPercent / 100;
+    }
+
+    @Override
+    public byte[] callBytes(String endpoint) {
+        return execute(() -> delegate.callBytes(endpoint));
+    }
+
+    @Override
+    public TmdbResponse callConditional(String endpoint, String etag, String lastModified) {
+        return execute(() -> delegate.callConditional(endpoint, etag, lastModified));
+    }
+
+    @Override
+    public Map<String, Object> callMap(String endpoint) {
+        return execute(() -> delegate.callMap(endpoint));
+    }
+
+    private <T> T execute(Supplier<T> call) {
+        calls.increment();
+        earnBudget();
+
+        long delay = delayNanos;
+        if (delay < 0) {
+            long start = System.nanoTime();
+            T result = call.get();
+            record(System.nanoTime() - start);
+            return result;
+        }
+
+        CompletionService<T> attempts = new ExecutorCompletionService<>(executor);
+        Future<T> primary = attempts.submit(timed(call));
+        Future<T> hedge = null;
+        try {
+            Future<T> done = attempts.poll(delay, TimeUnit.NANOSECONDS);
+            if (done == null) {
+                if (spendBudget()) {
+                    hedged.increment();
+                    hedge = attempts.submit(timed(call));
+                } else {
+                    overBudget.increment();
+                }
+            }
+
+            int pending = hedge == null ? 1 : 2;
+            ExecutionException failure = null;
+            while (pending-- > 0) {
+                Future<T> finished = done != null ? done : attempts.take();
+                done = null;
+                try {
+                    T result = finished.get();
+                    if (finished == hedge) {
+                        hedgeWins.increment();
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    // The other attempt may still succeed
+                    failure = e;
+                }
+            }
+            throw unwrap(failure);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for TMDB");
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    private <T> Callable<T> timed(Supplier<T> call) {
+        return () -> {
+            long start = System.nanoTime();
+            T result = call.get();
+            record(System.nanoTime() - start);
+            return result;
+        };
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtime) return runtime;
+        if (cause instanceof Error fatal) throw fatal;
+        return new IllegalStateException(cause);
+    }
+
+    // =================================================================
+    // DELAY AND BUDGET
+    // =================================================================
+
+    private void record(long nanos) {
+        lock.lock();
+        try {
+            samples[next] = nanos;
+            next = (next + 1) % SAMPLES;
+            recorded = Math.min(recorded + 1, SAMPLES);
+            if (recorded >= MIN_SAMPLES && (delayNanos < 0 || ++sinceRecompute >= RECOMPUTE_EVERY)) {
+                long[] sorted = Arrays.copyOf(samples, recorded);
+                Arrays.sort(sorted);
+                long at = sorted[Math.min(recorded - 1, (int) Math.ceil(percentile * recorded) - 1)];
+                delayNanos = Math.clamp(at, minDelayNanos, maxDelayNanos);
+                sinceRecompute = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void earnBudget() {
+        lock.lock();
+        try {
+            budget = Math.min(MAX_SAVED_HEDGES, budget + budgetPerCall);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean spendBudget() {
+        lock.lock();
+        try {
+            if (budget < 1) {
+                return false;
+            }
+            budget -= 1;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // =================================================================
+    // STATS
+    // =================================================================
+
+    public Duration getDelay() {
+        long delay = delayNanos;
+        return delay < 0 ? null : Duration.ofNanos(delay);
+    }
+
+    public long getHedged() {
+        return hedged.sum();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    public long getOverBudget() {
+        return overBudget.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tmdb.hedging.calls", calls, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("tmdb.hedging.hedges", hedged, LongAdder::sum)
+                .tag("result", "sent").register(registry);
+        FunctionCounter.builder("tmdb.hedging.hedges", hedgeWins, LongAdder::sum)
+                .tag("result", "won").register(registry);
+        FunctionCounter.builder("tmdb.hedging.hedges", overBudget, LongAdder::sum)
+                .tag("result", "over-budget").register(registry);
+        Gauge.builder("tmdb.hedging.delay", this, repository -> Math.max(0, repository.delayNanos) / 1e6)
+                .baseUnit("milliseconds").register(registry);
+    }
+}
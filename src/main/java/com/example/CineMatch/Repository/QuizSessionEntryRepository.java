@@ -0,0 +1,39 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import com.example.CineMatch.dto.QuizSessionEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface QuizSessionEntryRepository extends JpaRepository<QuizSessionEntry, String> {
+
+    // How many rows this call deleted: 0 when another replica got there first
+    @Modifying
+    @Transactional
+    @Query("delete from QuizSessionEntry e where e.sessionId = :sessionId")
+    int deleteReturningCount(@Param("sessionId") String sessionId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from QuizSessionEntry e where e.expiresAt < :cutoff")
+    int deleteExpired(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,49 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import com.example.CineMatch.dto.RankedScore;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface RankedScoreRepository extends JpaRepository<RankedScore, Long> {
+
+    // Another row of the same user ranks above r: higher score, then earlier (as RankedSkipList orders them)
+    String BEATEN = "select 1 from RankedScore b where b.userId = r.userId and (b.score > r.score"
+            + " or (b.score = r.score and (b.achievedAt < r.achievedAt"
+            + " or (b.achievedAt = r.achievedAt and b.id < r.id))))";
+
+    // Each user's best score, keyset paged for the startup rebuild
+    @Query("select r from RankedScore r where r.id > :id and not exists (" + BEATEN + ") order by r.id")
+    Slice<RankedScore> findBestPerUser(@Param("id") long id, Pageable pageable);
+
+    // Every score since the start of the current week, keyset paged for the startup rebuild
+    Slice<RankedScore> findByAchievedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+            Instant since, long id, Pageable pageable);
+
+    // Older scores that are not their user's best: no window ranks them any more
+    @Modifying
+    @Transactional
+    @Query("delete from RankedScore r where r.achievedAt < :before and exists (" + BEATEN + ")")
+    int deleteBeatenBefore(@Param("before") Instant before);
+}
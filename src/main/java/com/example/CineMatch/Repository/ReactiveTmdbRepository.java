@@ -0,0 +1,24 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link TmdbRepository}, used by the "reactive"
+ * profile. The Mono completes with the raw UTF-8 response body.
+ */
+public interface ReactiveTmdbRepository {
+    Mono<byte[]> callBytes(String endpoint);
+}
@@ -0,0 +1,51 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+
+@Component
+@Profile("reactive")
+public class ReactiveTmdbRepositoryImpl implements ReactiveTmdbRepository {
+    private static final String API_KEY = System.getenv("TMDB_API_KEY");
+    private static final String TMDB = "https://api.themoviedb.org/3";
+
+    // Details with appended credits can go past the 256 KB default buffer
+    private static final int MAX_BODY_BYTES = 4 * 1024 * 1024;
+
+    private final WebClient webClient;
+
+    public ReactiveTmdbRepositoryImpl(HttpClient httpClient) {
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_BODY_BYTES))
+                .build();
+    }
+
+    @Override
+    public Mono<byte[]> callBytes(String endpoint) {
+        String url = TMDB + endpoint + (endpoint.contains("?") ? "&" : "?") + "api_key=" + API_KEY;
+        return webClient.get()
+                .uri(URI.create(url))
+                .retrieve()
+                .bodyToMono(byte[].class);
+    }
+}
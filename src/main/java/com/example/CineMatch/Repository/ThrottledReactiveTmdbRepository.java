@@ -0,0 +1,68 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+/**
+ * ReactiveTmdbRepository decorator that takes its tokens from the blocking
+ * stack's {@link ThrottledTmdbRepository}, so both stacks together stay
+ * inside the one TMDB quota. Reactive calls queue in the INTERACTIVE lane.
+ * Waiting for a token parks a virtual thread, never an event loop thread;
+ * the call itself stays non-blocking. A 429 pauses every lane, as it does
+ * for blocking calls, and the call is retried.
+ */
+public class ThrottledReactiveTmdbRepository implements ReactiveTmdbRepository {
+
+    private static final int MAX_RATE_LIMIT_RETRIES = 2;
+
+    private static final Scheduler PERMITS =
+            Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "tmdb-permits");
+
+    private final ReactiveTmdbRepository delegate;
+    private final ThrottledTmdbRepository throttle;
+
+    public ThrottledReactiveTmdbRepository(ReactiveTmdbRepository delegate, ThrottledTmdbRepository throttle) {
+        this.delegate = delegate;
+        this.throttle = throttle;
+    }
+
+    @Override
+    public Mono<byte[]> callBytes(String endpoint) {
+        return Mono.defer(() -> attempt(endpoint, throttle.deadlineFor(TmdbLane.INTERACTIVE), 0));
+    }
+
+    private Mono<byte[]> attempt(String endpoint, long deadline, int attempt) {
+        return Mono.fromRunnable(() -> throttle.acquire(TmdbLane.INTERACTIVE, deadline))
+                .subscribeOn(PERMITS)
+                .then(Mono.defer(() -> delegate.callBytes(endpoint)))
+                .onErrorResume(WebClientResponseException.TooManyRequests.class, e -> {
+                    throttle.rateLimited(TmdbLane.INTERACTIVE,
+                            ThrottledTmdbRepository.retryAfter(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)));
+                    if (attempt >= MAX_RATE_LIMIT_RETRIES) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                                "TMDB rate limit reached", e));
+                    }
+                    return attempt(endpoint, deadline, attempt + 1);
+                });
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * TmdbRepository decorator that keeps us inside the TMDB quota. Calls take a
+ * token from a token bucket. When none is left they queue in their
+ * {@link TmdbLane}, and freed tokens always go to the most important
+ * non-empty lane first. Each lane has a bounded queue and a maximum wait;
+ * a caller that cannot get a slot in time gets a 503 instead of waiting on.
+ *
+ * A 429 from TMDB pauses all lanes for the Retry-After period, and the call
+ * is then retried. {@link ThrottledReactiveTmdbRepository} takes its tokens
+ * from the same bucket, so the reactive stack shares the quota.
+ */
+public class ThrottledTmdbRepository implements TmdbRepository, MeterBinder {
+
+    public record LaneLimits(int queueCapacity, Duration maxWait) {}
+
+    private static final int MAX_RATE_LIMIT_RETRIES = 2;
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_AFTER = Duration.ofMinutes(1);
+    // Waiters re-check at least this often
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final class Waiter {
+        boolean granted;
+    }
+
+    private static final class LaneStats {
+        final LongAdder granted = new LongAdder();
+        final LongAdder queueFull = new LongAdder();
+        final LongAdder expired = new LongAdder();
+        final LongAdder rateLimited = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+    }
+
+    private final TmdbRepository delegate;
+    private final double tokensPerNano;
+    private final double burst;
+    private final Map<TmdbLane, LaneLimits> limits;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final EnumMap<TmdbLane, ArrayDeque<Waiter>> queues = new EnumMap<>(TmdbLane.class);
+    private final EnumMap<TmdbLane, LaneStats> stats = new EnumMap<>(TmdbLane.class);
+    private double tokens;
+    private long refilledAt;
+    private long pausedUntil;
+
+    public ThrottledTmdbRepository(TmdbRepository delegate, double requestsPerSecond, int burst,
+                                   Map<TmdbLane, LaneLimits> limits) {
+        this.delegate = delegate;
+        this.tokensPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.limits = new EnumMap<>(limits);
+        this.tokens = burst;
+        this.refilledAt = System.nanoTime();
+        this.pausedUntil = refilledAt;
+        for (TmdbLane lane : TmdbLane.values()) {
+            queues.put(lane, new ArrayDeque<>());
+            stats.put(lane, new LaneStats());
+        }
+    }
+
+    @Override
+    public byte[] callBytes(String endpoint) {
+        return execute(() -> delegate.callBytes(endpoint));
+    }
+
+    @Override
+    public TmdbResponse callConditional(String endpoint, String etag, String lastModified) {
+        return execute(() -> delegate.callConditional(endpoint, etag, lastModified));
+    }
+
+    @Override
+    public Map<String, Object> callMap(String endpoint) {
+        return execute(() -> delegate.callMap(endpoint));
+    }
+
+    private <T> T execute(Supplier<T> call) {
+        TmdbLane lane = TmdbLane.current();
+        long deadline = deadlineFor(lane);
+        for (int attempt = 0; ; attempt++) {
+            acquire(lane, deadline);
+            try {
+                return call.get();
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                rateLimited(lane, retryAfter(e));
+                if (attempt >= MAX_RATE_LIMIT_RETRIES) {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "TMDB rate limit reached", e);
+                }
+            }
+        }
+    }
+
+    long deadlineFor(TmdbLane lane) {
+        return System.nanoTime() + limits.get(lane).maxWait().toNanos();
+    }
+
+    // A 429: counted, and every lane waits out the Retry-After
+    void rateLimited(TmdbLane lane, Duration retryAfter) {
+        stats.get(lane).rateLimited.increment();
+        pause(retryAfter);
+    }
+
+    // =================================================================
+    // SCHEDULING
+    // =================================================================
+
+    // Blocks until the lane is granted a token, or fails with 503
+    void acquire(TmdbLane lane, long deadline) {
+        LaneStats laneStats = stats.get(lane);
+        long start = System.nanoTime();
+
+        lock.lock();
+        try {
+            ArrayDeque<Waiter> queue = queues.get(lane);
+            if (queue.size() >= limits.get(lane).queueCapacity()) {
+                laneStats.queueFull.increment();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many TMDB requests queued");
+            }
+
+            Waiter waiter = new Waiter();
+            queue.addLast(waiter);
+            dispatch(start);
+            while (!waiter.granted) {
+                long now = System.nanoTime();
+                if (now >= deadline) {
+                    queue.remove(waiter);
+                    laneStats.expired.increment();
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                            "Timed out waiting for a TMDB request slot");
+                }
+                try {
+                    changed.awaitNanos(Math.min(deadline - now, nanosUntilNextGrant(now)));
+                } catch (InterruptedException e) {
+                    queue.remove(waiter);
+                    Thread.currentThread().interrupt();
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                            "Interrupted while waiting for a TMDB request slot");
+                }
+                if (!waiter.granted) {
+                    dispatch(System.nanoTime());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        laneStats.granted.increment();
+        laneStats.waitNanos.add(System.nanoTime() - start);
+    }
+
+    // Caller must hold the lock. Hands out whole tokens, most important lane first.
+    private void dispatch(long now) {
+        tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (now < pausedUntil) {
+            return;
+        }
+
+        boolean granted = false;
+        while (tokens >= 1) {
+            Waiter next = null;
+            for (TmdbLane lane : TmdbLane.values()) {
+                next = queues.get(lane).pollFirst();
+                if (next != null) {
+                    break;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            next.granted = true;
+            tokens -= 1;
+            granted = true;
+        }
+        if (granted) {
+            changed.signalAll();
+        }
+    }
+
+    // Caller must hold the lock
+    private long nanosUntilNextGrant(long now) {
+        long untilToken = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+        return Math.max(Math.max(untilToken, pausedUntil - now), MIN_PARK_NANOS);
+    }
+
+    private void pause(Duration duration) {
+        lock.lock();
+        try {
+            pausedUntil = Math.max(pausedUntil, System.nanoTime() + duration.toNanos());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static Duration retryAfter(HttpClientErrorException e) {
+        HttpHeaders headers = e.getResponseHeaders();
+        return retryAfter(headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    /* Retry-After is either delta-seconds or an HTTP date */
+    static Duration retryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT_RETRY_AFTER;
+        }
+
+        Duration delay;
+        try {
+            delay = Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException notSeconds) {
+            try {
+                ZonedDateTime until = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                delay = Duration.between(ZonedDateTime.now(until.getZone()), until);
+            } catch (DateTimeParseException notDate) {
+                return DEFAULT_RETRY_AFTER;
+            }
+        }
+        if (delay.isNegative()) {
+            return Duration.ZERO;
+        }
+        return delay.compareTo(MAX_RETRY_AFTER) > 0 ? MAX_RETRY_AFTER : delay;
+    }
+
+    // =================================================================
+    // STATS
+    // =================================================================
+
+    public int getQueueDepth(TmdbLane lane) {
+        lock.lock();
+        try {
+            return queues.get(lane).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Share of the burst that could be spent right now, 0 while paused by a
+     * Retry-After. Background work can use it to hold back when quota is short.
+     */
+    public double getHeadroom() {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            dispatch(now);
+            return now < pausedUntil ? 0 : tokens / burst;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getGranted(TmdbLane lane) {
+        return stats.get(lane).granted.sum();
+    }
+
+    public long getRejected(TmdbLane lane) {
+        return stats.get(lane).queueFull.sum() + stats.get(lane).expired.sum();
+    }
+
+    public long getRateLimited(TmdbLane lane) {
+        return stats.get(lane).rateLimited.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (TmdbLane lane : TmdbLane.values()) {
+            String tag = lane.name().toLowerCase(Locale.ROOT);
+            LaneStats laneStats = stats.get(lane);
+
+            Gauge.builder("tmdb.throttle.queue", this, repository -> repository.getQueueDepth(lane))
+                    .tag("lane", tag).register(registry);
+            FunctionTimer.builder("tmdb.throttle.wait", laneStats,
+                            s -> s.granted.sum(), s -> s.waitNanos.sum(), TimeUnit.NANOSECONDS)
+                    .tag("lane", tag).register(registry);
+            FunctionCounter.builder("tmdb.throttle.rejections", laneStats, s -> s.queueFull.sum())
+                    .tag("lane", tag).tag("reason", "queue-full").register(registry);
+            FunctionCounter.builder("tmdb.throttle.rejections", laneStats, s -> s.expired.sum())
+                    .tag("lane", tag).tag("reason", "deadline").register(registry);
+            FunctionCounter.builder("tmdb.throttle.rate-limited", laneStats, s -> s.rateLimited.sum())
+                    .tag("lane", tag).register(registry);
+        }
+    }
+}
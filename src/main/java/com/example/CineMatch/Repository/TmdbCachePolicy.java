@@ -0,0 +1,53 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Decides how long a TMDB response may be cached, based on the endpoint it came from.
+ * A zero TTL means "do not cache".
+ */
+public class TmdbCachePolicy {
+
+    private static final Pattern CREDITS = Pattern.compile("^/(movie|tv|person)/\\d+/(credits|movie_credits)(\\?.*)?$");
+    private static final Pattern DETAILS = Pattern.compile("^/(movie|tv|person)/\\d+(\\?.*)?$");
+
+    private final Duration trending;
+    private final Duration discover;
+    private final Duration search;
+    private final Duration details;
+    private final Duration credits;
+    private final Duration fallback;
+
+    public TmdbCachePolicy(Duration trending, Duration discover, Duration search,
+                           Duration details, Duration credits, Duration fallback) {
+        this.trending = trending;
+        this.discover = discover;
+        this.search = search;
+        this.details = details;
+        this.credits = credits;
+        this.fallback = fallback;
+    }
+
+    public Duration ttlFor(String endpoint) {
+        if (endpoint.startsWith("/trending/")) return trending;
+        if (endpoint.startsWith("/discover/")) return discover;
+        if (endpoint.startsWith("/search/")) return search;
+        if (CREDITS.matcher(endpoint).matches()) return credits;
+        if (DETAILS.matcher(endpoint).matches()) return details;
+        return fallback;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers for TMDB endpoint strings ("/path?key=value&...").
+ * Endpoints go upstream as-is, so every query value in them must be encoded.
+ */
+public final class TmdbEndpoints {
+
+    private TmdbEndpoints() {
+    }
+
+    /**
+     * Percent-encodes a query value, with spaces as %20.
+     */
+    public static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    /**
+     * Returns a key that is equal for endpoints which only differ in query
+     * parameter order or in empty/trailing separators.
+     */
+    public static String normalize(String endpoint) {
+        int q = endpoint.indexOf('?');
+        if (q < 0) {
+            return endpoint;
+        }
+
+        String query = Arrays.stream(endpoint.substring(q + 1).split("&"))
+                .filter(param -> !param.isEmpty())
+                .sorted()
+                .collect(Collectors.joining("&"));
+
+        String path = endpoint.substring(0, q);
+        return query.isEmpty() ? path : path + "?" + query;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import java.util.function.Supplier;
+
+/**
+ * Priority lanes for TMDB calls, most important first. The lane is taken
+ * from the calling thread, so background work marks itself with run/call
+ * and everything else counts as INTERACTIVE.
+ */
+public enum TmdbLane {
+    INTERACTIVE,
+    PREFETCH,
+    SYNC;
+
+    private static final ThreadLocal<TmdbLane> CURRENT = ThreadLocal.withInitial(() -> INTERACTIVE);
+
+    public static TmdbLane current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T call(TmdbLane lane, Supplier<T> task) {
+        TmdbLane previous = CURRENT.get();
+        CURRENT.set(lane);
+        try {
+            return task.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static void run(TmdbLane lane, Runnable task) {
+        call(lane, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
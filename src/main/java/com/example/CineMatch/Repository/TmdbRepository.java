@@ -13,9 +13,21 @@
  * If not, see <https://www.gnu.org/licenses/>.
  */package com.example.CineMatch.Repository;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 public interface TmdbRepository {
-    String call(String endpoint);
+    // Raw UTF-8 response body, meant to be handed straight to Jackson
+    byte[] callBytes(String endpoint);
     Map<String, Object> callMap(String endpoint);
+
+    // Conditional GET; repositories that can't send one just fetch the full body
+    default TmdbResponse callConditional(String endpoint, String etag, String lastModified) {
+        return TmdbResponse.of(callBytes(endpoint));
+    }
+
+    default String call(String endpoint) {
+        byte[] body = callBytes(endpoint);
+        return body == null ? null : new String(body, StandardCharsets.UTF_8);
+    }
 }
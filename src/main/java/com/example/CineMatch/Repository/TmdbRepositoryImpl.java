@@ -12,27 +12,57 @@
  *
  * If not, see <https://www.gnu.org/licenses/>.
  */package com.example.CineMatch.Repository;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
 import java.util.Map;
 
+/**
+ * Endpoints are sent exactly as given, so query values must already be
+ * encoded (see {@link TmdbEndpoints#encode}).
+ */
 @Component
 public class TmdbRepositoryImpl implements TmdbRepository {
     private static final String API_KEY = System.getenv("TMDB_API_KEY");
     private static final String TMDB = "https://api.themoviedb.org/3";
 
-    private final RestTemplate rest = new RestTemplate();
+    private final RestTemplate rest;
+
+    public TmdbRepositoryImpl(RestTemplate rest) {
+        this.rest = rest;
+    }
 
     @Override
-    public String call(String endpoint) {
+    public byte[] callBytes(String endpoint) {
+        return callConditional(endpoint, null, null).body();
+    }
+
+    @Override
+    public TmdbResponse callConditional(String endpoint, String etag, String lastModified) {
         String url = TMDB + endpoint + (endpoint.contains("?") ? "&" : "?") + "api_key=" + API_KEY;
-        return rest.getForObject(url, String.class);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (etag != null) headers.setIfNoneMatch(etag);
+        if (lastModified != null) headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+
+        ResponseEntity<byte[]> response = rest.exchange(URI.create(url), HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+        return new TmdbResponse(
+                response.getBody(),
+                response.getHeaders().getETag(),
+                response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED),
+                response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)
+        );
     }
 
     @Override
     public Map<String, Object> callMap(String endpoint) {
         String url = TMDB + endpoint + (endpoint.contains("?") ? "&" : "?") + "api_key=" + API_KEY;
-        return rest.getForObject(url, Map.class);
+        return rest.getForObject(URI.create(url), Map.class);
     }
 }
\ No newline at end of file
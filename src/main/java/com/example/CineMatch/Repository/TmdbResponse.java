@@ -0,0 +1,25 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+/**
+ * One TMDB response together with its cache validators. A 304 answer to a
+ * conditional request has no body and notModified set.
+ */
+public record TmdbResponse(byte[] body, String etag, String lastModified, boolean notModified) {
+
+    public static TmdbResponse of(byte[] body) {
+        return new TmdbResponse(body, null, null, false);
+    }
+}
@@ -0,0 +1,527 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Two-tier cache for raw TMDB response bodies.
+ * The memory tier is an LRU bounded by entry count and total bytes.
+ * The optional disk tier keeps one file per key so entries survive a restart.
+ * It is swept on start(), then every diskSweepInterval or as soon as it
+ * grows past diskMaxBytes: entries past retainStale and abandoned temp files
+ * are deleted, then the least recently used files until the tier fits in
+ * diskMaxBytes again.
+ *
+ * Expired entries are kept for a further retainStale period together with
+ * their ETag / Last-Modified, so they can still be served stale or
+ * revalidated with a cheap conditional request.
+ */
+public class TmdbResponseCache implements MeterBinder {
+
+    /**
+     * A cached body with its validators. fetchMillis is how long the upstream
+     * call took, used to decide on early refreshes.
+     */
+    public record Entry(byte[] body, String etag, String lastModified, long expiresAt, long fetchMillis) {
+        public boolean isFresh(long now) {
+            return now < expiresAt;
+        }
+    }
+
+    // Marks the current disk format, files without it are ignored
+    private static final int DISK_FORMAT = 0x544D4402;
+
+    public static final long DEFAULT_DISK_MAX_BYTES = 512L * 1024 * 1024;
+    public static final Duration DEFAULT_DISK_SWEEP_INTERVAL = Duration.ofMinutes(10);
+
+    // Temp files older than this belong to a write that never finished
+    private static final long ABANDONED_TMP_MILLIS = Duration.ofMinutes(5).toMillis();
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Path diskDir;
+    private final long diskMaxBytes;
+    private final long diskSweepIntervalMillis;
+    private final long retainStaleMillis;
+    private final Clock clock;
+
+    // Access-ordered, so iteration starts from the least recently used entry
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long memoryBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Disk usage, adjusted by every write and delete rather than reset from a directory scan
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final AtomicLong nextSweep = new AtomicLong();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final LongAdder diskEvictions = new LongAdder();
+
+    public TmdbResponseCache(int maxEntries, long maxBytes, Path diskDir) {
+        this(maxEntries, maxBytes, diskDir, Duration.ZERO, Clock.systemUTC());
+    }
+
+    public TmdbResponseCache(int maxEntries, long maxBytes, Path diskDir, Clock clock) {
+        this(maxEntries, maxBytes, diskDir, Duration.ZERO, clock);
+    }
+
+    public TmdbResponseCache(int maxEntries, long maxBytes, Path diskDir, Duration retainStale, Clock clock) {
+        this(maxEntries, maxBytes, diskDir, DEFAULT_DISK_MAX_BYTES, DEFAULT_DISK_SWEEP_INTERVAL, retainStale, clock);
+    }
+
+    public TmdbResponseCache(int maxEntries, long maxBytes, Path diskDir, long diskMaxBytes,
+                             Duration diskSweepInterval, Duration retainStale, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.diskDir = diskDir;
+        this.diskMaxBytes = diskMaxBytes;
+        this.diskSweepIntervalMillis = diskSweepInterval.toMillis();
+        this.retainStaleMillis = retainStale.toMillis();
+        this.clock = clock;
+
+        if (diskDir != null) {
+            try {
+                Files.createDirectories(diskDir);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create TMDB cache directory " + diskDir, e);
+            }
+        }
+    }
+
+    /**
+     * Counts and sweeps whatever an earlier run left in the disk tier. Runs
+     * before the cache is handed out, so nothing is added to it meanwhile.
+     */
+    @PostConstruct
+    public void start() {
+        if (diskDir != null) {
+            sweepDisk(true);
+        }
+    }
+
+    /**
+     * Returns the body only while the entry is fresh.
+     */
+    public byte[] get(String key) {
+        Entry entry = lookup(key);
+        return entry != null && entry.isFresh(clock.millis()) ? entry.body() : null;
+    }
+
+    /**
+     * Returns the entry while it is fresh or still within the retainStale
+     * period after expiry; the caller decides what to do with a stale one.
+     */
+    public Entry lookup(String key) {
+        long now = clock.millis();
+
+        lock.lock();
+        try {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                if (isRetained(entry, now)) {
+                    (entry.isFresh(now) ? hits : staleHits).increment();
+                    return entry;
+                }
+                remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Entry fromDisk = readFromDisk(key, now);
+        if (fromDisk != null) {
+            diskHits.increment();
+            putInMemory(key, fromDisk);
+            return fromDisk;
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    public void put(String key, byte[] body, Duration ttl) {
+        put(key, body, null, null, ttl, 0);
+    }
+
+    public void put(String key, byte[] body, String etag, String lastModified, Duration ttl, long fetchMillis) {
+        Entry entry = new Entry(body, etag, lastModified, clock.millis() + ttl.toMillis(), fetchMillis);
+        putInMemory(key, entry);
+        writeToDisk(key, entry);
+    }
+
+    public void invalidate(String key) {
+        lock.lock();
+        try {
+            remove(key);
+        } finally {
+            lock.unlock();
+        }
+        if (diskDir != null) {
+            try {
+                deleteFromDisk(fileFor(key));
+            } catch (IOException ignored) {
+                // A leftover file is harmless: it is checked for expiry on read
+            }
+        }
+    }
+
+    // Expiry times are on this clock
+    long currentTimeMillis() {
+        return clock.millis();
+    }
+
+    public boolean isDiskBacked() {
+        return diskDir != null;
+    }
+
+    // =================================================================
+    // MEMORY TIER
+    // =================================================================
+
+    private boolean isRetained(Entry entry, long now) {
+        return now < entry.expiresAt() + retainStaleMillis;
+    }
+
+    private void putInMemory(String key, Entry entry) {
+        if (entry.body().length > maxBytes) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            remove(key);
+            memory.put(key, entry);
+            memoryBytes += entry.body().length;
+
+            Iterator<Map.Entry<String, Entry>> eldest = memory.entrySet().iterator();
+            while ((memory.size() > maxEntries || memoryBytes > maxBytes) && eldest.hasNext()) {
+                Map.Entry<String, Entry> victim = eldest.next();
+                memoryBytes -= victim.getValue().body().length;
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller must hold the lock
+    private void remove(String key) {
+        Entry previous = memory.remove(key);
+        if (previous != null) {
+            memoryBytes -= previous.body().length;
+        }
+    }
+
+    // =================================================================
+    // DISK TIER
+    // =================================================================
+
+    private Entry readFromDisk(String key, long now) {
+        if (diskDir == null) {
+            return null;
+        }
+
+        Path file = fileFor(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != DISK_FORMAT || !key.equals(in.readUTF())) {
+                return null;
+            }
+            long expiresAt = in.readLong();
+            long fetchMillis = in.readLong();
+            if (now >= expiresAt + retainStaleMillis) {
+                deleteFromDisk(file);
+                return null;
+            }
+            String etag = in.readUTF();
+            String lastModified = in.readUTF();
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            markUsed(file);
+            return new Entry(body, etag.isEmpty() ? null : etag,
+                    lastModified.isEmpty() ? null : lastModified, expiresAt, fetchMillis);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // The modification time doubles as the last use, for the LRU order of the sweep
+    private static void markUsed(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // Only makes the file look older to the sweep
+        }
+    }
+
+    private void writeToDisk(String key, Entry entry) {
+        if (diskDir == null) {
+            return;
+        }
+
+        Path file = fileFor(key);
+        Path tmp = null;
+        long written;
+        long replaced;
+        try {
+            tmp = Files.createTempFile(diskDir, "tmdb", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(DISK_FORMAT);
+                out.writeUTF(key);
+                out.writeLong(entry.expiresAt());
+                out.writeLong(entry.fetchMillis());
+                out.writeUTF(entry.etag() == null ? "" : entry.etag());
+                out.writeUTF(entry.lastModified() == null ? "" : entry.lastModified());
+                out.writeInt(entry.body().length);
+                out.write(entry.body());
+                written = out.size();
+            }
+            replaced = sizeOnDisk(file);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error writing TMDB cache entry to disk: " + e.getMessage());
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // Removed by the next sweep once it is old enough
+                }
+            }
+            return;
+        }
+
+        diskBytes.addAndGet(written - replaced);
+        maybeSweepDisk();
+    }
+
+    // At most one sweep at a time, in the background, when due or over the byte cap
+    private void maybeSweepDisk() {
+        long now = clock.millis();
+        if ((now < nextSweep.get() && diskBytes.get() <= diskMaxBytes) || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("tmdb-cache-sweep").start(() -> {
+            try {
+                sweepDisk();
+            } finally {
+                sweeping.set(false);
+            }
+        });
+    }
+
+    private static long sizeOnDisk(Path file) throws IOException {
+        try {
+            return Files.size(file);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    // Deletes an entry file and takes its size off the disk usage
+    private boolean deleteFromDisk(Path file) throws IOException {
+        long size = sizeOnDisk(file);
+        if (!Files.deleteIfExists(file)) {
+            return false;
+        }
+        diskBytes.addAndGet(-size);
+        return true;
+    }
+
+    private record DiskFile(Path path, long lastUsed) {}
+
+    /*
+     * Deletes entries past retainStale, unreadable files and abandoned temp
+     * files, then the least recently used entries until the tier fits in
+     * diskMaxBytes. File ages are wall-clock, entry expiry is on the clock.
+     * Writes go on meanwhile, so the usage is only ever adjusted by what the
+     * sweep deleted; the first sweep also counts the files it finds.
+     */
+    void sweepDisk() {
+        sweepDisk(false);
+    }
+
+    private void sweepDisk(boolean countExisting) {
+        long now = clock.millis();
+        nextSweep.set(now + diskSweepIntervalMillis);
+
+        List<DiskFile> kept = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(diskDir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    long lastUsed = attributes.lastModifiedTime().toMillis();
+                    if (name.endsWith(".tmp")) {
+                        if (System.currentTimeMillis() - lastUsed > ABANDONED_TMP_MILLIS) {
+                            Files.deleteIfExists(file);
+                        }
+                    } else if (name.endsWith(".bin")) {
+                        if (countExisting) {
+                            diskBytes.addAndGet(attributes.size());
+                        }
+                        if (isRetainedOnDisk(file, now)) {
+                            kept.add(new DiskFile(file, lastUsed));
+                        } else if (deleteFromDisk(file)) {
+                            diskEvictions.increment();
+                        }
+                    }
+                } catch (IOException e) {
+                    // Replaced or deleted while sweeping: the next sweep sees it again
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Sweeping TMDB cache directory " + diskDir + " failed: " + e.getMessage());
+            return;
+        }
+
+        kept.sort(Comparator.comparingLong(DiskFile::lastUsed));
+        for (Iterator<DiskFile> oldest = kept.iterator(); diskBytes.get() > diskMaxBytes && oldest.hasNext(); ) {
+            DiskFile victim = oldest.next();
+            try {
+                if (deleteFromDisk(victim.path())) {
+                    diskEvictions.increment();
+                }
+            } catch (IOException e) {
+                System.err.println("Evicting TMDB cache file " + victim.path() + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Only the header is read: format, key and expiry
+    private boolean isRetainedOnDisk(Path file, long now) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != DISK_FORMAT) {
+                return false;
+            }
+            in.readUTF();
+            return now < in.readLong() + retainStaleMillis;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private Path fileFor(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return diskDir.resolve(HexFormat.of().formatHex(digest) + ".bin");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // =================================================================
+    // STATS
+    // =================================================================
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    public long getDiskHits() {
+        return diskHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getDiskEvictions() {
+        return diskEvictions.sum();
+    }
+
+    public long getDiskBytes() {
+        return diskBytes.get();
+    }
+
+    public int getSize() {
+        lock.lock();
+        try {
+            return memory.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBytes() {
+        lock.lock();
+        try {
+            return memoryBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tmdb.cache.requests", this, TmdbResponseCache::getHits)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("tmdb.cache.requests", this, TmdbResponseCache::getStaleHits)
+                .tag("result", "stale").register(registry);
+        FunctionCounter.builder("tmdb.cache.requests", this, TmdbResponseCache::getDiskHits)
+                .tag("result", "disk-hit").register(registry);
+        FunctionCounter.builder("tmdb.cache.requests", this, TmdbResponseCache::getMisses)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("tmdb.cache.evictions", this, TmdbResponseCache::getEvictions)
+                .register(registry);
+        FunctionCounter.builder("tmdb.cache.disk.evictions", this, TmdbResponseCache::getDiskEvictions)
+                .register(registry);
+        Gauge.builder("tmdb.cache.disk.bytes", this, TmdbResponseCache::getDiskBytes)
+                .baseUnit("bytes").register(registry);
+        Gauge.builder("tmdb.cache.size", this, TmdbResponseCache::getSize)
+                .register(registry);
+        Gauge.builder("tmdb.cache.bytes", this, TmdbResponseCache::getBytes)
+                .baseUnit("bytes").register(registry);
+    }
+}
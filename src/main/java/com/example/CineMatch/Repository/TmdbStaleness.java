@@ -0,0 +1,79 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import jakarta.servlet.ServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+/**
+ * Remembers on the current HTTP request that part of its answer came from
+ * an old copy because TMDB could not be reached, so the response can say so.
+ */
+public final class TmdbStaleness {
+
+    private static final String ATTRIBUTE = TmdbStaleness.class.getName() + ".STALE";
+
+    // Set while track() runs, so a result shared with other requests carries its staleness along
+    private static final ThreadLocal<boolean[]> TRACKED = new ThreadLocal<>();
+
+    /** A result together with whether any of it came from an old copy. */
+    record Tracked<T>(T value, boolean stale) {}
+
+    private TmdbStaleness() {
+    }
+
+    public static void markStale() {
+        boolean[] tracked = TRACKED.get();
+        if (tracked != null) {
+            tracked[0] = true;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        try {
+            attributes.setAttribute(ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        } catch (IllegalStateException requestAlreadyFinished) {
+            // Nobody left to tell
+        }
+    }
+
+    /*
+     * Runs the call and reports whether it marked anything stale, whether or
+     * not this thread has a request of its own. Nested calls report to the
+     * enclosing one as well.
+     */
+    static <T> Tracked<T> track(Supplier<T> call) {
+        boolean[] outer = TRACKED.get();
+        boolean[] tracked = new boolean[1];
+        TRACKED.set(tracked);
+        try {
+            return new Tracked<>(call.get(), tracked[0]);
+        } finally {
+            if (outer == null) {
+                TRACKED.remove();
+            } else {
+                TRACKED.set(outer);
+                outer[0] |= tracked[0];
+            }
+        }
+    }
+
+    public static boolean isStale(ServletRequest request) {
+        return request.getAttribute(ATTRIBUTE) != null;
+    }
+}
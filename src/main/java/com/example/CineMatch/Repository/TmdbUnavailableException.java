@@ -0,0 +1,32 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.Serial;
+
+/**
+ * Thrown instead of calling TMDB while the circuit breaker is open.
+ */
+public class TmdbUnavailableException extends ResponseStatusException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public TmdbUnavailableException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "TMDB is temporarily unavailable");
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.controller;
+
+import com.example.CineMatch.dto.LeaderboardRow;
+import com.example.CineMatch.service.Leaderboard;
+import com.example.CineMatch.service.LeaderboardWindow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+public class LeaderboardController {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final Leaderboard leaderboard;
+
+    @Autowired
+    public LeaderboardController(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    /* Best ranked scores of the window (daily, weekly or all-time), one per user */
+    @GetMapping("/{window}")
+    public List<LeaderboardRow> top(
+            @PathVariable String window,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return leaderboard.top(parse(window), Math.max(0, offset), Math.clamp(limit, 1, MAX_LIMIT));
+    }
+
+    @GetMapping("/{window}/users/{userId}")
+    public ResponseEntity<LeaderboardRow> rankOf(@PathVariable String window, @PathVariable UUID userId) {
+        return ResponseEntity.of(leaderboard.rankOf(parse(window), userId));
+    }
+
+    private static LeaderboardWindow parse(String window) {
+        try {
+            return LeaderboardWindow.parse(window);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown leaderboard window: " + window);
+        }
+    }
+}
@@ -13,16 +13,19 @@
  * If not, see <https://www.gnu.org/licenses/>.
  */package com.example.CineMatch.controller;
 
+import com.example.CineMatch.dto.DiscoverQuery;
 import com.example.CineMatch.dto.MovieDetailsDto;
 import com.example.CineMatch.dto.MovieDto;
 import com.example.CineMatch.dto.ResponseDto;
 import com.example.CineMatch.service.MovieService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/tmdb")
 public class MovieController {
 
@@ -48,11 +51,7 @@ public class MovieController {
     /* Discover */
     @GetMapping("/discover/movies")
     public ResponseDto<MovieDto> discoverMovies(@RequestParam Map<String, String> params) {
-        StringBuilder query = new StringBuilder("?");
-        params.forEach((key, value) -> {
-            query.append(key).append("=").append(value).append("&");
-        });
-        return movieService.getDiscover(query.toString());
+        return movieService.getDiscover(DiscoverQuery.forMovies(params).toQueryString());
     }
 
     /* Details */
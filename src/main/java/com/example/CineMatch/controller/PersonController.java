@@ -18,20 +18,24 @@ import com.example.CineMatch.dto.PersonDto;
 import com.example.CineMatch.dto.ResponseDto;
 import com.example.CineMatch.service.PersonService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/tmdb")
 public class PersonController {
 
     private final PersonService personService;
+    private final RestTemplate restTemplate;
 
     @Autowired
-    public PersonController(PersonService personService) {
+    public PersonController(PersonService personService, RestTemplate restTemplate) {
         this.personService = personService;
+        this.restTemplate = restTemplate;
     }
 
     /* Trending */
@@ -61,7 +65,6 @@ public class PersonController {
         String tmdbUrl = "https://image.tmdb.org/t/p/w500" + cleanPath;
 
         // Fetch the image
-        RestTemplate restTemplate = new RestTemplate();
         byte[] imageBytes = restTemplate.getForObject(tmdbUrl, byte[].class);
 
         // Return the image bytes with the correct content type
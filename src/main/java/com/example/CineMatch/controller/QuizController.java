@@ -13,35 +13,59 @@
  * If not, see <https://www.gnu.org/licenses/>.
  */package com.example.CineMatch.controller;
 
+import com.example.CineMatch.Config.SupabaseJwtVerifier;
 import com.example.CineMatch.dto.QuizQuestion;
+import com.example.CineMatch.dto.QuizQuestionDto;
 import com.example.CineMatch.dto.QuizSubmission;
-import com.example.CineMatch.dto.RankedScoreRequest;
+import com.example.CineMatch.dto.RankedResult;
+import com.example.CineMatch.service.Leaderboard;
 import com.example.CineMatch.service.QuizService;
+import com.example.CineMatch.service.QuizSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/quiz")
 @CrossOrigin(
         origins = "http://localhost:5173",
         allowedHeaders = "*",
-        methods = { RequestMethod.GET, RequestMethod.POST, RequestMethod.OPTIONS }
+        methods = { RequestMethod.GET, RequestMethod.POST, RequestMethod.OPTIONS },
+        exposedHeaders = QuizController.SESSION_HEADER
 )
 public class QuizController {
 
+    // Issued with every quiz, and sent back with its answers to /submit
+    public static final String SESSION_HEADER = "X-Quiz-Session";
+
+    private static final Duration STREAM_TIMEOUT = Duration.ofMinutes(2);
+
     private final QuizService quizService;
+    private final Leaderboard leaderboard;
+    private final SupabaseJwtVerifier jwtVerifier;
 
     @Autowired
-    public QuizController(QuizService quizService) {
+    public QuizController(QuizService quizService, Leaderboard leaderboard, SupabaseJwtVerifier jwtVerifier) {
         this.quizService = quizService;
+        this.leaderboard = leaderboard;
+        this.jwtVerifier = jwtVerifier;
     }
 
     @GetMapping("/personalized/{userId}")
-    public ResponseEntity<List<QuizQuestion>> getPersonalizedQuiz(
+    public ResponseEntity<List<QuizQuestionDto>> getPersonalizedQuiz(
             @PathVariable String userId
     ) throws Exception {
 
@@ -50,27 +74,104 @@ public class QuizController {
         List<QuizQuestion> questions =
                 quizService.generatePersonalizedQuiz(uuid);
 
-        return ResponseEntity.ok(questions);
+        return withSession(questions, false);
     }
 
+    // Graded from the ranked quiz's session (answers, and time since it was handed out),
+    // and recorded for the signed-in user of the Supabase access token
     @PostMapping("/ranked/score")
-    public int calculateRankedScore(@RequestBody RankedScoreRequest request) {
-        return quizService.calculateRankedScore(
-                request.getCorrect(),
-                request.getWrong(),
-                request.getTimeTakenSeconds()
-        );
+    public RankedResult calculateRankedScore(
+            @RequestHeader(SESSION_HEADER) String sessionId,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody QuizSubmission quizSubmission
+    ) {
+        SupabaseJwtVerifier.Principal user = jwtVerifier.verify(authorization)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED,
+                        "Sign in to submit a ranked score."));
+
+        RankedResult result = quizService.gradeRankedQuiz(sessionId, quizSubmission.getUserAnswers());
+        leaderboard.submit(user.id(), user.name(), result.getScore());
+        return result;
     }
     @GetMapping("/ranked")
-    public List<QuizQuestion> getRankedQuiz() throws Exception {
-        return quizService.generateRankedQuiz();
+    public ResponseEntity<List<QuizQuestionDto>> getRankedQuiz() throws Exception {
+        return withSession(quizService.generateRankedQuiz(), true);
+    }
+
+    // The answer key stays here; the client gets the questions without it and the session id in a header
+    private ResponseEntity<List<QuizQuestionDto>> withSession(List<QuizQuestion> questions, boolean ranked) {
+        String sessionId = QuizSession.newId();
+        quizService.openSession(sessionId, questions, ranked);
+        return ResponseEntity.ok().header(SESSION_HEADER, sessionId)
+                .body(questions.stream().map(QuizQuestionDto::of).toList());
+    }
+    // STREAMING (Server-Sent Events)
+    // Same quizzes, one "question" event per question as soon as it exists,
+    // then "done" with the count, or "error" with a message. The session id
+    // header is sent up front, and the session can be submitted after "done"
+    // (the time of a ranked quiz runs from there).
+    @GetMapping(value = "/ranked/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamRankedQuiz() {
+        return stream(quizService::streamRankedQuiz, true);
+    }
+
+    @GetMapping(value = "/personalized/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPersonalizedQuiz(@PathVariable String userId) {
+        UUID uuid = UUID.fromString(userId);
+        return stream(onQuestion -> quizService.streamPersonalizedQuiz(uuid, onQuestion), false);
+    }
+
+    @FunctionalInterface
+    private interface QuizSource {
+        List<QuizQuestion> generate(Consumer<QuizQuestion> onQuestion) throws Exception;
     }
+
+    private ResponseEntity<SseEmitter> stream(QuizSource source, boolean ranked) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT.toMillis());
+        String sessionId = QuizSession.newId();
+
+        Thread.ofVirtual().name("quiz-stream").start(() -> {
+            AtomicInteger sent = new AtomicInteger();
+            try {
+                List<QuizQuestion> questions = source.generate(question -> {
+                    try {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(sent.getAndIncrement()))
+                                .name("question")
+                                .data(QuizQuestionDto.of(question), MediaType.APPLICATION_JSON));
+                    } catch (IOException e) {
+                        // The client went away: stops the generation too
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                quizService.openSession(sessionId, questions, ranked);
+                emitter.send(SseEmitter.event().name("done").data(sent.get()));
+                emitter.complete();
+            } catch (UncheckedIOException e) {
+                emitter.completeWithError(e);
+            } catch (Exception e) {
+                try {
+                    String message = e instanceof ResponseStatusException status ? status.getReason() : e.getMessage();
+                    emitter.send(SseEmitter.event().name("error").data(message == null ? "Quiz generation failed" : message));
+                    emitter.complete();
+                } catch (IOException | IllegalStateException ignored) {
+                    emitter.completeWithError(e);
+                }
+            }
+        });
+        return ResponseEntity.ok().header(SESSION_HEADER, sessionId).body(emitter);
+    }
+
     // SUBMIT (Ranked  Personalized)
-    // Endpoint: /api/quiz/submit
+    // Endpoint: /api/quiz/submit, with the X-Quiz-Session header of the quiz.
+    // Only the answers are sent; they are graded against the stored key, once.
     @PostMapping("/submit")
-    public ResponseEntity<Integer> submitQuiz(@RequestBody QuizSubmission quizSubmission) {
+    public ResponseEntity<Integer> submitQuiz(
+            @RequestHeader(SESSION_HEADER) String sessionId,
+            @RequestBody QuizSubmission quizSubmission
+    ) {
         int score = quizService.calculateScore(
-                quizSubmission.getOriginalQuestions(),
+                sessionId,
                 quizSubmission.getUserAnswers()
         );
         return ResponseEntity.ok(score);
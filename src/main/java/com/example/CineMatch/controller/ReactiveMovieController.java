@@ -0,0 +1,64 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.controller;
+
+import com.example.CineMatch.dto.DiscoverQuery;
+import com.example.CineMatch.dto.MovieDetailsDto;
+import com.example.CineMatch.dto.MovieDto;
+import com.example.CineMatch.dto.ResponseDto;
+import com.example.CineMatch.service.ReactiveMovieService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/* Same routes as MovieController, served without holding a thread per request */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/tmdb")
+public class ReactiveMovieController {
+
+    private final ReactiveMovieService movieService;
+
+    @Autowired
+    public ReactiveMovieController(ReactiveMovieService movieService) {
+        this.movieService = movieService;
+    }
+
+    /* Trending */
+    @GetMapping("/trending/movies")
+    public Mono<ResponseDto<MovieDto>> getTrendingMovies(@RequestParam(defaultValue = "1") int page) {
+        return movieService.getTrending(page);
+    }
+
+    /* Search */
+    @GetMapping("/search/movies")
+    public Mono<ResponseDto<MovieDto>> searchMovies(@RequestParam String q, @RequestParam(defaultValue = "1") int page) {
+        return movieService.getSearch(q, page);
+    }
+
+    /* Discover */
+    @GetMapping("/discover/movies")
+    public Mono<ResponseDto<MovieDto>> discoverMovies(@RequestParam Map<String, String> params) {
+        return movieService.getDiscover(DiscoverQuery.forMovies(params).toQueryString());
+    }
+
+    /* Details */
+    @GetMapping("/movie/{id}")
+    public Mono<MovieDetailsDto> movieDetails(@PathVariable long id) {
+        return movieService.getDetails(id);
+    }
+}
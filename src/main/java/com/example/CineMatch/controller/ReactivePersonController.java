@@ -0,0 +1,82 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.controller;
+
+import com.example.CineMatch.dto.PersonDetailsDto;
+import com.example.CineMatch.dto.PersonDto;
+import com.example.CineMatch.dto.ResponseDto;
+import com.example.CineMatch.service.ReactivePersonService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+/* Same routes as PersonController, served without holding a thread per request */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/tmdb")
+public class ReactivePersonController {
+
+    private final ReactivePersonService personService;
+    private final WebClient imageClient;
+
+    @Autowired
+    public ReactivePersonController(ReactivePersonService personService, HttpClient httpClient) {
+        this.personService = personService;
+        this.imageClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(4 * 1024 * 1024))
+                .build();
+    }
+
+    /* Trending */
+    @GetMapping("/trending/person")
+    public Mono<ResponseDto<PersonDto>> getTrendingPerson(@RequestParam(defaultValue = "1") int page) {
+        return personService.getTrending(page);
+    }
+
+    /* Search */
+    @GetMapping("/search/people")
+    public Mono<ResponseDto<PersonDto>> searchPeople(@RequestParam String q, @RequestParam(defaultValue = "1") int page) {
+        return personService.getSearch(q, page);
+    }
+
+    /* Details */
+    @GetMapping("/person/{id}")
+    public Mono<PersonDetailsDto> personDetails(@PathVariable long id) {
+        return personService.getDetails(id);
+    }
+
+    /* Image Proxy for AI Analysis */
+    // Like PersonController: images come from the image.tmdb.org CDN, which is not part of the
+    // API quota, so this skips the TMDB repository and its rate limiter (but shares the connection pool)
+    @GetMapping("/image")
+    public Mono<ResponseEntity<byte[]>> proxyImage(@RequestParam String path) {
+        String cleanPath = path.startsWith("/") ? path : "/" + path;
+        String tmdbUrl = "https://image.tmdb.org/t/p/w500" + cleanPath;
+
+        return imageClient.get()
+                .uri(tmdbUrl)
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .map(imageBytes -> ResponseEntity.ok()
+                        .contentType(MediaType.IMAGE_JPEG)
+                        .body(imageBytes));
+    }
+}
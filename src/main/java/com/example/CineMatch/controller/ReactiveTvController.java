@@ -0,0 +1,64 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.controller;
+
+import com.example.CineMatch.dto.DiscoverQuery;
+import com.example.CineMatch.dto.ResponseDto;
+import com.example.CineMatch.dto.TvDetailsDto;
+import com.example.CineMatch.dto.TvDto;
+import com.example.CineMatch.service.ReactiveTvService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/* Same routes as TvController, served without holding a thread per request */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/tmdb")
+public class ReactiveTvController {
+
+    private final ReactiveTvService tvService;
+
+    @Autowired
+    public ReactiveTvController(ReactiveTvService tvService) {
+        this.tvService = tvService;
+    }
+
+    /* Trending */
+    @GetMapping("/trending/tv")
+    public Mono<ResponseDto<TvDto>> getTrendingTv(@RequestParam(defaultValue = "1") int page) {
+        return tvService.getTrending(page);
+    }
+
+    /* Search */
+    @GetMapping("/search/tv")
+    public Mono<ResponseDto<TvDto>> searchTV(@RequestParam String q, @RequestParam(defaultValue = "1") int page) {
+        return tvService.getSearch(q, page);
+    }
+
+    /* Discover */
+    @GetMapping("/discover/tv")
+    public Mono<ResponseDto<TvDto>> discoverTV(@RequestParam Map<String, String> params) {
+        return tvService.getDiscover(DiscoverQuery.forTv(params).toQueryString());
+    }
+
+    /* Details */
+    @GetMapping("/series/{id}")
+    public Mono<TvDetailsDto> seriesDetails(@PathVariable long id) {
+        return tvService.getDetails(id);
+    }
+}
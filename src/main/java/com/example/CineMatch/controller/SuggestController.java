@@ -0,0 +1,37 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.controller;
+
+import com.example.CineMatch.dto.SuggestResponseDto;
+import com.example.CineMatch.service.TitleSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/tmdb")
+public class SuggestController {
+
+    private final TitleSearchIndex titleIndex;
+
+    @Autowired
+    public SuggestController(TitleSearchIndex titleIndex) {
+        this.titleIndex = titleIndex;
+    }
+
+    /* Typeahead: top movies, series and people for a prefix, answered from memory */
+    @GetMapping("/suggest")
+    public SuggestResponseDto suggest(@RequestParam String q, @RequestParam(defaultValue = "5") int limit) {
+        return titleIndex.suggest(q, Math.clamp(limit, 1, TitleSearchIndex.SUGGEST_K));
+    }
+}
@@ -13,16 +13,19 @@
  * If not, see <https://www.gnu.org/licenses/>.
  */package com.example.CineMatch.controller;
 
+import com.example.CineMatch.dto.DiscoverQuery;
 import com.example.CineMatch.dto.ResponseDto;
 import com.example.CineMatch.dto.TvDetailsDto;
 import com.example.CineMatch.dto.TvDto;
 import com.example.CineMatch.service.TvService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/tmdb")
 public class TvController {
 
@@ -48,11 +51,7 @@ public class TvController {
     /* Discover */
     @GetMapping("/discover/tv")
     public ResponseDto<TvDto> discoverTV(@RequestParam Map<String, String> params) {
-        StringBuilder query = new StringBuilder("?");
-        params.forEach((key, value) -> {
-            query.append(key).append("=").append(value).append("&");
-        });
-        return tvService.getDiscover(query.toString());
+        return tvService.getDiscover(DiscoverQuery.forTv(params).toQueryString());
     }
 
     /* Details */
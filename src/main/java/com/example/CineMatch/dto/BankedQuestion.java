@@ -0,0 +1,84 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.dto;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A validated quiz question kept in the question bank, with the genres it
+ * was generated for and the decade it is about (when it names a year).
+ *
+ * contentKey is a hash of the normalized text, for exact duplicates.
+ * signature is its MinHash and bands the LSH buckets of that signature,
+ * indexed so that near-duplicate candidates are one lookup away.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "quiz_question_bank", indexes = @Index(name = "idx_quiz_question_bank_served", columnList = "served_count"))
+public class BankedQuestion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "question_text", nullable = false, columnDefinition = "text")
+    private String questionText;
+
+    // JSON array of the four options
+    @Column(name = "options", nullable = false, columnDefinition = "text")
+    private String optionsJson;
+
+    @Column(name = "correct_answer_index", nullable = false)
+    private int correctAnswerIndex;
+
+    @Column(columnDefinition = "text")
+    private String explanation;
+
+    @ElementCollection
+    @CollectionTable(name = "quiz_question_genres", joinColumns = @JoinColumn(name = "question_id"),
+            indexes = @Index(name = "idx_quiz_question_genres_genre", columnList = "genre"))
+    @Column(name = "genre", nullable = false)
+    private Set<String> genres = new HashSet<>();
+
+    // e.g. "2010s", null when the question names no year
+    @Column(name = "era", length = 8)
+    private String era;
+
+    @Column(name = "content_key", nullable = false, unique = true, length = 64)
+    private String contentKey;
+
+    @Column(nullable = false)
+    private byte[] signature;
+
+    @ElementCollection
+    @CollectionTable(name = "quiz_question_bands", joinColumns = @JoinColumn(name = "question_id"),
+            indexes = @Index(name = "idx_quiz_question_bands_key", columnList = "band_key"))
+    @Column(name = "band_key", nullable = false)
+    private Set<Long> bands = new HashSet<>();
+
+    @Column(name = "served_count", nullable = false)
+    private int servedCount;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
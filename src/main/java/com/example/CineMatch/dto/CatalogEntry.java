@@ -0,0 +1,51 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.dto;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One mirrored TMDB response, stored under the endpoint it answers
+ * (e.g. "/movie/550" or "/movie/550/credits").
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "tmdb_catalog", indexes = @Index(name = "idx_tmdb_catalog_media", columnList = "media_type, tmdb_id"))
+public class CatalogEntry {
+
+    @Id
+    @Column(name = "endpoint")
+    private String endpoint;
+
+    @Column(name = "media_type", nullable = false)
+    private String mediaType;
+
+    @Column(name = "tmdb_id", nullable = false)
+    private long tmdbId;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String body;
+
+    @Column(name = "synced_at", nullable = false)
+    private Instant syncedAt;
+}
@@ -0,0 +1,56 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.dto;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Where the catalog sync stands for one media type. The bootstrap walks the
+ * export in ascending id order, so bootstrapCursor is the last id that is
+ * fully stored and a restarted sync carries on after it. Later exports are
+ * read from the same cursor, exportModifiedAt telling whether the newest one
+ * has been read through already.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "tmdb_catalog_sync")
+public class CatalogSyncState {
+
+    @Id
+    @Column(name = "media_type")
+    private String mediaType;
+
+    @Column(name = "bootstrap_cursor", nullable = false)
+    private long bootstrapCursor;
+
+    @Column(name = "bootstrap_completed", nullable = false)
+    private boolean bootstrapCompleted;
+
+    @Column(name = "export_modified_at")
+    private Instant exportModifiedAt;
+
+    @Column(name = "changes_synced_at")
+    private Instant changesSyncedAt;
+
+    public CatalogSyncState(String mediaType) {
+        this.mediaType = mediaType;
+    }
+}
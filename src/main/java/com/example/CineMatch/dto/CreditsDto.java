@@ -0,0 +1,26 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// Only the "cast" part of a TMDB credits response; "crew" is skipped while parsing
+@Getter
+@Setter
+public class CreditsDto<T> {
+    private List<T> cast;
+}
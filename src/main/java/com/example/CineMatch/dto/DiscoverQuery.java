@@ -0,0 +1,167 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.dto;
+
+import com.example.CineMatch.Repository.TmdbEndpoints;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Canonical form of a /discover filter set. Parameters are sorted, values
+ * equal to TMDB's defaults (and blank ones) are dropped, id lists are sorted
+ * and values are percent-encoded. The same filters therefore always give the
+ * same query string, which is what the response caches and request
+ * coalescing key on. Keys TMDB does not know are rejected with 400.
+ */
+public final class DiscoverQuery {
+
+    private static final Set<String> COMMON_KEYS = Set.of(
+            "include_adult", "language", "page", "sort_by", "watch_region",
+            "vote_average.gte", "vote_average.lte", "vote_count.gte", "vote_count.lte",
+            "with_companies", "with_genres", "with_keywords", "with_origin_country",
+            "with_original_language", "with_runtime.gte", "with_runtime.lte",
+            "with_watch_monetization_types", "with_watch_providers",
+            "without_companies", "without_genres", "without_keywords", "without_watch_providers"
+    );
+
+    private static final Set<String> MOVIE_KEYS = union(COMMON_KEYS, Set.of(
+            "certification", "certification.gte", "certification.lte", "certification_country",
+            "include_video", "primary_release_year", "primary_release_date.gte", "primary_release_date.lte",
+            "region", "release_date.gte", "release_date.lte", "with_cast", "with_crew", "with_people",
+            "with_release_type", "year"
+    ));
+
+    private static final Set<String> TV_KEYS = union(COMMON_KEYS, Set.of(
+            "air_date.gte", "air_date.lte", "first_air_date_year", "first_air_date.gte", "first_air_date.lte",
+            "include_null_first_air_dates", "screened_theatrically", "timezone",
+            "with_networks", "with_status", "with_type"
+    ));
+
+    // Values TMDB applies anyway when the parameter is missing
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "sort_by", "popularity.desc",
+            "page", "1",
+            "include_adult", "false",
+            "include_video", "false",
+            "include_null_first_air_dates", "false"
+    );
+
+    // Comma (AND) or pipe (OR) separated lists where the order is irrelevant
+    private static final Set<String> LIST_KEYS = Set.of(
+            "with_cast", "with_companies", "with_crew", "with_genres", "with_keywords", "with_networks",
+            "with_people", "with_release_type", "with_watch_monetization_types", "with_watch_providers",
+            "without_companies", "without_genres", "without_keywords", "without_watch_providers"
+    );
+
+    private static final int MAX_PAGE = 500;
+
+    private final SortedMap<String, String> params;
+
+    private DiscoverQuery(SortedMap<String, String> params) {
+        this.params = params;
+    }
+
+    public static DiscoverQuery forMovies(Map<String, String> params) {
+        return of(params, MOVIE_KEYS);
+    }
+
+    public static DiscoverQuery forTv(Map<String, String> params) {
+        return of(params, TV_KEYS);
+    }
+
+    private static DiscoverQuery of(Map<String, String> params, Set<String> allowed) {
+        SortedMap<String, String> canonical = new TreeMap<>();
+        params.forEach((key, value) -> {
+            if (!allowed.contains(key)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown discover parameter: " + key);
+            }
+            String normalized = normalize(key, value);
+            if (!normalized.isEmpty() && !normalized.equals(DEFAULTS.get(key))) {
+                canonical.put(key, normalized);
+            }
+        });
+        return new DiscoverQuery(Collections.unmodifiableSortedMap(canonical));
+    }
+
+    private static String normalize(String key, String value) {
+        String trimmed = value == null ? "" : value.trim();
+
+        if (key.equals("page") && !trimmed.isEmpty()) {
+            int page;
+            try {
+                page = Integer.parseInt(trimmed);
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page must be a number");
+            }
+            if (page < 1 || page > MAX_PAGE) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page must be between 1 and " + MAX_PAGE);
+            }
+            return Integer.toString(page);
+        }
+
+        if (LIST_KEYS.contains(key)) {
+            boolean and = trimmed.indexOf(',') >= 0;
+            boolean or = trimmed.indexOf('|') >= 0;
+            if (!(and && or)) {
+                String separator = or ? "|" : ",";
+                return Arrays.stream(trimmed.split(or ? "\\|" : ","))
+                        .map(String::trim)
+                        .filter(item -> !item.isEmpty())
+                        .collect(Collectors.toCollection(TreeSet::new))
+                        .stream()
+                        .collect(Collectors.joining(separator));
+            }
+        }
+        return trimmed;
+    }
+
+    private static Set<String> union(Set<String> a, Set<String> b) {
+        Set<String> all = new HashSet<>(a);
+        all.addAll(b);
+        return Set.copyOf(all);
+    }
+
+    /** The canonical parameters, sorted by key and not yet encoded. */
+    public SortedMap<String, String> params() {
+        return params;
+    }
+
+    /** "?key=value&..." with encoded values, or "" when only defaults were given. */
+    public String toQueryString() {
+        if (params.isEmpty()) {
+            return "";
+        }
+        return params.entrySet().stream()
+                .map(param -> param.getKey() + "=" + TmdbEndpoints.encode(param.getValue()))
+                .collect(Collectors.joining("&", "?", ""));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof DiscoverQuery query && params.equals(query.params);
+    }
+
+    @Override
+    public int hashCode() {
+        return params.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toQueryString();
+    }
+}
@@ -42,4 +42,6 @@ public class MovieDto {
 
     @JsonProperty("release_date")
     private String releaseDate;
+
+    private Double popularity;
 }
\ No newline at end of file
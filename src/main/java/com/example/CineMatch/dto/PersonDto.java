@@ -45,4 +45,6 @@ public class PersonDto {
     @JsonProperty("character")
     private String character;
     private Integer order;
+
+    private Double popularity;
 }
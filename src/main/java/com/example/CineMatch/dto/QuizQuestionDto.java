@@ -0,0 +1,32 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+// What a client sees of a question: no correct answer or explanation, those stay in the quiz session
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizQuestionDto {
+    private String questionText;
+    private List<String> options;
+
+    public static QuizQuestionDto of(QuizQuestion question) {
+        return new QuizQuestionDto(question.getQuestionText(), question.getOptions());
+    }
+}
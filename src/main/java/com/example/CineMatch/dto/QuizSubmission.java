@@ -23,9 +23,6 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class QuizSubmission {
-    // User Answers
+    // User Answers (the questions and the answer key stay on the server, see X-Quiz-Session)
     private List<UserAnswer> userAnswers;
-
-    // All Questions
-    private List<QuizQuestion> originalQuestions;
 }
\ No newline at end of file
@@ -14,16 +14,16 @@
  */package com.example.CineMatch.dto;
 
 import lombok.AllArgsConstructor;
-import lombok.Getter;
+import lombok.Data;
 import lombok.NoArgsConstructor;
-import lombok.Setter;
 
-@Getter
-@Setter
-@AllArgsConstructor
+// A graded ranked quiz: counts and time come from the quiz session, not from the client
+@Data
 @NoArgsConstructor
-public class RankedScoreRequest {
+@AllArgsConstructor
+public class RankedResult {
     private int correct;
     private int wrong;
     private int timeTakenSeconds;
+    private int score;
 }
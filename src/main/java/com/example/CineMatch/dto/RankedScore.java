@@ -0,0 +1,59 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.dto;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One ranked quiz score, as submitted. The leaderboard is rebuilt from these
+ * at startup. Only this week's scores and each user's best are kept; older
+ * ones are pruned daily.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "ranked_scores", indexes = @Index(name = "idx_ranked_scores_user", columnList = "user_id"))
+public class RankedScore {
+
+    // A sequence rather than identity, so the write-behind inserts can be batched
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ranked_scores_seq")
+    @SequenceGenerator(name = "ranked_scores_seq", sequenceName = "ranked_scores_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    private String username;
+
+    @Column(nullable = false)
+    private int score;
+
+    @Column(name = "achieved_at", nullable = false)
+    private Instant achievedAt;
+
+    public RankedScore(UUID userId, String username, int score, Instant achievedAt) {
+        this.userId = userId;
+        this.username = username;
+        this.score = score;
+        this.achievedAt = achievedAt;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One typeahead entry: just enough to render a suggestion row.
+ */
+@Getter
+@AllArgsConstructor
+public class SuggestionDto {
+    private long id;
+
+    @JsonProperty("media_type")
+    private String mediaType;
+
+    private String name;
+
+    // Release / first air year, null for people
+    private String year;
+
+    // Poster for titles, profile picture for people
+    @JsonProperty("image_path")
+    private String imagePath;
+}
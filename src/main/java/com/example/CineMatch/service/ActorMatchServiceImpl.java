@@ -14,6 +14,7 @@
  */package com.example.CineMatch.service;
 
 import com.example.CineMatch.model.*;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
@@ -43,15 +44,12 @@ public class ActorMatchServiceImpl implements ActorMatchService {
     // Constructor Injection για το Mocking
     private final RestTemplate restTemplate;
 
+    // Μεγαλύτερο timeout: το inference ενός "κρύου" μοντέλου αργεί πολύ
     @Autowired
-    public ActorMatchServiceImpl(RestTemplate restTemplate) {
+    public ActorMatchServiceImpl(@Qualifier("inferenceRestTemplate") RestTemplate restTemplate) {
         this.restTemplate = restTemplate;
     }
 
-    public ActorMatchServiceImpl() {
-        this.restTemplate = new RestTemplate();
-    }
-
 
     @Override
     public ActorMatchResponse findAndResolveMatch(MultipartFile photo) throws Exception {
@@ -0,0 +1,414 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.CatalogEntryRepository;
+import com.example.CineMatch.Repository.CatalogSyncStateRepository;
+import com.example.CineMatch.Repository.TmdbRepository;
+import com.example.CineMatch.Repository.TmdbLane;
+import com.example.CineMatch.dto.CatalogEntry;
+import com.example.CineMatch.dto.CatalogSyncState;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Keeps the local TMDB catalog (see CatalogTmdbRepository) filled and fresh.
+ *
+ * Bootstrap reads TMDB's daily ID export files (movie_ids_*.json.gz and so
+ * on) from tmdb.catalog.export-dir, keeps titles above a popularity floor
+ * and mirrors them in batches, fetching each batch in parallel. The cursor
+ * is saved after every batch, so an interrupted bootstrap resumes where it
+ * stopped. Every later sync reads the newest export again if it is newer
+ * than the last one read, and mirrors the ids above the cursor: TMDB hands
+ * out ids in ascending order, so these are the titles added since. The
+ * /changes endpoints are then polled and only titles already in the mirror
+ * are refetched. Titles TMDB no longer has are removed.
+ */
+@Service
+@ConditionalOnProperty(name = "tmdb.catalog.enabled", havingValue = "true")
+public class CatalogSyncService implements MeterBinder {
+
+    // /changes only looks back this far
+    private static final Duration MAX_CHANGES_WINDOW = Duration.ofDays(14);
+    private static final int MAX_CHANGES_PAGES = 500;
+
+    enum Kind {
+        MOVIE("movie", "movie_ids", "credits"),
+        TV("tv", "tv_series_ids", "credits"),
+        PERSON("person", "person_ids", "movie_credits");
+
+        final String type;
+        final String exportPrefix;
+        final String creditsPart;
+
+        Kind(String type, String exportPrefix, String creditsPart) {
+            this.type = type;
+            this.exportPrefix = exportPrefix;
+            this.creditsPart = creditsPart;
+        }
+    }
+
+    private final TmdbRepository upstream;
+    private final CatalogEntryRepository entries;
+    private final CatalogSyncStateRepository states;
+    private final ObjectMapper objectMapper;
+    private final Path exportDir;
+    private final double minPopularity;
+    private final int batchSize;
+    private final int parallelism;
+    private final boolean syncOnStartup;
+    private final Clock clock;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ReentrantLock running = new ReentrantLock();
+
+    private final LongAdder saved = new LongAdder();
+    private final LongAdder deleted = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    // Goes straight to TMDB (through the rate limiter only): reading through
+    // the mirror would refresh it from itself
+    @Autowired
+    public CatalogSyncService(
+            @Qualifier("upstreamTmdbRepository") TmdbRepository upstream,
+            CatalogEntryRepository entries,
+            CatalogSyncStateRepository states,
+            ObjectMapper objectMapper,
+            @Value("${tmdb.catalog.export-dir:}") String exportDir,
+            @Value("${tmdb.catalog.min-popularity:5}") double minPopularity,
+            @Value("${tmdb.catalog.batch-size:200}") int batchSize,
+            @Value("${tmdb.catalog.parallelism:8}") int parallelism,
+            @Value("${tmdb.catalog.sync-on-startup:true}") boolean syncOnStartup
+    ) {
+        this(upstream, entries, states, objectMapper, exportDir.isBlank() ? null : Path.of(exportDir),
+                minPopularity, batchSize, parallelism, syncOnStartup, Clock.systemUTC());
+    }
+
+    CatalogSyncService(TmdbRepository upstream, CatalogEntryRepository entries, CatalogSyncStateRepository states,
+                       ObjectMapper objectMapper, Path exportDir, double minPopularity, int batchSize,
+                       int parallelism, boolean syncOnStartup, Clock clock) {
+        this.upstream = upstream;
+        this.entries = entries;
+        this.states = states;
+        this.objectMapper = objectMapper;
+        this.exportDir = exportDir;
+        this.minPopularity = minPopularity;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.syncOnStartup = syncOnStartup;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void syncOnStartup() {
+        if (syncOnStartup) {
+            Thread.ofVirtual().name("catalog-sync").start(this::sync);
+        }
+    }
+
+    /**
+     * Finishes (or starts) the bootstrap, mirrors titles added since the
+     * last export, then applies recent changes, for
+     * every media type. Skipped if a sync is already running.
+     */
+    @Scheduled(cron = "${tmdb.catalog.sync-cron:0 30 3 * * *}")
+    public void sync() {
+        if (!running.tryLock()) {
+            return;
+        }
+        try {
+            for (Kind kind : Kind.values()) {
+                try {
+                    bootstrap(kind);
+                    syncChanges(kind);
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    System.err.println("Catalog sync for " + kind.type + " stopped: " + e.getMessage());
+                }
+            }
+        } finally {
+            running.unlock();
+        }
+    }
+
+    // =================================================================
+    // BOOTSTRAP
+    // =================================================================
+
+    int bootstrap(Kind kind) {
+        CatalogSyncState state = states.findById(kind.type).orElseGet(() -> new CatalogSyncState(kind.type));
+        Path export = exportFile(kind);
+        if (export == null) {
+            return 0;
+        }
+        // Already read through: nothing above the cursor until TMDB publishes the next one
+        Instant exportModified = Instant.ofEpochMilli(export.toFile().lastModified());
+        if (state.isBootstrapCompleted() && exportModified.equals(state.getExportModifiedAt())) {
+            return 0;
+        }
+
+        Instant started = clock.instant();
+        long cursor = state.getBootstrapCursor();
+        List<Long> ids = readExport(export).stream().filter(id -> id > cursor).toList();
+
+        int synced = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            synced += syncBatch(kind, batch);
+            state.setBootstrapCursor(batch.getLast());
+            states.save(state);
+        }
+
+        state.setBootstrapCompleted(true);
+        state.setExportModifiedAt(exportModified);
+        if (state.getChangesSyncedAt() == null) {
+            state.setChangesSyncedAt(started);
+        }
+        states.save(state);
+        return synced;
+    }
+
+    // Newest export for the kind, as downloaded from files.tmdb.org
+    private Path exportFile(Kind kind) {
+        if (exportDir == null || !Files.isDirectory(exportDir)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(exportDir)) {
+            return files
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(kind.exportPrefix)
+                                && (name.endsWith(".json") || name.endsWith(".json.gz"));
+                    })
+                    .max(Comparator.comparing(file -> file.toFile().lastModified()))
+                    .orElse(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* One JSON object per line: {"id":550,"popularity":61.4,"adult":false,...}. Returned sorted. */
+    List<Long> readExport(Path file) {
+        List<Long> ids = new ArrayList<>();
+        try (InputStream raw = Files.newInputStream(file);
+             InputStream in = file.toString().endsWith(".gz") ? new GZIPInputStream(raw) : raw;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode item = objectMapper.readTree(line);
+                if (item.path("adult").asBoolean(false) || item.path("popularity").asDouble(0) < minPopularity) {
+                    continue;
+                }
+                ids.add(item.path("id").asLong());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read TMDB export " + file, e);
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    // =================================================================
+    // CHANGES
+    // =================================================================
+
+    int syncChanges(Kind kind) {
+        CatalogSyncState state = states.findById(kind.type).orElse(null);
+        if (state == null || !state.isBootstrapCompleted()) {
+            return 0;
+        }
+
+        Instant now = clock.instant();
+        Instant since = state.getChangesSyncedAt();
+        if (since == null || since.isBefore(now.minus(MAX_CHANGES_WINDOW))) {
+            since = now.minus(MAX_CHANGES_WINDOW);
+        }
+
+        List<Long> changed = changedIds(kind, since, now);
+        int synced = 0;
+        for (int from = 0; from < changed.size(); from += batchSize) {
+            List<Long> batch = changed.subList(from, Math.min(from + batchSize, changed.size()));
+            List<Long> mirrored = entries.findMirroredIds(kind.type, batch);
+            if (!mirrored.isEmpty()) {
+                synced += syncBatch(kind, mirrored);
+            }
+        }
+
+        state.setChangesSyncedAt(now);
+        states.save(state);
+        return synced;
+    }
+
+    private List<Long> changedIds(Kind kind, Instant since, Instant until) {
+        String range = "start_date=" + since.atZone(ZoneOffset.UTC).toLocalDate()
+                + "&end_date=" + until.atZone(ZoneOffset.UTC).toLocalDate();
+
+        Set<Long> ids = new TreeSet<>();
+        int totalPages = 1;
+        for (int page = 1; page <= totalPages && page <= MAX_CHANGES_PAGES; page++) {
+            String endpoint = "/" + kind.type + "/changes?" + range + "&page=" + page;
+            JsonNode response = objectMapper.readTree(
+                    TmdbLane.call(TmdbLane.SYNC, () -> upstream.callBytes(endpoint)));
+            for (JsonNode item : response.path("results")) {
+                ids.add(item.path("id").asLong());
+            }
+            totalPages = response.path("total_pages").asInt(1);
+        }
+        return new ArrayList<>(ids);
+    }
+
+    // =================================================================
+    // BATCHES
+    // =================================================================
+
+    /**
+     * Fetches every id of the batch (at most parallelism at a time) and
+     * stores the results together. Any failure other than a 404 fails the
+     * whole batch, so the cursor stays before it.
+     */
+    private int syncBatch(Kind kind, List<Long> ids) {
+        Semaphore permits = new Semaphore(parallelism);
+        List<CompletableFuture<List<CatalogEntry>>> fetches = new ArrayList<>();
+        for (long id : ids) {
+            fetches.add(CompletableFuture.supplyAsync(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    return fetch(kind, id);
+                } finally {
+                    permits.release();
+                }
+            }, executor));
+        }
+
+        List<CatalogEntry> toSave = new ArrayList<>();
+        List<String> toDelete = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            List<CatalogEntry> fetched = fetches.get(i).join();
+            if (fetched.isEmpty()) {
+                long id = ids.get(i);
+                toDelete.add(detailsEndpoint(kind, id));
+                toDelete.add(creditsEndpoint(kind, id));
+            } else {
+                toSave.addAll(fetched);
+            }
+        }
+
+        if (!toSave.isEmpty()) {
+            entries.saveAll(toSave);
+            saved.add(toSave.size() / 2);
+        }
+        if (!toDelete.isEmpty()) {
+            entries.deleteAllById(toDelete);
+            deleted.add(toDelete.size() / 2);
+        }
+        return ids.size();
+    }
+
+    /* Details and credits in one call, stored as the two endpoints the services read. Empty on 404. */
+    private List<CatalogEntry> fetch(Kind kind, long id) {
+        byte[] body;
+        try {
+            String endpoint = detailsEndpoint(kind, id) + "?append_to_response=" + kind.creditsPart;
+            body = TmdbLane.call(TmdbLane.SYNC, () -> upstream.callBytes(endpoint));
+        } catch (HttpClientErrorException.NotFound e) {
+            return List.of();
+        }
+
+        JsonNode tree = objectMapper.readTree(body);
+        if (!(tree instanceof ObjectNode details)) {
+            throw new IllegalStateException("Invalid " + kind.type + " " + id + " received from TMDB");
+        }
+        JsonNode credits = details.remove(kind.creditsPart);
+
+        Instant now = clock.instant();
+        return List.of(
+                new CatalogEntry(detailsEndpoint(kind, id), kind.type, id,
+                        objectMapper.writeValueAsString(details), now),
+                new CatalogEntry(creditsEndpoint(kind, id), kind.type, id,
+                        credits == null ? "{}" : objectMapper.writeValueAsString(credits), now)
+        );
+    }
+
+    private static String detailsEndpoint(Kind kind, long id) {
+        return "/" + kind.type + "/" + id;
+    }
+
+    private static String creditsEndpoint(Kind kind, long id) {
+        return "/" + kind.type + "/" + id + "/" + kind.creditsPart;
+    }
+
+    // =================================================================
+    // STATS
+    // =================================================================
+
+    public long getSaved() {
+        return saved.sum();
+    }
+
+    public long getDeleted() {
+        return deleted.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tmdb.catalog.sync.items", this, CatalogSyncService::getSaved)
+                .tag("result", "saved").register(registry);
+        FunctionCounter.builder("tmdb.catalog.sync.items", this, CatalogSyncService::getDeleted)
+                .tag("result", "deleted").register(registry);
+        FunctionCounter.builder("tmdb.catalog.sync.failures", this, CatalogSyncService::getFailures)
+                .register(registry);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Quiz sessions in a bounded map. Sessions all live equally long, so
+ * insertion order is expiry order and expired ones are dropped from the
+ * front. When the map is full, the oldest session is handed to the spill
+ * store (if any) instead of being lost, and take() looks there on a miss.
+ */
+public class InMemoryQuizSessionStore implements QuizSessionStore, MeterBinder {
+
+    private final int maxSessions;
+    private final QuizSessionStore spill;
+    private final Clock clock;
+
+    private final LinkedHashMap<String, QuizSession> sessions = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public InMemoryQuizSessionStore(int maxSessions, QuizSessionStore spill, Clock clock) {
+        this.maxSessions = maxSessions;
+        this.spill = spill;
+        this.clock = clock;
+    }
+
+    @Override
+    public void put(String sessionId, QuizSession session) {
+        Map.Entry<String, QuizSession> evicted = null;
+        lock.lock();
+        try {
+            dropExpired();
+            sessions.put(sessionId, session);
+            if (sessions.size() > maxSessions) {
+                Map.Entry<String, QuizSession> eldest = sessions.entrySet().iterator().next();
+                evicted = Map.entry(eldest.getKey(), eldest.getValue());
+                sessions.remove(eldest.getKey());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (evicted == null) {
+            return;
+        }
+        if (spill == null) {
+            dropped.increment();
+            return;
+        }
+        // Outside the lock: the spill store may be a database
+        try {
+            spill.put(evicted.getKey(), evicted.getValue());
+            spilled.increment();
+        } catch (RuntimeException e) {
+            dropped.increment();
+            System.err.println("Spilling quiz session " + evicted.getKey() + " failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<QuizSession> take(String sessionId) {
+        QuizSession session;
+        lock.lock();
+        try {
+            session = sessions.remove(sessionId);
+        } finally {
+            lock.unlock();
+        }
+
+        if (session == null) {
+            return spill == null ? Optional.empty() : spill.take(sessionId);
+        }
+        if (session.isExpired(clock.millis())) {
+            expired.increment();
+            return Optional.empty();
+        }
+        return Optional.of(session);
+    }
+
+    // Caller must hold the lock
+    private void dropExpired() {
+        long now = clock.millis();
+        Iterator<QuizSession> oldest = sessions.values().iterator();
+        while (oldest.hasNext() && oldest.next().isExpired(now)) {
+            oldest.remove();
+            expired.increment();
+        }
+    }
+
+    // =================================================================
+    // STATS
+    // =================================================================
+
+    public int getSize() {
+        lock.lock();
+        try {
+            return sessions.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    public long getSpilled() {
+        return spilled.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("quiz.sessions.size", this, InMemoryQuizSessionStore::getSize)
+                .register(registry);
+        FunctionCounter.builder("quiz.sessions.evictions", this, InMemoryQuizSessionStore::getExpired)
+                .tag("reason", "expired").register(registry);
+        FunctionCounter.builder("quiz.sessions.evictions", this, InMemoryQuizSessionStore::getSpilled)
+                .tag("reason", "spilled").register(registry);
+        FunctionCounter.builder("quiz.sessions.evictions", this, InMemoryQuizSessionStore::getDropped)
+                .tag("reason", "dropped").register(registry);
+    }
+}
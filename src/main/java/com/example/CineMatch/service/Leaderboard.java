@@ -0,0 +1,410 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.RankedScoreRepository;
+import com.example.CineMatch.dto.LeaderboardRow;
+import com.example.CineMatch.dto.RankedScore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongFunction;
+
+/**
+ * Ranked leaderboards for today, this week and all time, each a
+ * {@link RankedSkipList} of every user's best score.
+ *
+ * Submitting only appends to a lock-free queue. A single writer thread
+ * applies the queued scores in batches, taking the write lock once per batch
+ * rather than once per score, so bursts don't contend on it. Applied scores
+ * are written behind to Postgres in batches, and on startup the writer first
+ * replays each user's best stored score and every score of the current week,
+ * which is all the three windows need. Keeping the best per user doesn't
+ * depend on order, so scores submitted during the replay are not lost. Older
+ * scores that are not their user's best are pruned once a day, so the table
+ * (and the replay) stays bounded by the users and this week's games.
+ */
+@Component
+public class Leaderboard implements MeterBinder {
+
+    private static final int APPLY_BATCH = 1024;
+    private static final int REBUILD_PAGE = 5000;
+    private static final long IDLE_PARK_NANOS = Duration.ofMillis(100).toNanos();
+
+    private static final class Board {
+        final long periodStart;
+        final RankedSkipList scores = new RankedSkipList();
+
+        Board(long periodStart) {
+            this.periodStart = periodStart;
+        }
+    }
+
+    private final RankedScoreRepository repository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxUnsaved;
+    private final ZoneId zone;
+    private final Clock clock;
+
+    // Written only by the writer thread, under the write lock
+    private final EnumMap<LeaderboardWindow, Board> boards = new EnumMap<>(LeaderboardWindow.class);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ConcurrentLinkedQueue<RankedSkipList.Entry> submitted = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<RankedSkipList.Entry> unsaved = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger unsavedCount = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile Thread writer;
+    private volatile boolean running;
+    private volatile boolean rebuilt;
+
+    private final LongAdder submissions = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder saved = new LongAdder();
+    private final LongAdder saveFailures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder pruned = new LongAdder();
+
+    @Autowired
+    public Leaderboard(
+            RankedScoreRepository repository,
+            @Value("${leaderboard.enabled:true}") boolean enabled,
+            @Value("${leaderboard.batch-size:500}") int batchSize,
+            @Value("${leaderboard.max-unsaved:100000}") int maxUnsaved,
+            @Value("${leaderboard.zone:UTC}") String zone
+    ) {
+        this(repository, enabled, batchSize, maxUnsaved, ZoneId.of(zone), Clock.systemUTC());
+    }
+
+    public Leaderboard(RankedScoreRepository repository, boolean enabled, int batchSize, int maxUnsaved,
+                       ZoneId zone, Clock clock) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxUnsaved = maxUnsaved;
+        this.zone = zone;
+        this.clock = clock;
+
+        Instant now = clock.instant();
+        for (LeaderboardWindow window : LeaderboardWindow.values()) {
+            boards.put(window, new Board(window.periodStart(now, zone)));
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofVirtual().name("leaderboard-writer").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread current = writer;
+        if (current == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(current);
+        current.join(Duration.ofSeconds(5));
+        flush();
+    }
+
+    // =================================================================
+    // SUBMIT / QUERY
+    // =================================================================
+
+    /**
+     * Queues a ranked score; it shows up in the rankings a moment later.
+     */
+    public void submit(UUID userId, String username, int score) {
+        if (!enabled) {
+            return;
+        }
+        submitted.offer(new RankedSkipList.Entry(userId, username, score, clock.millis()));
+        submissions.increment();
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * limit rows starting after the first offset, best first.
+     */
+    public List<LeaderboardRow> top(LeaderboardWindow window, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            RankedSkipList scores = current(window);
+            List<RankedSkipList.Entry> entries = scores.range(offset + 1, limit);
+            List<LeaderboardRow> rows = new ArrayList<>(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                rows.add(toRow(offset + 1 + i, entries.get(i)));
+            }
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<LeaderboardRow> rankOf(LeaderboardWindow window, UUID userId) {
+        lock.readLock().lock();
+        try {
+            RankedSkipList scores = current(window);
+            int rank = scores.rankOf(userId);
+            return rank == 0 ? Optional.empty() : Optional.of(toRow(rank, scores.get(userId)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A board whose period is over counts as empty until the writer replaces it
+    private RankedSkipList current(LeaderboardWindow window) {
+        Board board = boards.get(window);
+        return board.periodStart == window.periodStart(clock.instant(), zone) ? board.scores : new RankedSkipList();
+    }
+
+    private static LeaderboardRow toRow(int rank, RankedSkipList.Entry entry) {
+        return new LeaderboardRow(rank, entry.userId(), entry.username(), entry.score(),
+                Instant.ofEpochMilli(entry.achievedAt()));
+    }
+
+    // =================================================================
+    // WRITER
+    // =================================================================
+
+    private void run() {
+        rebuild();
+
+        List<RankedSkipList.Entry> batch = new ArrayList<>(APPLY_BATCH);
+        while (running || !submitted.isEmpty()) {
+            RankedSkipList.Entry entry;
+            while (batch.size() < APPLY_BATCH && (entry = submitted.poll()) != null) {
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+
+            apply(batch);
+            for (RankedSkipList.Entry score : batch) {
+                unsaved.offer(score);
+                if (unsavedCount.incrementAndGet() > maxUnsaved && unsaved.poll() != null) {
+                    unsavedCount.decrementAndGet();
+                    dropped.increment();
+                }
+            }
+            applied.add(batch.size());
+            batch.clear();
+        }
+    }
+
+    private void apply(List<RankedSkipList.Entry> batch) {
+        lock.writeLock().lock();
+        try {
+            Instant now = clock.instant();
+            for (LeaderboardWindow window : LeaderboardWindow.values()) {
+                long periodStart = window.periodStart(now, zone);
+                if (boards.get(window).periodStart != periodStart) {
+                    boards.put(window, new Board(periodStart));
+                }
+            }
+            for (RankedSkipList.Entry entry : batch) {
+                for (Board board : boards.values()) {
+                    if (entry.achievedAt() >= board.periodStart) {
+                        board.scores.offer(entry);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Replays the all-time bests, then this week's scores (which cover today), a page at a time
+    private void rebuild() {
+        try {
+            replay(lastId -> repository.findBestPerUser(lastId, PageRequest.of(0, REBUILD_PAGE)));
+            Instant weekStart = Instant.ofEpochMilli(LeaderboardWindow.WEEKLY.periodStart(clock.instant(), zone));
+            replay(lastId -> repository.findByAchievedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+                    weekStart, lastId, PageRequest.of(0, REBUILD_PAGE)));
+        } catch (RuntimeException e) {
+            System.err.println("Rebuilding the leaderboard from the database failed: " + e.getMessage());
+        } finally {
+            rebuilt = true;
+        }
+    }
+
+    private void replay(LongFunction<Slice<RankedScore>> pageAfter) {
+        long lastId = 0;
+        Slice<RankedScore> page;
+        do {
+            page = pageAfter.apply(lastId);
+            List<RankedSkipList.Entry> entries = new ArrayList<>(page.getNumberOfElements());
+            for (RankedScore score : page) {
+                entries.add(new RankedSkipList.Entry(score.getUserId(), score.getUsername(), score.getScore(),
+                        score.getAchievedAt().toEpochMilli()));
+                lastId = score.getId();
+            }
+            apply(entries);
+        } while (page.hasNext());
+    }
+
+    /**
+     * Deletes the scores from before this week that are not their user's
+     * best: neither the weekly nor the all-time board can rank them again.
+     */
+    @Scheduled(cron = "${leaderboard.prune-cron:0 0 4 * * *}")
+    public void prune() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Instant weekStart = Instant.ofEpochMilli(LeaderboardWindow.WEEKLY.periodStart(clock.instant(), zone));
+            pruned.add(repository.deleteBeatenBefore(weekStart));
+        } catch (RuntimeException e) {
+            System.err.println("Pruning old ranked scores failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the applied scores to Postgres, batchSize rows per saveAll.
+     * A failed batch is kept for the next run.
+     */
+    @Scheduled(fixedDelayString = "${leaderboard.flush-interval:1s}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            List<RankedSkipList.Entry> batch = new ArrayList<>(batchSize);
+            while (true) {
+                RankedSkipList.Entry entry;
+                while (batch.size() < batchSize && (entry = unsaved.poll()) != null) {
+                    unsavedCount.decrementAndGet();
+                    batch.add(entry);
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+                try {
+                    repository.saveAll(batch.stream()
+                            .map(score -> new RankedScore(score.userId(), score.username(), score.score(),
+                                    Instant.ofEpochMilli(score.achievedAt())))
+                            .toList());
+                    saved.add(batch.size());
+                    batch.clear();
+                } catch (RuntimeException e) {
+                    saveFailures.increment();
+                    System.err.println("Saving " + batch.size() + " ranked scores failed: " + e.getMessage());
+                    unsaved.addAll(batch);
+                    unsavedCount.addAndGet(batch.size());
+                    return;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // =================================================================
+    // STATS
+    // =================================================================
+
+    public boolean isRebuilt() {
+        return rebuilt;
+    }
+
+    // Submitted but not yet in the rankings
+    public long getPending() {
+        return submissions.sum() - applied.sum();
+    }
+
+    public int getUnsaved() {
+        return unsavedCount.get();
+    }
+
+    public int getSize(LeaderboardWindow window) {
+        lock.readLock().lock();
+        try {
+            return current(window).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getSubmissions() {
+        return submissions.sum();
+    }
+
+    public long getSaved() {
+        return saved.sum();
+    }
+
+    public long getSaveFailures() {
+        return saveFailures.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getPruned() {
+        return pruned.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("leaderboard.submissions", this, Leaderboard::getSubmissions)
+                .register(registry);
+        Gauge.builder("leaderboard.pending", this, Leaderboard::getPending)
+                .register(registry);
+        Gauge.builder("leaderboard.unsaved", this, Leaderboard::getUnsaved)
+                .register(registry);
+        for (LeaderboardWindow window : LeaderboardWindow.values()) {
+            Gauge.builder("leaderboard.size", this, board -> board.getSize(window))
+                    .tag("window", window.name().toLowerCase(Locale.ROOT)).register(registry);
+        }
+        FunctionCounter.builder("leaderboard.writes", this, Leaderboard::getSaved)
+                .tag("result", "saved").register(registry);
+        FunctionCounter.builder("leaderboard.writes", this, Leaderboard::getSaveFailures)
+                .tag("result", "failed").register(registry);
+        FunctionCounter.builder("leaderboard.writes", this, Leaderboard::getDropped)
+                .tag("result", "dropped").register(registry);
+        FunctionCounter.builder("leaderboard.pruned", this, Leaderboard::getPruned)
+                .register(registry);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * The periods a leaderboard is kept for. Daily and weekly (from Monday) ones
+ * start over at midnight in the leaderboard's time zone.
+ */
+public enum LeaderboardWindow {
+    DAILY, WEEKLY, ALL_TIME;
+
+    // Epoch millis at which the period containing now began
+    long periodStart(Instant now, ZoneId zone) {
+        LocalDate today = LocalDate.ofInstant(now, zone);
+        return switch (this) {
+            case DAILY -> today.atStartOfDay(zone).toInstant().toEpochMilli();
+            case WEEKLY -> today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    .atStartOfDay(zone).toInstant().toEpochMilli();
+            case ALL_TIME -> Long.MIN_VALUE;
+        };
+    }
+
+    // "daily", "weekly", "all-time"
+    public static LeaderboardWindow parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
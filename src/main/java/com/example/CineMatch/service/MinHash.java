@@ -0,0 +1,114 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures over character shingles, split into LSH bands.
+ * Two texts whose shingle sets have Jaccard similarity s share at least one
+ * band with probability 1 - (1 - s^ROWS)^BANDS, about 50% at s = 0.38 and
+ * about 99% from s = 0.6, so the bands only narrow down the candidates and
+ * {@link #similarity} makes the call.
+ *
+ * The seeds are fixed: signatures are stored, and must stay comparable
+ * across restarts.
+ */
+final class MinHash {
+
+    static final int HASHES = 128;
+    static final int BANDS = 32;
+    static final int ROWS = HASHES / BANDS;
+    static final int SHINGLE = 4;
+
+    private static final long[] SEEDS = new SplittableRandom(0x5EED_C1AEL).longs(HASHES).toArray();
+
+    private MinHash() {
+    }
+
+    static long[] signature(String text) {
+        long[] signature = new long[HASHES];
+        Arrays.fill(signature, Long.MAX_VALUE);
+
+        String padded = text.length() < SHINGLE ? String.format("%-" + SHINGLE + "s", text) : text;
+        for (int start = 0; start + SHINGLE <= padded.length(); start++) {
+            long shingle = fnv1a(padded, start, start + SHINGLE);
+            for (int i = 0; i < HASHES; i++) {
+                long hash = mix(shingle ^ SEEDS[i]);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    // Estimated Jaccard similarity: the share of equal minimums
+    static double similarity(long[] a, long[] b) {
+        int equal = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return equal / (double) HASHES;
+    }
+
+    // One key per band: the band number in the high bits, a hash of its rows in the low ones
+    static Set<Long> bandKeys(long[] signature) {
+        Set<Long> keys = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            long hash = 0;
+            for (int row = 0; row < ROWS; row++) {
+                hash = mix(hash * 31 + signature[band * ROWS + row]);
+            }
+            keys.add((long) band << 32 | (hash & 0xFFFF_FFFFL));
+        }
+        return keys;
+    }
+
+    static byte[] toBytes(long[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Long.BYTES);
+        for (long value : signature) {
+            buffer.putLong(value);
+        }
+        return buffer.array();
+    }
+
+    static long[] fromBytes(byte[] bytes) {
+        long[] signature = new long[bytes.length / Long.BYTES];
+        ByteBuffer.wrap(bytes).asLongBuffer().get(signature);
+        return signature;
+    }
+
+    private static long fnv1a(String text, int from, int to) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
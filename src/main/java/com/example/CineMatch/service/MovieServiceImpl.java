@@ -13,75 +13,116 @@
  * If not, see <https://www.gnu.org/licenses/>.
  */package com.example.CineMatch.service;
 
+import com.example.CineMatch.Repository.TmdbEndpoints;
 import com.example.CineMatch.Repository.TmdbRepository;
 import com.example.CineMatch.dto.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import tools.jackson.databind.JavaType;
+import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ObjectNode;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class MovieServiceImpl implements MovieService {
 
     private final TmdbRepository tmdbRepository;
     private final ObjectMapper objectMapper;
+    private final JavaType pageType;
+    private final JavaType creditsType;
+
+    // Fetch details and credits in one TMDB call instead of two parallel ones
+    @Value("${tmdb.details.append-credits:false}")
+    private boolean appendCredits;
+
+    @Value("${tmdb.details.timeout:5s}")
+    private Duration detailsTimeout = Duration.ofSeconds(5);
+
+    // Answers searches locally when it can, and learns titles from list responses
+    @Autowired(required = false)
+    private TitleSearchIndex titleIndex;
 
     @Autowired
      public MovieServiceImpl(TmdbRepository tmdbRepository, ObjectMapper objectMapper) {
         this.tmdbRepository = tmdbRepository;
         this.objectMapper = objectMapper;
+        // Built once: resolving a parametric type on every request is measurable work
+        this.pageType = objectMapper.getTypeFactory()
+                .constructParametricType(ResponseDto.class, MovieDto.class);
+        this.creditsType = objectMapper.getTypeFactory()
+                .constructParametricType(CreditsDto.class, PersonDto.class);
     }
 
     // TRENDING
     @Override
     public ResponseDto<MovieDto> getTrending(int page) {
-        String json = tmdbRepository.call("/trending/movie/week?page=" + page);
-        JavaType type = objectMapper.getTypeFactory()
-                .constructParametricType(ResponseDto.class, MovieDto.class);
-
-        return objectMapper.readValue(json, type);
+        return remember(objectMapper.readValue(tmdbRepository.callBytes("/trending/movie/week?page=" + page), pageType));
     }
 
     // SEARCH
     @Override
     public ResponseDto<MovieDto> getSearch(String q, int page) {
-        String json = tmdbRepository.call("/search/movie?query=" + q + "&page=" + page);
-        JavaType type = objectMapper.getTypeFactory()
-                .constructParametricType(ResponseDto.class, MovieDto.class);
-
-        return objectMapper.readValue(json, type);
+        ResponseDto<MovieDto> local = titleIndex == null ? null
+                : titleIndex.search(TitleSearchIndex.Kind.MOVIE, q, page, MovieDto.class);
+        if (local != null) {
+            return local;
+        }
+        return remember(objectMapper.readValue(tmdbRepository.callBytes("/search/movie?query=" + TmdbEndpoints.encode(q) + "&page=" + page), pageType));
     }
 
     // DISCOVER
     @Override
     public ResponseDto<MovieDto> getDiscover(String q) {
-        String json = tmdbRepository.call("/discover/movie" + q);
-        JavaType type = objectMapper.getTypeFactory()
-                .constructParametricType(ResponseDto.class, MovieDto.class);
+        return remember(objectMapper.readValue(tmdbRepository.callBytes("/discover/movie" + q), pageType));
+    }
 
-        return objectMapper.readValue(json, type);
+    // Lets the title index learn what TMDB returned
+    private ResponseDto<MovieDto> remember(ResponseDto<MovieDto> page) {
+        if (titleIndex != null && page != null) {
+            titleIndex.record(TitleSearchIndex.Kind.MOVIE, page.getResults());
+        }
+        return page;
     }
 
     // DETAILS
     @Override
     public MovieDetailsDto getDetails(long id) {
-        Map<String, Object> details =
-                new HashMap<>(tmdbRepository.callMap("/movie/" + id));
-        Map<String, Object> credits =
-                tmdbRepository.callMap("/movie/" + id + "/credits");
-
-        details.put("cast", credits.get("cast"));
-
-        String json = objectMapper.writeValueAsString(details);
-        MovieDetailsDto dto = objectMapper.readValue(json, MovieDetailsDto.class);
+        MovieDetailsDto dto;
+        CreditsDto<PersonDto> credits;
+
+        if (appendCredits) {
+            // Split the appended credits object off before binding the details
+            JsonNode tree = objectMapper.readTree(
+                    tmdbRepository.callBytes("/movie/" + id + "?append_to_response=credits"));
+            if (!(tree instanceof ObjectNode details)) {
+                throw new RuntimeException("Invalid movie details received from TMDB");
+            }
+            JsonNode appended = details.remove("credits");
+
+            dto = objectMapper.treeToValue(details, MovieDetailsDto.class);
+            credits = appended == null ? null : objectMapper.treeToValue(appended, creditsType);
+        } else {
+            // Each response is bound from its raw bytes on the thread that fetched it
+            CompletableFuture<MovieDetailsDto> detailsCall = ParallelFetch.async(() ->
+                    objectMapper.readValue(tmdbRepository.callBytes("/movie/" + id), MovieDetailsDto.class));
+            CompletableFuture<CreditsDto<PersonDto>> creditsCall = ParallelFetch.async(() ->
+                    objectMapper.readValue(tmdbRepository.callBytes("/movie/" + id + "/credits"), creditsType));
+            ParallelFetch.awaitAll(detailsTimeout, detailsCall, creditsCall);
+
+            dto = detailsCall.join();
+            credits = creditsCall.join();
+        }
 
-        if (dto.getId() == null || dto.getTitle() == null) {
+        if (dto == null || dto.getId() == null || dto.getTitle() == null) {
             throw new RuntimeException("Invalid movie details received from TMDB");
         }
 
+        dto.setCast(credits == null ? null : credits.getCast());
+
         return dto;
     }
 }
\ No newline at end of file
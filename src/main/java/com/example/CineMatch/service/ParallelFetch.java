@@ -0,0 +1,115 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.TmdbLane;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent upstream calls side by side on virtual threads and waits
+ * for all of them under one deadline. Calls still running when the wait
+ * fails are interrupted, which aborts a blocked TMDB request or a wait for
+ * a throttle permit.
+ */
+final class ParallelFetch {
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private ParallelFetch() {
+    }
+
+    /*
+     * The task runs in the caller's TMDB lane and sees the caller's request.
+     * CompletableFuture.cancel never interrupts anything, so the task is
+     * submitted as a Future of its own, and cancelling the returned future
+     * cancels that one with an interrupt.
+     */
+    static <T> CompletableFuture<T> async(Supplier<T> task) {
+        TmdbLane lane = TmdbLane.current();
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = EXECUTOR.submit(() -> {
+            RequestContextHolder.setRequestAttributes(request);
+            try {
+                result.complete(TmdbLane.call(lane, task));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Waits until every future has completed. Fails as soon as one of them
+     * fails, re-throwing its original exception, and gives up with 504 once
+     * the timeout has passed.
+     */
+    static void awaitAll(Duration timeout, CompletableFuture<?>... futures) {
+        CompletableFuture<Void> outcome = new CompletableFuture<>();
+        for (CompletableFuture<?> future : futures) {
+            future.whenComplete((result, error) -> {
+                if (error != null) outcome.completeExceptionally(error);
+            });
+        }
+        // Dependents run in no fixed order, so allOf may see a failure before the handlers above
+        CompletableFuture.allOf(futures).whenComplete((result, error) -> {
+            if (error != null) outcome.completeExceptionally(error);
+            else outcome.complete(null);
+        });
+
+        try {
+            outcome.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            cancel(futures);
+            throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "TMDB did not answer in time");
+        } catch (ExecutionException e) {
+            cancel(futures);
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for TMDB");
+        }
+    }
+
+    private static void cancel(CompletableFuture<?>... futures) {
+        for (CompletableFuture<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof RuntimeException runtime) return runtime;
+        if (error instanceof Error fatal) throw fatal;
+        return new IllegalStateException(error);
+    }
+}
@@ -13,64 +13,110 @@
  * If not, see <https://www.gnu.org/licenses/>.
  */package com.example.CineMatch.service;
 
+import com.example.CineMatch.Repository.TmdbEndpoints;
 import com.example.CineMatch.Repository.TmdbRepository;
 import com.example.CineMatch.dto.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import tools.jackson.databind.JavaType;
+import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ObjectNode;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class PersonServiceImpl implements PersonService {
 
     private final TmdbRepository tmdbRepository;
     private final ObjectMapper objectMapper;
+    private final JavaType pageType;
+    private final JavaType creditsType;
+
+    // Fetch details and movie credits in one TMDB call instead of two parallel ones
+    @Value("${tmdb.details.append-credits:false}")
+    private boolean appendCredits;
+
+    @Value("${tmdb.details.timeout:5s}")
+    private Duration detailsTimeout = Duration.ofSeconds(5);
+
+    // Answers searches locally when it can, and learns titles from list responses
+    @Autowired(required = false)
+    private TitleSearchIndex titleIndex;
 
     @Autowired
      public PersonServiceImpl(TmdbRepository tmdbRepository, ObjectMapper objectMapper) {
         this.tmdbRepository = tmdbRepository;
         this.objectMapper = objectMapper;
+        // Built once: resolving a parametric type on every request is measurable work
+        this.pageType = objectMapper.getTypeFactory()
+                .constructParametricType(ResponseDto.class, PersonDto.class);
+        this.creditsType = objectMapper.getTypeFactory()
+                .constructParametricType(CreditsDto.class, MovieDto.class);
     }
 
     // TRENDING
     @Override
     public ResponseDto<PersonDto> getTrending(int page) {
-        String json = tmdbRepository.call("/trending/person/week?page=" + page);
-        JavaType type = objectMapper.getTypeFactory()
-                .constructParametricType(ResponseDto.class, PersonDto.class);
-
-        return objectMapper.readValue(json, type);
+        return remember(objectMapper.readValue(tmdbRepository.callBytes("/trending/person/week?page=" + page), pageType));
     }
 
     // SEARCH
     @Override
     public ResponseDto<PersonDto> getSearch(String q, int page) {
-        String json = tmdbRepository.call("/search/person?query=" + q + "&page=" + page);
-        JavaType type = objectMapper.getTypeFactory()
-                .constructParametricType(ResponseDto.class, PersonDto.class);
+        ResponseDto<PersonDto> local = titleIndex == null ? null
+                : titleIndex.search(TitleSearchIndex.Kind.PERSON, q, page, PersonDto.class);
+        if (local != null) {
+            return local;
+        }
+        return remember(objectMapper.readValue(tmdbRepository.callBytes("/search/person?query=" + TmdbEndpoints.encode(q) + "&page=" + page), pageType));
+    }
 
-        return objectMapper.readValue(json, type);
+    // Lets the title index learn what TMDB returned
+    private ResponseDto<PersonDto> remember(ResponseDto<PersonDto> page) {
+        if (titleIndex != null && page != null) {
+            titleIndex.record(TitleSearchIndex.Kind.PERSON, page.getResults());
+        }
+        return page;
     }
 
     // DETAILS
     @Override
     public PersonDetailsDto getDetails(long id) {
-        Map<String, Object> details =
-                new HashMap<>(tmdbRepository.callMap("/person/" + id));
-        Map<String, Object> credits =
-                tmdbRepository.callMap("/person/" + id + "/movie_credits");
+        PersonDetailsDto dto;
+        CreditsDto<MovieDto> credits;
+
+        if (appendCredits) {
+            // Split the appended credits object off before binding the details
+            JsonNode tree = objectMapper.readTree(
+                    tmdbRepository.callBytes("/person/" + id + "?append_to_response=movie_credits"));
+            if (!(tree instanceof ObjectNode details)) {
+                throw new RuntimeException("Invalid person details received from TMDB");
+            }
+            JsonNode appended = details.remove("movie_credits");
 
-        details.put("movie_credits", credits.get("cast"));
-        String json = objectMapper.writeValueAsString(details);
-        PersonDetailsDto dto = objectMapper.readValue(json, PersonDetailsDto.class);
+            dto = objectMapper.treeToValue(details, PersonDetailsDto.class);
+            credits = appended == null ? null : objectMapper.treeToValue(appended, creditsType);
+        } else {
+            // Each response is bound from its raw bytes on the thread that fetched it
+            CompletableFuture<PersonDetailsDto> detailsCall = ParallelFetch.async(() ->
+                    objectMapper.readValue(tmdbRepository.callBytes("/person/" + id), PersonDetailsDto.class));
+            CompletableFuture<CreditsDto<MovieDto>> creditsCall = ParallelFetch.async(() ->
+                    objectMapper.readValue(tmdbRepository.callBytes("/person/" + id + "/movie_credits"), creditsType));
+            ParallelFetch.awaitAll(detailsTimeout, detailsCall, creditsCall);
 
-        if (dto.getId() == null || dto.getName() == null) {
+            dto = detailsCall.join();
+            credits = creditsCall.join();
+        }
+
+        if (dto == null || dto.getId() == null || dto.getName() == null) {
             throw new RuntimeException("Invalid person details received from TMDB");
         }
 
+        dto.setMovieCredits(credits == null ? null : credits.getCast());
+
         return dto;
     }
 }
\ No newline at end of file
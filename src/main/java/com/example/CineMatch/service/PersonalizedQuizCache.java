@@ -0,0 +1,327 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.dto.QuizQuestion;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Personalized quizzes shared by every user with the same top-3 genres.
+ * Each genre set keeps a few quiz variants and serves them round-robin, and a
+ * user never gets the variant they were served last. A cold genre set is
+ * filled by the caller's own live generation ({@link #add}); once it has a
+ * variant, the missing ones are generated in the background, and a miss
+ * while such a warm-up is running waits for it instead of calling the LLM
+ * a second time.
+ *
+ * Returned question lists are shared between users and must be treated as
+ * read-only.
+ */
+@Component
+public class PersonalizedQuizCache implements MeterBinder {
+
+    private record Variant(long id, List<QuizQuestion> questions, long createdAt) {}
+
+    private static final class Variants {
+        final List<Variant> quizzes = new ArrayList<>();
+        int next;
+    }
+
+    private final QuizGenerator generator;
+    private final QuestionBank questionBank;
+    private final boolean enabled;
+    private final int variantsPerKey;
+    private final Duration ttl;
+    private final int maxKeys;
+    private final int maxUsers;
+    private final Clock clock;
+
+    // Both access-ordered, so the least recently used entry is evicted first
+    private final LinkedHashMap<String, Variants> byGenres = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<UUID, Long> lastServed = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong variantIds = new AtomicLong();
+
+    // In-flight warm-ups by key, completed with the stored variant (null when generation failed)
+    private final Map<String, CompletableFuture<Variant>> warming = new ConcurrentHashMap<>();
+    private final Semaphore warmers;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder warmed = new LongAdder();
+    private final LongAdder warmFailures = new LongAdder();
+
+    @Autowired
+    public PersonalizedQuizCache(
+            QuizGenerator generator,
+            QuestionBank questionBank,
+            @Value("${quiz.personalized.cache.enabled:true}") boolean enabled,
+            @Value("${quiz.personalized.variants:4}") int variantsPerKey,
+            @Value("${quiz.personalized.ttl:1d}") Duration ttl,
+            @Value("${quiz.personalized.max-keys:1000}") int maxKeys,
+            @Value("${quiz.personalized.max-users:10000}") int maxUsers,
+            @Value("${quiz.personalized.warm-concurrency:2}") int warmConcurrency
+    ) {
+        this(generator, questionBank, enabled, variantsPerKey, ttl, maxKeys, maxUsers, warmConcurrency,
+                Clock.systemUTC());
+    }
+
+    public PersonalizedQuizCache(QuizGenerator generator, QuestionBank questionBank, boolean enabled,
+                                 int variantsPerKey, Duration ttl, int maxKeys, int maxUsers,
+                                 int warmConcurrency, Clock clock) {
+        this.generator = generator;
+        this.questionBank = questionBank;
+        this.enabled = enabled;
+        this.variantsPerKey = variantsPerKey;
+        this.ttl = ttl;
+        this.maxKeys = maxKeys;
+        this.maxUsers = maxUsers;
+        this.warmers = new Semaphore(warmConcurrency);
+        this.clock = clock;
+    }
+
+    /**
+     * Hands out the next cached variant for these genres that the user did not
+     * just see, waiting for a warm-up of the same genres if one is running.
+     * Returns empty on a miss, in which case the caller generates live and
+     * should {@link #add} the result.
+     */
+    public Optional<List<QuizQuestion>> take(UUID userId, List<String> genres) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        String key = key(genres);
+        Variant served = null;
+        boolean needsMore;
+
+        lock.lock();
+        try {
+            Variants variants = byGenres.get(key);
+            if (variants != null) {
+                dropExpired(variants);
+                Long previous = lastServed.get(userId);
+                int size = variants.quizzes.size();
+                for (int i = 0; i < size && served == null; i++) {
+                    int index = (variants.next + i) % size;
+                    Variant candidate = variants.quizzes.get(index);
+                    if (previous == null || candidate.id() != previous) {
+                        served = candidate;
+                        variants.next = index + 1;
+                    }
+                }
+                if (served != null) {
+                    rememberServed(userId, served.id());
+                }
+            }
+            needsMore = variants == null || variants.quizzes.size() < variantsPerKey;
+        } finally {
+            lock.unlock();
+        }
+
+        if (served == null) {
+            served = awaitWarmUp(key, userId);
+        } else if (needsMore) {
+            // Only after a hit: on a miss the caller's live quiz fills the slot
+            warm(key, genres);
+        }
+
+        if (served == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(served.questions());
+    }
+
+    // The variant a running warm-up of this key produces, if the user did not just see it
+    private Variant awaitWarmUp(String key, UUID userId) {
+        CompletableFuture<Variant> inFlight = warming.get(key);
+        if (inFlight == null) {
+            return null;
+        }
+        Variant warmedUp = inFlight.join();
+        if (warmedUp == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            Long previous = lastServed.get(userId);
+            if (previous != null && previous == warmedUp.id()) {
+                return null;
+            }
+            rememberServed(userId, warmedUp.id());
+        } finally {
+            lock.unlock();
+        }
+        return warmedUp;
+    }
+
+    /**
+     * Stores a quiz generated live for this user as one of the variants of
+     * their genre set. Only complete quizzes are kept: a stream that ended
+     * early would otherwise be served to other users as a full quiz.
+     */
+    public void add(UUID userId, List<String> genres, List<QuizQuestion> questions) {
+        if (!enabled || questions == null || questions.size() != QuizGenerator.QUESTIONS_PER_QUIZ) {
+            return;
+        }
+        Variant variant = store(key(genres), questions);
+        lock.lock();
+        try {
+            rememberServed(userId, variant.id());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* Same genres in any order or case map to the same key */
+    static String key(List<String> genres) {
+        return genres.stream()
+                .map(genre -> genre.trim().toLowerCase(Locale.ROOT))
+                .distinct()
+                .sorted()
+                .reduce((a, b) -> a + "|" + b)
+                .orElse("");
+    }
+
+    // Generates one more variant in the background, at most one per key at a time
+    private void warm(String key, List<String> genres) {
+        CompletableFuture<Variant> pending = new CompletableFuture<>();
+        if (warming.putIfAbsent(key, pending) != null) {
+            return;
+        }
+        if (!warmers.tryAcquire()) {
+            warming.remove(key, pending);
+            pending.complete(null);
+            return;
+        }
+
+        List<String> snapshot = List.copyOf(genres);
+        Thread.ofVirtual().name("quiz-warm-" + key).start(() -> {
+            Variant variant = null;
+            try {
+                variant = store(key, generator.generatePersonalizedQuiz(snapshot));
+                warmed.increment();
+                // Banked once, here, rather than again on every take
+                questionBank.offer(variant.questions(), snapshot);
+            } catch (Exception e) {
+                warmFailures.increment();
+                System.err.println("Warming personalized quiz for [" + key + "] failed: " + e.getMessage());
+            } finally {
+                warmers.release();
+                warming.remove(key, pending);
+                pending.complete(variant);
+            }
+        });
+    }
+
+    private Variant store(String key, List<QuizQuestion> questions) {
+        Variant variant = new Variant(variantIds.incrementAndGet(), List.copyOf(questions), clock.millis());
+
+        lock.lock();
+        try {
+            Variants variants = byGenres.computeIfAbsent(key, k -> new Variants());
+            dropExpired(variants);
+            if (variants.quizzes.size() >= variantsPerKey) {
+                variants.quizzes.removeFirst();
+            }
+            variants.quizzes.add(variant);
+
+            Iterator<String> eldest = byGenres.keySet().iterator();
+            while (byGenres.size() > maxKeys && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return variant;
+    }
+
+    // Caller must hold the lock
+    private void dropExpired(Variants variants) {
+        long cutoff = clock.millis() - ttl.toMillis();
+        variants.quizzes.removeIf(variant -> variant.createdAt() < cutoff);
+    }
+
+    // Caller must hold the lock
+    private void rememberServed(UUID userId, long variantId) {
+        lastServed.put(userId, variantId);
+        Iterator<UUID> eldest = lastServed.keySet().iterator();
+        while (lastServed.size() > maxUsers && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    // =================================================================
+    // STATS
+    // =================================================================
+
+    public int getKeys() {
+        lock.lock();
+        try {
+            return byGenres.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getWarmed() {
+        return warmed.sum();
+    }
+
+    public long getWarmFailures() {
+        return warmFailures.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("quiz.personalized.requests", this, PersonalizedQuizCache::getHits)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("quiz.personalized.requests", this, PersonalizedQuizCache::getMisses)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("quiz.personalized.warmups", this, PersonalizedQuizCache::getWarmed)
+                .tag("result", "ok").register(registry);
+        FunctionCounter.builder("quiz.personalized.warmups", this, PersonalizedQuizCache::getWarmFailures)
+                .tag("result", "failed").register(registry);
+        Gauge.builder("quiz.personalized.keys", this, PersonalizedQuizCache::getKeys)
+                .register(registry);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.QuizSessionEntryRepository;
+import com.example.CineMatch.dto.QuizSessionEntry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Quiz sessions in the quiz_sessions table, visible to every replica.
+ * A session is only handed out by the call whose delete removed its row, so
+ * two concurrent submissions of the same quiz cannot both be graded.
+ * Rows of sessions that were never submitted are purged in the background,
+ * at most once per purgeInterval.
+ */
+public class PostgresQuizSessionStore implements QuizSessionStore {
+
+    private final QuizSessionEntryRepository entries;
+    private final long purgeIntervalMillis;
+    private final Clock clock;
+    private final AtomicLong nextPurge = new AtomicLong();
+
+    public PostgresQuizSessionStore(QuizSessionEntryRepository entries, Duration purgeInterval, Clock clock) {
+        this.entries = entries;
+        this.purgeIntervalMillis = purgeInterval.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public void put(String sessionId, QuizSession session) {
+        entries.save(new QuizSessionEntry(sessionId, session.answerKey(), session.ranked(),
+                Instant.ofEpochMilli(session.issuedAt()), Instant.ofEpochMilli(session.expiresAt())));
+
+        long now = clock.millis();
+        long due = nextPurge.get();
+        if (now >= due && nextPurge.compareAndSet(due, now + purgeIntervalMillis)) {
+            Thread.ofVirtual().name("quiz-session-purge").start(this::purgeExpired);
+        }
+    }
+
+    @Override
+    public Optional<QuizSession> take(String sessionId) {
+        Optional<QuizSessionEntry> entry = entries.findById(sessionId);
+        if (entry.isEmpty() || entries.deleteReturningCount(sessionId) == 0) {
+            return Optional.empty();
+        }
+        QuizSessionEntry stored = entry.get();
+        QuizSession session = new QuizSession(stored.getAnswerKey(),
+                Boolean.TRUE.equals(stored.getRanked()),
+                stored.getIssuedAt() == null ? 0 : stored.getIssuedAt().toEpochMilli(),
+                stored.getExpiresAt().toEpochMilli());
+        return session.isExpired(clock.millis()) ? Optional.empty() : Optional.of(session);
+    }
+
+    void purgeExpired() {
+        try {
+            entries.deleteExpired(clock.instant());
+        } catch (RuntimeException e) {
+            System.err.println("Purging expired quiz sessions failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,490 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.BankedQuestionRepository;
+import com.example.CineMatch.Repository.ServedQuestionRepository;
+import com.example.CineMatch.dto.BankedQuestion;
+import com.example.CineMatch.dto.QuizQuestion;
+import com.example.CineMatch.dto.ServedQuestion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Every validated quiz question we ever generated, stored in Postgres and
+ * tagged with the genres it was generated for and the decade it is about.
+ * Quizzes are assembled from the bank with a couple of indexed queries, so
+ * the LLM is only used to grow it in the background.
+ *
+ * A question is not stored when its normalized text is already banked, or
+ * when a banked question sharing one of its LSH bands is at least
+ * similarityThreshold similar (MinHash over its text and correct answer),
+ * so rewordings of "Who directed X?" collapse into one.
+ *
+ * Ranked quizzes take the least served questions with at most MAX_OLD_ERA
+ * from before 2000. Personalized ones take questions tagged with one of the
+ * user's genres that this user was never served.
+ */
+@Component
+public class QuestionBank implements MeterBinder {
+
+    // The ranked prompt asks for at least 6 of 10 questions about films from 2000 on
+    static final int MAX_OLD_ERA = 4;
+
+    private static final Pattern YEAR = Pattern.compile("\\b(19\\d{2}|20\\d{2})\\b");
+    private static final Set<String> FILLER_WORDS = Set.of(
+            "a", "an", "the", "of", "in", "on", "for", "to", "by", "from", "with", "and", "or",
+            "who", "what", "which", "when", "where", "how", "was", "is", "were", "are", "did", "does",
+            "film", "movie", "released", "this", "that", "following");
+    private static final TypeReference<List<String>> OPTIONS = new TypeReference<>() {};
+
+    private final BankedQuestionRepository questions;
+    private final ServedQuestionRepository served;
+    private final QuizGenerator generator;
+    private final boolean enabled;
+    private final double similarityThreshold;
+    private final int candidateWindow;
+    private final int lowWatermark;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Genre sets a personalized quiz could not be assembled for, keyed like PersonalizedQuizCache
+    private final Map<String, List<String>> wanted = new ConcurrentHashMap<>();
+    private final AtomicBoolean growing = new AtomicBoolean();
+    private final AtomicLong unserved = new AtomicLong(-1);
+
+    private final LongAdder rankedHits = new LongAdder();
+    private final LongAdder rankedMisses = new LongAdder();
+    private final LongAdder personalizedHits = new LongAdder();
+    private final LongAdder personalizedMisses = new LongAdder();
+    private final LongAdder added = new LongAdder();
+    private final LongAdder exactDuplicates = new LongAdder();
+    private final LongAdder nearDuplicates = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    @Autowired
+    public QuestionBank(
+            BankedQuestionRepository questions,
+            ServedQuestionRepository served,
+            QuizGenerator generator,
+            @Value("${quiz.bank.enabled:true}") boolean enabled,
+            @Value("${quiz.bank.similarity-threshold:0.6}") double similarityThreshold,
+            @Value("${quiz.bank.candidate-window:200}") int candidateWindow,
+            @Value("${quiz.bank.low-watermark:50}") int lowWatermark
+    ) {
+        this(questions, served, generator, enabled, similarityThreshold, candidateWindow, lowWatermark,
+                Clock.systemUTC());
+    }
+
+    public QuestionBank(BankedQuestionRepository questions, ServedQuestionRepository served,
+                        QuizGenerator generator, boolean enabled, double similarityThreshold,
+                        int candidateWindow, int lowWatermark, Clock clock) {
+        this.questions = questions;
+        this.served = served;
+        this.generator = generator;
+        this.enabled = enabled;
+        this.similarityThreshold = similarityThreshold;
+        this.candidateWindow = candidateWindow;
+        this.lowWatermark = lowWatermark;
+        this.clock = clock;
+    }
+
+    // =================================================================
+    // ASSEMBLY
+    // =================================================================
+
+    /**
+     * A ranked quiz from the least served questions, or empty when the bank
+     * cannot fill one yet.
+     */
+    public Optional<List<QuizQuestion>> assembleRanked() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Optional<List<QuizQuestion>> quiz = assemble(
+                () -> questions.findLeastServed(PageRequest.of(0, candidateWindow)), MAX_OLD_ERA, null);
+        (quiz.isPresent() ? rankedHits : rankedMisses).increment();
+        if (quiz.isEmpty()) {
+            growInBackground();
+        }
+        return quiz;
+    }
+
+    /**
+     * A quiz of questions about these genres that the user has not been
+     * served yet, or empty when there are not enough of them; the bank then
+     * grows for these genres in the background.
+     */
+    public Optional<List<QuizQuestion>> assemblePersonalized(UUID userId, List<String> genres) {
+        if (!enabled || genres.isEmpty()) {
+            return Optional.empty();
+        }
+        Set<String> tags = tags(genres);
+        Optional<List<QuizQuestion>> quiz = assemble(
+                () -> questions.findUnseenByGenres(tags, userId, PageRequest.of(0, candidateWindow)),
+                QuizGenerator.QUESTIONS_PER_QUIZ, userId);
+        (quiz.isPresent() ? personalizedHits : personalizedMisses).increment();
+        if (quiz.isEmpty()) {
+            wanted.putIfAbsent(PersonalizedQuizCache.key(genres), List.copyOf(genres));
+            growInBackground();
+        }
+        return quiz;
+    }
+
+    private Optional<List<QuizQuestion>> assemble(Supplier<List<BankedQuestionRepository.Candidate>> candidateQuery, int maxOldEra, UUID userId) {
+        try {
+            List<BankedQuestionRepository.Candidate> candidates = new ArrayList<>(candidateQuery.get());
+            // Least served first, but not the same ten for everyone
+            Collections.shuffle(candidates);
+
+            List<Long> picked = new ArrayList<>();
+            int oldEra = 0;
+            for (BankedQuestionRepository.Candidate candidate : candidates) {
+                if (picked.size() == QuizGenerator.QUESTIONS_PER_QUIZ) {
+                    break;
+                }
+                if (isOldEra(candidate.getEra())) {
+                    if (oldEra == maxOldEra) {
+                        continue;
+                    }
+                    oldEra++;
+                }
+                picked.add(candidate.getId());
+            }
+            if (picked.size() < QuizGenerator.QUESTIONS_PER_QUIZ) {
+                return Optional.empty();
+            }
+
+            Map<Long, BankedQuestion> byId = new HashMap<>();
+            questions.findAllById(picked).forEach(question -> byId.put(question.getId(), question));
+            List<QuizQuestion> quiz = new ArrayList<>();
+            for (Long id : picked) {
+                quiz.add(toQuestion(byId.get(id)));
+            }
+
+            recordServed(picked, userId);
+            return Optional.of(quiz);
+        } catch (RuntimeException e) {
+            // The bank is an optimization: without the database, quizzes come from the LLM as before
+            failures.increment();
+            System.err.println("Assembling a quiz from the question bank failed: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /*
+     * Bookkeeping for a quiz that is already assembled, so a failure here does
+     * not cost the quiz: at worst the counts or the user's history miss it.
+     * The history goes first, as it is what keeps questions from repeating;
+     * saveAll is a single transaction, so it is recorded whole or not at all.
+     */
+    private void recordServed(List<Long> picked, UUID userId) {
+        try {
+            if (userId != null) {
+                served.saveAll(picked.stream()
+                        .map(id -> new ServedQuestion(userId, id, clock.instant()))
+                        .toList());
+            }
+            questions.markServed(picked);
+        } catch (RuntimeException e) {
+            failures.increment();
+            System.err.println("Recording a quiz served from the question bank failed: " + e.getMessage());
+        }
+    }
+
+    private static boolean isOldEra(String era) {
+        return era != null && era.compareTo("2000s") < 0;
+    }
+
+    // =================================================================
+    // GROWTH
+    // =================================================================
+
+    /**
+     * Banks a quiz that was just served from elsewhere (pool, cache or live
+     * generation), without holding up the request.
+     */
+    public void offer(List<QuizQuestion> quiz, List<String> genres) {
+        if (!enabled || quiz == null || quiz.isEmpty()) {
+            return;
+        }
+        List<QuizQuestion> snapshot = List.copyOf(quiz);
+        List<String> tags = List.copyOf(genres);
+        Thread.ofVirtual().name("quiz-bank-offer").start(() -> add(snapshot, tags, 1));
+    }
+
+    /**
+     * Asks the LLM for a ranked quiz while few questions were never served,
+     * and for a personalized one per genre set the bank ran out of.
+     */
+    @Scheduled(initialDelayString = "${quiz.bank.initial-delay:30s}",
+               fixedDelayString = "${quiz.bank.grow-interval:2m}")
+    public void grow() {
+        if (!enabled || !growing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long fresh = questions.countByServedCount(0);
+            unserved.set(fresh);
+            if (fresh < lowWatermark) {
+                add(generator.generateRankedQuiz(), List.of(), 0);
+            }
+        } catch (Exception e) {
+            failures.increment();
+            System.err.println("Growing the question bank failed: " + e.getMessage());
+        }
+        try {
+            for (String key : List.copyOf(wanted.keySet())) {
+                List<String> genres = wanted.remove(key);
+                try {
+                    add(generator.generatePersonalizedQuiz(genres), genres, 0);
+                } catch (Exception e) {
+                    failures.increment();
+                    System.err.println("Growing the question bank for [" + key + "] failed: " + e.getMessage());
+                }
+            }
+        } finally {
+            growing.set(false);
+        }
+    }
+
+    private void growInBackground() {
+        if (!growing.get()) {
+            Thread.ofVirtual().name("quiz-bank-grow").start(this::grow);
+        }
+    }
+
+    /**
+     * Stores the valid questions that are not already banked, or close to a
+     * banked one. Returns how many were stored.
+     */
+    int add(List<QuizQuestion> quiz, List<String> genres, int servedCount) {
+        Set<String> tags = tags(genres);
+        int stored = 0;
+        for (QuizQuestion question : quiz) {
+            if (!QuizGenerator.isValidQuestion(question)) {
+                invalid.increment();
+                continue;
+            }
+            try {
+                if (store(question, tags, servedCount)) {
+                    stored++;
+                }
+            } catch (DataIntegrityViolationException e) {
+                // Banked concurrently under the same content key
+                exactDuplicates.increment();
+            } catch (RuntimeException e) {
+                failures.increment();
+                System.err.println("Banking quiz questions failed: " + e.getMessage());
+                break;
+            }
+        }
+        return stored;
+    }
+
+    private boolean store(QuizQuestion question, Set<String> tags, int servedCount) {
+        String contentKey = contentKey(question.getQuestionText());
+        if (questions.existsByContentKey(contentKey)) {
+            exactDuplicates.increment();
+            return false;
+        }
+
+        long[] signature = MinHash.signature(shingleText(question));
+        Set<Long> bands = MinHash.bandKeys(signature);
+        for (BankedQuestion candidate : questions.findByAnyBand(bands)) {
+            if (MinHash.similarity(signature, MinHash.fromBytes(candidate.getSignature())) >= similarityThreshold) {
+                nearDuplicates.increment();
+                return false;
+            }
+        }
+
+        BankedQuestion banked = new BankedQuestion();
+        banked.setQuestionText(question.getQuestionText());
+        banked.setOptionsJson(writeOptions(question.getOptions()));
+        banked.setCorrectAnswerIndex(question.getCorrectAnswerIndex());
+        banked.setExplanation(question.getExplanation());
+        banked.setGenres(new HashSet<>(tags));
+        banked.setEra(era(question));
+        banked.setContentKey(contentKey);
+        banked.setSignature(MinHash.toBytes(signature));
+        banked.setBands(bands);
+        banked.setServedCount(servedCount);
+        banked.setCreatedAt(clock.instant());
+        questions.save(banked);
+        added.increment();
+        return true;
+    }
+
+    // =================================================================
+    // HELPERS
+    // =================================================================
+
+    static String contentKey(String questionText) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(RankedQuizPool.normalize(questionText).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+     * What MinHash compares: the question without its filler words, plus the
+     * correct answer, so the same wording about a different film is not a
+     * duplicate but "Who was the director of X?" and "Who directed X?" are.
+     */
+    static String shingleText(QuizQuestion question) {
+        StringJoiner text = new StringJoiner(" ");
+        for (String word : RankedQuizPool.normalize(question.getQuestionText()).split(" ")) {
+            if (!FILLER_WORDS.contains(word)) {
+                text.add(word);
+            }
+        }
+        return text + " | " + RankedQuizPool.normalize(question.getOptions().get(question.getCorrectAnswerIndex()));
+    }
+
+    // The decade of the first year named in the question, or else in the explanation
+    static String era(QuizQuestion question) {
+        for (String text : new String[]{question.getQuestionText(), question.getExplanation()}) {
+            if (text == null) {
+                continue;
+            }
+            Matcher year = YEAR.matcher(text);
+            if (year.find()) {
+                return Integer.parseInt(year.group(1)) / 10 * 10 + "s";
+            }
+        }
+        return null;
+    }
+
+    private static Set<String> tags(List<String> genres) {
+        Set<String> tags = new HashSet<>();
+        for (String genre : genres) {
+            tags.add(genre.trim().toLowerCase(Locale.ROOT));
+        }
+        return tags;
+    }
+
+    private String writeOptions(List<String> options) {
+        try {
+            return objectMapper.writeValueAsString(options);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private QuizQuestion toQuestion(BankedQuestion banked) {
+        try {
+            return new QuizQuestion(banked.getQuestionText(), objectMapper.readValue(banked.getOptionsJson(), OPTIONS),
+                    banked.getCorrectAnswerIndex(), banked.getExplanation());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable options of banked question " + banked.getId(), e);
+        }
+    }
+
+    // =================================================================
+    // STATS
+    // =================================================================
+
+    // As of the last growth check, -1 before the first one
+    public long getUnserved() {
+        return unserved.get();
+    }
+
+    public long getRankedHits() {
+        return rankedHits.sum();
+    }
+
+    public long getRankedMisses() {
+        return rankedMisses.sum();
+    }
+
+    public long getPersonalizedHits() {
+        return personalizedHits.sum();
+    }
+
+    public long getPersonalizedMisses() {
+        return personalizedMisses.sum();
+    }
+
+    public long getAdded() {
+        return added.sum();
+    }
+
+    public long getExactDuplicates() {
+        return exactDuplicates.sum();
+    }
+
+    public long getNearDuplicates() {
+        return nearDuplicates.sum();
+    }
+
+    public long getInvalid() {
+        return invalid.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("quiz.bank.unserved", this, QuestionBank::getUnserved)
+                .register(registry);
+        FunctionCounter.builder("quiz.bank.requests", this, QuestionBank::getRankedHits)
+                .tags("kind", "ranked", "result", "hit").register(registry);
+        FunctionCounter.builder("quiz.bank.requests", this, QuestionBank::getRankedMisses)
+                .tags("kind", "ranked", "result", "miss").register(registry);
+        FunctionCounter.builder("quiz.bank.requests", this, QuestionBank::getPersonalizedHits)
+                .tags("kind", "personalized", "result", "hit").register(registry);
+        FunctionCounter.builder("quiz.bank.requests", this, QuestionBank::getPersonalizedMisses)
+                .tags("kind", "personalized", "result", "miss").register(registry);
+        FunctionCounter.builder("quiz.bank.questions", this, QuestionBank::getAdded)
+                .tag("result", "added").register(registry);
+        FunctionCounter.builder("quiz.bank.questions", this, QuestionBank::getExactDuplicates)
+                .tag("result", "exact-duplicate").register(registry);
+        FunctionCounter.builder("quiz.bank.questions", this, QuestionBank::getNearDuplicates)
+                .tag("result", "near-duplicate").register(registry);
+        FunctionCounter.builder("quiz.bank.questions", this, QuestionBank::getInvalid)
+                .tag("result", "invalid").register(registry);
+        FunctionCounter.builder("quiz.bank.failures", this, QuestionBank::getFailures)
+                .register(registry);
+    }
+}
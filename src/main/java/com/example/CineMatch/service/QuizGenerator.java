@@ -0,0 +1,453 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+import com.example.CineMatch.dto.QuizQuestion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Talks to the LLM (OpenRouter) and turns its answer into quiz questions.
+ * Shared by QuizServiceImpl for live requests and by the background quiz pools.
+ */
+@Component
+public class QuizGenerator implements MeterBinder {
+
+    static final int QUESTIONS_PER_QUIZ = 10;
+    static final int OPTIONS_PER_QUESTION = 4;
+    // The first call plus up to two top-ups
+    private static final int MAX_LLM_CALLS = 3;
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${llm.api.key}")
+    private String apiKey;
+
+    private static final String OPENROUTER_ENDPOINT =
+            "https://openrouter.ai/api/v1/chat/completions";
+
+    // Free & good
+    private static final String MODEL_ID =
+            "mistralai/mistral-7b-instruct";
+
+    private final LongAdder initialCalls = new LongAdder();
+    private final LongAdder topUpCalls = new LongAdder();
+    private final LongAdder kept = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    public QuizGenerator(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    // =================================================================
+    // 1. RANKED QUIZ
+    // =================================================================
+    public List<QuizQuestion> generateRankedQuiz() throws Exception {
+        return generateQuiz(buildRankedQuizPrompt());
+    }
+
+
+    private String buildRankedQuizPrompt() {
+        return """
+You are a professional cinema trivia engine used in a ranked competitive game.
+
+TASK:
+Generate EXACTLY 10 cinema trivia questions.
+
+ERA CONSTRAINT (VERY IMPORTANT):
+- At least 6 questions MUST be about films released in the year 2000 or later
+- Remaining questions may include late 1990s at earliest
+- Avoid pre-1990 cinema unless absolutely necessary
+
+DIFFICULTY RULES:
+- Difficulty: medium to hard
+- Modern difficulty is allowed (cinematography, festivals, international cinema, directors, production facts)
+- Do NOT rely on silent-era or golden-age cinema to create difficulty
+
+CONTENT RULES:
+- No subjective or opinion-based questions
+- One and only one correct answer per question
+- No repeating movies, directors, actors, or franchises
+- Each question must cover a DIFFERENT film or topic
+
+ANTI-REPETITION:
+- Assume the user has played before
+- Avoid common trivia patterns
+- Prefer less obvious but verifiable facts
+
+FORMAT (STRICT):
+- Output ONLY a valid JSON array
+- No markdown
+- No text before or after JSON
+
+JSON SCHEMA:
+[
+  {
+    "questionText": "string",
+    "options": ["string", "string", "string", "string"],
+    "correctAnswerIndex": 0,
+    "explanation": "string"
+  }
+]
+
+If you violate ANY rule, the output is invalid.
+
+Generate now.
+""";
+    }
+
+
+    // =================================================================
+    // 2. PERSONALIZED QUIZ
+    // =================================================================
+    public List<QuizQuestion> generatePersonalizedQuiz(List<String> genres) throws Exception {
+        return generateQuiz(buildPersonalizedQuizPrompt(genres));
+    }
+
+    // =================================================================
+    // 2b. STREAMING
+    // =================================================================
+
+    /**
+     * Same quiz as generateRankedQuiz, but every question is handed to
+     * onQuestion as soon as the model has finished writing it. Returns all
+     * of them at the end.
+     */
+    public List<QuizQuestion> streamRankedQuiz(Consumer<QuizQuestion> onQuestion) {
+        return streamQuiz(buildRankedQuizPrompt(), onQuestion);
+    }
+
+    public List<QuizQuestion> streamPersonalizedQuiz(List<String> genres, Consumer<QuizQuestion> onQuestion) {
+        return streamQuiz(buildPersonalizedQuizPrompt(genres), onQuestion);
+    }
+
+    /*
+     * Topped up like generateQuiz. Questions already handed out can't be
+     * taken back, so a failure after the first one ends the stream with what
+     * was sent, and only a quiz without any question is an error.
+     */
+    private List<QuizQuestion> streamQuiz(String prompt, Consumer<QuizQuestion> onQuestion) {
+        Collected quiz = new Collected();
+        RuntimeException lastError = null;
+        for (int call = 0; call < MAX_LLM_CALLS && !quiz.isComplete(); call++) {
+            countCall(call);
+            try {
+                streamLlmApi(withSeed(call == 0 ? prompt : topUpPrompt(prompt, quiz.questions)), question -> {
+                    if (quiz.add(question)) {
+                        onQuestion.accept(question);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // The client went away
+                throw e;
+            } catch (RuntimeException e) {
+                lastError = e;
+            }
+        }
+
+        if (!quiz.questions.isEmpty()) {
+            return quiz.questions;
+        }
+        throw new ResponseStatusException(
+                HttpStatus.INTERNAL_SERVER_ERROR,
+                "Failed to generate valid quiz after retries",
+                lastError
+        );
+    }
+
+    // =================================================================
+    // 2c. SALVAGE AND TOP-UP
+    // =================================================================
+
+    /*
+     * Keeps every usable question of an answer, and asks the model only for
+     * the missing ones, with the ones it already has listed so they are not
+     * repeated. At most MAX_LLM_CALLS calls per quiz.
+     */
+    private List<QuizQuestion> generateQuiz(String prompt) {
+        Collected quiz = new Collected();
+        Exception lastError = null;
+        for (int call = 0; call < MAX_LLM_CALLS && !quiz.isComplete(); call++) {
+            countCall(call);
+            try {
+                salvage(callLlmApi(withSeed(call == 0 ? prompt : topUpPrompt(prompt, quiz.questions))), quiz);
+            } catch (Exception e) {
+                lastError = e;
+            }
+        }
+
+        if (quiz.isComplete()) {
+            return quiz.questions;
+        }
+        throw new ResponseStatusException(
+                HttpStatus.INTERNAL_SERVER_ERROR,
+                "Failed to generate valid quiz after retries",
+                lastError
+        );
+    }
+
+    // The usable, distinct questions of a single answer
+    List<QuizQuestion> salvage(String answer) {
+        return salvage(answer, new Collected()).questions;
+    }
+
+    private Collected salvage(String answer, Collected quiz) {
+        for (QuizQuestion question : new QuizStreamParser().accept(answer)) {
+            quiz.add(question);
+        }
+        return quiz;
+    }
+
+    private static String withSeed(String prompt) {
+        return prompt + "\nRandom seed: " + UUID.randomUUID();
+    }
+
+    static String topUpPrompt(String prompt, List<QuizQuestion> have) {
+        int missing = QUESTIONS_PER_QUIZ - have.size();
+        StringBuilder topUp = new StringBuilder(prompt)
+                .append("\n\nIMPORTANT: the following questions already exist. Do NOT repeat them or their films:\n");
+        for (QuizQuestion question : have) {
+            topUp.append("- ").append(question.getQuestionText()).append('\n');
+        }
+        return topUp.append("Generate EXACTLY ").append(missing)
+                .append(missing == 1 ? " more question" : " more questions")
+                .append(" in the same JSON array format, instead of ").append(QUESTIONS_PER_QUIZ).append('.')
+                .toString();
+    }
+
+    private void countCall(int call) {
+        (call == 0 ? initialCalls : topUpCalls).increment();
+    }
+
+    /* The usable, distinct questions of one quiz so far */
+    private final class Collected {
+        final List<QuizQuestion> questions = new ArrayList<>();
+        private final Set<String> keys = new HashSet<>();
+
+        boolean add(QuizQuestion question) {
+            if (isComplete() || !isValidQuestion(question)
+                    || !keys.add(RankedQuizPool.normalize(question.getQuestionText()))) {
+                discarded.increment();
+                return false;
+            }
+            questions.add(question);
+            kept.increment();
+            return true;
+        }
+
+        boolean isComplete() {
+            return questions.size() >= QUESTIONS_PER_QUIZ;
+        }
+    }
+
+    private String buildPersonalizedQuizPrompt(List<String> genres) {
+        String genreList = String.join(", ", genres);
+
+        return String.format(
+                "You are a cinema quiz generator.\n" +
+                        "Generate 10 COMPLETELY DIFFERENT multiple-choice questions (4 options each).\n" +
+                        "Rules:\n" +
+                        "- Do NOT reuse famous or common examples repeatedly\n" +
+                        "- Avoid starting with the same movie every time\n" +
+                        "- Use a RANDOM mix of mainstream, cult, and lesser-known films\n" +
+                        "- Vary the order of difficulty\n" +
+                        "- Each question must be independent\n\n" +
+                        "Genres to focus on: %s\n\n" +
+                        "Return ONLY a valid JSON array with this schema:\n" +
+                        "[{questionText, options, correctAnswerIndex, explanation}]\n" +
+                        "No extra text.\n\n" +
+                        "Randomization token: %s",
+                genreList,
+                UUID.randomUUID()
+        );
+
+    }
+
+    // =================================================================
+    // 3. COMMON API CALL LOGIC
+    // =================================================================
+
+    private String callLlmApi(String prompt) {
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new ResponseStatusException(
+                    HttpStatus.UNAUTHORIZED,
+                    "OpenRouter API key is missing."
+            );
+        }
+
+        try {
+            Map<String, Object> response = llmRequest(requestBody(prompt))
+                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                    .block();
+
+
+            List<Map<String, Object>> choices =
+                    (List<Map<String, Object>>) response.get("choices");
+
+            Map<String, Object> message =
+                    (Map<String, Object>) choices.get(0).get("message");
+
+            return message.get("content").toString();
+
+        } catch (Exception e) {
+            throw new ResponseStatusException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "OpenRouter API error: " + e.getMessage()
+            );
+        }
+    }
+
+    /*
+     * Same request with stream=true: OpenRouter answers with server-sent
+     * events, each carrying the next few tokens in choices[0].delta.content,
+     * and a final "[DONE]". Runs on the calling thread.
+     */
+    private void streamLlmApi(String prompt, Consumer<QuizQuestion> onQuestion) {
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new ResponseStatusException(
+                    HttpStatus.UNAUTHORIZED,
+                    "OpenRouter API key is missing."
+            );
+        }
+
+        Map<String, Object> requestBody = requestBody(prompt);
+        requestBody.put("stream", true);
+
+        Flux<ServerSentEvent<String>> events = llmRequest(requestBody)
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {});
+
+        QuizStreamParser parser = new QuizStreamParser();
+        // Closing the stream cancels the upstream request, e.g. when the client went away
+        try (Stream<ServerSentEvent<String>> stream = events.toStream()) {
+            Iterator<ServerSentEvent<String>> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                String data = iterator.next().data();
+                // Keep-alive comments carry no data
+                if (data == null || data.isBlank()) {
+                    continue;
+                }
+                if (data.trim().equals("[DONE]")) {
+                    break;
+                }
+                String content = deltaContent(data);
+                if (content == null) {
+                    continue;
+                }
+                parser.accept(content).forEach(onQuestion);
+            }
+        }
+    }
+
+    private String deltaContent(String data) {
+        JsonNode chunk;
+        try {
+            chunk = objectMapper.readTree(data);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+        if (chunk.has("error")) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_GATEWAY,
+                    "OpenRouter API error: " + chunk.path("error").path("message").asText()
+            );
+        }
+        JsonNode content = chunk.path("choices").path(0).path("delta").path("content");
+        return content.isTextual() ? content.asText() : null;
+    }
+
+    private Map<String, Object> requestBody(String prompt) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", MODEL_ID);
+        requestBody.put("messages", List.of(
+                Map.of("role", "user", "content", prompt)
+        ));
+        requestBody.put("temperature", 0.8);
+        requestBody.put("max_tokens", 1500);
+        return requestBody;
+    }
+
+    private WebClient.ResponseSpec llmRequest(Map<String, Object> requestBody) {
+        return webClient.post()
+                .uri(OPENROUTER_ENDPOINT)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .header("HTTP-Referer", "http://localhost:8080") // required
+                .header("X-Title", "CineMatch")                  // required
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(requestBody)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, clientResponse ->
+                        clientResponse.bodyToMono(String.class)
+                                .map(body ->
+                                        new ResponseStatusException(
+                                                clientResponse.statusCode(),
+                                                "OpenRouter API Error: " + body
+                                        )
+                                )
+                );
+    }
+
+    // =================================================================
+    // 4. COMMON UTILITIES
+    // =================================================================
+
+    // Usable on its own: text, four options and a correct index among them
+    static boolean isValidQuestion(QuizQuestion question) {
+        return question != null
+                && question.getQuestionText() != null && !question.getQuestionText().isBlank()
+                && question.getOptions() != null && question.getOptions().size() == OPTIONS_PER_QUESTION
+                && question.getCorrectAnswerIndex() >= 0
+                && question.getCorrectAnswerIndex() < OPTIONS_PER_QUESTION;
+    }
+
+    // =================================================================
+    // 5. STATS
+    // =================================================================
+
+    public long getTopUpCalls() {
+        return topUpCalls.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("quiz.llm.calls", initialCalls, LongAdder::sum)
+                .tag("kind", "initial").register(registry);
+        FunctionCounter.builder("quiz.llm.calls", topUpCalls, LongAdder::sum)
+                .tag("kind", "top-up").register(registry);
+        FunctionCounter.builder("quiz.llm.questions", kept, LongAdder::sum)
+                .tag("result", "kept").register(registry);
+        FunctionCounter.builder("quiz.llm.questions", discarded, LongAdder::sum)
+                .tag("result", "discarded").register(registry);
+    }
+}
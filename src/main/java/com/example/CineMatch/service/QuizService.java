@@ -14,16 +14,22 @@
  */package com.example.CineMatch.service;
 
 import com.example.CineMatch.dto.QuizQuestion;
+import com.example.CineMatch.dto.RankedResult;
 import com.example.CineMatch.dto.UserAnswer;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface QuizService {
 
     List<QuizQuestion> generateRankedQuiz() throws Exception;
     List<QuizQuestion> generatePersonalizedQuiz(UUID userId) throws Exception;
-    int calculateScore(List<QuizQuestion> originalQuestions, List<UserAnswer> userAnswers);
+    List<QuizQuestion> streamRankedQuiz(Consumer<QuizQuestion> onQuestion) throws Exception;
+    List<QuizQuestion> streamPersonalizedQuiz(UUID userId, Consumer<QuizQuestion> onQuestion) throws Exception;
+    void openSession(String sessionId, List<QuizQuestion> questions, boolean ranked);
+    int calculateScore(String sessionId, List<UserAnswer> userAnswers);
+    RankedResult gradeRankedQuiz(String sessionId, List<UserAnswer> userAnswers);
     int calculateRankedScore(
             int correct,
             int wrong,
@@ -14,50 +14,43 @@
  */package com.example.CineMatch.service;
 
 import com.example.CineMatch.dto.QuizQuestion;
+import com.example.CineMatch.dto.RankedResult;
 import com.example.CineMatch.dto.UserAnswer;
-import com.example.CineMatch.dto.GenreAffinity;
-import com.example.CineMatch.Repository.UserPreferenceRepository;
-import com.example.CineMatch.dto.UserPreference;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ResponseStatusException;
-import org.springframework.http.HttpStatusCode;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.function.Consumer;
 
 
 @Service
 public class QuizServiceImpl implements QuizService {
 
-    private final WebClient webClient;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final UserPreferenceRepository userPreferenceRepository;
-
-
-
-    @Value("${llm.api.key}")
-    private String apiKey;
-
-    private static final String OPENROUTER_ENDPOINT =
-            "https://openrouter.ai/api/v1/chat/completions";
-
-    // Free & good
-    private static final String MODEL_ID =
-            "mistralai/mistral-7b-instruct";
-
-
-
-    // CONSTRUCTOR: Χρειάζεται WebClient και Repository
-    public QuizServiceImpl(WebClient webClient, UserPreferenceRepository userPreferenceRepository) {
-        this.webClient = webClient;
-        this.userPreferenceRepository = userPreferenceRepository;
+    private final QuizGenerator quizGenerator;
+    private final RankedQuizPool rankedQuizPool;
+    private final PersonalizedQuizCache personalizedQuizCache;
+    private final UserPreferenceCache userPreferenceCache;
+    private final QuestionBank questionBank;
+    private final QuizSessionStore quizSessionStore;
+    private final Duration sessionTtl;
+
+    // CONSTRUCTOR: Χρειάζεται Generator, Pool, Caches, Question Bank και Session Store
+    public QuizServiceImpl(QuizGenerator quizGenerator, RankedQuizPool rankedQuizPool,
+                           PersonalizedQuizCache personalizedQuizCache,
+                           UserPreferenceCache userPreferenceCache,
+                           QuestionBank questionBank,
+                           QuizSessionStore quizSessionStore,
+                           @Value("${quiz.sessions.ttl:2h}") Duration sessionTtl) {
+        this.quizGenerator = quizGenerator;
+        this.rankedQuizPool = rankedQuizPool;
+        this.personalizedQuizCache = personalizedQuizCache;
+        this.userPreferenceCache = userPreferenceCache;
+        this.questionBank = questionBank;
+        this.quizSessionStore = quizSessionStore;
+        this.sessionTtl = sessionTtl;
     }
 
     // =================================================================
@@ -65,268 +58,133 @@ public class QuizServiceImpl implements QuizService {
     // =================================================================
     @Override
     public List<QuizQuestion> generateRankedQuiz() throws Exception {
-        String prompt = buildRankedQuizPrompt()
-                + "\nRandom seed: " + UUID.randomUUID();
-
-        int attempts = 0;
-        Exception lastError = null;
-
-        while (attempts < 3) {
-            try {
-                String jsonResponse = callLlmApi(prompt);
-                String cleaned = cleanLlmOutput(jsonResponse);
-                return parseLlmResponse(cleaned);
-            } catch (Exception e) {
-                lastError = e;
-                attempts++;
-            }
+        // Assembled from the question bank, then the pre-generated pool; live generation only when both are empty
+        Optional<List<QuizQuestion>> banked = questionBank.assembleRanked();
+        if (banked.isPresent()) {
+            return banked.get();
         }
-
-        throw new ResponseStatusException(
-                HttpStatus.INTERNAL_SERVER_ERROR,
-                "Failed to generate valid ranked quiz after retries",
-                lastError
-        );
-    }
-
-
-    private String buildRankedQuizPrompt() {
-        return """
-You are a professional cinema trivia engine used in a ranked competitive game.
-
-TASK:
-Generate EXACTLY 10 cinema trivia questions.
-
-ERA CONSTRAINT (VERY IMPORTANT):
-- At least 6 questions MUST be about films released in the year 2000 or later
-- Remaining questions may include late 1990s at earliest
-- Avoid pre-1990 cinema unless absolutely necessary
-
-DIFFICULTY RULES:
-- Difficulty: medium to hard
-- Modern difficulty is allowed (cinematography, festivals, international cinema, directors, production facts)
-- Do NOT rely on silent-era or golden-age cinema to create difficulty
-
-CONTENT RULES:
-- No subjective or opinion-based questions
-- One and only one correct answer per question
-- No repeating movies, directors, actors, or franchises
-- Each question must cover a DIFFERENT film or topic
-
-ANTI-REPETITION:
-- Assume the user has played before
-- Avoid common trivia patterns
-- Prefer less obvious but verifiable facts
-
-FORMAT (STRICT):
-- Output ONLY a valid JSON array
-- No markdown
-- No text before or after JSON
-
-JSON SCHEMA:
-[
-  {
-    "questionText": "string",
-    "options": ["string", "string", "string", "string"],
-    "correctAnswerIndex": 0,
-    "explanation": "string"
-  }
-]
-
-If you violate ANY rule, the output is invalid.
-
-Generate now.
-""";
+        Optional<List<QuizQuestion>> pooled = rankedQuizPool.poll();
+        List<QuizQuestion> questions = pooled.isPresent() ? pooled.get() : quizGenerator.generateRankedQuiz();
+        questionBank.offer(questions, List.of());
+        return questions;
     }
 
-
     // =================================================================
-    // 2. PERSONALIZED QUIZ (DATABASE DRIVEN)
+    // 2. PERSONALIZED QUIZ (GENRE DRIVEN)
     // =================================================================
     @Override
     public List<QuizQuestion> generatePersonalizedQuiz(UUID userId) throws Exception {
 
-        // 1. Διάβασμα Affinity από τη Βάση Δεδομένων
-        Optional<UserPreference> userPrefOpt = userPreferenceRepository.findByUserId(userId);
+        // 1. Top 3 Genres του χρήστη (cached, αντί για query σε κάθε request)
+        List<String> top3Genres = userPreferenceCache.topGenres(userId, 3);
 
-        if (userPrefOpt.isEmpty()) {
+        if (top3Genres.isEmpty()) {
             return generateRankedQuiz();
         }
 
-        // Το userPrefOpt.get() επιστρέφει το UserPreference object.
-        UserPreference userPreference = userPrefOpt.get();
-
-        // 2. Μετατροπή JSON String σε List<GenreAffinity>
-        List<GenreAffinity> affinities = userPreference.getGenreAffinityList();
-
-        if (affinities.isEmpty()) {
-            return generateRankedQuiz();
+        // 2. Quiz από την τράπεζα ερωτήσεων, χωρίς ερωτήσεις που έχει ήδη δει ο χρήστης
+        Optional<List<QuizQuestion>> banked = questionBank.assemblePersonalized(userId, top3Genres);
+        if (banked.isPresent()) {
+            return banked.get();
         }
 
-        // 3. Επιλογή των Top 3 Genres
-        List<String> top3Genres = affinities.stream()
-                .limit(3)
-                .map(GenreAffinity::getGenre)
-                .toList();
-
-        // 4. Δημιουργία Prompt
-        String prompt = buildPersonalizedQuizPrompt(top3Genres)
-                + "\nRandom seed: " + UUID.randomUUID();
-        String jsonResponse = callLlmApi(prompt);
-        return parseLlmResponse(jsonResponse);
-    }
-
-    private String buildPersonalizedQuizPrompt(List<String> genres) {
-        String genreList = String.join(", ", genres);
-
-        return String.format(
-                "You are a cinema quiz generator.\n" +
-                        "Generate 10 COMPLETELY DIFFERENT multiple-choice questions (4 options each).\n" +
-                        "Rules:\n" +
-                        "- Do NOT reuse famous or common examples repeatedly\n" +
-                        "- Avoid starting with the same movie every time\n" +
-                        "- Use a RANDOM mix of mainstream, cult, and lesser-known films\n" +
-                        "- Vary the order of difficulty\n" +
-                        "- Each question must be independent\n\n" +
-                        "Genres to focus on: %s\n\n" +
-                        "Return ONLY a valid JSON array with this schema:\n" +
-                        "[{questionText, options, correctAnswerIndex, explanation}]\n" +
-                        "No extra text.\n\n" +
-                        "Randomization token: %s",
-                genreList,
-                UUID.randomUUID()
-        );
-
-    }
-
-    // =================================================================
-    // 3. COMMON API CALL LOGIC
-    // =================================================================
-
-    private String callLlmApi(String prompt) {
-        if (apiKey == null || apiKey.isBlank()) {
-            throw new ResponseStatusException(
-                    HttpStatus.UNAUTHORIZED,
-                    "OpenRouter API key is missing."
-            );
+        // 3. Έτοιμο quiz για τον ίδιο συνδυασμό genres
+        // (already in the bank: variants are offered when they are generated)
+        Optional<List<QuizQuestion>> cached = personalizedQuizCache.take(userId, top3Genres);
+        if (cached.isPresent()) {
+            return cached.get();
         }
 
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", MODEL_ID);
-        requestBody.put("messages", List.of(
-                Map.of("role", "user", "content", prompt)
-        ));
-        requestBody.put("temperature", 0.8);
-        requestBody.put("max_tokens", 1500);
-
-        try {
-            Map<String, Object> response = webClient.post()
-                    .uri(OPENROUTER_ENDPOINT)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
-                    .header("HTTP-Referer", "http://localhost:8080") // required
-                    .header("X-Title", "CineMatch")                  // required
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .onStatus(HttpStatusCode::isError, clientResponse ->
-                            clientResponse.bodyToMono(String.class)
-                                    .map(body ->
-                                            new ResponseStatusException(
-                                                    clientResponse.statusCode(),
-                                                    "OpenRouter API Error: " + body
-                                            )
-                                    )
-                    )
-                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                    .block();
-
-
-            List<Map<String, Object>> choices =
-                    (List<Map<String, Object>>) response.get("choices");
-
-            Map<String, Object> message =
-                    (Map<String, Object>) choices.get(0).get("message");
-
-            return message.get("content").toString();
-
-        } catch (Exception e) {
-            throw new ResponseStatusException(
-                    HttpStatus.INTERNAL_SERVER_ERROR,
-                    "OpenRouter API error: " + e.getMessage()
-            );
-        }
+        // 4. Δημιουργία Quiz (live) και αποθήκευση ως variant
+        List<QuizQuestion> questions = quizGenerator.generatePersonalizedQuiz(top3Genres);
+        personalizedQuizCache.add(userId, top3Genres, questions);
+        questionBank.offer(questions, top3Genres);
+        return questions;
     }
 
-
-
-
     // =================================================================
-    // 4. COMMON UTILITIES & GRADING
+    // 2b. STREAMING (same sources, questions handed out one by one)
     // =================================================================
-
-    private List<QuizQuestion> parseLlmResponse(String jsonString) throws Exception {
-        // Διορθώθηκε η αναφορά (TypeReference)
-        if (jsonString.trim().startsWith("```json")) {
-            jsonString = jsonString.trim().substring(7);
+    @Override
+    public List<QuizQuestion> streamRankedQuiz(Consumer<QuizQuestion> onQuestion) throws Exception {
+        Optional<List<QuizQuestion>> ready = questionBank.assembleRanked();
+        if (ready.isEmpty()) {
+            ready = rankedQuizPool.poll();
+            ready.ifPresent(questions -> questionBank.offer(questions, List.of()));
         }
-        if (jsonString.trim().endsWith("```")) {
-            jsonString = jsonString.trim().substring(0, jsonString.trim().length() - 3);
+        if (ready.isPresent()) {
+            ready.get().forEach(onQuestion);
+            return ready.get();
         }
-
-        return objectMapper.readValue(
-                jsonString,
-                new TypeReference<List<QuizQuestion>>() {}
-        );
+        List<QuizQuestion> questions = quizGenerator.streamRankedQuiz(onQuestion);
+        questionBank.offer(questions, List.of());
+        return questions;
     }
 
-    private String cleanLlmOutput(String text) {
-        // Διορθώθηκε η αναφορά (cleanLlmOutput)
-        if (text == null) return "";
-        text = text.trim();
+    @Override
+    public List<QuizQuestion> streamPersonalizedQuiz(UUID userId, Consumer<QuizQuestion> onQuestion) throws Exception {
+        List<String> top3Genres = userPreferenceCache.topGenres(userId, 3);
 
-        if (text.contains("[/INST]")) {
-            text = text.substring(text.indexOf("[/INST]") + 7).trim();
+        if (top3Genres.isEmpty()) {
+            return streamRankedQuiz(onQuestion);
         }
 
-        if (text.startsWith("```json")) {
-            text = text.substring(7).trim();
+        Optional<List<QuizQuestion>> ready = questionBank.assemblePersonalized(userId, top3Genres);
+        if (ready.isEmpty()) {
+            ready = personalizedQuizCache.take(userId, top3Genres);
         }
-        if (text.endsWith("```")) {
-            text = text.substring(0, text.length() - 3).trim();
+        if (ready.isPresent()) {
+            ready.get().forEach(onQuestion);
+            return ready.get();
         }
 
-        if (text.contains("[")) {
-            int startIndex = text.indexOf('[');
-            int endIndex = text.lastIndexOf(']');
-            if (startIndex != -1 && endIndex != -1) {
-                return text.substring(startIndex, endIndex + 1);
-            }
+        List<QuizQuestion> questions = quizGenerator.streamPersonalizedQuiz(top3Genres, onQuestion);
+        // A stream that failed part-way returns what it sent: fine for this user, not a variant for others
+        if (questions.size() == QuizGenerator.QUESTIONS_PER_QUIZ) {
+            personalizedQuizCache.add(userId, top3Genres, questions);
         }
-        return text;
+        questionBank.offer(questions, top3Genres);
+        return questions;
     }
 
-    @Override
-    public int calculateScore(List<QuizQuestion> originalQuestions, List<UserAnswer> userAnswers) {
-        int finalScore = 0;
-        if (originalQuestions == null || userAnswers == null || originalQuestions.size() != userAnswers.size()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid submission data or mismatched question/answer count.");
-        }
+    // =================================================================
+    // 3. GRADING
+    // =================================================================
 
-        for (UserAnswer userAnswer : userAnswers) {
-            int qIndex = userAnswer.getQuestionIndex();
-            if (qIndex < 0 || qIndex >= originalQuestions.size()) {
-                continue;
-            }
+    // Μόνο το answer key μένει στον server, ο client στέλνει μόνο τις απαντήσεις
+    @Override
+    public void openSession(String sessionId, List<QuizQuestion> questions, boolean ranked) {
+        long now = System.currentTimeMillis();
+        quizSessionStore.put(sessionId, QuizSession.of(questions, ranked, now, now + sessionTtl.toMillis()));
+    }
 
-            int selectedIndex = userAnswer.getSelectedOptionIndex();
-            int correctIndex = originalQuestions.get(qIndex).getCorrectAnswerIndex();
+    @Override
+    public int calculateScore(String sessionId, List<UserAnswer> userAnswers) {
+        return takeSession(sessionId).score(userAnswers);
+    }
 
-            if (selectedIndex == correctIndex) {
-                finalScore++;
-            }
+    // Correct, wrong and time all come from the session: unanswered questions count as wrong,
+    // and the time runs from when the quiz was handed out
+    @Override
+    public RankedResult gradeRankedQuiz(String sessionId, List<UserAnswer> userAnswers) {
+        QuizSession session = takeSession(sessionId);
+        if (!session.ranked()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Not a ranked quiz session.");
         }
-        return finalScore;
+        int correct = session.score(userAnswers);
+        int wrong = session.answerKey().length - correct;
+        int timeTakenSeconds = (int) Math.min(Integer.MAX_VALUE,
+                Math.max(0, System.currentTimeMillis() - session.issuedAt()) / 1000);
+        return new RankedResult(correct, wrong, timeTakenSeconds,
+                calculateRankedScore(correct, wrong, timeTakenSeconds));
     }
+
+    private QuizSession takeSession(String sessionId) {
+        return quizSessionStore.take(sessionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Unknown, expired or already submitted quiz session."));
+    }
+
     @Override
     public int calculateRankedScore(
             int correct,
@@ -340,7 +198,7 @@ Generate now.
                 - (wrong * PENALTY_PER_WRONG);
 
         int maxTime = 120; // 2 minutes
-        int timeBonus = Math.max(0, maxTime - timeTakenSeconds);
+        int timeBonus = Math.max(0, maxTime - Math.max(0, timeTakenSeconds));
 
         return baseScore + timeBonus;
     }
@@ -0,0 +1,72 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.dto.QuizQuestion;
+import com.example.CineMatch.dto.UserAnswer;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * What the server keeps of an issued quiz: one byte per question with the
+ * index of its correct option, whether it was a ranked quiz and when it was
+ * handed out. That is all grading needs, so neither the questions nor the
+ * client's copy of them are involved.
+ */
+public record QuizSession(byte[] answerKey, boolean ranked, long issuedAt, long expiresAt) {
+
+    public static QuizSession of(List<QuizQuestion> questions, boolean ranked, long issuedAt, long expiresAt) {
+        byte[] answerKey = new byte[questions.size()];
+        for (int i = 0; i < answerKey.length; i++) {
+            answerKey[i] = (byte) questions.get(i).getCorrectAnswerIndex();
+        }
+        return new QuizSession(answerKey, ranked, issuedAt, expiresAt);
+    }
+
+    public static String newId() {
+        return UUID.randomUUID().toString();
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    /**
+     * One pass over the answers. More answers than questions is a bad request;
+     * otherwise a question answered more than once counts once, and answers to
+     * question indexes that don't exist are ignored.
+     */
+    public int score(List<UserAnswer> userAnswers) {
+        if (userAnswers == null || userAnswers.size() > answerKey.length) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid submission data or mismatched question/answer count.");
+        }
+
+        boolean[] answered = new boolean[answerKey.length];
+        int score = 0;
+        for (UserAnswer userAnswer : userAnswers) {
+            int qIndex = userAnswer.getQuestionIndex();
+            if (qIndex < 0 || qIndex >= answerKey.length || answered[qIndex]) {
+                continue;
+            }
+            answered[qIndex] = true;
+            if (userAnswer.getSelectedOptionIndex() == answerKey[qIndex]) {
+                score++;
+            }
+        }
+        return score;
+    }
+}
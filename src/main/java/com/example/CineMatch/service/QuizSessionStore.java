@@ -0,0 +1,33 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import java.util.Optional;
+
+/**
+ * Where the answer keys of issued quizzes wait for their submission.
+ * {@link InMemoryQuizSessionStore} is local to one instance; with several
+ * replicas behind a load balancer use {@link PostgresQuizSessionStore}
+ * (quiz.sessions.store=postgres), or give the memory store a Postgres spill.
+ */
+public interface QuizSessionStore {
+
+    void put(String sessionId, QuizSession session);
+
+    /**
+     * Removes and returns the session, so a quiz can only be graded once.
+     * Empty when the id is unknown or the session expired.
+     */
+    Optional<QuizSession> take(String sessionId);
+}
@@ -0,0 +1,194 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.dto.QuizQuestion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pulls quiz questions out of LLM output, either as it streams in or all at
+ * once. Each top-level object is parsed as soon as its closing brace arrives,
+ * so the first question is available long before the array is complete.
+ *
+ * Only braces and strings are tracked. Everything between the objects
+ * (brackets, commas, markdown fences, "[/INST]" and other chatter) is
+ * skipped, and an object that cannot be read is dropped without affecting
+ * the ones after it. A truncated last object is simply never completed.
+ * Objects are read leniently: single quotes, unquoted names, comments,
+ * trailing commas and raw line breaks inside strings are accepted, and so
+ * are the field names and answer formats models commonly use instead of
+ * ours (see {@link #toQuestion}). Whether a question is usable is up to the
+ * caller.
+ */
+final class QuizStreamParser {
+
+    private static final ObjectMapper LENIENT = JsonMapper.builder()
+            .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+            .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+            .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .enable(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS)
+            .enable(JsonReadFeature.ALLOW_BACKSLASH_ESCAPING_ANY_CHARACTER)
+            .build();
+
+    private final StringBuilder current = new StringBuilder();
+    private int depth;
+    // The quote that opened the current string, 0 outside strings
+    private char quote;
+    private boolean escaped;
+    private int dropped;
+
+    /**
+     * Consumes the next piece of text and returns the questions completed by it.
+     */
+    List<QuizQuestion> accept(CharSequence chunk) {
+        List<QuizQuestion> completed = new ArrayList<>(1);
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+
+            if (depth == 0) {
+                if (c == '{') {
+                    current.setLength(0);
+                    current.append(c);
+                    depth = 1;
+                }
+                continue;
+            }
+
+            current.append(c);
+            if (quote != 0) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || (c == '\'' && isValueStart())) {
+                quote = c;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                QuizQuestion question = read(current);
+                if (question != null) {
+                    completed.add(question);
+                } else {
+                    dropped++;
+                }
+            }
+        }
+        return completed;
+    }
+
+    // Objects that could not be read
+    int dropped() {
+        return dropped;
+    }
+
+    /*
+     * A single quote only opens a string where a name or value may start, so
+     * the apostrophe in an unquoted word (which the read rejects anyway) does
+     * not swallow the rest of the stream.
+     */
+    private boolean isValueStart() {
+        for (int i = current.length() - 2; i >= 0; i--) {
+            char previous = current.charAt(i);
+            if (!Character.isWhitespace(previous)) {
+                return previous == '{' || previous == '[' || previous == ',' || previous == ':';
+            }
+        }
+        return true;
+    }
+
+    private static QuizQuestion read(CharSequence json) {
+        try {
+            return toQuestion(LENIENT.readTree(json.toString()));
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /*
+     * Accepts question/text for questionText, choices/answers for options,
+     * and an answer given as a number, a numeric string, a letter ("B",
+     * "b)") or the text of the correct option.
+     */
+    static QuizQuestion toQuestion(JsonNode node) {
+        if (!node.isObject()) {
+            return null;
+        }
+
+        String text = text(first(node, "questionText", "question", "question_text", "text"));
+        JsonNode optionsNode = first(node, "options", "choices", "answers");
+        List<String> options = new ArrayList<>();
+        if (optionsNode != null && optionsNode.isArray()) {
+            for (JsonNode option : optionsNode) {
+                options.add(option.isValueNode() ? option.asText() : null);
+            }
+        }
+        int correct = answerIndex(first(node, "correctAnswerIndex", "correct_answer_index", "correctIndex",
+                "answerIndex", "correctAnswer", "correct_answer", "answer"), options);
+        String explanation = text(first(node, "explanation", "reason", "rationale"));
+
+        if (text == null && options.isEmpty()) {
+            return null;
+        }
+        return new QuizQuestion(text, options, correct, explanation);
+    }
+
+    private static int answerIndex(JsonNode answer, List<String> options) {
+        if (answer == null || answer.isNull()) {
+            return -1;
+        }
+        if (answer.isIntegralNumber()) {
+            return answer.asInt();
+        }
+
+        String value = answer.asText().trim();
+        if (value.matches("\\d+")) {
+            return Integer.parseInt(value);
+        }
+        if (value.matches("(?i)[a-d](?:[).:].*)?")) {
+            return Character.toUpperCase(value.charAt(0)) - 'A';
+        }
+        for (int i = 0; i < options.size(); i++) {
+            if (options.get(i) != null && options.get(i).trim().equalsIgnoreCase(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static JsonNode first(JsonNode node, String... names) {
+        for (String name : names) {
+            JsonNode value = node.get(name);
+            if (value != null && !value.isNull()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || !node.isValueNode() ? null : node.asText();
+    }
+
+}
@@ -0,0 +1,373 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.dto.QuizQuestion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ready-to-serve ranked quizzes, generated ahead of time so /api/quiz/ranked
+ * does not wait on the LLM.
+ * Once the pool drops below the low watermark it is refilled in the
+ * background up to the high watermark. A quiz is rejected if it is malformed
+ * or repeats a question that is already pooled or was served recently.
+ * While the question bank is enabled the pool only backs it up: quizzes are
+ * generated once a poll shows the bank could not serve one, not on startup.
+ * With quiz.pool.file set, the pool and the recently served questions are
+ * kept on disk and reloaded on startup.
+ */
+@Component
+public class RankedQuizPool implements MeterBinder {
+
+    static final int QUESTIONS_PER_QUIZ = QuizGenerator.QUESTIONS_PER_QUIZ;
+
+    record PooledQuiz(List<QuizQuestion> questions, long createdAt) {}
+
+    record Snapshot(List<PooledQuiz> quizzes, List<String> recentlyServed) {}
+
+    private final QuizGenerator generator;
+    private final boolean enabled;
+    private final boolean onDemand;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final int recentCapacity;
+    private final Duration maxAge;
+    private final Path file;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Oldest quiz first
+    private final ArrayDeque<PooledQuiz> pool = new ArrayDeque<>();
+    private final Set<String> pooledQuestions = new HashSet<>();
+    // Insertion-ordered, so the oldest served question is dropped first
+    private final LinkedHashSet<String> recentlyServed = new LinkedHashSet<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    // Set by the first poll; until then an on-demand pool generates nothing
+    private volatile boolean demanded;
+    private volatile boolean dirty;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @Autowired
+    public RankedQuizPool(
+            QuizGenerator generator,
+            @Value("${quiz.pool.enabled:true}") boolean enabled,
+            @Value("${quiz.bank.enabled:true}") boolean bankEnabled,
+            @Value("${quiz.pool.low-watermark:2}") int lowWatermark,
+            @Value("${quiz.pool.high-watermark:5}") int highWatermark,
+            @Value("${quiz.pool.recent-questions:500}") int recentCapacity,
+            @Value("${quiz.pool.max-age:7d}") Duration maxAge,
+            @Value("${quiz.pool.file:}") String file
+    ) {
+        this(generator, enabled, bankEnabled, lowWatermark, highWatermark, recentCapacity, maxAge,
+                file.isBlank() ? null : Path.of(file), Clock.systemUTC());
+    }
+
+    public RankedQuizPool(QuizGenerator generator, boolean enabled, boolean onDemand, int lowWatermark,
+                          int highWatermark, int recentCapacity, Duration maxAge, Path file, Clock clock) {
+        this.generator = generator;
+        this.enabled = enabled;
+        this.onDemand = onDemand;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.recentCapacity = recentCapacity;
+        this.maxAge = maxAge;
+        this.file = file;
+        this.clock = clock;
+
+        load();
+    }
+
+    /**
+     * Takes the oldest pooled quiz, or returns empty when the pool has run dry
+     * and the caller has to generate one live.
+     */
+    public Optional<List<QuizQuestion>> poll() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        demanded = true;
+        PooledQuiz quiz;
+        int depth;
+        lock.lock();
+        try {
+            dropExpired();
+            quiz = pool.pollFirst();
+            if (quiz != null) {
+                for (QuizQuestion question : quiz.questions()) {
+                    String key = normalize(question.getQuestionText());
+                    pooledQuestions.remove(key);
+                    remember(key);
+                }
+                dirty = true;
+            }
+            depth = pool.size();
+        } finally {
+            lock.unlock();
+        }
+
+        if (depth < lowWatermark) {
+            Thread.ofVirtual().name("quiz-pool-refill").start(this::refill);
+        }
+
+        if (quiz == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(quiz.questions());
+    }
+
+    /**
+     * Tops the pool up to the high watermark once it is below the low one.
+     * Stops at the first generation failure and tries again on the next run.
+     * An on-demand pool is left alone until it has been polled once.
+     */
+    @Scheduled(initialDelayString = "${quiz.pool.initial-delay:5s}",
+               fixedDelayString = "${quiz.pool.refill-interval:1m}")
+    public void refill() {
+        if (!enabled || (onDemand && !demanded) || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (getDepth() < lowWatermark) {
+                // Leave room for rejected quizzes, but never loop forever on a bad model
+                int attempts = 2 * (highWatermark - getDepth());
+                while (getDepth() < highWatermark && attempts-- > 0) {
+                    List<QuizQuestion> questions;
+                    try {
+                        questions = generator.generateRankedQuiz();
+                    } catch (Exception e) {
+                        failed.increment();
+                        System.err.println("Ranked quiz pool refill failed: " + e.getMessage());
+                        break;
+                    }
+                    offer(questions);
+                }
+            }
+            if (dirty) {
+                save();
+            }
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    /**
+     * Adds a freshly generated quiz unless it is malformed or overlaps with
+     * pooled or recently served questions.
+     */
+    boolean offer(List<QuizQuestion> questions) {
+        if (!isValid(questions)) {
+            rejected.increment();
+            return false;
+        }
+
+        Set<String> keys = new HashSet<>();
+        for (QuizQuestion question : questions) {
+            keys.add(normalize(question.getQuestionText()));
+        }
+
+        lock.lock();
+        try {
+            boolean repeats = keys.size() < questions.size()
+                    || keys.stream().anyMatch(key -> pooledQuestions.contains(key) || recentlyServed.contains(key));
+            if (repeats || pool.size() >= highWatermark) {
+                rejected.increment();
+                return false;
+            }
+            pool.addLast(new PooledQuiz(List.copyOf(questions), clock.millis()));
+            pooledQuestions.addAll(keys);
+            dirty = true;
+        } finally {
+            lock.unlock();
+        }
+        accepted.increment();
+        return true;
+    }
+
+    private static boolean isValid(List<QuizQuestion> questions) {
+        if (questions == null || questions.size() != QUESTIONS_PER_QUIZ) {
+            return false;
+        }
+        return questions.stream().allMatch(QuizGenerator::isValidQuestion);
+    }
+
+    static String normalize(String questionText) {
+        return questionText.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    // Caller must hold the lock
+    private void remember(String key) {
+        recentlyServed.remove(key);
+        recentlyServed.add(key);
+        Iterator<String> eldest = recentlyServed.iterator();
+        while (recentlyServed.size() > recentCapacity && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    // Caller must hold the lock
+    private void dropExpired() {
+        long cutoff = clock.millis() - maxAge.toMillis();
+        while (!pool.isEmpty() && pool.peekFirst().createdAt() < cutoff) {
+            for (QuizQuestion question : pool.pollFirst().questions()) {
+                pooledQuestions.remove(normalize(question.getQuestionText()));
+            }
+            dirty = true;
+        }
+    }
+
+    // =================================================================
+    // PERSISTENCE
+    // =================================================================
+
+    private void load() {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        try {
+            Snapshot snapshot = objectMapper.readValue(file.toFile(), Snapshot.class);
+            lock.lock();
+            try {
+                snapshot.recentlyServed().forEach(this::remember);
+                snapshot.quizzes().forEach(quiz -> {
+                    pool.addLast(quiz);
+                    quiz.questions().forEach(q -> pooledQuestions.add(normalize(q.getQuestionText())));
+                });
+                dropExpired();
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable quiz pool file " + file + ": " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void save() {
+        if (file == null) {
+            return;
+        }
+
+        Snapshot snapshot;
+        lock.lock();
+        try {
+            snapshot = new Snapshot(List.copyOf(pool), List.copyOf(recentlyServed));
+            dirty = false;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "quiz-pool", ".tmp");
+            objectMapper.writeValue(tmp.toFile(), snapshot);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            throw new UncheckedIOException("Cannot write quiz pool file " + file, e);
+        }
+    }
+
+    // =================================================================
+    // STATS
+    // =================================================================
+
+    public int getDepth() {
+        lock.lock();
+        try {
+            return pool.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getOldestAgeSeconds() {
+        lock.lock();
+        try {
+            PooledQuiz oldest = pool.peekFirst();
+            return oldest == null ? 0 : (clock.millis() - oldest.createdAt()) / 1000.0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("quiz.pool.depth", this, RankedQuizPool::getDepth)
+                .register(registry);
+        Gauge.builder("quiz.pool.oldest.age", this, RankedQuizPool::getOldestAgeSeconds)
+                .baseUnit("seconds").register(registry);
+        FunctionCounter.builder("quiz.pool.requests", this, RankedQuizPool::getHits)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("quiz.pool.requests", this, RankedQuizPool::getMisses)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("quiz.pool.generated", this, RankedQuizPool::getAccepted)
+                .tag("result", "accepted").register(registry);
+        FunctionCounter.builder("quiz.pool.generated", this, RankedQuizPool::getRejected)
+                .tag("result", "rejected").register(registry);
+        FunctionCounter.builder("quiz.pool.generated", this, RankedQuizPool::getFailed)
+                .tag("result", "failed").register(registry);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Indexed skip list holding each user's best ranked score, best first
+ * (higher score, then earlier, then by user id). Every link also stores how
+ * many entries it skips, so the rank of an entry and the entry at a rank are
+ * found in O(log n) like any lookup, and top-K is a walk along the bottom.
+ *
+ * Not thread-safe: {@link Leaderboard} has a single writer and guards reads.
+ */
+class RankedSkipList {
+
+    record Entry(UUID userId, String username, int score, long achievedAt) {}
+
+    static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::score).reversed()
+            .thenComparingLong(Entry::achievedAt)
+            .thenComparing(Entry::userId);
+
+    private static final int MAX_LEVEL = 32;
+
+    private static final class Node {
+        final Entry entry;
+        final Node[] next;
+        // span[i]: how many entries next[i] is ahead of this node
+        final int[] span;
+
+        Node(Entry entry, int level) {
+            this.entry = entry;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    private final Node head = new Node(null, MAX_LEVEL);
+    private final Map<UUID, Entry> best = new HashMap<>();
+    private int level = 1;
+    private int size;
+
+    /**
+     * Keeps the entry if it beats the user's best so far. Returns whether it did.
+     */
+    boolean offer(Entry entry) {
+        Entry previous = best.get(entry.userId());
+        if (previous != null) {
+            if (ORDER.compare(entry, previous) >= 0) {
+                return false;
+            }
+            remove(previous);
+        }
+        insert(entry);
+        best.put(entry.userId(), entry);
+        return true;
+    }
+
+    Entry get(UUID userId) {
+        return best.get(userId);
+    }
+
+    /**
+     * 1-based rank of the user's best entry, 0 when the user has none.
+     */
+    int rankOf(UUID userId) {
+        Entry entry = best.get(userId);
+        if (entry == null) {
+            return 0;
+        }
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && ORDER.compare(x.next[i].entry, entry) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x != head && x.entry.equals(entry)) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Up to limit entries starting at the 1-based rank from.
+     */
+    List<Entry> range(int from, int limit) {
+        List<Entry> entries = new ArrayList<>(Math.min(limit, Math.max(0, size - from + 1)));
+        for (Node x = nodeAt(from); x != null && entries.size() < limit; x = x.next[0]) {
+            entries.add(x.entry);
+        }
+        return entries;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private Node nodeAt(int rank) {
+        if (rank < 1 || rank > size) {
+            return null;
+        }
+        int traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= rank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == rank) {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    private void insert(Entry entry) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && ORDER.compare(x.next[i].entry, entry) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+
+        Node node = new Node(entry, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        // Links above the new node now skip one more entry
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    private void remove(Entry entry) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && ORDER.compare(x.next[i].entry, entry) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        Node node = x.next[0];
+        if (node == null || !node.entry.equals(entry)) {
+            return;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+    }
+
+    // Each level holds about a quarter of the one below
+    private static int randomLevel() {
+        int level = 1;
+        while (level < MAX_LEVEL && ThreadLocalRandom.current().nextInt(4) == 0) {
+            level++;
+        }
+        return level;
+    }
+}
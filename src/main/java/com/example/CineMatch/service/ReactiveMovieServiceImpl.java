@@ -0,0 +1,146 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.ReactiveTmdbRepository;
+import com.example.CineMatch.Repository.TmdbEndpoints;
+import com.example.CineMatch.dto.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking twin of {@link MovieServiceImpl}: same endpoints and the same
+ * validation, but nothing waits on a thread while TMDB is answering.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveMovieServiceImpl implements ReactiveMovieService {
+
+    private final ReactiveTmdbRepository tmdbRepository;
+    private final ObjectMapper objectMapper;
+    private final JavaType pageType;
+    private final JavaType creditsType;
+
+    @Value("${tmdb.details.append-credits:false}")
+    private boolean appendCredits;
+
+    @Value("${tmdb.details.timeout:5s}")
+    private Duration detailsTimeout = Duration.ofSeconds(5);
+
+    // Answers searches locally when it can, and learns titles from list responses
+    @Autowired(required = false)
+    private TitleSearchIndex titleIndex;
+
+    @Autowired
+    public ReactiveMovieServiceImpl(ReactiveTmdbRepository tmdbRepository, ObjectMapper objectMapper) {
+        this.tmdbRepository = tmdbRepository;
+        this.objectMapper = objectMapper;
+        this.pageType = objectMapper.getTypeFactory()
+                .constructParametricType(ResponseDto.class, MovieDto.class);
+        this.creditsType = objectMapper.getTypeFactory()
+                .constructParametricType(CreditsDto.class, PersonDto.class);
+    }
+
+    // TRENDING
+    @Override
+    public Mono<ResponseDto<MovieDto>> getTrending(int page) {
+        return tmdbRepository.callBytes("/trending/movie/week?page=" + page)
+                .map(body -> remember(objectMapper.readValue(body, pageType)));
+    }
+
+    // SEARCH
+    @Override
+    public Mono<ResponseDto<MovieDto>> getSearch(String q, int page) {
+        ResponseDto<MovieDto> local = titleIndex == null ? null
+                : titleIndex.search(TitleSearchIndex.Kind.MOVIE, q, page, MovieDto.class);
+        if (local != null) {
+            return Mono.just(local);
+        }
+        return tmdbRepository.callBytes("/search/movie?query=" + TmdbEndpoints.encode(q) + "&page=" + page)
+                .map(body -> remember(objectMapper.readValue(body, pageType)));
+    }
+
+    // DISCOVER
+    @Override
+    public Mono<ResponseDto<MovieDto>> getDiscover(String q) {
+        return tmdbRepository.callBytes("/discover/movie" + q)
+                .map(body -> remember(objectMapper.readValue(body, pageType)));
+    }
+
+    // Lets the title index learn what TMDB returned
+    private ResponseDto<MovieDto> remember(ResponseDto<MovieDto> page) {
+        if (titleIndex != null && page != null) {
+            titleIndex.record(TitleSearchIndex.Kind.MOVIE, page.getResults());
+        }
+        return page;
+    }
+
+    // DETAILS
+    @Override
+    public Mono<MovieDetailsDto> getDetails(long id) {
+        Mono<MovieDetailsDto> details;
+
+        if (appendCredits) {
+            details = tmdbRepository.callBytes("/movie/" + id + "?append_to_response=credits")
+                    .map(this::splitAppendedCredits);
+        } else {
+            Mono<MovieDetailsDto> detailsCall = tmdbRepository.callBytes("/movie/" + id)
+                    .map(body -> objectMapper.readValue(body, MovieDetailsDto.class));
+            Mono<CreditsDto<PersonDto>> creditsCall = tmdbRepository.callBytes("/movie/" + id + "/credits")
+                    .map(body -> objectMapper.<CreditsDto<PersonDto>>readValue(body, creditsType));
+
+            // zip cancels the other call as soon as one of them fails
+            details = Mono.zip(detailsCall, creditsCall, (dto, credits) -> {
+                dto.setCast(credits.getCast());
+                return dto;
+            });
+        }
+
+        return details
+                .timeout(detailsTimeout)
+                .onErrorMap(TimeoutException.class,
+                        e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "TMDB did not answer in time"))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Invalid movie details received from TMDB")))
+                .doOnNext(dto -> {
+                    if (dto.getId() == null || dto.getTitle() == null) {
+                        throw new RuntimeException("Invalid movie details received from TMDB");
+                    }
+                });
+    }
+
+    private MovieDetailsDto splitAppendedCredits(byte[] body) {
+        JsonNode tree = objectMapper.readTree(body);
+        if (!(tree instanceof ObjectNode details)) {
+            throw new RuntimeException("Invalid movie details received from TMDB");
+        }
+        JsonNode appended = details.remove("credits");
+
+        MovieDetailsDto dto = objectMapper.treeToValue(details, MovieDetailsDto.class);
+        CreditsDto<PersonDto> credits = appended == null ? null : objectMapper.treeToValue(appended, creditsType);
+        dto.setCast(credits == null ? null : credits.getCast());
+        return dto;
+    }
+}
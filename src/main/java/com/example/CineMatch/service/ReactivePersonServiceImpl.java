@@ -0,0 +1,139 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.ReactiveTmdbRepository;
+import com.example.CineMatch.Repository.TmdbEndpoints;
+import com.example.CineMatch.dto.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking twin of {@link PersonServiceImpl}: same endpoints and the same
+ * validation, but nothing waits on a thread while TMDB is answering.
+ */
+@Service
+@Profile("reactive")
+public class ReactivePersonServiceImpl implements ReactivePersonService {
+
+    private final ReactiveTmdbRepository tmdbRepository;
+    private final ObjectMapper objectMapper;
+    private final JavaType pageType;
+    private final JavaType creditsType;
+
+    @Value("${tmdb.details.append-credits:false}")
+    private boolean appendCredits;
+
+    @Value("${tmdb.details.timeout:5s}")
+    private Duration detailsTimeout = Duration.ofSeconds(5);
+
+    // Answers searches locally when it can, and learns titles from list responses
+    @Autowired(required = false)
+    private TitleSearchIndex titleIndex;
+
+    @Autowired
+    public ReactivePersonServiceImpl(ReactiveTmdbRepository tmdbRepository, ObjectMapper objectMapper) {
+        this.tmdbRepository = tmdbRepository;
+        this.objectMapper = objectMapper;
+        this.pageType = objectMapper.getTypeFactory()
+                .constructParametricType(ResponseDto.class, PersonDto.class);
+        this.creditsType = objectMapper.getTypeFactory()
+                .constructParametricType(CreditsDto.class, MovieDto.class);
+    }
+
+    // TRENDING
+    @Override
+    public Mono<ResponseDto<PersonDto>> getTrending(int page) {
+        return tmdbRepository.callBytes("/trending/person/week?page=" + page)
+                .map(body -> remember(objectMapper.readValue(body, pageType)));
+    }
+
+    // SEARCH
+    @Override
+    public Mono<ResponseDto<PersonDto>> getSearch(String q, int page) {
+        ResponseDto<PersonDto> local = titleIndex == null ? null
+                : titleIndex.search(TitleSearchIndex.Kind.PERSON, q, page, PersonDto.class);
+        if (local != null) {
+            return Mono.just(local);
+        }
+        return tmdbRepository.callBytes("/search/person?query=" + TmdbEndpoints.encode(q) + "&page=" + page)
+                .map(body -> remember(objectMapper.readValue(body, pageType)));
+    }
+
+    // Lets the title index learn what TMDB returned
+    private ResponseDto<PersonDto> remember(ResponseDto<PersonDto> page) {
+        if (titleIndex != null && page != null) {
+            titleIndex.record(TitleSearchIndex.Kind.PERSON, page.getResults());
+        }
+        return page;
+    }
+
+    // DETAILS
+    @Override
+    public Mono<PersonDetailsDto> getDetails(long id) {
+        Mono<PersonDetailsDto> details;
+
+        if (appendCredits) {
+            details = tmdbRepository.callBytes("/person/" + id + "?append_to_response=movie_credits")
+                    .map(this::splitAppendedCredits);
+        } else {
+            Mono<PersonDetailsDto> detailsCall = tmdbRepository.callBytes("/person/" + id)
+                    .map(body -> objectMapper.readValue(body, PersonDetailsDto.class));
+            Mono<CreditsDto<MovieDto>> creditsCall = tmdbRepository.callBytes("/person/" + id + "/movie_credits")
+                    .map(body -> objectMapper.<CreditsDto<MovieDto>>readValue(body, creditsType));
+
+            // zip cancels the other call as soon as one of them fails
+            details = Mono.zip(detailsCall, creditsCall, (dto, credits) -> {
+                dto.setMovieCredits(credits.getCast());
+                return dto;
+            });
+        }
+
+        return details
+                .timeout(detailsTimeout)
+                .onErrorMap(TimeoutException.class,
+                        e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "TMDB did not answer in time"))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Invalid person details received from TMDB")))
+                .doOnNext(dto -> {
+                    if (dto.getId() == null || dto.getName() == null) {
+                        throw new RuntimeException("Invalid person details received from TMDB");
+                    }
+                });
+    }
+
+    private PersonDetailsDto splitAppendedCredits(byte[] body) {
+        JsonNode tree = objectMapper.readTree(body);
+        if (!(tree instanceof ObjectNode details)) {
+            throw new RuntimeException("Invalid person details received from TMDB");
+        }
+        JsonNode appended = details.remove("movie_credits");
+
+        PersonDetailsDto dto = objectMapper.treeToValue(details, PersonDetailsDto.class);
+        CreditsDto<MovieDto> credits = appended == null ? null : objectMapper.treeToValue(appended, creditsType);
+        dto.setMovieCredits(credits == null ? null : credits.getCast());
+        return dto;
+    }
+}
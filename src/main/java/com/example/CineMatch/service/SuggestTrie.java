@@ -0,0 +1,272 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable radix trie over folded names, used for typeahead. Every node
+ * stores the ids of the best K documents below it. Document ids are
+ * popularity ranks, so the best are simply the smallest. A lookup walks the
+ * prefix and returns a node; reading its top list allocates nothing.
+ *
+ * Nodes live in parallel int arrays and edge labels in one shared char
+ * array, so a node costs a handful of ints plus its top-K entries.
+ */
+final class SuggestTrie {
+
+    // A name is also reachable from its second and third word ("dark kn" finds "The Dark Knight")
+    private static final int MAX_WORD_STARTS = 3;
+
+    static final SuggestTrie EMPTY = build(new String[0], 1);
+
+    private final char[] labels;
+    private final int[] labelStart;
+    private final int[] labelLength;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] topStart;
+    private final int[] topEnd;
+    private final int[] top;
+
+    private SuggestTrie(Builder builder) {
+        this.labels = Arrays.copyOf(builder.labels, builder.labelSize);
+        this.labelStart = builder.labelStart.toArray();
+        this.labelLength = builder.labelLength.toArray();
+        this.firstChild = builder.firstChild.toArray();
+        this.nextSibling = builder.nextSibling.toArray();
+        this.topStart = builder.topStart.toArray();
+        this.topEnd = builder.topEnd.toArray();
+        this.top = builder.top.toArray();
+    }
+
+    /**
+     * Returns the node for the folded prefix, or -1 if no name starts with it.
+     */
+    int lookup(String prefix) {
+        int node = 0;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            char c = prefix.charAt(pos);
+            int child = firstChild[node];
+            // Siblings are ordered by their first character
+            while (child >= 0 && labels[labelStart[child]] < c) {
+                child = nextSibling[child];
+            }
+            if (child < 0 || labels[labelStart[child]] != c) {
+                return -1;
+            }
+            int start = labelStart[child];
+            int end = start + labelLength[child];
+            for (int i = start; i < end && pos < prefix.length(); i++, pos++) {
+                if (labels[i] != prefix.charAt(pos)) {
+                    return -1;
+                }
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    int topFrom(int node) {
+        return topStart[node];
+    }
+
+    int topTo(int node) {
+        return topEnd[node];
+    }
+
+    int topAt(int index) {
+        return top[index];
+    }
+
+    int nodes() {
+        return firstChild.length;
+    }
+
+    long bytes() {
+        return labels.length * 2L + (labelStart.length * 6L + top.length) * Integer.BYTES;
+    }
+
+    // =================================================================
+    // BUILD
+    // =================================================================
+
+    private record Key(String text, int doc) {}
+
+    /**
+     * names[doc] holds the folded names of a document, each preceded by '\n'.
+     * Documents must be numbered by rank, best first.
+     */
+    static SuggestTrie build(String[] names, int k) {
+        List<Key> keys = new ArrayList<>();
+        for (int doc = 0; doc < names.length; doc++) {
+            for (String name : names[doc].split("\n")) {
+                if (name.isEmpty()) {
+                    continue;
+                }
+                int start = 0;
+                for (int word = 0; word < MAX_WORD_STARTS && start >= 0; word++) {
+                    keys.add(new Key(name.substring(start), doc));
+                    int space = name.indexOf(' ', start);
+                    start = space < 0 ? -1 : space + 1;
+                }
+            }
+        }
+        keys.sort(Comparator.comparing(Key::text).thenComparingInt(Key::doc));
+
+        Builder builder = new Builder(keys.toArray(Key[]::new), k);
+        builder.node(0, keys.size(), 0, null, 0, 0);
+        return new SuggestTrie(builder);
+    }
+
+    private static final class Builder {
+        final Key[] keys;
+        final int k;
+
+        char[] labels = new char[1024];
+        int labelSize;
+        final IntList labelStart = new IntList();
+        final IntList labelLength = new IntList();
+        final IntList firstChild = new IntList();
+        final IntList nextSibling = new IntList();
+        final IntList topStart = new IntList();
+        final IntList topEnd = new IntList();
+        final IntList top = new IntList();
+
+        Builder(Key[] keys, int k) {
+            this.keys = keys;
+            this.k = k;
+        }
+
+        /* keys[lo, hi) all share their first depth chars; the edge into this node is label[from, to) */
+        int node(int lo, int hi, int depth, String label, int from, int to) {
+            int index = firstChild.size();
+            labelStart.add(labelSize);
+            labelLength.add(to - from);
+            appendLabel(label, from, to);
+            firstChild.add(-1);
+            nextSibling.add(-1);
+            topStart.add(0);
+            topEnd.add(0);
+
+            // Keys that end exactly here sort first
+            int i = lo;
+            int[] best = new int[0];
+            while (i < hi && keys[i].text().length() == depth) {
+                best = merge(best, new int[]{keys[i].doc()});
+                i++;
+            }
+
+            int previous = -1;
+            while (i < hi) {
+                char c = keys[i].text().charAt(depth);
+                int j = i + 1;
+                while (j < hi && keys[j].text().charAt(depth) == c) {
+                    j++;
+                }
+                String first = keys[i].text();
+                int shared = commonPrefix(first, keys[j - 1].text(), depth);
+
+                int child = node(i, j, shared, first, depth, shared);
+                if (previous < 0) {
+                    firstChild.set(index, child);
+                } else {
+                    nextSibling.set(previous, child);
+                }
+                previous = child;
+                best = merge(best, top.slice(topStart.get(child), topEnd.get(child)));
+                i = j;
+            }
+
+            topStart.set(index, top.size());
+            for (int doc : best) {
+                top.add(doc);
+            }
+            topEnd.set(index, top.size());
+            return index;
+        }
+
+        private void appendLabel(String label, int from, int to) {
+            if (label == null) {
+                return;
+            }
+            int length = to - from;
+            if (labelSize + length > labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(labels.length * 2, labelSize + length));
+            }
+            label.getChars(from, to, labels, labelSize);
+            labelSize += length;
+        }
+
+        // The k smallest distinct ids of two sorted arrays
+        private int[] merge(int[] a, int[] b) {
+            int[] out = new int[Math.min(k, a.length + b.length)];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (n < out.length && (i < a.length || j < b.length)) {
+                int next = j >= b.length || (i < a.length && a[i] <= b[j]) ? a[i++] : b[j++];
+                if (n == 0 || out[n - 1] != next) {
+                    out[n++] = next;
+                }
+            }
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        }
+
+        private static int commonPrefix(String a, String b, int from) {
+            int max = Math.min(a.length(), b.length());
+            int i = from;
+            while (i < max && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] slice(int from, int to) {
+            return Arrays.copyOfRange(values, from, to);
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
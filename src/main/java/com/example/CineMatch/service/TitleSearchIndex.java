@@ -0,0 +1,542 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.CatalogEntryRepository;
+import com.example.CineMatch.dto.CatalogEntry;
+import com.example.CineMatch.dto.MovieDto;
+import com.example.CineMatch.dto.PersonDto;
+import com.example.CineMatch.dto.ResponseDto;
+import com.example.CineMatch.dto.SuggestResponseDto;
+import com.example.CineMatch.dto.SuggestionDto;
+import com.example.CineMatch.dto.TvDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over movie and series titles (and original
+ * titles) and person names, so /api/tmdb/search/* can be answered without a
+ * TMDB round trip.
+ *
+ * Names are folded before indexing: lower-cased, with accents and other
+ * diacritics removed (so "Αμελί" and "αμελι" match, as do "Amélie" and
+ * "amelie"). Every query token matches as a prefix, and all tokens have to
+ * match. Documents are numbered by popularity, so the first set bits of the
+ * match are already the best results. Titles that start with the whole query
+ * are moved to the front.
+ *
+ * Each kind also gets a SuggestTrie for /api/tmdb/suggest, which returns
+ * the most popular names starting with a prefix.
+ *
+ * The index is built from the catalog mirror and from the titles the
+ * services have seen in TMDB responses. It is rebuilt in the background and
+ * swapped in with a single volatile write.
+ */
+@Component
+public class TitleSearchIndex implements MeterBinder {
+
+    public static final int PAGE_SIZE = 20;
+    // Suggestions kept per trie node, the most a suggest request can ask for
+    public static final int SUGGEST_K = 10;
+    // How many of the most popular matches are checked for a whole-query prefix
+    private static final int BOOST_WINDOW = 200;
+    private static final int MIRROR_PAGE = 1000;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    public enum Kind {
+        MOVIE, TV, PERSON
+    }
+
+    /**
+     * One searchable title or person. payload is the DTO returned in search
+     * results.
+     */
+    public record Document(Kind kind, long id, List<String> names, double popularity, Object payload) {}
+
+    /* One immutable index per kind. Document i is the i-th most popular. */
+    private static final class Segment {
+        final Document[] docs;
+        // Folded names of each document, each one preceded by '\n'
+        final String[] folded;
+        final String[] terms;
+        final int[][] postings;
+        final SuggestTrie trie;
+        final SuggestionDto[] suggestions;
+
+        Segment(Document[] docs, String[] folded, String[] terms, int[][] postings,
+                SuggestTrie trie, SuggestionDto[] suggestions) {
+            this.docs = docs;
+            this.folded = folded;
+            this.terms = terms;
+            this.postings = postings;
+            this.trie = trie;
+            this.suggestions = suggestions;
+        }
+    }
+
+    private final ObjectProvider<CatalogEntryRepository> catalogEntries;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final boolean serveLocally;
+    private final boolean catalogEnabled;
+    private final int maxRecorded;
+
+    private volatile Map<Kind, Segment> segments = Map.of();
+
+    // Seen in TMDB responses since startup, keyed by "KIND:id"
+    private final ConcurrentHashMap<String, Document> recorded = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final ReentrantLock rebuilding = new ReentrantLock();
+
+    private final LongAdder localAnswers = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder suggestions = new LongAdder();
+    private volatile long lastBuildMillis;
+
+    @Autowired
+    public TitleSearchIndex(
+            ObjectProvider<CatalogEntryRepository> catalogEntries,
+            ObjectMapper objectMapper,
+            @Value("${tmdb.search.index.enabled:true}") boolean enabled,
+            @Value("${tmdb.search.index.serve:${tmdb.catalog.enabled:false}}") boolean serveLocally,
+            @Value("${tmdb.catalog.enabled:false}") boolean catalogEnabled,
+            @Value("${tmdb.search.index.max-recorded:200000}") int maxRecorded
+    ) {
+        this.catalogEntries = catalogEntries;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.serveLocally = serveLocally;
+        this.catalogEnabled = catalogEnabled;
+        this.maxRecorded = maxRecorded;
+    }
+
+    // =================================================================
+    // SEARCH
+    // =================================================================
+
+    /**
+     * Returns a TMDB-shaped result page, or null when the caller should ask
+     * TMDB instead (local serving off, or nothing in the index matches).
+     */
+    public <T> ResponseDto<T> search(Kind kind, String query, int page, Class<T> type) {
+        if (!enabled || !serveLocally || page < 1) {
+            return null;
+        }
+        Segment segment = segments.get(kind);
+        List<String> tokens = tokens(query);
+        BitSet matches = segment == null || tokens.isEmpty() ? null : match(segment, tokens);
+        if (matches == null || matches.isEmpty()) {
+            fallbacks.increment();
+            return null;
+        }
+        localAnswers.increment();
+
+        int total = matches.cardinality();
+        List<T> results = new ArrayList<>(PAGE_SIZE);
+        for (int doc : rank(segment, matches, String.join(" ", tokens), page)) {
+            results.add(type.cast(segment.docs[doc].payload()));
+        }
+
+        ResponseDto<T> response = new ResponseDto<>();
+        response.setPage(page);
+        response.setResults(results);
+        response.setTotal_results((long) total);
+        response.setTotal_pages((long) (total + PAGE_SIZE - 1) / PAGE_SIZE);
+        return response;
+    }
+
+    private static BitSet match(Segment segment, List<String> tokens) {
+        BitSet result = null;
+        for (String token : tokens) {
+            BitSet docs = new BitSet(segment.docs.length);
+            for (int term = lowerBound(segment.terms, token);
+                 term < segment.terms.length && segment.terms[term].startsWith(token); term++) {
+                for (int doc : segment.postings[term]) {
+                    docs.set(doc);
+                }
+            }
+            if (result == null) {
+                result = docs;
+            } else {
+                result.and(docs);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /* Doc ids of the requested page: whole-query prefix matches first, then by popularity */
+    private static List<Integer> rank(Segment segment, BitSet matches, String phrase, int page) {
+        int from = (page - 1) * PAGE_SIZE;
+        int to = from + PAGE_SIZE;
+        String needle = "\n" + phrase;
+
+        List<Integer> boosted = new ArrayList<>();
+        List<Integer> rest = new ArrayList<>();
+        int scanned = 0;
+        for (int doc = matches.nextSetBit(0);
+             doc >= 0 && (scanned < BOOST_WINDOW || boosted.size() + rest.size() < to);
+             doc = matches.nextSetBit(doc + 1), scanned++) {
+            if (scanned < BOOST_WINDOW && segment.folded[doc].contains(needle)) {
+                boosted.add(doc);
+            } else {
+                rest.add(doc);
+            }
+        }
+
+        boosted.addAll(rest);
+        return from >= boosted.size() ? List.of() : boosted.subList(from, Math.min(to, boosted.size()));
+    }
+
+    /**
+     * The most popular movies, series and people with a name (or a later
+     * word of it) starting with the query. Always answered from memory.
+     */
+    public SuggestResponseDto suggest(String query, int limit) {
+        String prefix = String.join(" ", tokens(query));
+        Map<Kind, Segment> current = segments;
+        return new SuggestResponseDto(
+                suggest(current.get(Kind.MOVIE), prefix, limit),
+                suggest(current.get(Kind.TV), prefix, limit),
+                suggest(current.get(Kind.PERSON), prefix, limit));
+    }
+
+    private List<SuggestionDto> suggest(Segment segment, String prefix, int limit) {
+        if (!enabled || segment == null || prefix.isEmpty()) {
+            return List.of();
+        }
+        int node = segment.trie.lookup(prefix);
+        if (node < 0) {
+            return List.of();
+        }
+        int from = segment.trie.topFrom(node);
+        int to = Math.min(segment.trie.topTo(node), from + limit);
+        List<SuggestionDto> results = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            results.add(segment.suggestions[segment.trie.topAt(i)]);
+        }
+        suggestions.increment();
+        return results;
+    }
+
+    private static int lowerBound(String[] terms, String key) {
+        int index = Arrays.binarySearch(terms, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    // =================================================================
+    // NORMALIZATION
+    // =================================================================
+
+    /** Lower case, no diacritics, final sigma folded to sigma. */
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .replace('ς', 'σ');
+    }
+
+    static List<String> tokens(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(fold(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // =================================================================
+    // RECORDING
+    // =================================================================
+
+    /**
+     * Remembers titles and people from a TMDB list response so the next
+     * rebuild can index them.
+     */
+    public void record(Kind kind, List<?> results) {
+        if (!enabled || results == null) {
+            return;
+        }
+        for (Object result : results) {
+            Document document = documentOf(kind, result);
+            if (document == null) {
+                continue;
+            }
+            String key = kind + ":" + document.id();
+            if (recorded.size() < maxRecorded || recorded.containsKey(key)) {
+                recorded.put(key, document);
+                dirty.set(true);
+            }
+        }
+    }
+
+    static Document documentOf(Kind kind, Object payload) {
+        return switch (payload) {
+            case MovieDto movie when kind == Kind.MOVIE && movie.getId() != null && movie.getTitle() != null ->
+                    new Document(kind, movie.getId(), List.of(movie.getTitle()),
+                            orZero(movie.getPopularity()), movie);
+            case TvDto tv when kind == Kind.TV && tv.getId() != null && tv.getName() != null ->
+                    new Document(kind, tv.getId(), names(tv.getName(), tv.getOriginal_name()),
+                            orZero(tv.getPopularity()), tv);
+            case PersonDto person when kind == Kind.PERSON && person.getId() != null && person.getName() != null ->
+                    new Document(kind, person.getId(), List.of(person.getName()),
+                            orZero(person.getPopularity()), person);
+            case null, default -> null;
+        };
+    }
+
+    private static List<String> names(String name, String original) {
+        return original == null || original.equals(name) ? List.of(name) : List.of(name, original);
+    }
+
+    private static double orZero(Double value) {
+        return value == null ? 0 : value;
+    }
+
+    // =================================================================
+    // BUILD
+    // =================================================================
+
+    @Scheduled(initialDelayString = "${tmdb.search.index.initial-delay:1m}",
+            fixedDelayString = "${tmdb.search.index.rebuild-interval:10m}")
+    public void rebuild() {
+        if (!enabled || (!catalogEnabled && !dirty.get()) || !rebuilding.tryLock()) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            dirty.set(false);
+
+            Map<String, Document> documents = new HashMap<>();
+            if (catalogEnabled) {
+                readMirror(documents);
+            }
+            recorded.forEach(documents::putIfAbsent);
+
+            swap(build(documents.values()));
+            rebuilds.increment();
+            lastBuildMillis = (System.nanoTime() - start) / 1_000_000;
+        } catch (RuntimeException e) {
+            System.err.println("Rebuilding the title search index failed: " + e.getMessage());
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    // Replaces the whole index at once; searches see either the old or the new one
+    void swap(Map<Kind, Segment> next) {
+        segments = next;
+    }
+
+    private void readMirror(Map<String, Document> documents) {
+        CatalogEntryRepository entries = catalogEntries.getIfAvailable();
+        if (entries == null) {
+            return;
+        }
+        PageRequest request = PageRequest.of(0, MIRROR_PAGE, Sort.by("endpoint"));
+        Slice<CatalogEntry> slice;
+        do {
+            slice = entries.findByEndpointNotLike("%credits", request);
+            for (CatalogEntry entry : slice) {
+                Document document = mirrored(entry);
+                if (document != null) {
+                    documents.put(document.kind() + ":" + document.id(), document);
+                }
+            }
+            request = request.next();
+        } while (slice.hasNext());
+    }
+
+    private Document mirrored(CatalogEntry entry) {
+        JsonNode node = objectMapper.readTree(entry.getBody());
+        double popularity = node.path("popularity").asDouble(0);
+        return switch (entry.getMediaType()) {
+            case "movie" -> new Document(Kind.MOVIE, entry.getTmdbId(),
+                    names(node.path("title").asString(""), node.path("original_title").asString(null)),
+                    popularity, objectMapper.treeToValue(node, MovieDto.class));
+            case "tv" -> new Document(Kind.TV, entry.getTmdbId(),
+                    names(node.path("name").asString(""), node.path("original_name").asString(null)),
+                    popularity, objectMapper.treeToValue(node, TvDto.class));
+            case "person" -> {
+                // also_known_as carries the Greek, Cyrillic, ... spellings of a name
+                List<String> names = new ArrayList<>();
+                names.add(node.path("name").asString(""));
+                node.path("also_known_as").forEach(alias -> names.add(alias.asString("")));
+                yield new Document(Kind.PERSON, entry.getTmdbId(), names, popularity,
+                        objectMapper.treeToValue(node, PersonDto.class));
+            }
+            default -> null;
+        };
+    }
+
+    static Map<Kind, Segment> build(Collection<Document> documents) {
+        Map<Kind, List<Document>> byKind = new EnumMap<>(Kind.class);
+        for (Document document : documents) {
+            byKind.computeIfAbsent(document.kind(), kind -> new ArrayList<>()).add(document);
+        }
+
+        Map<Kind, Segment> segments = new EnumMap<>(Kind.class);
+        byKind.forEach((kind, list) -> segments.put(kind, segment(list)));
+        return segments;
+    }
+
+    private static Segment segment(List<Document> list) {
+        Document[] docs = list.toArray(Document[]::new);
+        Arrays.sort(docs, Comparator.comparingDouble(Document::popularity).reversed()
+                .thenComparingLong(Document::id));
+
+        String[] folded = new String[docs.length];
+        Map<String, IntList> postings = new HashMap<>();
+        for (int doc = 0; doc < docs.length; doc++) {
+            StringBuilder names = new StringBuilder();
+            Set<String> terms = new HashSet<>();
+            for (String name : docs[doc].names()) {
+                List<String> tokens = tokens(name);
+                names.append('\n').append(String.join(" ", tokens));
+                terms.addAll(tokens);
+            }
+            folded[doc] = names.toString();
+
+            // Doc ids only grow, so each posting list stays sorted
+            for (String term : terms) {
+                postings.computeIfAbsent(term, key -> new IntList()).add(doc);
+            }
+        }
+
+        String[] terms = postings.keySet().toArray(String[]::new);
+        Arrays.sort(terms);
+        int[][] lists = new int[terms.length][];
+        for (int i = 0; i < terms.length; i++) {
+            lists[i] = postings.get(terms[i]).toArray();
+        }
+
+        SuggestionDto[] suggestions = new SuggestionDto[docs.length];
+        for (int doc = 0; doc < docs.length; doc++) {
+            suggestions[doc] = suggestionOf(docs[doc]);
+        }
+        return new Segment(docs, folded, terms, lists, SuggestTrie.build(folded, SUGGEST_K), suggestions);
+    }
+
+    private static SuggestionDto suggestionOf(Document document) {
+        return switch (document.payload()) {
+            case MovieDto movie -> new SuggestionDto(document.id(), "movie", movie.getTitle(),
+                    year(movie.getReleaseDate()), movie.getPosterPath());
+            case TvDto tv -> new SuggestionDto(document.id(), "tv", tv.getName(),
+                    year(tv.getFirst_air_date()), tv.getPoster_path());
+            case PersonDto person -> new SuggestionDto(document.id(), "person", person.getName(),
+                    null, person.getProfilePath());
+            default -> new SuggestionDto(document.id(), document.kind().name().toLowerCase(Locale.ROOT),
+                    document.names().getFirst(), null, null);
+        };
+    }
+
+    private static String year(String date) {
+        return date == null || date.length() < 4 ? null : date.substring(0, 4);
+    }
+
+    private static final class IntList {
+        private int[] values = new int[2];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    // =================================================================
+    // STATS
+    // =================================================================
+
+    public int getDocuments() {
+        return segments.values().stream().mapToInt(segment -> segment.docs.length).sum();
+    }
+
+    public long getLocalAnswers() {
+        return localAnswers.sum();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    public long getRebuilds() {
+        return rebuilds.sum();
+    }
+
+    public long getLastBuildMillis() {
+        return lastBuildMillis;
+    }
+
+    public long getSuggestions() {
+        return suggestions.sum();
+    }
+
+    public long getSuggestBytes() {
+        return segments.values().stream().mapToLong(segment -> segment.trie.bytes()).sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tmdb.search.index.documents", this, TitleSearchIndex::getDocuments)
+                .register(registry);
+        FunctionCounter.builder("tmdb.search.index.requests", this, TitleSearchIndex::getLocalAnswers)
+                .tag("result", "local").register(registry);
+        FunctionCounter.builder("tmdb.search.index.requests", this, TitleSearchIndex::getFallbacks)
+                .tag("result", "fallback").register(registry);
+        FunctionCounter.builder("tmdb.search.index.rebuilds", this, TitleSearchIndex::getRebuilds)
+                .register(registry);
+        Gauge.builder("tmdb.search.index.last-build", this, TitleSearchIndex::getLastBuildMillis)
+                .baseUnit("milliseconds").register(registry);
+        FunctionCounter.builder("tmdb.suggest.requests", this, TitleSearchIndex::getSuggestions)
+                .register(registry);
+        Gauge.builder("tmdb.suggest.trie.bytes", this, TitleSearchIndex::getSuggestBytes)
+                .baseUnit("bytes").register(registry);
+    }
+}
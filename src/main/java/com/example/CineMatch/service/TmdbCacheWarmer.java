@@ -0,0 +1,256 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.ThrottledTmdbRepository;
+import com.example.CineMatch.Repository.TmdbLane;
+import com.example.CineMatch.Repository.TmdbRepository;
+import com.example.CineMatch.Repository.TmdbUnavailableException;
+import com.example.CineMatch.dto.MovieDto;
+import com.example.CineMatch.dto.PersonDto;
+import com.example.CineMatch.dto.ResponseDto;
+import com.example.CineMatch.dto.TvDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.Serial;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+
+/**
+ * Keeps the TMDB cache warm for what most users open first: the first pages
+ * of the weekly trending lists, and the details (with credits) of every
+ * title and person on them.
+ *
+ * Runs through the normal services, so the cache keys are exactly the ones
+ * user requests look up, and in the PREFETCH lane, so user traffic always
+ * goes first. Before each call the warmer checks the rate limiter and waits,
+ * with growing pauses, while it has little headroom or users are queued.
+ * If that lasts longer than max-backoff, the cycle is given up until the next
+ * run.
+ */
+@Service
+@ConditionalOnProperty(name = "tmdb.warmer.enabled", havingValue = "true", matchIfMissing = true)
+public class TmdbCacheWarmer implements MeterBinder {
+
+    private static final Duration FIRST_BACKOFF = Duration.ofMillis(250);
+
+    private final MovieService movieService;
+    private final TvService tvService;
+    private final PersonService personService;
+    private final TmdbRepository upstream;
+    private final int pages;
+    private final int parallelism;
+    private final double minHeadroom;
+    private final Duration maxBackoff;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ReentrantLock running = new ReentrantLock();
+
+    private final LongAdder cycles = new LongAdder();
+    private final LongAdder cycleNanos = new LongAdder();
+    private volatile double lastCycleSeconds;
+    private final LongAdder lists = new LongAdder();
+    private final LongAdder details = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder backoffs = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    @Autowired
+    public TmdbCacheWarmer(
+            MovieService movieService,
+            TvService tvService,
+            PersonService personService,
+            @Qualifier("upstreamTmdbRepository") TmdbRepository upstream,
+            @Value("${tmdb.warmer.pages:2}") int pages,
+            @Value("${tmdb.warmer.parallelism:4}") int parallelism,
+            @Value("${tmdb.warmer.min-headroom:0.25}") double minHeadroom,
+            @Value("${tmdb.warmer.max-backoff:1m}") Duration maxBackoff
+    ) {
+        this.movieService = movieService;
+        this.tvService = tvService;
+        this.personService = personService;
+        this.upstream = upstream;
+        this.pages = pages;
+        this.parallelism = parallelism;
+        this.minHeadroom = minHeadroom;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * One warm-up cycle over movies, TV and people. Skipped if the previous
+     * one is still running.
+     */
+    @Scheduled(initialDelayString = "${tmdb.warmer.initial-delay:30s}",
+               fixedDelayString = "${tmdb.warmer.interval:30m}")
+    public void warm() {
+        if (!running.tryLock()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            TmdbLane.run(TmdbLane.PREFETCH, () -> {
+                warm(movieService::getTrending, MovieDto::getId, movieService::getDetails);
+                warm(tvService::getTrending, TvDto::getId, tvService::getDetails);
+                warm(personService::getTrending, PersonDto::getId, personService::getDetails);
+            });
+        } catch (RuntimeException e) {
+            abandoned.increment();
+            System.err.println("TMDB cache warm-up stopped: " + e.getMessage());
+        } finally {
+            long took = System.nanoTime() - start;
+            cycles.increment();
+            cycleNanos.add(took);
+            lastCycleSeconds = took / 1e9;
+            running.unlock();
+        }
+    }
+
+    private <T> void warm(IntFunction<ResponseDto<T>> trending, Function<T, Long> idOf, LongConsumer detailsOf) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (int page = 1; page <= pages; page++) {
+            awaitBudget();
+            ResponseDto<T> result = trending.apply(page);
+            lists.increment();
+            if (result == null || result.getResults() == null) {
+                break;
+            }
+            for (T item : result.getResults()) {
+                Long id = idOf.apply(item);
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+            if (result.getTotal_pages() != null && page >= result.getTotal_pages()) {
+                break;
+            }
+        }
+
+        Semaphore permits = new Semaphore(parallelism);
+        List<CompletableFuture<Void>> fetches = new ArrayList<>();
+        for (long id : ids) {
+            fetches.add(CompletableFuture.runAsync(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    awaitBudget();
+                    TmdbLane.run(TmdbLane.PREFETCH, () -> detailsOf.accept(id));
+                    details.increment();
+                } catch (TmdbUnavailableException | BudgetExhaustedException e) {
+                    throw e;
+                } catch (RuntimeException e) {
+                    // One broken title shouldn't stop the rest
+                    failures.increment();
+                } finally {
+                    permits.release();
+                }
+            }, executor));
+        }
+        try {
+            CompletableFuture.allOf(fetches.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // Waits while the rate limiter is short on tokens or users are queued
+    private void awaitBudget() {
+        if (!(upstream instanceof ThrottledTmdbRepository throttle)) {
+            return;
+        }
+        long waited = 0;
+        long pause = FIRST_BACKOFF.toMillis();
+        while (throttle.getHeadroom() < minHeadroom || throttle.getQueueDepth(TmdbLane.INTERACTIVE) > 0) {
+            if (waited >= maxBackoff.toMillis()) {
+                throw new BudgetExhaustedException();
+            }
+            backoffs.increment();
+            try {
+                Thread.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BudgetExhaustedException();
+            }
+            waited += pause;
+            pause = Math.min(pause * 2, maxBackoff.toMillis());
+        }
+    }
+
+    private static class BudgetExhaustedException extends RuntimeException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        BudgetExhaustedException() {
+            super("TMDB request budget is tight, postponed to the next run");
+        }
+    }
+
+    // =================================================================
+    // STATS
+    // =================================================================
+
+    public long getDetails() {
+        return details.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getBackoffs() {
+        return backoffs.sum();
+    }
+
+    public long getAbandoned() {
+        return abandoned.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("tmdb.warmer.cycle", this,
+                        warmer -> warmer.cycles.sum(), warmer -> warmer.cycleNanos.sum(), TimeUnit.NANOSECONDS)
+                .register(registry);
+        Gauge.builder("tmdb.warmer.last-cycle", this, warmer -> warmer.lastCycleSeconds)
+                .baseUnit("seconds").register(registry);
+        FunctionCounter.builder("tmdb.warmer.fetches", lists, LongAdder::sum)
+                .tag("kind", "list").register(registry);
+        FunctionCounter.builder("tmdb.warmer.fetches", details, LongAdder::sum)
+                .tag("kind", "details").register(registry);
+        FunctionCounter.builder("tmdb.warmer.failures", failures, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("tmdb.warmer.backoffs", backoffs, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("tmdb.warmer.abandoned", abandoned, LongAdder::sum)
+                .register(registry);
+    }
+}
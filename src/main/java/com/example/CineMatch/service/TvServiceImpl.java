@@ -13,72 +13,113 @@
  * If not, see <https://www.gnu.org/licenses/>.
  */package com.example.CineMatch.service;
 
+import com.example.CineMatch.Repository.TmdbEndpoints;
 import com.example.CineMatch.Repository.TmdbRepository;
 import com.example.CineMatch.dto.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import tools.jackson.databind.JavaType;
+import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ObjectNode;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class TvServiceImpl implements TvService {
 
     private final TmdbRepository tmdbRepository;
     private final ObjectMapper objectMapper;
+    private final JavaType pageType;
+    private final JavaType creditsType;
+
+    // Fetch details and credits in one TMDB call instead of two parallel ones
+    @Value("${tmdb.details.append-credits:false}")
+    private boolean appendCredits;
+
+    @Value("${tmdb.details.timeout:5s}")
+    private Duration detailsTimeout = Duration.ofSeconds(5);
+
+    // Answers searches locally when it can, and learns titles from list responses
+    @Autowired(required = false)
+    private TitleSearchIndex titleIndex;
 
     @Autowired
      public TvServiceImpl(TmdbRepository tmdbRepository, ObjectMapper objectMapper) {
         this.tmdbRepository = tmdbRepository;
         this.objectMapper = objectMapper;
+        // Built once: resolving a parametric type on every request is measurable work
+        this.pageType = objectMapper.getTypeFactory()
+                .constructParametricType(ResponseDto.class, TvDto.class);
+        this.creditsType = objectMapper.getTypeFactory()
+                .constructParametricType(CreditsDto.class, PersonDto.class);
     }
 
     // TRENDING
     @Override
     public ResponseDto<TvDto> getTrending(int page) {
-        String json = tmdbRepository.call("/trending/tv/week?page=" + page);
-        JavaType type = objectMapper.getTypeFactory()
-                .constructParametricType(ResponseDto.class, TvDto.class);
-
-        return objectMapper.readValue(json, type);
+        return remember(objectMapper.readValue(tmdbRepository.callBytes("/trending/tv/week?page=" + page), pageType));
     }
 
     // SEARCH
     public ResponseDto<TvDto> getSearch(String q, int page) {
-        String json = tmdbRepository.call("/search/tv?query=" + q + "&page=" + page);
-        JavaType type = objectMapper.getTypeFactory()
-                .constructParametricType(ResponseDto.class, TvDto.class);
-
-        return objectMapper.readValue(json, type);
+        ResponseDto<TvDto> local = titleIndex == null ? null
+                : titleIndex.search(TitleSearchIndex.Kind.TV, q, page, TvDto.class);
+        if (local != null) {
+            return local;
+        }
+        return remember(objectMapper.readValue(tmdbRepository.callBytes("/search/tv?query=" + TmdbEndpoints.encode(q) + "&page=" + page), pageType));
     }
 
     // DISCOVER
     public ResponseDto<TvDto> getDiscover(String q) {
-        String json = tmdbRepository.call("/discover/tv" + q);
-        JavaType type = objectMapper.getTypeFactory()
-                .constructParametricType(ResponseDto.class, TvDto.class);
+        return remember(objectMapper.readValue(tmdbRepository.callBytes("/discover/tv" + q), pageType));
+    }
 
-        return objectMapper.readValue(json, type);
+    // Lets the title index learn what TMDB returned
+    private ResponseDto<TvDto> remember(ResponseDto<TvDto> page) {
+        if (titleIndex != null && page != null) {
+            titleIndex.record(TitleSearchIndex.Kind.TV, page.getResults());
+        }
+        return page;
     }
 
     // DETAILS
     public TvDetailsDto getDetails(long id) {
-        Map<String, Object> details =
-                new HashMap<>(tmdbRepository.callMap("/tv/" + id));
-        Map<String, Object> credits =
-                tmdbRepository.callMap("/tv/" + id + "/credits");
-
-        details.put("cast", credits.get("cast"));
-
-        String json = objectMapper.writeValueAsString(details);
-        TvDetailsDto dto = objectMapper.readValue(json, TvDetailsDto.class);
+        TvDetailsDto dto;
+        CreditsDto<PersonDto> credits;
+
+        if (appendCredits) {
+            // Split the appended credits object off before binding the details
+            JsonNode tree = objectMapper.readTree(
+                    tmdbRepository.callBytes("/tv/" + id + "?append_to_response=credits"));
+            if (!(tree instanceof ObjectNode details)) {
+                throw new RuntimeException("Invalid tv details received from TMDB");
+            }
+            JsonNode appended = details.remove("credits");
+
+            dto = objectMapper.treeToValue(details, TvDetailsDto.class);
+            credits = appended == null ? null : objectMapper.treeToValue(appended, creditsType);
+        } else {
+            // Each response is bound from its raw bytes on the thread that fetched it
+            CompletableFuture<TvDetailsDto> detailsCall = ParallelFetch.async(() ->
+                    objectMapper.readValue(tmdbRepository.callBytes("/tv/" + id), TvDetailsDto.class));
+            CompletableFuture<CreditsDto<PersonDto>> creditsCall = ParallelFetch.async(() ->
+                    objectMapper.readValue(tmdbRepository.callBytes("/tv/" + id + "/credits"), creditsType));
+            ParallelFetch.awaitAll(detailsTimeout, detailsCall, creditsCall);
+
+            dto = detailsCall.join();
+            credits = creditsCall.join();
+        }
 
-        if (dto.getId() == null || dto.getName() == null) {
+        if (dto == null || dto.getId() == null || dto.getName() == null) {
             throw new RuntimeException("Invalid tv details received from TMDB");
         }
 
+        dto.setCast(credits == null ? null : credits.getCast());
+
         return dto;
     }
 }
\ No newline at end of file
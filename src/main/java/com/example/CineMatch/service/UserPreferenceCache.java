@@ -0,0 +1,113 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.UserPreferenceRepository;
+import com.example.CineMatch.dto.GenreAffinity;
+import com.example.CineMatch.dto.UserPreference;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Short-lived cache of each user's top genres, so a personalized quiz does
+ * not cost a database round trip and a JSON parse of genre_affinity.
+ * Users without preferences are cached too (as an empty list).
+ */
+@Component
+public class UserPreferenceCache {
+
+    private record Entry(List<String> topGenres, long expiresAt) {}
+
+    private final UserPreferenceRepository userPreferenceRepository;
+    private final Duration ttl;
+    private final int maxUsers;
+    private final Clock clock;
+
+    // Access-ordered, so iteration starts from the least recently used user
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public UserPreferenceCache(
+            UserPreferenceRepository userPreferenceRepository,
+            @Value("${quiz.personalized.preference-ttl:10m}") Duration ttl,
+            @Value("${quiz.personalized.max-users:10000}") int maxUsers
+    ) {
+        this(userPreferenceRepository, ttl, maxUsers, Clock.systemUTC());
+    }
+
+    public UserPreferenceCache(UserPreferenceRepository userPreferenceRepository, Duration ttl,
+                               int maxUsers, Clock clock) {
+        this.userPreferenceRepository = userPreferenceRepository;
+        this.ttl = ttl;
+        this.maxUsers = maxUsers;
+        this.clock = clock;
+    }
+
+    /**
+     * The user's strongest genres, best first, or an empty list when the user
+     * has no usable preferences.
+     */
+    public List<String> topGenres(UUID userId, int limit) {
+        long now = clock.millis();
+
+        lock.lock();
+        try {
+            Entry entry = entries.get(userId);
+            if (entry != null && now < entry.expiresAt()) {
+                return entry.topGenres().stream().limit(limit).toList();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Looked up outside the lock: two racing misses just both hit the database
+        List<String> topGenres = userPreferenceRepository.findByUserId(userId)
+                .map(UserPreference::getGenreAffinityList)
+                .orElse(List.of())
+                .stream()
+                .map(GenreAffinity::getGenre)
+                .filter(Objects::nonNull)
+                .limit(limit)
+                .toList();
+
+        lock.lock();
+        try {
+            entries.put(userId, new Entry(topGenres, now + ttl.toMillis()));
+            Iterator<UUID> eldest = entries.keySet().iterator();
+            while (entries.size() > maxUsers && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return topGenres;
+    }
+
+    public void invalidate(UUID userId) {
+        lock.lock();
+        try {
+            entries.remove(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Config;
+
+import com.example.CineMatch.MutableClock;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListResponseCacheFilterTest {
+
+    private static final String BODY = "{\"page\":1,\"results\":[{\"id\":550,\"title\":\"Fight Club\"}]}";
+
+    private final MutableClock clock = new MutableClock();
+    private final ListResponseCacheFilter filter =
+            new ListResponseCacheFilter(true, Duration.ofSeconds(60), 100, 1024 * 1024, clock);
+    private final AtomicInteger controllerCalls = new AtomicInteger();
+
+    private final FilterChain controller = (request, response) -> {
+        controllerCalls.incrementAndGet();
+        response.setContentType("application/json");
+        response.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+    };
+
+    @Test
+    void repeatedRequest_shouldBeServedFromCache_withSameBytes() throws Exception {
+        MockHttpServletResponse first = get("/api/tmdb/trending/movie", null);
+        MockHttpServletResponse second = get("/api/tmdb/trending/movie", null);
+
+        assertEquals(1, controllerCalls.get());
+        assertEquals(BODY, first.getContentAsString());
+        assertEquals(BODY, second.getContentAsString());
+        assertEquals("application/json", second.getContentType());
+        assertEquals(BODY.length(), second.getContentLength());
+        assertNotNull(second.getHeader("ETag"));
+        assertEquals(first.getHeader("ETag"), second.getHeader("ETag"));
+        assertEquals(1, filter.getHits());
+        assertEquals(1, filter.getMisses());
+    }
+
+    @Test
+    void queryParamOrder_shouldNotMatter() throws Exception {
+        get("/api/tmdb/discover/movie", null, "with_genres", "28", "page", "2");
+        get("/api/tmdb/discover/movie", null, "page", "2", "with_genres", "28");
+        get("/api/tmdb/discover/movie", null, "page", "3", "with_genres", "28");
+
+        assertEquals(2, controllerCalls.get());
+    }
+
+    @Test
+    void discoverDefaults_shouldShareEntryWithBareRequest() throws Exception {
+        get("/api/tmdb/discover/movies", null, "with_genres", "28,12");
+        get("/api/tmdb/discover/movies", null, "sort_by", "popularity.desc", "page", "1", "with_genres", "12,28");
+
+        assertEquals(1, controllerCalls.get());
+    }
+
+    @Test
+    void acceptEncodingGzip_shouldReturnPrecompressedBody() throws Exception {
+        get("/api/tmdb/search/movie", null, "query", "matrix");
+
+        MockHttpServletRequest request = request("/api/tmdb/search/movie", "query", "matrix");
+        request.addHeader("Accept-Encoding", "br, gzip;q=0.8");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, controller);
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals(BODY, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(1, controllerCalls.get());
+    }
+
+    @Test
+    void matchingIfNoneMatch_shouldAnswer304WithoutBody() throws Exception {
+        String etag = get("/api/tmdb/trending/tv", null).getHeader("ETag");
+
+        MockHttpServletResponse response = get("/api/tmdb/trending/tv", etag);
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(etag, response.getHeader("ETag"));
+        assertEquals(1, filter.getNotModified());
+    }
+
+    @Test
+    void expiredEntry_shouldGoBackToController() throws Exception {
+        get("/api/tmdb/trending/movie", null);
+        clock.advance(Duration.ofSeconds(61));
+        get("/api/tmdb/trending/movie", null);
+
+        assertEquals(2, controllerCalls.get());
+    }
+
+    @Test
+    void errorResponses_andOtherPaths_shouldNotBeCached() throws Exception {
+        FilterChain failing = (request, response) -> {
+            controllerCalls.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_BAD_GATEWAY);
+            response.setContentType("application/json");
+            response.getOutputStream().write("{\"error\":\"down\"}".getBytes(StandardCharsets.UTF_8));
+        };
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request("/api/tmdb/trending/movie"), response, failing);
+            assertEquals(HttpServletResponse.SC_BAD_GATEWAY, response.getStatus());
+            assertEquals("{\"error\":\"down\"}", response.getContentAsString());
+        }
+        get("/api/tmdb/movie/550", null);
+        get("/api/tmdb/movie/550", null);
+
+        assertEquals(4, controllerCalls.get());
+        assertEquals(0, filter.getSize());
+    }
+
+    @Test
+    void acceptsGzip_shouldHonourQualityZero() {
+        assertTrue(ListResponseCacheFilter.acceptsGzip("gzip, deflate"));
+        assertTrue(ListResponseCacheFilter.acceptsGzip("*"));
+        assertFalse(ListResponseCacheFilter.acceptsGzip("gzip;q=0"));
+        assertFalse(ListResponseCacheFilter.acceptsGzip("identity"));
+        assertFalse(ListResponseCacheFilter.acceptsGzip(null));
+    }
+
+    private MockHttpServletResponse get(String uri, String ifNoneMatch, String... params) throws Exception {
+        MockHttpServletRequest request = request(uri, params);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, controller);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String uri, String... params) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        for (int i = 0; i < params.length; i += 2) {
+            request.addParameter(params[i], params[i + 1]);
+        }
+        return request;
+    }
+}
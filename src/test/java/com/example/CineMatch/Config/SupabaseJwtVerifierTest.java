@@ -0,0 +1,84 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SupabaseJwtVerifierTest {
+
+    private static final String SECRET = "super-secret-jwt-token-with-at-least-32-characters";
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+    private static final UUID USER = UUID.fromString("8c1f9a52-6f0e-4c4b-9d3a-2b7e5f1a0c11");
+
+    private final SupabaseJwtVerifier verifier =
+            new SupabaseJwtVerifier(SECRET, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void validToken_shouldYieldTheUserAndName() throws Exception {
+        String token = token(SECRET, "HS256", claims(NOW.getEpochSecond() + 3600, "authenticated"));
+
+        SupabaseJwtVerifier.Principal user = verifier.verify("Bearer " + token).orElseThrow();
+
+        assertEquals(USER, user.id());
+        assertEquals("Maria", user.name());
+    }
+
+    @Test
+    void forgedOrUnusableTokens_shouldBeRefused() throws Exception {
+        String valid = claims(NOW.getEpochSecond() + 3600, "authenticated");
+
+        assertTrue(verifier.verify(null).isEmpty());
+        assertTrue(verifier.verify("Basic abc").isEmpty());
+        assertTrue(verifier.verify("Bearer not.a-jwt").isEmpty());
+        assertTrue(verifier.verify("Bearer " + token("some-other-secret", "HS256", valid)).isEmpty());
+        assertTrue(verifier.verify("Bearer " + token(SECRET, "none", valid)).isEmpty());
+        assertTrue(verifier.verify("Bearer " + token(SECRET, "HS256",
+                claims(NOW.getEpochSecond() - 1, "authenticated"))).isEmpty());
+        assertTrue(verifier.verify("Bearer " + token(SECRET, "HS256",
+                claims(NOW.getEpochSecond() + 3600, "anon"))).isEmpty());
+    }
+
+    @Test
+    void withoutSecret_shouldRefuseEveryToken() throws Exception {
+        SupabaseJwtVerifier unconfigured = new SupabaseJwtVerifier("", Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertTrue(unconfigured.verify("Bearer " + token("", "HS256",
+                claims(NOW.getEpochSecond() + 3600, "authenticated"))).isEmpty());
+    }
+
+    private static String claims(long exp, String role) {
+        return "{\"sub\":\"" + USER + "\",\"exp\":" + exp + ",\"role\":\"" + role
+                + "\",\"user_metadata\":{\"name\":\"Maria\"}}";
+    }
+
+    private static String token(String secret, String alg, String claims) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String signed = encoder.encodeToString(("{\"alg\":\"" + alg + "\",\"typ\":\"JWT\"}").getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.isEmpty() ? new byte[1] : secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return signed + "." + encoder.encodeToString(mac.doFinal(signed.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
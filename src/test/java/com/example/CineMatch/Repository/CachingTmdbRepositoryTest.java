@@ -0,0 +1,279 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import com.example.CineMatch.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingTmdbRepositoryTest {
+
+    @Mock
+    TmdbRepository upstream;
+
+    private final MutableClock clock = new MutableClock();
+
+    private final TmdbCachePolicy policy = new TmdbCachePolicy(
+            Duration.ofHours(1), Duration.ofMinutes(30), Duration.ofMinutes(10),
+            Duration.ofHours(12), Duration.ofHours(24), Duration.ZERO
+    );
+
+    private TmdbResponseCache cache;
+    private CachingTmdbRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TmdbResponseCache(100, 1024 * 1024, null, clock);
+        repository = new CachingTmdbRepository(upstream, cache, policy, new ObjectMapper());
+    }
+
+    @Test
+    void call_shouldHitUpstreamOnce_forRepeatedEndpoint() {
+        when(upstream.callConditional("/trending/movie/week?page=1", null, null)).thenReturn(TmdbResponse.of("{\"page\":1}".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("{\"page\":1}", repository.call("/trending/movie/week?page=1"));
+        assertEquals("{\"page\":1}", repository.call("/trending/movie/week?page=1"));
+
+        verify(upstream, times(1)).callConditional("/trending/movie/week?page=1", null, null);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void callMap_shouldShareEntryWithCall() {
+        when(upstream.callConditional("/movie/1", null, null)).thenReturn(TmdbResponse.of("{\"id\":1,\"title\":\"Movie\"}".getBytes(StandardCharsets.UTF_8)));
+
+        repository.call("/movie/1");
+        Map<String, Object> details = repository.callMap("/movie/1");
+
+        assertEquals("Movie", details.get("title"));
+        verify(upstream, times(1)).callConditional("/movie/1", null, null);
+        verify(upstream, never()).callMap(anyString());
+    }
+
+    @Test
+    void call_shouldRefetch_afterTtlExpires() {
+        when(upstream.callConditional("/search/movie?query=x&page=1", null, null)).thenReturn(TmdbResponse.of("{}".getBytes(StandardCharsets.UTF_8)));
+
+        repository.call("/search/movie?query=x&page=1");
+        clock.advance(Duration.ofMinutes(11));
+        repository.call("/search/movie?query=x&page=1");
+
+        verify(upstream, times(2)).callConditional("/search/movie?query=x&page=1", null, null);
+    }
+
+    @Test
+    void call_shouldBypassCache_whenPolicyTtlIsZero() {
+        when(upstream.callBytes("/configuration")).thenReturn("{}".getBytes(StandardCharsets.UTF_8));
+
+        repository.call("/configuration");
+        repository.call("/configuration");
+
+        verify(upstream, times(2)).callBytes("/configuration");
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void expiredEntry_shouldBeRevalidated_andNotModifiedShouldKeepBody() {
+        TmdbResponseCache retaining = new TmdbResponseCache(100, 1024 * 1024, null, Duration.ofDays(1), clock);
+        CachingTmdbRepository revalidating = new CachingTmdbRepository(
+                upstream, retaining, policy, new ObjectMapper(), Duration.ZERO, 0);
+        String endpoint = "/trending/movie/week?page=1";
+        when(upstream.callConditional(endpoint, null, null))
+                .thenReturn(new TmdbResponse("{\"page\":1}".getBytes(StandardCharsets.UTF_8), "\"v1\"", null, false));
+        when(upstream.callConditional(endpoint, "\"v1\"", null))
+                .thenReturn(new TmdbResponse(null, null, null, true));
+
+        revalidating.call(endpoint);
+        clock.advance(Duration.ofHours(2));
+
+        assertEquals("{\"page\":1}", revalidating.call(endpoint));
+        assertEquals("{\"page\":1}", revalidating.call(endpoint));
+
+        verify(upstream, times(1)).callConditional(endpoint, "\"v1\"", null);
+        assertEquals(1, revalidating.getNotModified());
+    }
+
+    @Test
+    void staleEntry_shouldBeServedAtOnce_andRefreshedInBackground() {
+        TmdbResponseCache retaining = new TmdbResponseCache(100, 1024 * 1024, null, Duration.ofDays(1), clock);
+        CachingTmdbRepository swr = new CachingTmdbRepository(
+                upstream, retaining, policy, new ObjectMapper(), Duration.ofMinutes(10), 0);
+        String endpoint = "/trending/movie/week?page=1";
+        when(upstream.callConditional(endpoint, null, null))
+                .thenReturn(TmdbResponse.of("old".getBytes(StandardCharsets.UTF_8)))
+                .thenReturn(TmdbResponse.of("new".getBytes(StandardCharsets.UTF_8)));
+
+        swr.call(endpoint);
+        clock.advance(Duration.ofMinutes(65));
+
+        assertEquals("old", swr.call(endpoint));
+        verify(upstream, timeout(2000).times(2)).callConditional(endpoint, null, null);
+        awaitUntil(() -> retaining.get(endpoint) != null);
+        assertEquals("new", swr.call(endpoint));
+        assertEquals(1, swr.getStaleRefreshes());
+    }
+
+    @Test
+    void freshEntry_shouldBeRefreshedEarly_onlyWhenBetaAllowsIt() {
+        String endpoint = "/movie/1";
+        cache.put(endpoint, "old".getBytes(StandardCharsets.UTF_8), null, null, Duration.ofHours(12), 1000);
+        when(upstream.callConditional(endpoint, null, null))
+                .thenReturn(TmdbResponse.of("new".getBytes(StandardCharsets.UTF_8)));
+
+        // Default repository has early expiration off
+        assertEquals("old", repository.call(endpoint));
+        verify(upstream, never()).callConditional(anyString(), any(), any());
+
+        // A huge beta makes an early refresh certain
+        CachingTmdbRepository eager = new CachingTmdbRepository(
+                upstream, cache, policy, new ObjectMapper(), Duration.ZERO, 1e9);
+        assertEquals("old", eager.call(endpoint));
+        verify(upstream, timeout(2000)).callConditional(endpoint, null, null);
+        assertEquals(1, eager.getEarlyRefreshes());
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsed_whenEntryBoundExceeded() {
+        TmdbResponseCache small = new TmdbResponseCache(2, 1024, null, clock);
+
+        small.put("a", new byte[]{1}, Duration.ofHours(1));
+        small.put("b", new byte[]{2}, Duration.ofHours(1));
+        small.get("a");
+        small.put("c", new byte[]{3}, Duration.ofHours(1));
+
+        assertNotNull(small.get("a"));
+        assertNull(small.get("b"));
+        assertNotNull(small.get("c"));
+        assertEquals(1, small.getEvictions());
+    }
+
+    @Test
+    void put_shouldEvict_whenByteBoundExceeded() {
+        TmdbResponseCache small = new TmdbResponseCache(100, 10, null, clock);
+
+        small.put("a", new byte[6], Duration.ofHours(1));
+        small.put("b", new byte[6], Duration.ofHours(1));
+
+        assertNull(small.get("a"));
+        assertEquals(6, small.getBytes());
+    }
+
+    @Test
+    void diskTier_shouldSurviveNewCacheInstance(@TempDir Path dir) {
+        TmdbResponseCache first = new TmdbResponseCache(10, 1024, dir, clock);
+        first.put("/movie/1", "{\"id\":1}".getBytes(), Duration.ofHours(1));
+
+        TmdbResponseCache restarted = new TmdbResponseCache(10, 1024, dir, clock);
+
+        assertArrayEquals("{\"id\":1}".getBytes(), restarted.get("/movie/1"));
+        assertEquals(1, restarted.getDiskHits());
+
+        clock.advance(Duration.ofHours(2));
+        TmdbResponseCache expired = new TmdbResponseCache(10, 1024, dir, clock);
+        assertNull(expired.get("/movie/1"));
+    }
+
+    @Test
+    void diskSweep_shouldDropExpiredEntriesAndAbandonedTempFiles(@TempDir Path dir) throws Exception {
+        new TmdbResponseCache(10, 1024, dir, clock).put("/movie/1", "{\"id\":1}".getBytes(), Duration.ofHours(1));
+        Path abandoned = Files.createTempFile(dir, "tmdb", ".tmp");
+        Files.setLastModifiedTime(abandoned, FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+
+        clock.advance(Duration.ofHours(2));
+        TmdbResponseCache restarted = new TmdbResponseCache(10, 1024, dir, clock);
+        restarted.start();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+        assertEquals(1, restarted.getDiskEvictions());
+        assertEquals(0, restarted.getDiskBytes());
+    }
+
+    @Test
+    void diskBytes_shouldMatchTheFilesOnDisk_acrossOverwritesDeletesAndRestarts(@TempDir Path dir) throws Exception {
+        TmdbResponseCache cache = new TmdbResponseCache(10, 4096, dir, clock);
+        cache.put("/movie/1", new byte[100], Duration.ofHours(1));
+        cache.put("/movie/1", new byte[200], Duration.ofHours(1));
+        cache.put("/movie/2", new byte[300], Duration.ofHours(1));
+        assertEquals(sizeOf(dir), cache.getDiskBytes());
+
+        cache.invalidate("/movie/2");
+        assertEquals(sizeOf(dir), cache.getDiskBytes());
+
+        TmdbResponseCache restarted = new TmdbResponseCache(10, 4096, dir, clock);
+        restarted.start();
+        assertEquals(sizeOf(dir), restarted.getDiskBytes());
+        assertTrue(restarted.getDiskBytes() > 200);
+    }
+
+    private static long sizeOf(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            long total = 0;
+            for (Path file : files.toList()) {
+                total += Files.size(file);
+            }
+            return total;
+        }
+    }
+
+    @Test
+    void diskSweep_shouldEvictLeastRecentlyUsedFiles_pastTheByteCap(@TempDir Path dir) throws Exception {
+        // Each file is the 512-byte body plus a header of a few dozen bytes
+        TmdbResponseCache bounded = new TmdbResponseCache(10, 4096, dir, 1200, Duration.ofHours(1),
+                Duration.ZERO, clock);
+        bounded.put("/movie/1", new byte[512], Duration.ofHours(1));
+        Path first;
+        try (Stream<Path> files = Files.list(dir)) {
+            first = files.findFirst().orElseThrow();
+        }
+        Files.setLastModifiedTime(first, FileTime.from(Instant.now().minus(Duration.ofMinutes(1))));
+        bounded.put("/movie/2", new byte[512], Duration.ofHours(1));
+        bounded.put("/movie/3", new byte[512], Duration.ofHours(1));
+
+        awaitUntil(() -> !Files.exists(first) && bounded.getDiskBytes() <= 1200);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.filter(file -> file.toString().endsWith(".bin")).count());
+        }
+        assertEquals(1, bounded.getDiskEvictions());
+    }
+}
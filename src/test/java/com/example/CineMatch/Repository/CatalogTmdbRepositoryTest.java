@@ -0,0 +1,106 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import com.example.CineMatch.dto.CatalogEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogTmdbRepositoryTest {
+
+    @Mock
+    TmdbRepository upstream;
+
+    @Mock
+    CatalogEntryRepository entries;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CatalogTmdbRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CatalogTmdbRepository(upstream, entries, objectMapper);
+    }
+
+    @Test
+    void mirroredDetails_shouldNotGoUpstream() {
+        mirror("/movie/550", "{\"id\":550,\"title\":\"Fight Club\"}");
+
+        assertEquals("{\"id\":550,\"title\":\"Fight Club\"}", repository.call("/movie/550"));
+        assertFalse(repository.callConditional("/movie/550", "\"etag\"", null).notModified());
+
+        verifyNoInteractions(upstream);
+        assertEquals(2, repository.getHits());
+    }
+
+    @Test
+    void appendedCredits_shouldBeBuiltFromBothMirroredBodies() {
+        mirror("/person/287", "{\"id\":287,\"name\":\"Brad Pitt\"}");
+        mirror("/person/287/movie_credits", "{\"cast\":[{\"id\":550,\"title\":\"Fight Club\"}]}");
+
+        JsonNode tree = objectMapper.readTree(repository.callBytes("/person/287?append_to_response=movie_credits"));
+
+        assertEquals("Brad Pitt", tree.path("name").asString());
+        assertEquals(550, tree.path("movie_credits").path("cast").get(0).path("id").asInt());
+        verifyNoInteractions(upstream);
+    }
+
+    @Test
+    void unmirroredTitle_shouldFallBackToTmdb() {
+        when(entries.findById("/tv/1399")).thenReturn(Optional.empty());
+        when(upstream.callConditional("/tv/1399", null, null))
+                .thenReturn(TmdbResponse.of("{\"id\":1399}".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("{\"id\":1399}", new String(repository.callConditional("/tv/1399", null, null).body(),
+                StandardCharsets.UTF_8));
+        assertEquals(1, repository.getMisses());
+    }
+
+    @Test
+    void otherEndpoints_shouldNotTouchMirror() {
+        when(upstream.callBytes("/trending/movie/week?page=1")).thenReturn("{}".getBytes(StandardCharsets.UTF_8));
+
+        repository.callBytes("/trending/movie/week?page=1");
+
+        verifyNoInteractions(entries);
+    }
+
+    @Test
+    void unreadableMirror_shouldFallBackToTmdb() {
+        when(entries.findById(anyString())).thenThrow(new DataAccessResourceFailureException("db down"));
+        when(upstream.callBytes("/movie/550")).thenReturn("{\"id\":550}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("{\"id\":550}", repository.call("/movie/550"));
+        assertEquals(1, repository.getFailures());
+    }
+
+    private void mirror(String endpoint, String body) {
+        when(entries.findById(endpoint)).thenReturn(Optional.of(new CatalogEntry(endpoint, "movie", 0, body, Instant.now())));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import com.example.CineMatch.MutableClock;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTmdbRepositoryTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final StubTmdbRepository upstream = new StubTmdbRepository();
+    private final CircuitBreakerTmdbRepository breaker = new CircuitBreakerTmdbRepository(upstream,
+            new CircuitBreakerTmdbRepository.Settings(10, 4, 0.5, 0.8, Duration.ofSeconds(2),
+                    Duration.ofSeconds(30), 2), clock);
+
+    @Test
+    void failureRateAboveThreshold_shouldOpenAndRejectWithoutCallingUpstream() {
+        upstream.respond(() -> "{}");
+        breaker.callBytes("/movie/1");
+        breaker.callBytes("/movie/1");
+        upstream.respond(StubTmdbRepository::serverError);
+        assertThrows(HttpServerErrorException.class, () -> breaker.callBytes("/movie/1"));
+        assertEquals(CircuitBreakerTmdbRepository.State.CLOSED, breaker.getState());
+        assertThrows(HttpServerErrorException.class, () -> breaker.callBytes("/movie/1"));
+
+        assertEquals(CircuitBreakerTmdbRepository.State.OPEN, breaker.getState());
+        int calls = upstream.calls.get();
+        assertThrows(TmdbUnavailableException.class, () -> breaker.callBytes("/movie/1"));
+        assertEquals(calls, upstream.calls.get());
+        assertEquals(1, breaker.getRejected());
+    }
+
+    @Test
+    void clientErrors_shouldNotCountAsFailures() {
+        upstream.respond(() -> {
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+        });
+
+        for (int i = 0; i < 10; i++) {
+            assertThrows(HttpClientErrorException.NotFound.class, () -> breaker.callBytes("/movie/0"));
+        }
+        assertEquals(CircuitBreakerTmdbRepository.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void slowCalls_shouldOpenTheCircuit() {
+        upstream.respond(() -> {
+            clock.advance(Duration.ofSeconds(3));
+            return "{}";
+        });
+
+        for (int i = 0; i < 4; i++) {
+            breaker.callBytes("/trending/movie/week");
+        }
+        assertEquals(CircuitBreakerTmdbRepository.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void halfOpenProbes_shouldCloseOnSuccess_andReopenOnFailure() {
+        trip();
+
+        clock.advance(Duration.ofSeconds(31));
+        upstream.respond(StubTmdbRepository::serverError);
+        assertThrows(HttpServerErrorException.class, () -> breaker.callBytes("/movie/1"));
+        assertEquals(CircuitBreakerTmdbRepository.State.OPEN, breaker.getState());
+        assertThrows(TmdbUnavailableException.class, () -> breaker.callBytes("/movie/1"));
+
+        clock.advance(Duration.ofSeconds(31));
+        upstream.respond(() -> "{}");
+        breaker.callBytes("/movie/1");
+        assertEquals(CircuitBreakerTmdbRepository.State.HALF_OPEN, breaker.getState());
+        breaker.callBytes("/movie/1");
+
+        assertEquals(CircuitBreakerTmdbRepository.State.CLOSED, breaker.getState());
+        assertEquals(2, breaker.getOpened());
+    }
+
+    @Test
+    void probesFailingWithAnError_shouldStillReleaseTheirSlots() {
+        trip();
+        clock.advance(Duration.ofSeconds(31));
+        upstream.respond(() -> {
+            throw new AssertionError("broken stub");
+        });
+        assertThrows(AssertionError.class, () -> breaker.callBytes("/movie/1"));
+        assertThrows(AssertionError.class, () -> breaker.callBytes("/movie/1"));
+
+        upstream.respond(() -> "{}");
+        assertDoesNotThrow(() -> breaker.callBytes("/movie/1"));
+    }
+
+    @Test
+    void openCircuit_shouldFallBackToRetainedCacheEntry() {
+        TmdbResponseCache cache = new TmdbResponseCache(100, 1024 * 1024, null, Duration.ofDays(1), clock);
+        TmdbCachePolicy policy = new TmdbCachePolicy(Duration.ofHours(1), Duration.ofMinutes(30),
+                Duration.ofMinutes(10), Duration.ofHours(12), Duration.ofHours(24), Duration.ZERO);
+        CachingTmdbRepository caching = new CachingTmdbRepository(breaker, cache, policy,
+                new ObjectMapper());
+
+        upstream.respond(() -> "{\"id\":550}");
+        caching.call("/movie/550");
+        trip();
+        clock.advance(Duration.ofDays(1).minusHours(1));
+
+        assertEquals("{\"id\":550}", caching.call("/movie/550"));
+        assertEquals(1, caching.getStaleFallbacks());
+        assertThrows(TmdbUnavailableException.class, () -> caching.call("/movie/13"));
+    }
+
+    private void trip() {
+        upstream.respond(StubTmdbRepository::serverError);
+        for (int i = 0; i < 4 && breaker.getState() != CircuitBreakerTmdbRepository.State.OPEN; i++) {
+            assertThrows(HttpServerErrorException.class, () -> breaker.callBytes("/movie/1"));
+        }
+        assertEquals(CircuitBreakerTmdbRepository.State.OPEN, breaker.getState());
+    }
+}
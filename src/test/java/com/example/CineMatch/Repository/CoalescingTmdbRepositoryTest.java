@@ -0,0 +1,243 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import com.example.CineMatch.MutableClock;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingTmdbRepositoryTest {
+
+    private static final int CALLERS = 50;
+
+    @Test
+    void parallelIdenticalCalls_shouldHitUpstreamExactlyOnce() throws Exception {
+        StubTmdbRepository stub = new StubTmdbRepository(() -> "{\"id\":550}").gate();
+        CoalescingTmdbRepository repository = new CoalescingTmdbRepository(stub);
+
+        List<Future<String>> results = fireAndRelease(repository, stub, () -> repository.call("/movie/550"));
+
+        for (Future<String> result : results) {
+            assertEquals("{\"id\":550}", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, stub.calls.get());
+        assertEquals(CALLERS - 1, repository.getFollowers());
+        assertEquals(0, repository.getInFlight());
+    }
+
+    @Test
+    void parallelCallMap_shouldShareOneParsedResult() throws Exception {
+        Map<String, Object> parsed = Map.of("id", 550);
+        StubTmdbRepository stub = new StubTmdbRepository(() -> "unused") {
+            @Override
+            public Map<String, Object> callMap(String endpoint) {
+                callBytes(endpoint);
+                return parsed;
+            }
+        }.gate();
+        CoalescingTmdbRepository repository = new CoalescingTmdbRepository(stub);
+
+        List<Future<Map<String, Object>>> results =
+                fireAndRelease(repository, stub, () -> repository.callMap("/movie/550/credits"));
+
+        for (Future<Map<String, Object>> result : results) {
+            assertSame(parsed, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, stub.calls.get());
+    }
+
+    @Test
+    void endpointsDifferingOnlyInParamOrder_shouldBeCoalesced() throws Exception {
+        StubTmdbRepository stub = new StubTmdbRepository(() -> "{}").gate();
+        CoalescingTmdbRepository repository = new CoalescingTmdbRepository(stub);
+        AtomicInteger turn = new AtomicInteger();
+
+        fireAndRelease(repository, stub, () -> repository.call(turn.getAndIncrement() % 2 == 0
+                ? "/discover/movie?with_genres=28&page=2"
+                : "/discover/movie?page=2&with_genres=28"));
+
+        assertEquals(1, stub.calls.get());
+    }
+
+    @Test
+    void failure_shouldPropagateToAllWaiters_andNotBeCached() throws Exception {
+        StubTmdbRepository stub = new StubTmdbRepository(() -> {
+            throw new IllegalStateException("TMDB down");
+        }).gate();
+        CoalescingTmdbRepository repository = new CoalescingTmdbRepository(stub);
+
+        List<Future<String>> results = fireAndRelease(repository, stub, () -> repository.call("/movie/1"));
+
+        for (Future<String> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertEquals("TMDB down", e.getCause().getMessage());
+        }
+        assertEquals(1, stub.calls.get());
+
+        // The failure is not remembered: the next caller goes upstream again
+        stub.release.countDown();
+        assertThrows(IllegalStateException.class, () -> repository.call("/movie/1"));
+        assertEquals(2, stub.calls.get());
+    }
+
+    @Test
+    void callsInDifferentLanes_shouldNotShareAFetch() throws Exception {
+        StubTmdbRepository stub = new StubTmdbRepository(() -> "{}").gate();
+        CoalescingTmdbRepository repository = new CoalescingTmdbRepository(stub);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> interactive = pool.submit(() -> repository.call("/movie/550"));
+            Future<String> prefetch = pool.submit(() -> TmdbLane.call(TmdbLane.PREFETCH,
+                    () -> repository.call("/movie/550")));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (stub.calls.get() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            stub.release.countDown();
+
+            assertEquals("{}", interactive.get(5, TimeUnit.SECONDS));
+            assertEquals("{}", prefetch.get(5, TimeUnit.SECONDS));
+            assertEquals(2, stub.calls.get());
+            assertEquals(0, repository.getFollowers());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void interruptedLeader_shouldLetTheFollowerFetchForItself() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch leaderEntered = new CountDownLatch(1);
+        CoalescingTmdbRepository repository = new CoalescingTmdbRepository(new TmdbRepository() {
+            @Override
+            public byte[] callBytes(String endpoint) {
+                if (calls.incrementAndGet() == 1) {
+                    leaderEntered.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+                    }
+                }
+                return "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public Map<String, Object> callMap(String endpoint) {
+                throw new UnsupportedOperationException();
+            }
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = pool.submit(() -> repository.call("/movie/1"));
+            assertTrue(leaderEntered.await(5, TimeUnit.SECONDS));
+            Future<String> follower = pool.submit(() -> repository.call("/movie/1"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (repository.getFollowers() < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            leader.cancel(true);
+
+            assertEquals("{\"id\":1}", follower.get(5, TimeUnit.SECONDS));
+            assertEquals(2, calls.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void staleFallback_shouldMarkEveryRequestThatSharedIt() throws Exception {
+        MutableClock clock = new MutableClock();
+        Duration ttl = Duration.ofMinutes(10);
+        StubTmdbRepository stub = new StubTmdbRepository(() -> "{\"id\":550}");
+        CachingTmdbRepository caching = new CachingTmdbRepository(stub,
+                new TmdbResponseCache(100, 1 << 20, null, Duration.ofDays(1), clock),
+                new TmdbCachePolicy(ttl, ttl, ttl, ttl, ttl, ttl), new ObjectMapper());
+        caching.call("/movie/550");
+        clock.advance(Duration.ofHours(1));
+        stub.respond(StubTmdbRepository::serverError);
+        stub.gate();
+        CoalescingTmdbRepository repository = new CoalescingTmdbRepository(caching);
+
+        List<Future<Boolean>> marked = fireAndRelease(repository, stub, () -> {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+            try {
+                assertEquals("{\"id\":550}", repository.call("/movie/550"));
+                return TmdbStaleness.isStale(request);
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        });
+
+        for (Future<Boolean> result : marked) {
+            assertTrue(result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, caching.getStaleFallbacks());
+    }
+
+    /**
+     * Starts CALLERS threads running the same call, waits until one of them is
+     * inside the upstream stub and all others are parked behind it, then lets
+     * the upstream call finish.
+     */
+    private <T> List<Future<T>> fireAndRelease(CoalescingTmdbRepository repository,
+                                               StubTmdbRepository stub,
+                                               Callable<T> call) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<T>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(pool.submit(call));
+            }
+
+            assertTrue(stub.entered.await(5, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (repository.getFollowers() < CALLERS - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            stub.release.countDown();
+
+            for (Future<T> result : results) {
+                try {
+                    result.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException ignored) {
+                    // Asserted by the caller
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingTmdbRepositoryTest {
+
+    private final SlowFirstRepository upstream = new SlowFirstRepository();
+
+    @Test
+    void slowAttempt_shouldBeHedged_andLoserCancelled() throws Exception {
+        HedgingTmdbRepository repository = hedging(100);
+        warmUp(repository);
+
+        upstream.slowCalls.set(1);
+        long start = System.nanoTime();
+        byte[] body = repository.callBytes("/movie/550");
+
+        assertEquals("{\"id\":550}", new String(body, StandardCharsets.UTF_8));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, repository.getHedged());
+        assertEquals(1, repository.getHedgeWins());
+        assertTrue(upstream.interrupted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void fastCalls_shouldNotBeHedged() {
+        HedgingTmdbRepository repository = hedging(100);
+        warmUp(repository);
+
+        for (int i = 0; i < 20; i++) {
+            repository.callBytes("/movie/550");
+        }
+
+        assertEquals(Duration.ofMillis(20), repository.getDelay());
+        assertEquals(0, repository.getHedged());
+    }
+
+    @Test
+    void exhaustedBudget_shouldLetSlowCallFinishAlone() {
+        HedgingTmdbRepository repository = hedging(1);
+        warmUp(repository);
+
+        upstream.slowCalls.set(1);
+        upstream.slowFor = Duration.ofMillis(200);
+        repository.callBytes("/movie/550");
+
+        assertEquals(0, repository.getHedged());
+        assertEquals(1, repository.getOverBudget());
+        assertEquals(1, upstream.interrupted.getCount());
+    }
+
+    @Test
+    void noHedging_untilEnoughLatenciesAreKnown() {
+        HedgingTmdbRepository repository = hedging(100);
+
+        repository.callBytes("/movie/550");
+
+        assertNull(repository.getDelay());
+    }
+
+    private HedgingTmdbRepository hedging(double budgetPercent) {
+        return new HedgingTmdbRepository(upstream, 0.95, Duration.ofMillis(20), Duration.ofSeconds(1), budgetPercent);
+    }
+
+    private static void warmUp(HedgingTmdbRepository repository) {
+        for (int i = 0; i < 60; i++) {
+            repository.callBytes("/movie/550");
+        }
+        assertNotNull(repository.getDelay());
+    }
+
+    static class SlowFirstRepository implements TmdbRepository {
+        final AtomicInteger slowCalls = new AtomicInteger();
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        volatile Duration slowFor = Duration.ofSeconds(5);
+
+        @Override
+        public byte[] callBytes(String endpoint) {
+            if (slowCalls.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                try {
+                    Thread.sleep(slowFor);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw new IllegalStateException("cancelled");
+                }
+            }
+            return "{\"id\":550}".getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Map<String, Object> callMap(String endpoint) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
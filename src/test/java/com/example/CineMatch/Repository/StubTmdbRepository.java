@@ -0,0 +1,78 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Upstream for the TmdbRepository decorator tests: answers every call with
+ * the current body and counts the calls. A gated stub holds each call until
+ * release is counted down, so callers can be lined up behind it.
+ */
+class StubTmdbRepository implements TmdbRepository {
+
+    final AtomicInteger calls = new AtomicInteger();
+    final CountDownLatch entered = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    private volatile Supplier<String> body;
+    private volatile boolean gated;
+
+    StubTmdbRepository() {
+        this(() -> "{}");
+    }
+
+    StubTmdbRepository(Supplier<String> body) {
+        this.body = body;
+    }
+
+    StubTmdbRepository gate() {
+        gated = true;
+        return this;
+    }
+
+    void respond(Supplier<String> body) {
+        this.body = body;
+    }
+
+    static String serverError() {
+        throw HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, null);
+    }
+
+    @Override
+    public byte[] callBytes(String endpoint) {
+        calls.incrementAndGet();
+        entered.countDown();
+        if (gated) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return body.get().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Map<String, Object> callMap(String endpoint) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.Repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThrottledTmdbRepositoryTest {
+
+    @Test
+    void freedToken_shouldGoToInteractiveBeforeEarlierSyncCall() throws Exception {
+        RecordingRepository stub = new RecordingRepository();
+        ThrottledTmdbRepository repository = throttled(stub, 2, 100, Duration.ofSeconds(5));
+        repository.callBytes("/warmup");
+
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<?> sync = pool.submit(() -> TmdbLane.run(TmdbLane.SYNC, () -> repository.callBytes("/sync")));
+            awaitQueued(repository, TmdbLane.SYNC);
+            Future<?> interactive = pool.submit(() -> repository.callBytes("/interactive"));
+            awaitQueued(repository, TmdbLane.INTERACTIVE);
+
+            interactive.get(5, TimeUnit.SECONDS);
+            sync.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(List.of("/warmup", "/interactive", "/sync"), stub.calls);
+        assertEquals(1, repository.getGranted(TmdbLane.SYNC));
+        assertEquals(2, repository.getGranted(TmdbLane.INTERACTIVE));
+    }
+
+    @Test
+    void callWaitingPastItsDeadline_shouldBeDroppedWith503() {
+        RecordingRepository stub = new RecordingRepository();
+        ThrottledTmdbRepository repository = throttled(stub, 1, 100, Duration.ofMillis(50));
+        repository.callBytes("/movie/1");
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> repository.callBytes("/movie/2"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertEquals(List.of("/movie/1"), stub.calls);
+        assertEquals(1, repository.getRejected(TmdbLane.INTERACTIVE));
+        assertEquals(0, repository.getQueueDepth(TmdbLane.INTERACTIVE));
+    }
+
+    @Test
+    void fullLaneQueue_shouldRejectAtOnce() {
+        RecordingRepository stub = new RecordingRepository();
+        ThrottledTmdbRepository repository = throttled(stub, 1, 0, Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        assertThrows(ResponseStatusException.class,
+                () -> TmdbLane.run(TmdbLane.SYNC, () -> repository.callBytes("/movie/1")));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertTrue(stub.calls.isEmpty());
+        assertEquals(1, repository.getRejected(TmdbLane.SYNC));
+    }
+
+    @Test
+    void tooManyRequests_shouldPauseForRetryAfterAndRetry() {
+        AtomicInteger attempts = new AtomicInteger();
+        RecordingRepository stub = new RecordingRepository() {
+            @Override
+            public byte[] callBytes(String endpoint) {
+                if (attempts.getAndIncrement() == 0) {
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.set(HttpHeaders.RETRY_AFTER, "1");
+                    throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                            headers, null, null);
+                }
+                return super.callBytes(endpoint);
+            }
+        };
+        ThrottledTmdbRepository repository = throttled(stub, 100, 10, Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        byte[] body = repository.callBytes("/movie/550");
+
+        assertEquals("{}", new String(body, StandardCharsets.UTF_8));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(900));
+        assertEquals(2, attempts.get());
+        assertEquals(1, repository.getRateLimited(TmdbLane.INTERACTIVE));
+    }
+
+    @Test
+    void retryAfter_shouldAcceptSecondsAndHttpDates() {
+        assertEquals(Duration.ofSeconds(7), ThrottledTmdbRepository.retryAfter(tooManyRequests("7")));
+        assertEquals(Duration.ofMinutes(1), ThrottledTmdbRepository.retryAfter(tooManyRequests("3600")));
+        assertEquals(Duration.ofSeconds(1), ThrottledTmdbRepository.retryAfter(tooManyRequests("soon")));
+
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(30));
+        Duration delay = ThrottledTmdbRepository.retryAfter(tooManyRequests(date));
+        assertTrue(delay.compareTo(Duration.ofSeconds(25)) > 0 && delay.compareTo(Duration.ofSeconds(31)) < 0);
+    }
+
+    @Test
+    void reactiveCall_shouldTakeItsTokenFromTheSameBucket() {
+        RecordingRepository stub = new RecordingRepository();
+        ThrottledTmdbRepository throttle = throttled(stub, 1, 100, Duration.ofMillis(50));
+        AtomicInteger reactiveCalls = new AtomicInteger();
+        ThrottledReactiveTmdbRepository reactive = new ThrottledReactiveTmdbRepository(
+                endpoint -> Mono.fromCallable(() -> {
+                    reactiveCalls.incrementAndGet();
+                    return "{}".getBytes(StandardCharsets.UTF_8);
+                }), throttle);
+
+        throttle.callBytes("/movie/1");
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> reactive.callBytes("/movie/2").block(Duration.ofSeconds(5)));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertEquals(0, reactiveCalls.get());
+        assertEquals(1, throttle.getRejected(TmdbLane.INTERACTIVE));
+    }
+
+    @Test
+    void reactive429_shouldPauseAndRetry() {
+        ThrottledTmdbRepository throttle = throttled(new RecordingRepository(), 1000, 100, Duration.ofSeconds(5));
+        AtomicInteger attempts = new AtomicInteger();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "0");
+        ThrottledReactiveTmdbRepository reactive = new ThrottledReactiveTmdbRepository(
+                endpoint -> attempts.incrementAndGet() == 1
+                        ? Mono.error(WebClientResponseException.create(429, "Too Many Requests", headers, null, null))
+                        : Mono.just("{}".getBytes(StandardCharsets.UTF_8)),
+                throttle);
+
+        assertArrayEquals("{}".getBytes(StandardCharsets.UTF_8), reactive.callBytes("/movie/1").block(Duration.ofSeconds(5)));
+        assertEquals(2, attempts.get());
+        assertEquals(1, throttle.getRateLimited(TmdbLane.INTERACTIVE));
+    }
+
+    private static ThrottledTmdbRepository throttled(TmdbRepository delegate, double perSecond,
+                                                     int queueCapacity, Duration maxWait) {
+        ThrottledTmdbRepository.LaneLimits limits = new ThrottledTmdbRepository.LaneLimits(queueCapacity, maxWait);
+        return new ThrottledTmdbRepository(delegate, perSecond, 1, Map.of(
+                TmdbLane.INTERACTIVE, limits, TmdbLane.PREFETCH, limits, TmdbLane.SYNC, limits));
+    }
+
+    private static HttpClientErrorException tooManyRequests(String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        return HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, null, null);
+    }
+
+    private static void awaitQueued(ThrottledTmdbRepository repository, TmdbLane lane) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (repository.getQueueDepth(lane) == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, repository.getQueueDepth(lane));
+    }
+
+    static class RecordingRepository implements TmdbRepository {
+        final List<String> calls = new CopyOnWriteArrayList<>();
+
+        @Override
+        public byte[] callBytes(String endpoint) {
+            calls.add(endpoint);
+            return "{}".getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Map<String, Object> callMap(String endpoint) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.dto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscoverQueryTest {
+
+    @Test
+    void sameFilters_inAnyOrder_withDefaults_shouldGiveSameQuery() {
+        DiscoverQuery sidebar = DiscoverQuery.forMovies(ordered(
+                "sort_by", "popularity.desc", "page", "1", "with_genres", "28", "vote_average.gte", "7"));
+        DiscoverQuery suggest = DiscoverQuery.forMovies(ordered(
+                "vote_average.gte", "7", "with_genres", "28"));
+
+        assertEquals(sidebar, suggest);
+        assertEquals("?vote_average.gte=7&with_genres=28", sidebar.toQueryString());
+    }
+
+    @Test
+    void onlyDefaults_shouldGiveEmptyQuery() {
+        assertEquals("", DiscoverQuery.forTv(ordered("sort_by", "popularity.desc", "page", "1", "with_genres", " ")).toQueryString());
+    }
+
+    @Test
+    void idLists_shouldBeSorted_andValuesEncoded() {
+        DiscoverQuery query = DiscoverQuery.forMovies(ordered(
+                "with_genres", "878,28, 12", "without_keywords", "9|3", "certification_country", "GR&page=9"));
+
+        assertEquals("?certification_country=GR%26page%3D9&with_genres=12%2C28%2C878&without_keywords=3%7C9",
+                query.toQueryString());
+        assertEquals("12,28,878", query.params().get("with_genres"));
+    }
+
+    @Test
+    void mixedAndOrList_shouldBeKeptAsIs() {
+        DiscoverQuery query = DiscoverQuery.forMovies(ordered("with_genres", "28,12|16"));
+
+        assertEquals("28,12|16", query.params().get("with_genres"));
+    }
+
+    @Test
+    void unknownKey_shouldBeRejected() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> DiscoverQuery.forMovies(ordered("with_genres", "28", "api_key", "x")));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+
+        // Movie-only filters are not valid for TV
+        assertThrows(ResponseStatusException.class,
+                () -> DiscoverQuery.forTv(ordered("primary_release_year", "1999")));
+    }
+
+    @Test
+    void invalidPage_shouldBeRejected() {
+        assertThrows(ResponseStatusException.class, () -> DiscoverQuery.forTv(ordered("page", "0")));
+        assertThrows(ResponseStatusException.class, () -> DiscoverQuery.forTv(ordered("page", "501")));
+        assertThrows(ResponseStatusException.class, () -> DiscoverQuery.forTv(ordered("page", "two")));
+        assertEquals("?page=2", DiscoverQuery.forTv(ordered("page", "02")).toQueryString());
+    }
+
+    private static Map<String, String> ordered(String... keyValues) {
+        Map<String, String> params = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            params.put(keyValues[i], keyValues[i + 1]);
+        }
+        return params;
+    }
+}
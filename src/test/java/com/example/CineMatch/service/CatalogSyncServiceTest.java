@@ -0,0 +1,231 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.CatalogEntryRepository;
+import com.example.CineMatch.Repository.CatalogSyncStateRepository;
+import com.example.CineMatch.Repository.TmdbRepository;
+import com.example.CineMatch.dto.CatalogEntry;
+import com.example.CineMatch.dto.CatalogSyncState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CatalogSyncServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T03:30:00Z");
+
+    @Mock
+    TmdbRepository upstream;
+
+    @Mock
+    CatalogEntryRepository entries;
+
+    @Mock
+    CatalogSyncStateRepository states;
+
+    // In-memory stand-ins for the two tables
+    private final Map<String, CatalogEntry> mirror = new ConcurrentHashMap<>();
+    private final Map<String, CatalogSyncState> syncStates = new HashMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        when(entries.saveAll(anyList())).thenAnswer(invocation -> {
+            List<CatalogEntry> saved = invocation.getArgument(0);
+            saved.forEach(entry -> mirror.put(entry.getEndpoint(), entry));
+            return saved;
+        });
+        doAnswer(invocation -> {
+            Iterable<String> ids = invocation.getArgument(0);
+            ids.forEach(mirror::remove);
+            return null;
+        }).when(entries).deleteAllById(anyList());
+        when(entries.findMirroredIds(anyString(), anyList())).thenAnswer(invocation -> {
+            String type = invocation.getArgument(0);
+            List<Long> ids = invocation.getArgument(1);
+            return ids.stream()
+                    .filter(id -> mirror.containsKey("/" + type + "/" + id))
+                    .toList();
+        });
+        when(states.findById(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(syncStates.get(invocation.<String>getArgument(0))));
+        when(states.save(any(CatalogSyncState.class))).thenAnswer(invocation -> {
+            CatalogSyncState state = invocation.getArgument(0);
+            syncStates.put(state.getMediaType(), state);
+            return state;
+        });
+    }
+
+    @Test
+    void bootstrap_shouldMirrorPopularTitles_fromExportFile() throws Exception {
+        stubMovie(550);
+        stubMovie(13);
+        stubMovie(603);
+
+        int synced = service(fixture("exports"), 2).bootstrap(CatalogSyncService.Kind.MOVIE);
+
+        // Below the popularity floor or adult: never fetched
+        assertEquals(3, synced);
+        verify(upstream, never()).callBytes(contains("999001"));
+        verify(upstream, never()).callBytes(contains("999002"));
+
+        assertEquals(Set.of("/movie/13", "/movie/13/credits", "/movie/550", "/movie/550/credits",
+                "/movie/603", "/movie/603/credits"), mirror.keySet());
+        assertFalse(mirror.get("/movie/550").getBody().contains("credits"));
+        assertTrue(mirror.get("/movie/550/credits").getBody().contains("Edward Norton"));
+        assertEquals("movie", mirror.get("/movie/550").getMediaType());
+        assertEquals(550, mirror.get("/movie/550").getTmdbId());
+
+        CatalogSyncState state = syncStates.get("movie");
+        assertTrue(state.isBootstrapCompleted());
+        assertEquals(603, state.getBootstrapCursor());
+        assertEquals(NOW, state.getChangesSyncedAt());
+    }
+
+    @Test
+    void interruptedBootstrap_shouldResumeAfterLastStoredBatch() throws Exception {
+        stubMovie(13);
+        when(upstream.callBytes("/movie/550?append_to_response=credits"))
+                .thenThrow(new IllegalStateException("TMDB down"));
+        CatalogSyncService service = service(fixture("exports"), 1);
+
+        assertThrows(RuntimeException.class, () -> service.bootstrap(CatalogSyncService.Kind.MOVIE));
+        assertEquals(13, syncStates.get("movie").getBootstrapCursor());
+        assertFalse(syncStates.get("movie").isBootstrapCompleted());
+
+        reset(upstream);
+        stubMovie(550);
+        stubMovie(603);
+        service.bootstrap(CatalogSyncService.Kind.MOVIE);
+
+        verify(upstream, never()).callBytes("/movie/13?append_to_response=credits");
+        assertTrue(syncStates.get("movie").isBootstrapCompleted());
+        assertEquals(6, mirror.size());
+    }
+
+    @Test
+    void newerExport_shouldMirrorTitlesAddedSinceBootstrap(@TempDir Path dir) throws Exception {
+        stubMovie(550);
+        stubMovie(13);
+        stubMovie(603);
+        Path first = dir.resolve("movie_ids_10_17_2026.json");
+        Files.copy(fixture("exports").resolve("movie_ids_10_17_2026.json"), first);
+        first.toFile().setLastModified(NOW.minusSeconds(86_400).toEpochMilli());
+        CatalogSyncService service = service(dir, 10);
+        service.bootstrap(CatalogSyncService.Kind.MOVIE);
+
+        // Same export again: not read
+        assertEquals(0, service.bootstrap(CatalogSyncService.Kind.MOVIE));
+
+        Path next = dir.resolve("movie_ids_10_18_2026.json");
+        Files.writeString(next, Files.readString(first)
+                + "{\"adult\":false,\"id\":1000001,\"original_title\":\"New Release\",\"popularity\":12.5}\n");
+        next.toFile().setLastModified(NOW.toEpochMilli());
+        when(upstream.callBytes("/movie/1000001?append_to_response=credits"))
+                .thenReturn("{\"id\":1000001,\"title\":\"New Release\",\"credits\":{\"cast\":[]}}".getBytes());
+
+        assertEquals(1, service.bootstrap(CatalogSyncService.Kind.MOVIE));
+        assertTrue(mirror.get("/movie/1000001").getBody().contains("New Release"));
+        verify(upstream, times(1)).callBytes("/movie/550?append_to_response=credits");
+        assertEquals(1000001, syncStates.get("movie").getBootstrapCursor());
+    }
+
+    @Test
+    void gzippedExport_shouldBeRead(@TempDir Path dir) throws Exception {
+        Path export = dir.resolve("movie_ids_10_17_2026.json.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(export))) {
+            out.write(Files.readAllBytes(fixture("exports").resolve("movie_ids_10_17_2026.json")));
+        }
+
+        assertEquals(List.of(13L, 550L, 603L), service(dir, 10).readExport(export));
+    }
+
+    @Test
+    void changes_shouldRefreshMirroredTitles_andDropRemovedOnes() throws Exception {
+        CatalogSyncState state = new CatalogSyncState("movie");
+        state.setBootstrapCompleted(true);
+        state.setChangesSyncedAt(Instant.parse("2026-10-17T03:30:00Z"));
+        syncStates.put("movie", state);
+        mirror.put("/movie/550", new CatalogEntry("/movie/550", "movie", 550, "{\"id\":550,\"title\":\"Old\"}", NOW));
+        mirror.put("/movie/13", new CatalogEntry("/movie/13", "movie", 13, "{\"id\":13}", NOW));
+        mirror.put("/movie/13/credits", new CatalogEntry("/movie/13/credits", "movie", 13, "{}", NOW));
+
+        when(upstream.callBytes("/movie/changes?start_date=2026-10-17&end_date=2026-10-18&page=1"))
+                .thenReturn(read("tmdb/movie_changes.json"));
+        stubMovie(550);
+        when(upstream.callBytes("/movie/13?append_to_response=credits"))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        int synced = service(null, 10).syncChanges(CatalogSyncService.Kind.MOVIE);
+
+        assertEquals(2, synced);
+        assertTrue(mirror.get("/movie/550").getBody().contains("Fight Club"));
+        assertFalse(mirror.containsKey("/movie/13"));
+        assertFalse(mirror.containsKey("/movie/13/credits"));
+        // Changed, but never mirrored
+        verify(upstream, never()).callBytes("/movie/424242?append_to_response=credits");
+        assertEquals(NOW, syncStates.get("movie").getChangesSyncedAt());
+    }
+
+    @Test
+    void changes_shouldWaitForBootstrap() {
+        assertEquals(0, service(null, 10).syncChanges(CatalogSyncService.Kind.TV));
+        verifyNoInteractions(upstream);
+    }
+
+    private CatalogSyncService service(Path exportDir, int batchSize) {
+        return new CatalogSyncService(upstream, entries, states, objectMapper, exportDir,
+                5, batchSize, 4, false, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private void stubMovie(long id) throws Exception {
+        when(upstream.callBytes("/movie/" + id + "?append_to_response=credits"))
+                .thenReturn(read("tmdb/movie_" + id + ".json"));
+    }
+
+    private static Path fixture(String name) throws URISyntaxException {
+        return Path.of(CatalogSyncServiceTest.class.getResource("/catalog/" + name).toURI());
+    }
+
+    private static byte[] read(String name) throws IOException, URISyntaxException {
+        return Files.readAllBytes(fixture(name));
+    }
+}
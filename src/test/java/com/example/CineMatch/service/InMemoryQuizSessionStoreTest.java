@@ -0,0 +1,82 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryQuizSessionStoreTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    private final Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+
+    @Test
+    void session_shouldBeHandedOutOnce() {
+        InMemoryQuizSessionStore store = new InMemoryQuizSessionStore(10, null, clock);
+        QuizSession session = session(60_000);
+        store.put("a", session);
+
+        assertSame(session, store.take("a").orElseThrow());
+        assertTrue(store.take("a").isEmpty());
+        assertTrue(store.take("unknown").isEmpty());
+    }
+
+    @Test
+    void expiredSession_shouldNotBeGraded() {
+        InMemoryQuizSessionStore store = new InMemoryQuizSessionStore(10, null, clock);
+        store.put("old", session(-1));
+        store.put("fresh", session(60_000));
+
+        assertTrue(store.take("old").isEmpty());
+        assertTrue(store.take("fresh").isPresent());
+        assertEquals(1, store.getExpired());
+    }
+
+    @Test
+    void overflow_shouldSpillTheOldestSession_andStillFindIt() {
+        // Stands in for the Postgres store
+        InMemoryQuizSessionStore spill = new InMemoryQuizSessionStore(10, null, clock);
+        InMemoryQuizSessionStore store = new InMemoryQuizSessionStore(2, spill, clock);
+        store.put("1", session(60_000));
+        store.put("2", session(60_000));
+        store.put("3", session(60_000));
+
+        assertEquals(2, store.getSize());
+        assertEquals(1, spill.getSize());
+        assertEquals(1, store.getSpilled());
+        assertTrue(store.take("1").isPresent());
+        assertTrue(store.take("1").isEmpty());
+    }
+
+    @Test
+    void overflowWithoutSpill_shouldDropTheOldestSession() {
+        InMemoryQuizSessionStore store = new InMemoryQuizSessionStore(1, null, clock);
+        store.put("1", session(60_000));
+        store.put("2", session(60_000));
+
+        assertTrue(store.take("1").isEmpty());
+        assertTrue(store.take("2").isPresent());
+        assertEquals(1, store.getDropped());
+    }
+
+    private static QuizSession session(long ttlMillis) {
+        return new QuizSession(new byte[]{0, 1, 2, 3}, false, NOW.toEpochMilli(), NOW.toEpochMilli() + ttlMillis);
+    }
+}
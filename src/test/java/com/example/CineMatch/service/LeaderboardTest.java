@@ -0,0 +1,210 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.MutableClock;
+import com.example.CineMatch.Repository.RankedScoreRepository;
+import com.example.CineMatch.dto.LeaderboardRow;
+import com.example.CineMatch.dto.RankedScore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LeaderboardTest {
+
+    // A Wednesday
+    private static final Instant NOW = Instant.parse("2026-10-14T12:00:00Z");
+
+    @Mock
+    RankedScoreRepository repository;
+
+    private final MutableClock clock = new MutableClock(NOW);
+    private Leaderboard leaderboard;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (leaderboard != null) {
+            leaderboard.stop();
+        }
+    }
+
+    @Test
+    void burstOfSubmissions_shouldAllBeRanked_andSavedInBatches() throws Exception {
+        when(repository.findBestPerUser(anyLong(), any())).thenReturn(new SliceImpl<>(List.of()));
+        when(repository.findByAchievedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(any(), anyLong(), any()))
+                .thenReturn(new SliceImpl<>(List.of()));
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<RankedScore> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            return batch;
+        });
+        leaderboard = start(100);
+
+        int threads = 16;
+        int perThread = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            done.add(pool.submit(() -> {
+                go.await();
+                for (int i = 0; i < perThread; i++) {
+                    // 1000 users, each submitting several scores
+                    int user = (thread * perThread + i) % 1000;
+                    leaderboard.submit(new UUID(0, user), "user" + user, (thread * perThread + i) % 997);
+                }
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> future : done) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        awaitApplied();
+
+        assertEquals(threads * perThread, leaderboard.getSubmissions());
+        assertEquals(1000, leaderboard.getSize(LeaderboardWindow.ALL_TIME));
+        List<LeaderboardRow> top = leaderboard.top(LeaderboardWindow.ALL_TIME, 0, 5);
+        assertEquals(5, top.size());
+        assertEquals(1, top.get(0).getRank());
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).getScore() >= top.get(i).getScore());
+        }
+        LeaderboardRow third = top.get(2);
+        assertEquals(3, leaderboard.rankOf(LeaderboardWindow.ALL_TIME, third.getUserId()).orElseThrow().getRank());
+
+        leaderboard.flush();
+        assertEquals(threads * perThread, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 100));
+        assertEquals(0, leaderboard.getUnsaved());
+    }
+
+    @Test
+    void startup_shouldRebuildEveryWindowFromTheDatabase() throws Exception {
+        UUID alice = new UUID(0, 1);
+        UUID bob = new UUID(0, 2);
+        UUID carol = new UUID(0, 3);
+        RankedScore aliceBest = score(1, alice, 900, NOW.minus(Duration.ofDays(30)));
+        RankedScore carolBest = score(2, carol, 800, NOW.minus(Duration.ofDays(20)));
+        RankedScore bobBest = score(3, bob, 700, NOW.minus(Duration.ofDays(2)));
+        RankedScore aliceToday = score(4, alice, 400, NOW.minus(Duration.ofHours(1)));
+        when(repository.findBestPerUser(anyLong(), any())).thenAnswer(invocation ->
+                page(List.of(aliceBest, carolBest, bobBest), invocation.getArgument(0), invocation.getArgument(1)));
+        // Monday midnight
+        when(repository.findByAchievedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+                eq(Instant.parse("2026-10-12T00:00:00Z")), anyLong(), any())).thenAnswer(invocation ->
+                page(List.of(bobBest, aliceToday), invocation.getArgument(1), invocation.getArgument(2)));
+        leaderboard = start(100);
+        awaitRebuilt();
+
+        assertEquals(900, leaderboard.rankOf(LeaderboardWindow.ALL_TIME, alice).orElseThrow().getScore());
+        assertEquals(3, leaderboard.rankOf(LeaderboardWindow.ALL_TIME, bob).orElseThrow().getRank());
+        assertTrue(leaderboard.rankOf(LeaderboardWindow.WEEKLY, carol).isEmpty());
+        assertEquals(1, leaderboard.rankOf(LeaderboardWindow.WEEKLY, bob).orElseThrow().getRank());
+        assertEquals(400, leaderboard.rankOf(LeaderboardWindow.WEEKLY, alice).orElseThrow().getScore());
+        assertEquals(List.of(alice), leaderboard.top(LeaderboardWindow.DAILY, 0, 10).stream()
+                .map(LeaderboardRow::getUserId).toList());
+        // Nothing to write back: these came from the database
+        leaderboard.flush();
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    // Two rows a page, to go through the paging
+    private static Slice<RankedScore> page(List<RankedScore> rows, long after, Pageable pageable) {
+        List<RankedScore> rest = rows.stream().filter(s -> s.getId() > after).toList();
+        return new SliceImpl<>(rest.subList(0, Math.min(2, rest.size())), pageable, rest.size() > 2);
+    }
+
+    @Test
+    void prune_shouldDropBeatenScoresFromBeforeThisWeek() {
+        when(repository.deleteBeatenBefore(any())).thenReturn(42);
+        leaderboard = new Leaderboard(repository, true, 100, 100_000, ZoneOffset.UTC, clock);
+
+        leaderboard.prune();
+
+        verify(repository).deleteBeatenBefore(Instant.parse("2026-10-12T00:00:00Z"));
+        assertEquals(42, leaderboard.getPruned());
+    }
+
+    @Test
+    void dailyWindow_shouldStartOverAtMidnight() throws Exception {
+        when(repository.findBestPerUser(anyLong(), any())).thenReturn(new SliceImpl<>(List.of()));
+        when(repository.findByAchievedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(any(), anyLong(), any()))
+                .thenReturn(new SliceImpl<>(List.of()));
+        leaderboard = start(100);
+        UUID alice = new UUID(0, 1);
+        leaderboard.submit(alice, "alice", 500);
+        awaitApplied();
+        assertEquals(1, leaderboard.getSize(LeaderboardWindow.DAILY));
+
+        clock.advance(Duration.ofHours(13));
+        assertEquals(0, leaderboard.getSize(LeaderboardWindow.DAILY));
+        assertTrue(leaderboard.rankOf(LeaderboardWindow.DAILY, alice).isEmpty());
+        assertEquals(1, leaderboard.rankOf(LeaderboardWindow.WEEKLY, alice).orElseThrow().getRank());
+
+        leaderboard.submit(new UUID(0, 2), "bob", 100);
+        awaitApplied();
+        assertEquals(1, leaderboard.getSize(LeaderboardWindow.DAILY));
+        assertEquals(2, leaderboard.getSize(LeaderboardWindow.ALL_TIME));
+    }
+
+    private Leaderboard start(int batchSize) {
+        Leaderboard started = new Leaderboard(repository, true, batchSize, 100_000, ZoneOffset.UTC, clock);
+        started.start();
+        return started;
+    }
+
+    private void awaitRebuilt() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!leaderboard.isRebuilt() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(leaderboard.isRebuilt());
+    }
+
+    private void awaitApplied() throws InterruptedException {
+        awaitRebuilt();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (leaderboard.getPending() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, leaderboard.getPending());
+    }
+
+    private static RankedScore score(long id, UUID userId, int score, Instant achievedAt) {
+        RankedScore row = new RankedScore(userId, "user", score, achievedAt);
+        row.setId(id);
+        return row;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.dto.QuizQuestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHashTest {
+
+    private static final List<String> PARASITE =
+            List.of("Bong Joon-ho", "Park Chan-wook", "Lee Chang-dong", "Kim Jee-woon");
+
+    @Test
+    void rewordings_shouldBeSimilarAndShareABand() {
+        long[] a = signature("Who directed the film \"Parasite\" (2019)?", PARASITE);
+        long[] b = signature("Who directed Parasite (2019)?", PARASITE);
+        long[] c = signature("Who was the director of \"Parasite\", released in 2019?", PARASITE);
+
+        assertTrue(MinHash.similarity(a, b) >= 0.6);
+        assertTrue(MinHash.similarity(a, c) >= 0.6);
+        assertFalse(Collections.disjoint(MinHash.bandKeys(a), MinHash.bandKeys(b)));
+    }
+
+    @Test
+    void sameWordingAboutAnotherFilm_shouldNotBeSimilar() {
+        long[] parasite = signature("Who directed Parasite (2019)?", PARASITE);
+        long[] inception = signature("Who directed Inception (2010)?",
+                List.of("Christopher Nolan", "Denis Villeneuve", "David Fincher", "Ridley Scott"));
+
+        assertTrue(MinHash.similarity(parasite, inception) < 0.6);
+    }
+
+    @Test
+    void signature_shouldSurviveStorage_andBeStable() {
+        long[] signature = signature("Which studio made Spirited Away?", List.of("Ghibli", "Toei", "Madhouse", "Gainax"));
+
+        assertArrayEquals(signature, MinHash.fromBytes(MinHash.toBytes(signature)));
+        // Fixed seeds: the same text always hashes the same, also after a restart
+        assertArrayEquals(signature, signature("Which studio made Spirited Away?",
+                List.of("Ghibli", "Toei", "Madhouse", "Gainax")));
+        Set<Long> bands = new HashSet<>(MinHash.bandKeys(signature));
+        assertEquals(MinHash.BANDS, bands.size());
+    }
+
+    private static long[] signature(String text, List<String> options) {
+        return MinHash.signature(QuestionBank.shingleText(new QuizQuestion(text, options, 0, "")));
+    }
+}
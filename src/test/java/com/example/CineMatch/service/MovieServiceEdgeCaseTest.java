@@ -34,6 +34,7 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,9 +51,7 @@ class MovieServiceEdgeCaseTest {
 
     @Test
     void getMethods_shouldPropagateException_whenRepositoryFails() {
-        when(tmdbRepository.call(anyString()))
-                .thenThrow(new RuntimeException("TMDB down"));
-        when(tmdbRepository.callMap(anyString()))
+        when(tmdbRepository.callBytes(anyString()))
                 .thenThrow(new RuntimeException("TMDB down"));
 
         RuntimeException trendEx = assertThrows(
@@ -84,10 +83,10 @@ class MovieServiceEdgeCaseTest {
         Map<String, Object> invalidMap = new HashMap<>();
         invalidMap.put("foreign_field", invalidJson);
 
-        when(tmdbRepository.call(anyString()))
-                .thenReturn(invalidJson);
-        when(tmdbRepository.callMap(anyString()))
-                .thenReturn(invalidMap);
+        when(tmdbRepository.callBytes(anyString()))
+                .thenReturn(invalidJson.getBytes());
+        when(tmdbRepository.callBytes(startsWith("/movie/")))
+                .thenReturn(json(invalidMap));
 
         assertThrows(
                 RuntimeException.class,
@@ -114,8 +113,8 @@ class MovieServiceEdgeCaseTest {
         ResponseDto<MovieDto> response = new ResponseDto<>();
         response.setResults(List.of());
 
-        when(tmdbRepository.call(anyString()))
-                .thenReturn(json);
+        when(tmdbRepository.callBytes(anyString()))
+                .thenReturn(json.getBytes());
 
         List<ResponseDto<MovieDto>> results = new ArrayList<>();
         results.add(movieService.getTrending(1));
@@ -131,7 +130,7 @@ class MovieServiceEdgeCaseTest {
     @ParameterizedTest
     @ValueSource(ints = { -1, 0, Integer.MAX_VALUE })
     void getMethods_shouldHandleInvalidPages(int page) throws Exception {
-        when(tmdbRepository.call(anyString()))
+        when(tmdbRepository.callBytes(anyString()))
                 .thenThrow(new IllegalArgumentException("Invalid page"));
 
         assertThrows(
@@ -154,15 +153,18 @@ class MovieServiceEdgeCaseTest {
         Map<String, Object> credits = new HashMap<>();
         credits.put("cast", null);
 
-        when(tmdbRepository.callMap("/movie/" + id))
-                .thenReturn(details);
+        when(tmdbRepository.callBytes("/movie/" + id))
+                .thenReturn(json(details));
 
-        when(tmdbRepository.callMap("/movie/" + id + "/credits"))
-                .thenReturn(credits);
+        when(tmdbRepository.callBytes("/movie/" + id + "/credits"))
+                .thenReturn(json(credits));
 
         MovieDetailsDto result = movieService.getDetails(id);
 
         assertNotNull(result);
     }
-}
 
+    private static byte[] json(Object value) {
+        return new ObjectMapper().writeValueAsBytes(value);
+    }
+}
@@ -22,13 +22,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import tools.jackson.databind.ObjectMapper;
 
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class MovieServiceHappyPathTest {
@@ -45,7 +47,7 @@ class MovieServiceHappyPathTest {
     @Test
     void testGetTrending() throws Exception {
         String json = "{ \"results\": [{ \"id\": 123, \"title\": \"Batman\", \"release_date\": \"2023-10-01\", \"vote_average\": 7.5 }] }";
-        when(tmdbRepository.call("/trending/movie/week?page=1")).thenReturn(json);
+        when(tmdbRepository.callBytes("/trending/movie/week?page=1")).thenReturn(json.getBytes());
 
         ResponseDto<MovieDto> response = movieService.getTrending(1);
 
@@ -64,7 +66,7 @@ class MovieServiceHappyPathTest {
         String query = "Batman";
         int page = 1;
         String json = "{ \"results\": [{ \"id\": 124, \"title\": \"Batman Begins\", \"release_date\": \"2005-06-15\", \"vote_average\": 8.3 }] }";
-        when(tmdbRepository.call("/search/movie?query=" + query + "&page=" + page)).thenReturn(json);
+        when(tmdbRepository.callBytes("/search/movie?query=" + query + "&page=" + page)).thenReturn(json.getBytes());
 
         ResponseDto<MovieDto> response = movieService.getSearch(query, page);
 
@@ -82,7 +84,7 @@ class MovieServiceHappyPathTest {
     void testGetDiscover() throws Exception {
         String query = "?with_genres=28";
         String json = "{ \"results\": [{ \"id\": 125, \"title\": \"The Dark Knight\", \"release_date\": \"2008-07-18\", \"vote_average\": 9.0 }] }";
-        when(tmdbRepository.call("/discover/movie" + query)).thenReturn(json);
+        when(tmdbRepository.callBytes("/discover/movie" + query)).thenReturn(json.getBytes());
 
         ResponseDto<MovieDto> response = movieService.getDiscover(query);
 
@@ -118,8 +120,8 @@ class MovieServiceHappyPathTest {
                 )
         );
 
-        when(tmdbRepository.callMap("/movie/" + movieId)).thenReturn(movieDetails);
-        when(tmdbRepository.callMap("/movie/" + movieId + "/credits")).thenReturn(movieCredits);
+        when(tmdbRepository.callBytes("/movie/" + movieId)).thenReturn(json(movieDetails));
+        when(tmdbRepository.callBytes("/movie/" + movieId + "/credits")).thenReturn(json(movieCredits));
 
         MovieDetailsDto movieDetailsDto = movieService.getDetails(movieId);
 
@@ -134,5 +136,32 @@ class MovieServiceHappyPathTest {
         assertEquals("Christian Bale", movieDetailsDto.getCast().getFirst().getName());
         assertEquals("Bruce Wayne", movieDetailsDto.getCast().getFirst().getCharacter());
     }
-}
 
+    @Test
+    void testGetDetails_withAppendedCredits() throws Exception {
+        long movieId = 125L;
+        ReflectionTestUtils.setField(movieService, "appendCredits", true);
+
+        Map<String, Object> movieDetails = Map.of(
+                "id", 125L,
+                "title", "The Dark Knight",
+                "credits", Map.of(
+                        "cast", List.of(Map.of("name", "Christian Bale", "character", "Bruce Wayne")),
+                        "crew", List.of(Map.of("name", "Christopher Nolan", "job", "Director"))
+                )
+        );
+
+        when(tmdbRepository.callBytes("/movie/" + movieId + "?append_to_response=credits")).thenReturn(json(movieDetails));
+
+        MovieDetailsDto movieDetailsDto = movieService.getDetails(movieId);
+
+        assertEquals("The Dark Knight", movieDetailsDto.getTitle());
+        assertEquals(1, movieDetailsDto.getCast().size());
+        assertEquals("Christian Bale", movieDetailsDto.getCast().getFirst().getName());
+        verify(tmdbRepository, times(1)).callBytes(anyString());
+    }
+
+    private static byte[] json(Object value) {
+        return new ObjectMapper().writeValueAsBytes(value);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelFetchTest {
+
+    @Test
+    void timeout_shouldInterruptTheCallsStillRunning() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> slow = ParallelFetch.async(() -> {
+            try {
+                Thread.sleep(Duration.ofMinutes(1));
+                return "too late";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new IllegalStateException(e);
+            }
+        });
+        CompletableFuture<String> fast = ParallelFetch.async(() -> "details");
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> ParallelFetch.awaitAll(Duration.ofMillis(100), fast, slow));
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, e.getStatusCode());
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS), "the upstream call keeps running after the 504");
+    }
+
+    @Test
+    void failure_shouldRethrowTheOriginalException() {
+        CompletableFuture<String> failing = ParallelFetch.async(() -> {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No such movie");
+        });
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> ParallelFetch.awaitAll(Duration.ofSeconds(2), failing));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+}
@@ -32,6 +32,7 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,9 +49,7 @@ class PersonServiceEdgeCaseTest {
 
     @Test
     void methods_shouldPropagateException_whenRepositoryFails() {
-        when(tmdbRepository.call(anyString()))
-                .thenThrow(new RuntimeException("TMDB down"));
-        when(tmdbRepository.callMap(anyString()))
+        when(tmdbRepository.callBytes(anyString()))
                 .thenThrow(new RuntimeException("TMDB down"));
 
         assertThrows(RuntimeException.class, () -> personService.getTrending(1));
@@ -60,14 +59,14 @@ class PersonServiceEdgeCaseTest {
 
     @Test
     void methods_shouldThrowException_whenJsonIsInvalid() throws Exception {
-        when(tmdbRepository.call(anyString()))
-                .thenReturn("Invalid JSON");
+        when(tmdbRepository.callBytes(anyString()))
+                .thenReturn("Invalid JSON".getBytes());
 
         Map<String, Object> invalidMap = new HashMap<>();
         invalidMap.put("invalid", "data");
 
-        when(tmdbRepository.callMap(anyString()))
-                .thenReturn(invalidMap);
+        when(tmdbRepository.callBytes(startsWith("/person/")))
+                .thenReturn(json(invalidMap));
 
         assertThrows(RuntimeException.class, () -> personService.getTrending(1));
         assertThrows(RuntimeException.class, () -> personService.getSearch("Query", 1));
@@ -76,7 +75,7 @@ class PersonServiceEdgeCaseTest {
 
     @Test
     void getMethods_shouldReturnNullResults_whenNoResultsField() throws Exception {
-        when(tmdbRepository.call(anyString())).thenReturn("{}");
+        when(tmdbRepository.callBytes(anyString())).thenReturn("{}".getBytes());
 
         ResponseDto<PersonDto> trending = personService.getTrending(1);
         ResponseDto<PersonDto> search = personService.getSearch("Query", 1);
@@ -90,7 +89,7 @@ class PersonServiceEdgeCaseTest {
     @ParameterizedTest
     @ValueSource(ints = {-1, 0})
     void getMethods_shouldHandleInvalidPages(int page) throws Exception {
-        when(tmdbRepository.call(anyString()))
+        when(tmdbRepository.callBytes(anyString()))
                 .thenThrow(new IllegalArgumentException("Invalid page"));
 
         assertThrows(IllegalArgumentException.class,
@@ -111,13 +110,17 @@ class PersonServiceEdgeCaseTest {
         Map<String, Object> credits = new HashMap<>();
         credits.put("cast", null); // Map.of() cannot be used here
 
-        when(tmdbRepository.callMap("/person/" + id)).thenReturn(details);
-        when(tmdbRepository.callMap("/person/" + id + "/movie_credits"))
-                .thenReturn(credits);
+        when(tmdbRepository.callBytes("/person/" + id)).thenReturn(json(details));
+        when(tmdbRepository.callBytes("/person/" + id + "/movie_credits"))
+                .thenReturn(json(credits));
 
         PersonDetailsDto result = personService.getDetails(id);
 
         assertNotNull(result);
         assertNull(result.getMovieCredits());
     }
+
+    private static byte[] json(Object value) {
+        return new ObjectMapper().writeValueAsBytes(value);
+    }
 }
@@ -56,7 +56,7 @@ class PersonServiceHappyPathTest {
             }
             """;
 
-        when(tmdbRepository.call("/trending/person/week?page=1")).thenReturn(json);
+        when(tmdbRepository.callBytes("/trending/person/week?page=1")).thenReturn(json.getBytes());
 
         ResponseDto<PersonDto> response = personService.getTrending(1);
 
@@ -85,8 +85,8 @@ class PersonServiceHappyPathTest {
             }
             """;
 
-        when(tmdbRepository.call("/search/person?query=Bob&page=1"))
-                .thenReturn(json);
+        when(tmdbRepository.callBytes("/search/person?query=Bob&page=1"))
+                .thenReturn(json.getBytes());
 
         ResponseDto<PersonDto> response = personService.getSearch("Bob", 1);
 
@@ -116,10 +116,10 @@ class PersonServiceHappyPathTest {
                 )
         );
 
-        when(tmdbRepository.callMap("/person/" + personId))
-                .thenReturn(personDetails);
-        when(tmdbRepository.callMap("/person/" + personId + "/movie_credits"))
-                .thenReturn(movieCredits);
+        when(tmdbRepository.callBytes("/person/" + personId))
+                .thenReturn(json(personDetails));
+        when(tmdbRepository.callBytes("/person/" + personId + "/movie_credits"))
+                .thenReturn(json(movieCredits));
 
         PersonDetailsDto result = personService.getDetails(personId);
 
@@ -129,4 +129,8 @@ class PersonServiceHappyPathTest {
         assertEquals(1, result.getMovieCredits().size());
         assertEquals("The Rise of Bob", result.getMovieCredits().getFirst().getTitle());
     }
+
+    private static byte[] json(Object value) {
+        return new ObjectMapper().writeValueAsBytes(value);
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.dto.QuizQuestion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PersonalizedQuizCacheTest {
+
+    private static final List<String> GENRES = List.of("Horror", "Action", "Drama");
+
+    @Mock
+    QuizGenerator generator;
+
+    @Mock
+    QuestionBank questionBank;
+
+    private PersonalizedQuizCache cache(int variants) {
+        // No warm-up slots: tests that don't exercise warming stay synchronous
+        return new PersonalizedQuizCache(generator, questionBank, true, variants, Duration.ofDays(1),
+                100, 100, 0, Clock.systemUTC());
+    }
+
+    @Test
+    void key_shouldIgnoreOrderAndCase() {
+        assertEquals(PersonalizedQuizCache.key(List.of("Action", "drama", "Horror")),
+                PersonalizedQuizCache.key(List.of(" horror", "Drama", "ACTION")));
+    }
+
+    @Test
+    void take_shouldMiss_untilAVariantIsAdded_thenServeOtherUsers() {
+        PersonalizedQuizCache cache = cache(3);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        assertTrue(cache.take(first, GENRES).isEmpty());
+        cache.add(first, GENRES, quiz("live"));
+
+        assertEquals("live", cache.take(second, List.of("drama", "horror", "action")).orElseThrow()
+                .getFirst().getQuestionText());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void take_shouldNeverServeTheSameVariantTwiceInARow() {
+        PersonalizedQuizCache cache = cache(3);
+        UUID user = UUID.randomUUID();
+        cache.add(UUID.randomUUID(), GENRES, quiz("a"));
+        cache.add(UUID.randomUUID(), GENRES, quiz("b"));
+
+        String previous = null;
+        for (int i = 0; i < 6; i++) {
+            String served = cache.take(user, GENRES).orElseThrow().getFirst().getQuestionText();
+            assertNotEquals(previous, served);
+            previous = served;
+        }
+    }
+
+    @Test
+    void take_shouldMiss_whenTheOnlyVariantIsTheOneJustServed() {
+        PersonalizedQuizCache cache = cache(3);
+        UUID user = UUID.randomUUID();
+        cache.add(user, GENRES, quiz("a"));
+
+        assertTrue(cache.take(user, GENRES).isEmpty());
+    }
+
+    @Test
+    void coldMiss_shouldLeaveTheGenerationToTheCaller() throws Exception {
+        PersonalizedQuizCache cache = new PersonalizedQuizCache(generator, questionBank, true, 2, Duration.ofDays(1),
+                100, 100, 1, Clock.systemUTC());
+
+        assertTrue(cache.take(UUID.randomUUID(), GENRES).isEmpty());
+
+        // One LLM call per request: the caller's live quiz fills the slot, no warm-up next to it
+        Thread.sleep(50);
+        verify(generator, never()).generatePersonalizedQuiz(anyList());
+    }
+
+    @Test
+    void hit_shouldWarmTheMissingVariantsInTheBackground() throws Exception {
+        when(generator.generatePersonalizedQuiz(anyList())).thenReturn(quiz("warm"));
+        PersonalizedQuizCache cache = new PersonalizedQuizCache(generator, questionBank, true, 2, Duration.ofDays(1),
+                100, 100, 1, Clock.systemUTC());
+        cache.add(UUID.randomUUID(), GENRES, quiz("live"));
+
+        assertEquals("live", cache.take(UUID.randomUUID(), GENRES).orElseThrow().getFirst().getQuestionText());
+
+        verify(generator, timeout(2000)).generatePersonalizedQuiz(GENRES);
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (cache.getWarmed() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, cache.getWarmed());
+        verify(questionBank, timeout(2000)).offer(anyList(), eq(GENRES));
+    }
+
+    @Test
+    void miss_shouldWaitForTheRunningWarmUp_insteadOfGeneratingAgain() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(generator.generatePersonalizedQuiz(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return quiz("warm");
+        });
+        PersonalizedQuizCache cache = new PersonalizedQuizCache(generator, questionBank, true, 2, Duration.ofDays(1),
+                100, 100, 1, Clock.systemUTC());
+        UUID first = UUID.randomUUID();
+        cache.add(first, GENRES, quiz("live"));
+        cache.take(UUID.randomUUID(), GENRES).orElseThrow();
+        verify(generator, timeout(2000)).generatePersonalizedQuiz(GENRES);
+
+        // The only variant is the one first just got: first waits for the warm-up
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+            release.countDown();
+        });
+        assertEquals("warm", cache.take(first, GENRES).orElseThrow().getFirst().getQuestionText());
+        verify(generator, times(1)).generatePersonalizedQuiz(anyList());
+    }
+
+    @Test
+    void add_shouldIgnoreIncompleteQuizzes() {
+        PersonalizedQuizCache cache = cache(3);
+        cache.add(UUID.randomUUID(), GENRES, quiz("partial").subList(0, 4));
+
+        assertTrue(cache.take(UUID.randomUUID(), GENRES).isEmpty());
+    }
+
+    // A full quiz whose first question reads text
+    private static List<QuizQuestion> quiz(String text) {
+        return IntStream.range(0, QuizGenerator.QUESTIONS_PER_QUIZ)
+                .mapToObj(i -> new QuizQuestion(i == 0 ? text : text + " " + i, List.of("A", "B", "C", "D"), 0, "Because"))
+                .toList();
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.BankedQuestionRepository;
+import com.example.CineMatch.Repository.ServedQuestionRepository;
+import com.example.CineMatch.dto.BankedQuestion;
+import com.example.CineMatch.dto.QuizQuestion;
+import com.example.CineMatch.dto.ServedQuestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class QuestionBankTest {
+
+    private static final List<String> FILMS = List.of("Heat", "Fargo", "Seven", "Casino", "Titanic",
+            "Magnolia", "Scream", "Ronin", "Gravity", "Arrival", "Drive", "Her", "Whiplash", "Carol",
+            "Moonlight", "Coco");
+    private static final List<String> DIRECTORS = List.of("Michael Mann", "Joel Coen", "David Fincher",
+            "Martin Scorsese", "James Cameron", "Paul Thomas Anderson", "Wes Craven", "John Frankenheimer");
+    private static final List<String> COMPOSERS = List.of("Steven Price", "Johann Johannsson", "Cliff Martinez",
+            "Arcade Fire", "Justin Hurwitz", "Carter Burwell", "Nicholas Britell", "Michael Giacchino");
+
+    private static final UUID USER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Mock
+    BankedQuestionRepository questions;
+
+    @Mock
+    ServedQuestionRepository served;
+
+    @Mock
+    QuizGenerator generator;
+
+    // In-memory stand-in for the bank table
+    private final Map<Long, BankedQuestion> table = new LinkedHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private QuestionBank bank;
+
+    record Candidate(Long getId, String getEra, int getServedCount) implements BankedQuestionRepository.Candidate {}
+
+    @BeforeEach
+    void setUp() {
+        when(questions.save(any())).thenAnswer(invocation -> {
+            BankedQuestion question = invocation.getArgument(0);
+            question.setId(ids.incrementAndGet());
+            table.put(question.getId(), question);
+            return question;
+        });
+        when(questions.existsByContentKey(anyString())).thenAnswer(invocation ->
+                table.values().stream().anyMatch(q -> q.getContentKey().equals(invocation.getArgument(0))));
+        when(questions.findByAnyBand(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> bands = invocation.getArgument(0);
+            return table.values().stream().filter(q -> !Collections.disjoint(q.getBands(), bands)).toList();
+        });
+        when(questions.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<BankedQuestion> found = new ArrayList<>();
+            Iterable<Long> wanted = invocation.getArgument(0);
+            wanted.forEach(id -> found.add(table.get(id)));
+            return found;
+        });
+        when(questions.findLeastServed(any())).thenAnswer(invocation -> candidates());
+        when(questions.findUnseenByGenres(anyCollection(), eq(USER), any())).thenAnswer(invocation -> {
+            Collection<String> genres = invocation.getArgument(0);
+            return table.values().stream()
+                    .filter(q -> !Collections.disjoint(q.getGenres(), genres))
+                    .map(q -> (BankedQuestionRepository.Candidate) new Candidate(q.getId(), q.getEra(), q.getServedCount()))
+                    .toList();
+        });
+
+        bank = new QuestionBank(questions, served, generator, true, 0.6, 200, 0,
+                Clock.fixed(Instant.parse("2026-10-18T12:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    void add_shouldSkipInvalidQuestions_andExactOrNearDuplicates() {
+        int stored = bank.add(List.of(
+                question("Who directed Parasite (2019)?", "Bong Joon-ho"),
+                question("Who was the director of \"Parasite\", released in 2019?", "Bong Joon-ho"),
+                question("who directed PARASITE 2019", "Bong Joon-ho"),
+                question("Who directed Inception (2010)?", "Christopher Nolan"),
+                new QuizQuestion("Only three options?", List.of("a", "b", "c"), 0, "")
+        ), List.of("Drama", "Thriller"), 0);
+
+        assertEquals(2, stored);
+        assertEquals(1, bank.getExactDuplicates());
+        assertEquals(1, bank.getNearDuplicates());
+        assertEquals(1, bank.getInvalid());
+
+        BankedQuestion parasite = table.get(1L);
+        assertEquals(Set.of("drama", "thriller"), parasite.getGenres());
+        assertEquals("2010s", parasite.getEra());
+        assertEquals(MinHash.BANDS, parasite.getBands().size());
+    }
+
+    @Test
+    void assembleRanked_shouldTakeAtMostFourOldEraQuestions_andCountThemServed() {
+        List<QuizQuestion> quiz = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            quiz.add(question("Old: who directed " + FILMS.get(i) + " (199" + i + ")?", DIRECTORS.get(i)));
+            quiz.add(question("New: who scored " + FILMS.get(i + 8) + " (201" + i + ")?", COMPOSERS.get(i)));
+        }
+        assertEquals(16, bank.add(quiz, List.of(), 0));
+
+        List<QuizQuestion> ranked = bank.assembleRanked().orElseThrow();
+
+        assertEquals(QuizGenerator.QUESTIONS_PER_QUIZ, ranked.size());
+        assertTrue(ranked.stream().filter(q -> q.getQuestionText().startsWith("Old")).count() <= QuestionBank.MAX_OLD_ERA);
+        assertEquals(4, ranked.get(0).getOptions().size());
+        ArgumentCaptor<Collection<Long>> servedIds = ArgumentCaptor.captor();
+        verify(questions).markServed(servedIds.capture());
+        assertEquals(10, new HashSet<>(servedIds.getValue()).size());
+        verify(served, never()).saveAll(any());
+    }
+
+    @Test
+    void assemblePersonalized_shouldServeTheQuiz_evenWhenRecordingItFails() {
+        List<QuizQuestion> horror = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            horror.add(question("Who directed " + FILMS.get(i) + "?", DIRECTORS.get(i % 8) + " " + i));
+        }
+        assertEquals(10, bank.add(horror, List.of("Horror"), 0));
+        when(served.saveAll(anyList())).thenThrow(new IllegalStateException("connection reset"));
+
+        assertEquals(10, bank.assemblePersonalized(USER, List.of("Horror")).orElseThrow().size());
+        assertEquals(1, bank.getPersonalizedHits());
+        assertEquals(1, bank.getFailures());
+    }
+
+    @Test
+    void assemblePersonalized_shouldRememberWhatTheUserGot_andGrowWhenShort() throws Exception {
+        List<QuizQuestion> horror = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            horror.add(question("Who directed " + FILMS.get(i) + "?", DIRECTORS.get(i % 8) + " " + i));
+        }
+        assertEquals(12, bank.add(horror, List.of("Horror"), 0));
+        when(generator.generatePersonalizedQuiz(List.of("Comedy"))).thenReturn(
+                List.of(question("Who starred in Superbad (2007)?", "Jonah Hill")));
+
+        List<QuizQuestion> quiz = bank.assemblePersonalized(USER, List.of("Horror", "Sci-Fi")).orElseThrow();
+        assertEquals(10, quiz.size());
+        ArgumentCaptor<List<ServedQuestion>> rows = ArgumentCaptor.captor();
+        verify(served).saveAll(rows.capture());
+        assertTrue(rows.getValue().stream().allMatch(row -> row.getUserId().equals(USER)));
+
+        // Nothing banked for comedy yet: a miss, and the LLM is asked for comedy questions in the background
+        assertTrue(bank.assemblePersonalized(USER, List.of("Comedy")).isEmpty());
+        verify(generator, timeout(2000)).generatePersonalizedQuiz(List.of("Comedy"));
+        assertEquals(1, bank.getPersonalizedHits());
+        assertEquals(1, bank.getPersonalizedMisses());
+    }
+
+    @Test
+    void databaseFailure_shouldFallBackToEmpty() {
+        when(questions.findLeastServed(any())).thenThrow(new IllegalStateException("connection refused"));
+
+        assertTrue(bank.assembleRanked().isEmpty());
+        assertEquals(1, bank.getFailures());
+    }
+
+    private static QuizQuestion question(String text, String answer) {
+        return new QuizQuestion(text, List.of(answer, "Wrong A", "Wrong B", "Wrong C"), 0, "Explanation");
+    }
+
+    private List<BankedQuestionRepository.Candidate> candidates() {
+        return table.values().stream()
+                .map(q -> (BankedQuestionRepository.Candidate) new Candidate(q.getId(), q.getEra(), q.getServedCount()))
+                .toList();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.dto.QuizQuestion;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuizGeneratorTest {
+
+    @Test
+    void streamRankedQuiz_shouldHandOutValidQuestionsFromTheEventStream() {
+        String question = "{\\\"questionText\\\":\\\"Q%d\\\",\\\"options\\\":[\\\"a\\\",\\\"b\\\",\\\"c\\\",\\\"d\\\"],"
+                + "\\\"correctAnswerIndex\\\":%d,\\\"explanation\\\":\\\"e\\\"}";
+        StringBuilder events = new StringBuilder(": OPENROUTER PROCESSING\n\n");
+        events.append(delta("```json\\n["));
+        String first = String.format(question, 1, 2);
+        events.append(delta(first.substring(0, 30))).append(delta(first.substring(30) + ","));
+        // Five options: not usable, so skipped
+        events.append(delta(String.format(question, 2, 0).replace("\\\"d\\\"", "\\\"d\\\",\\\"e\\\"") + ","));
+        events.append(delta(String.format(question, 3, 0) + "]\\n```"));
+        events.append("data: [DONE]\n\n");
+
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM_VALUE)
+                        .body(events.toString())
+                        .build()))
+                .build();
+        QuizGenerator generator = new QuizGenerator(webClient);
+        ReflectionTestUtils.setField(generator, "apiKey", "test-key");
+
+        List<String> handedOut = new ArrayList<>();
+        List<QuizQuestion> questions = generator.streamRankedQuiz(q -> handedOut.add(q.getQuestionText()));
+
+        assertEquals(List.of("Q1", "Q3"), handedOut);
+        assertEquals(2, questions.size());
+        assertEquals(2, questions.get(0).getCorrectAnswerIndex());
+    }
+
+    private static String delta(String content) {
+        return "data: {\"choices\":[{\"delta\":{\"content\":\"" + content + "\"}}]}\n\n";
+    }
+}
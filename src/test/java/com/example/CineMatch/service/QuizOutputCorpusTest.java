@@ -0,0 +1,130 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.dto.QuizQuestion;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replays real-world shaped LLM answers from src/test/resources/quiz/corpus
+ * through the salvaging parser. expected.properties lists how many usable,
+ * distinct questions each answer should give.
+ */
+class QuizOutputCorpusTest {
+
+    private static final String CORPUS = "/quiz/corpus/";
+
+    private final QuizGenerator generator = new QuizGenerator(WebClient.create());
+
+    static Stream<String> answers() throws IOException {
+        return expected().stringPropertyNames().stream().sorted();
+    }
+
+    @ParameterizedTest
+    @MethodSource("answers")
+    void answer_shouldYieldEveryUsableQuestion(String file) throws IOException {
+        List<QuizQuestion> questions = generator.salvage(read(file));
+
+        assertEquals(Integer.parseInt(expected().getProperty(file)), questions.size(), file);
+        questions.forEach(question -> assertTrue(QuizGenerator.isValidQuestion(question), file));
+    }
+
+    /*
+     * Compares against the previous all-or-nothing parsing: one stray character
+     * threw the whole answer away and the quiz was asked for again in full,
+     * whereas now only the missing questions are asked for.
+     */
+    @Test
+    void salvaging_shouldRegenerateFewerQuestionsThanStrictParsing() throws IOException {
+        int strictRegenerated = 0;
+        int salvageRegenerated = 0;
+        int strictDiscarded = 0;
+        int salvageDiscarded = 0;
+
+        for (String file : answers().toList()) {
+            String answer = read(file);
+
+            int strict = strictUsable(answer);
+            if (strict < QuizGenerator.QUESTIONS_PER_QUIZ) {
+                strictRegenerated += QuizGenerator.QUESTIONS_PER_QUIZ;
+                strictDiscarded += strict == 0 ? 1 : 0;
+            }
+            int salvaged = generator.salvage(answer).size();
+            salvageRegenerated += QuizGenerator.QUESTIONS_PER_QUIZ - salvaged;
+            salvageDiscarded += salvaged == 0 ? 1 : 0;
+        }
+
+        // Over the current corpus: questions asked for again 90 -> 15, answers thrown away 7 -> 1
+        assertEquals(90, strictRegenerated);
+        assertEquals(15, salvageRegenerated);
+        assertEquals(7, strictDiscarded);
+        assertEquals(1, salvageDiscarded);
+    }
+
+    // The old path: cut from the first '[' to the last ']' and parse strictly
+    private static int strictUsable(String answer) {
+        String text = answer.trim();
+        if (text.contains("[/INST]")) {
+            text = text.substring(text.indexOf("[/INST]") + 7).trim();
+        }
+        int start = text.indexOf('[');
+        int end = text.lastIndexOf(']');
+        if (start == -1 || end < start) {
+            return 0;
+        }
+        try {
+            List<QuizQuestion> questions = new ObjectMapper()
+                    .readValue(text.substring(start, end + 1), new TypeReference<List<QuizQuestion>>() {});
+            Set<String> distinct = new HashSet<>();
+            for (QuizQuestion question : questions) {
+                if (QuizGenerator.isValidQuestion(question)) {
+                    distinct.add(RankedQuizPool.normalize(question.getQuestionText()));
+                }
+            }
+            return distinct.size();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static Properties expected() throws IOException {
+        Properties expected = new Properties();
+        try (InputStream in = QuizOutputCorpusTest.class.getResourceAsStream(CORPUS + "expected.properties")) {
+            expected.load(in);
+        }
+        return expected;
+    }
+
+    private static String read(String file) throws IOException {
+        try (InputStream in = QuizOutputCorpusTest.class.getResourceAsStream(CORPUS + file)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
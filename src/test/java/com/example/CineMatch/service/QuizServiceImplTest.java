@@ -0,0 +1,88 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.dto.QuizQuestion;
+import com.example.CineMatch.dto.RankedResult;
+import com.example.CineMatch.dto.UserAnswer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuizServiceImplTest {
+
+    @Mock QuizGenerator quizGenerator;
+    @Mock RankedQuizPool rankedQuizPool;
+    @Mock PersonalizedQuizCache personalizedQuizCache;
+    @Mock UserPreferenceCache userPreferenceCache;
+    @Mock QuestionBank questionBank;
+
+    private final QuizSessionStore sessions = new InMemoryQuizSessionStore(10, null, Clock.systemUTC());
+
+    private QuizServiceImpl service() {
+        return new QuizServiceImpl(quizGenerator, rankedQuizPool, personalizedQuizCache,
+                userPreferenceCache, questionBank, sessions, Duration.ofHours(2));
+    }
+
+    @Test
+    void rankedScore_shouldComeFromTheSession_countingUnansweredAsWrong() {
+        long issuedAt = System.currentTimeMillis() - 30_000;
+        sessions.put("s", new QuizSession(new byte[]{2, 0, 3, 1}, true, issuedAt, issuedAt + 60_000));
+
+        RankedResult result = service().gradeRankedQuiz("s", List.of(
+                new UserAnswer(0, 2), new UserAnswer(1, 0), new UserAnswer(2, 0)));
+
+        assertEquals(2, result.getCorrect());
+        assertEquals(2, result.getWrong());
+        assertTrue(result.getTimeTakenSeconds() >= 30 && result.getTimeTakenSeconds() < 35);
+        assertEquals(2 * 50 - 2 * 30 + (120 - result.getTimeTakenSeconds()), result.getScore());
+        assertTrue(sessions.take("s").isEmpty(), "a ranked quiz is graded once");
+    }
+
+    @Test
+    void rankedScore_shouldRefusePersonalizedSessions() {
+        long now = System.currentTimeMillis();
+        sessions.put("p", new QuizSession(new byte[]{0}, false, now, now + 60_000));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service().gradeRankedQuiz("p", List.of(new UserAnswer(0, 0))));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    @Test
+    void personalizedCacheHit_shouldNotOfferTheVariantToTheBankAgain() throws Exception {
+        UUID user = UUID.randomUUID();
+        List<String> genres = List.of("Horror", "Action", "Drama");
+        List<QuizQuestion> cached = List.of(new QuizQuestion());
+        when(userPreferenceCache.topGenres(user, 3)).thenReturn(genres);
+        when(questionBank.assemblePersonalized(user, genres)).thenReturn(Optional.empty());
+        when(personalizedQuizCache.take(user, genres)).thenReturn(Optional.of(cached));
+
+        assertSame(cached, service().generatePersonalizedQuiz(user));
+        verify(questionBank, never()).offer(anyList(), anyList());
+    }
+}
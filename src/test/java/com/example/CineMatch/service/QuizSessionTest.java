@@ -0,0 +1,61 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.dto.QuizQuestion;
+import com.example.CineMatch.dto.UserAnswer;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuizSessionTest {
+
+    private final QuizSession session = QuizSession.of(List.of(
+            question(2), question(0), question(3), question(1)), true, 0, Long.MAX_VALUE);
+
+    @Test
+    void score_shouldCountCorrectAnswers_fromTheStoredKeyOnly() {
+        assertArrayEquals(new byte[]{2, 0, 3, 1}, session.answerKey());
+        assertEquals(3, session.score(List.of(
+                new UserAnswer(0, 2), new UserAnswer(1, 0), new UserAnswer(2, 1), new UserAnswer(3, 1))));
+    }
+
+    @Test
+    void score_shouldIgnoreRepeatedAndUnknownQuestions() {
+        // The same right answer four times, and an answer to a question that doesn't exist
+        assertEquals(1, session.score(List.of(
+                new UserAnswer(0, 2), new UserAnswer(0, 2), new UserAnswer(0, 2), new UserAnswer(7, 0))));
+        assertEquals(0, session.score(List.of()));
+    }
+
+    @Test
+    void moreAnswersThanQuestions_shouldBeRejected() {
+        List<UserAnswer> answers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            answers.add(new UserAnswer(i, 0));
+        }
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> session.score(answers));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    private static QuizQuestion question(int correctAnswerIndex) {
+        return new QuizQuestion("Q", List.of("a", "b", "c", "d"), correctAnswerIndex, "");
+    }
+}
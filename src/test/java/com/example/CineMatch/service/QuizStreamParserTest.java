@@ -0,0 +1,83 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.dto.QuizQuestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuizStreamParserTest {
+
+    private static final String Q1 = "{\"questionText\":\"Who directed \\\"Parasite\\\" {2019}?\","
+            + "\"options\":[\"Bong Joon-ho\",\"Park Chan-wook\",\"Lee Chang-dong\",\"Kim Jee-woon\"],"
+            + "\"correctAnswerIndex\":0,\"explanation\":\"Palme d'Or 2019 } winner\"}";
+    private static final String Q2 = "{\"questionText\":\"Which film won Best Picture in 2020?\","
+            + "\"options\":[\"1917\",\"Parasite\",\"Joker\",\"Ford v Ferrari\"],"
+            + "\"correctAnswerIndex\":1,\"explanation\":\"First non-English winner\"}";
+
+    private final QuizStreamParser parser = new QuizStreamParser();
+
+    @Test
+    void question_shouldBeEmittedAsSoonAsItsObjectCloses() {
+        String text = "[/INST] ```json\n[\n  " + Q1 + ",\n  " + Q2 + "\n]\n```";
+        int firstClose = text.indexOf(Q1) + Q1.length();
+
+        List<Integer> emittedAt = new ArrayList<>();
+        List<QuizQuestion> questions = new ArrayList<>();
+        // One character per chunk: the worst case for splitting strings and escapes
+        for (int i = 0; i < text.length(); i++) {
+            List<QuizQuestion> completed = parser.accept(text.substring(i, i + 1));
+            for (QuizQuestion question : completed) {
+                emittedAt.add(i + 1);
+                questions.add(question);
+            }
+        }
+
+        assertEquals(2, questions.size());
+        assertEquals(firstClose, emittedAt.get(0));
+        assertEquals("Who directed \"Parasite\" {2019}?", questions.get(0).getQuestionText());
+        assertEquals("Palme d'Or 2019 } winner", questions.get(0).getExplanation());
+        assertEquals(1, questions.get(1).getCorrectAnswerIndex());
+    }
+
+    @Test
+    void brokenObject_shouldBeDropped_withoutLosingTheNextOne() {
+        List<QuizQuestion> questions = new ArrayList<>();
+        questions.addAll(parser.accept("[{\"questionText\": \"Who said \"I'll be back\"?\", \"options\": [1,2,3,4]},"));
+        questions.addAll(parser.accept(Q2.substring(0, 40)));
+        questions.addAll(parser.accept(Q2.substring(40) + "]"));
+
+        assertEquals(1, questions.size());
+        assertEquals("Which film won Best Picture in 2020?", questions.get(0).getQuestionText());
+        assertEquals(1, parser.dropped());
+    }
+
+    @Test
+    void sloppyButReadableObject_shouldBeMappedToAQuestion() {
+        List<QuizQuestion> questions = parser.accept("""
+                [{'question': 'Who directed "Alien"?', // the 1979 one
+                  choices: ['A) James Cameron', 'B) Ridley Scott', 'C) David Fincher', 'D) Jean-Pierre Jeunet',],
+                  'correct_answer': 'B', 'reason': 'Scott directed the original.'}]""");
+
+        assertEquals(1, questions.size());
+        assertEquals("Who directed \"Alien\"?", questions.get(0).getQuestionText());
+        assertEquals(4, questions.get(0).getOptions().size());
+        assertEquals(1, questions.get(0).getCorrectAnswerIndex());
+        assertEquals("Scott directed the original.", questions.get(0).getExplanation());
+    }
+}
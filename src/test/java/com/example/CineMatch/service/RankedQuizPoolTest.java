@@ -0,0 +1,165 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.dto.QuizQuestion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RankedQuizPoolTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Mock
+    QuizGenerator generator;
+
+    @TempDir
+    Path dir;
+
+    private RankedQuizPool pool(int low, int high, Path file, Instant now) {
+        return new RankedQuizPool(generator, true, false, low, high, 100, Duration.ofDays(7), file,
+                Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void refill_shouldFillUpToHighWatermark_andPollShouldServeOldestFirst() throws Exception {
+        when(generator.generateRankedQuiz()).thenReturn(quiz("a"))
+                .thenReturn(quiz("b"))
+                .thenReturn(quiz("c"));
+        RankedQuizPool pool = pool(2, 3, null, NOW);
+
+        pool.refill();
+
+        assertEquals(3, pool.getDepth());
+        verify(generator, times(3)).generateRankedQuiz();
+        assertEquals("a question 0", pool.poll().orElseThrow().getFirst().getQuestionText());
+        assertEquals(1, pool.getHits());
+    }
+
+    @Test
+    void refill_shouldDoNothing_aboveLowWatermark() throws Exception {
+        RankedQuizPool pool = pool(1, 3, null, NOW);
+        assertTrue(pool.offer(quiz("a")));
+
+        pool.refill();
+
+        verify(generator, never()).generateRankedQuiz();
+    }
+
+    @Test
+    void refill_shouldStopAtFirstGenerationFailure() throws Exception {
+        when(generator.generateRankedQuiz()).thenThrow(new IllegalStateException("LLM down"));
+        RankedQuizPool pool = pool(2, 5, null, NOW);
+
+        pool.refill();
+
+        assertEquals(0, pool.getDepth());
+        assertEquals(1, pool.getFailed());
+        verify(generator, times(1)).generateRankedQuiz();
+    }
+
+    @Test
+    void refill_shouldWaitForTheFirstPoll_whenBackingUpTheQuestionBank() throws Exception {
+        when(generator.generateRankedQuiz()).thenReturn(quiz("a"))
+                .thenReturn(quiz("b"));
+        RankedQuizPool pool = new RankedQuizPool(generator, true, true, 1, 2, 100, Duration.ofDays(7), null,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+
+        pool.refill();
+        verify(generator, never()).generateRankedQuiz();
+
+        // The miss starts the refill on its own
+        assertEquals(Optional.empty(), pool.poll());
+        verify(generator, timeout(2000).times(2)).generateRankedQuiz();
+    }
+
+    @Test
+    void poll_shouldReturnEmpty_whenPoolIsDry() {
+        RankedQuizPool pool = pool(0, 3, null, NOW);
+
+        assertEquals(Optional.empty(), pool.poll());
+        assertEquals(1, pool.getMisses());
+    }
+
+    @Test
+    void offer_shouldRejectMalformedQuizzes() {
+        RankedQuizPool pool = pool(0, 3, null, NOW);
+
+        List<QuizQuestion> tooShort = quiz("a").subList(0, 9);
+        List<QuizQuestion> badIndex = quiz("b");
+        badIndex.getFirst().setCorrectAnswerIndex(4);
+
+        assertFalse(pool.offer(tooShort));
+        assertFalse(pool.offer(badIndex));
+        assertEquals(2, pool.getRejected());
+    }
+
+    @Test
+    void offer_shouldRejectQuestionsAlreadyPooledOrRecentlyServed() {
+        RankedQuizPool pool = pool(0, 5, null, NOW);
+        assertTrue(pool.offer(quiz("a")));
+
+        // Same question text, only punctuation and case differ
+        List<QuizQuestion> overlapping = quiz("b");
+        overlapping.get(3).setQuestionText("A question, 0?");
+        assertFalse(pool.offer(overlapping));
+
+        pool.poll();
+        assertFalse(pool.offer(quiz("a")));
+        assertTrue(pool.offer(quiz("c")));
+    }
+
+    @Test
+    void pool_shouldSurviveRestart_andDropQuizzesPastMaxAge() {
+        Path file = dir.resolve("pool.json");
+        RankedQuizPool before = pool(0, 5, file, NOW);
+        before.offer(quiz("a"));
+        before.offer(quiz("b"));
+        before.poll();
+        before.save();
+
+        RankedQuizPool after = pool(0, 5, file, NOW.plusSeconds(60));
+        assertEquals(1, after.getDepth());
+        assertFalse(after.offer(quiz("a")), "served questions are still remembered");
+        assertEquals("b question 0", after.poll().orElseThrow().getFirst().getQuestionText());
+
+        RankedQuizPool muchLater = pool(0, 5, file, NOW.plus(Duration.ofDays(8)));
+        assertEquals(0, muchLater.getDepth());
+    }
+
+    private static List<QuizQuestion> quiz(String prefix) {
+        List<QuizQuestion> questions = new ArrayList<>();
+        for (int i = 0; i < RankedQuizPool.QUESTIONS_PER_QUIZ; i++) {
+            questions.add(new QuizQuestion(prefix + " question " + i,
+                    List.of("A", "B", "C", "D"), i % 4, "Because"));
+        }
+        return questions;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankedSkipListTest {
+
+    @Test
+    void ranksAndRanges_shouldMatchASortedList_underRandomUpdates() {
+        Random random = new Random(42);
+        List<UUID> users = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            users.add(new UUID(0, i));
+        }
+
+        RankedSkipList list = new RankedSkipList();
+        Map<UUID, RankedSkipList.Entry> best = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            UUID user = users.get(random.nextInt(users.size()));
+            RankedSkipList.Entry entry = new RankedSkipList.Entry(user, "u", random.nextInt(700), i);
+            boolean better = !best.containsKey(user) || RankedSkipList.ORDER.compare(entry, best.get(user)) < 0;
+
+            assertEquals(better, list.offer(entry));
+            if (better) {
+                best.put(user, entry);
+            }
+        }
+
+        List<RankedSkipList.Entry> expected = new ArrayList<>(best.values());
+        expected.sort(RankedSkipList.ORDER);
+        assertEquals(expected.size(), list.size());
+        assertEquals(expected, list.range(1, expected.size()));
+        for (int rank = 1; rank <= expected.size(); rank++) {
+            assertEquals(rank, list.rankOf(expected.get(rank - 1).userId()));
+        }
+        assertEquals(expected.subList(99, 109), list.range(100, 10));
+        assertTrue(list.range(expected.size() + 1, 10).isEmpty());
+    }
+
+    @Test
+    void ties_shouldGoToWhoeverGotThereFirst() {
+        RankedSkipList list = new RankedSkipList();
+        UUID early = new UUID(0, 2);
+        UUID late = new UUID(0, 1);
+        list.offer(new RankedSkipList.Entry(late, "late", 500, 2000));
+        list.offer(new RankedSkipList.Entry(early, "early", 500, 1000));
+
+        assertEquals(1, list.rankOf(early));
+        assertEquals(2, list.rankOf(late));
+        assertEquals(0, list.rankOf(new UUID(0, 3)));
+        // A worse score never replaces the user's best
+        assertFalse(list.offer(new RankedSkipList.Entry(early, "early", 100, 3000)));
+    }
+}
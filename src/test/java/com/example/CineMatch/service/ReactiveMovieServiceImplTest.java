@@ -0,0 +1,116 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.ReactiveTmdbRepository;
+import com.example.CineMatch.dto.MovieDetailsDto;
+import com.example.CineMatch.dto.MovieDto;
+import com.example.CineMatch.dto.ResponseDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveMovieServiceImplTest {
+
+    @Mock
+    ReactiveTmdbRepository tmdbRepository;
+
+    @Spy
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private ReactiveMovieServiceImpl movieService;
+
+    @Test
+    void getTrending_shouldBindPage() {
+        String json = "{ \"results\": [{ \"id\": 123, \"title\": \"Batman\", \"vote_average\": 7.5 }] }";
+        when(tmdbRepository.callBytes("/trending/movie/week?page=1")).thenReturn(Mono.just(json.getBytes()));
+
+        ResponseDto<MovieDto> response = movieService.getTrending(1).block();
+
+        assertNotNull(response);
+        assertEquals(1, response.getResults().size());
+        assertEquals("Batman", response.getResults().getFirst().getTitle());
+    }
+
+    @Test
+    void getDetails_shouldCombineDetailsAndCredits() {
+        when(tmdbRepository.callBytes("/movie/1")).thenReturn(Mono.just(json(Map.of("id", 1, "title", "Movie"))));
+        when(tmdbRepository.callBytes("/movie/1/credits")).thenReturn(Mono.just(json(Map.of(
+                "cast", List.of(Map.of("id", 10, "name", "Actor")),
+                "crew", List.of(Map.of("id", 11, "name", "Director"))))));
+
+        MovieDetailsDto dto = movieService.getDetails(1).block();
+
+        assertNotNull(dto);
+        assertEquals("Movie", dto.getTitle());
+        assertEquals(1, dto.getCast().size());
+        assertEquals("Actor", dto.getCast().getFirst().getName());
+    }
+
+    @Test
+    void getDetails_withAppendedCredits_shouldUseOneCall() {
+        ReflectionTestUtils.setField(movieService, "appendCredits", true);
+        when(tmdbRepository.callBytes("/movie/1?append_to_response=credits")).thenReturn(Mono.just(json(Map.of(
+                "id", 1, "title", "Movie",
+                "credits", Map.of("cast", List.of(Map.of("id", 10, "name", "Actor")))))));
+
+        MovieDetailsDto dto = movieService.getDetails(1).block();
+
+        assertNotNull(dto);
+        assertEquals("Actor", dto.getCast().getFirst().getName());
+        verify(tmdbRepository, times(1)).callBytes(anyString());
+    }
+
+    @Test
+    void getDetails_shouldFail_whenTitleMissing() {
+        when(tmdbRepository.callBytes("/movie/1")).thenReturn(Mono.just(json(Map.of("id", 1))));
+        when(tmdbRepository.callBytes("/movie/1/credits")).thenReturn(Mono.just(json(Map.of("cast", List.of()))));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> movieService.getDetails(1).block());
+        assertEquals("Invalid movie details received from TMDB", e.getMessage());
+    }
+
+    @Test
+    void getDetails_shouldGiveUpWith504_whenTmdbIsTooSlow() {
+        ReflectionTestUtils.setField(movieService, "detailsTimeout", Duration.ofMillis(50));
+        when(tmdbRepository.callBytes("/movie/1")).thenReturn(Mono.never());
+        when(tmdbRepository.callBytes("/movie/1/credits")).thenReturn(Mono.just(json(Map.of("cast", List.of()))));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> movieService.getDetails(1).block());
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, e.getStatusCode());
+    }
+
+    private static byte[] json(Object value) {
+        return new ObjectMapper().writeValueAsBytes(value);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestTrieTest {
+
+    @Test
+    void lookup_shouldReturnBestRankedDocsBelowPrefix() {
+        // Index is rank: 0 is the most popular
+        SuggestTrie trie = SuggestTrie.build(new String[]{
+                "\nthe dark knight",
+                "\nthe dark knight rises",
+                "\ndark",
+                "\nthe darjeeling limited",
+                "\ninception"
+        }, 3);
+
+        assertEquals(List.of(0, 1, 3), top(trie, "the dar"));
+        assertEquals(List.of(0, 1), top(trie, "the dark k"));
+        assertEquals(List.of(4), top(trie, "i"));
+        assertEquals(List.of(), top(trie, "thx"));
+        assertEquals(List.of(), top(trie, "inception 2"));
+    }
+
+    @Test
+    void laterWords_shouldAlsoMatch_andDocsNotRepeat() {
+        SuggestTrie trie = SuggestTrie.build(new String[]{
+                "\nthe dark knight\nbatman the dark knight",
+                "\ndark city",
+        }, 5);
+
+        assertEquals(List.of(0, 1), top(trie, "dark"));
+        assertEquals(List.of(0), top(trie, "kni"));
+        // The fourth word is not a start
+        assertEquals(List.of(), top(trie, "knight x"));
+    }
+
+    @Test
+    void topList_shouldBeCappedAtK() {
+        String[] names = new String[50];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "\nstar " + i;
+        }
+        SuggestTrie trie = SuggestTrie.build(names, 10);
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), top(trie, "st"));
+        assertEquals(List.of(4, 40, 41, 42, 43, 44, 45, 46, 47, 48), top(trie, "star 4"));
+    }
+
+    @Test
+    void emptyTrie_shouldMatchNothing() {
+        assertEquals(List.of(), top(SuggestTrie.EMPTY, "a"));
+    }
+
+    private static List<Integer> top(SuggestTrie trie, String prefix) {
+        int node = trie.lookup(prefix);
+        List<Integer> docs = new ArrayList<>();
+        if (node >= 0) {
+            for (int i = trie.topFrom(node); i < trie.topTo(node); i++) {
+                docs.add(trie.topAt(i));
+            }
+        }
+        return docs;
+    }
+}
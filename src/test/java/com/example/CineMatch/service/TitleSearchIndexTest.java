@@ -0,0 +1,186 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.CatalogEntryRepository;
+import com.example.CineMatch.dto.CatalogEntry;
+import com.example.CineMatch.dto.MovieDto;
+import com.example.CineMatch.dto.PersonDto;
+import com.example.CineMatch.dto.ResponseDto;
+import com.example.CineMatch.dto.SuggestResponseDto;
+import com.example.CineMatch.dto.SuggestionDto;
+import com.example.CineMatch.dto.TvDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TitleSearchIndexTest {
+
+    @Test
+    void diacriticsAndCase_shouldNotMatter_inGreekOrLatin() {
+        TitleSearchIndex index = index(false);
+        index.record(TitleSearchIndex.Kind.MOVIE, List.of(
+                movie(1, "Ο Ταχυδρόμος", 12.0),
+                movie(2, "Amélie", 30.0),
+                movie(3, "Ζορμπάς ο Έλληνας", 8.0)));
+        index.rebuild();
+
+        assertEquals(List.of(1L), ids(index.search(TitleSearchIndex.Kind.MOVIE, "ταχυδρομ", 1, MovieDto.class)));
+        assertEquals(List.of(2L), ids(index.search(TitleSearchIndex.Kind.MOVIE, "AMELIE", 1, MovieDto.class)));
+        assertEquals(List.of(3L), ids(index.search(TitleSearchIndex.Kind.MOVIE, "ελληνασ ζορμπα", 1, MovieDto.class)));
+    }
+
+    @Test
+    void everyToken_shouldMatchAsPrefix() {
+        TitleSearchIndex index = index(false);
+        index.record(TitleSearchIndex.Kind.MOVIE, List.of(
+                movie(120, "The Lord of the Rings: The Fellowship of the Ring", 90.0),
+                movie(1830, "Lord of War", 40.0)));
+        index.rebuild();
+
+        assertEquals(List.of(120L), ids(index.search(TitleSearchIndex.Kind.MOVIE, "lord ri", 1, MovieDto.class)));
+        assertEquals(List.of(120L, 1830L), ids(index.search(TitleSearchIndex.Kind.MOVIE, "of", 1, MovieDto.class)));
+        assertNull(index.search(TitleSearchIndex.Kind.MOVIE, "lord xyz", 1, MovieDto.class));
+    }
+
+    @Test
+    void wholeQueryPrefix_shouldComeFirst_thenPopularity() {
+        TitleSearchIndex index = index(false);
+        index.record(TitleSearchIndex.Kind.MOVIE, List.of(
+                movie(268, "Batman", 20.0),
+                movie(414906, "The Batman", 90.0),
+                movie(272, "Batman Begins", 50.0)));
+        index.rebuild();
+
+        assertEquals(List.of(272L, 268L, 414906L),
+                ids(index.search(TitleSearchIndex.Kind.MOVIE, "batman", 1, MovieDto.class)));
+    }
+
+    @Test
+    void results_shouldBePagedLikeTmdb() {
+        TitleSearchIndex index = index(false);
+        List<MovieDto> movies = new ArrayList<>();
+        for (int i = 1; i <= 45; i++) {
+            movies.add(movie(i, "Star " + i, 100 - i));
+        }
+        index.record(TitleSearchIndex.Kind.MOVIE, movies);
+        index.rebuild();
+
+        ResponseDto<MovieDto> last = index.search(TitleSearchIndex.Kind.MOVIE, "star", 3, MovieDto.class);
+
+        assertEquals(3, last.getPage());
+        assertEquals(45L, last.getTotal_results());
+        assertEquals(3L, last.getTotal_pages());
+        assertEquals(List.of(41L, 42L, 43L, 44L, 45L), ids(last));
+        assertTrue(index.search(TitleSearchIndex.Kind.MOVIE, "star", 4, MovieDto.class).getResults().isEmpty());
+    }
+
+    @Test
+    void kinds_shouldBeSeparate_andOriginalNamesIndexed() {
+        TitleSearchIndex index = index(false);
+        TvDto tv = new TvDto();
+        tv.setId(1399L);
+        tv.setName("Game of Thrones");
+        tv.setOriginal_name("Juego de tronos");
+        tv.setPopularity(200.0);
+        index.record(TitleSearchIndex.Kind.TV, List.of(tv));
+        index.rebuild();
+
+        assertEquals(1, index.search(TitleSearchIndex.Kind.TV, "tronos", 1, TvDto.class).getResults().size());
+        assertNull(index.search(TitleSearchIndex.Kind.MOVIE, "thrones", 1, MovieDto.class));
+    }
+
+    @Test
+    void rebuild_shouldIndexMirror_andSwapInAtOnce() {
+        CatalogEntryRepository entries = mock(CatalogEntryRepository.class);
+        when(entries.findByEndpointNotLike(eq("%credits"), any(Pageable.class))).thenReturn(new SliceImpl<>(List.of(
+                new CatalogEntry("/person/1", "person", 1,
+                        "{\"id\":1,\"name\":\"Giorgos Lanthimos\",\"also_known_as\":[\"Γιώργος Λάνθιμος\"],\"popularity\":9.5}",
+                        Instant.now()),
+                new CatalogEntry("/movie/550", "movie", 550,
+                        "{\"id\":550,\"title\":\"Fight Club\",\"original_title\":\"Fight Club\",\"popularity\":61.4}",
+                        Instant.now()))));
+        @SuppressWarnings("unchecked")
+        ObjectProvider<CatalogEntryRepository> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(entries);
+        TitleSearchIndex index = new TitleSearchIndex(provider, new ObjectMapper(), true, true, true, 1000);
+
+        assertNull(index.search(TitleSearchIndex.Kind.PERSON, "λανθιμ", 1, PersonDto.class));
+        index.rebuild();
+
+        ResponseDto<PersonDto> people = index.search(TitleSearchIndex.Kind.PERSON, "λανθιμ", 1, PersonDto.class);
+        assertEquals("Giorgos Lanthimos", people.getResults().getFirst().getName());
+        assertEquals(2, index.getDocuments());
+    }
+
+    @Test
+    void suggest_shouldReturnTopNamesPerKind() {
+        TitleSearchIndex index = index(false);
+        index.record(TitleSearchIndex.Kind.MOVIE, List.of(
+                movie(155, "The Dark Knight", 80.0),
+                movie(49026, "The Dark Knight Rises", 60.0),
+                movie(13, "Forrest Gump", 50.0)));
+        PersonDto person = new PersonDto();
+        person.setId(3894L);
+        person.setName("Christian Bale");
+        person.setPopularity(20.0);
+        index.record(TitleSearchIndex.Kind.PERSON, List.of(person));
+        index.rebuild();
+
+        SuggestResponseDto dark = index.suggest("Dark Kn", 5);
+        assertEquals(List.of(155L, 49026L), dark.getMovies().stream().map(SuggestionDto::getId).toList());
+        assertEquals("movie", dark.getMovies().getFirst().getMediaType());
+        assertTrue(dark.getPeople().isEmpty());
+
+        assertEquals("Christian Bale", index.suggest("chr", 5).getPeople().getFirst().getName());
+        assertEquals(1, index.suggest("the", 1).getMovies().size());
+    }
+
+    @Test
+    void localServingOff_shouldAlwaysFallBackToTmdb() {
+        TitleSearchIndex index = new TitleSearchIndex(null, new ObjectMapper(), true, false, false, 1000);
+        index.record(TitleSearchIndex.Kind.MOVIE, List.of(movie(550, "Fight Club", 61.4)));
+        index.rebuild();
+
+        assertNull(index.search(TitleSearchIndex.Kind.MOVIE, "fight", 1, MovieDto.class));
+        assertEquals(1, index.getDocuments());
+    }
+
+    private static TitleSearchIndex index(boolean catalogEnabled) {
+        return new TitleSearchIndex(null, new ObjectMapper(), true, true, catalogEnabled, 1000);
+    }
+
+    private static MovieDto movie(long id, String title, double popularity) {
+        MovieDto movie = new MovieDto();
+        movie.setId(id);
+        movie.setTitle(title);
+        movie.setPopularity(popularity);
+        return movie;
+    }
+
+    private static List<Long> ids(ResponseDto<MovieDto> response) {
+        return response.getResults().stream().map(MovieDto::getId).toList();
+    }
+}
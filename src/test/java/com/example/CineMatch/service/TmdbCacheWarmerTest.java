@@ -0,0 +1,146 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.ThrottledTmdbRepository;
+import com.example.CineMatch.Repository.TmdbLane;
+import com.example.CineMatch.Repository.TmdbRepository;
+import com.example.CineMatch.dto.MovieDto;
+import com.example.CineMatch.dto.PersonDto;
+import com.example.CineMatch.dto.ResponseDto;
+import com.example.CineMatch.dto.TvDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TmdbCacheWarmerTest {
+
+    @Mock
+    MovieService movieService;
+
+    @Mock
+    TvService tvService;
+
+    @Mock
+    PersonService personService;
+
+    @Mock
+    TmdbRepository upstream;
+
+    @Test
+    void warm_shouldFetchTrendingPagesAndEveryTitleOnThem_inThePrefetchLane() {
+        Set<TmdbLane> lanes = ConcurrentHashMap.newKeySet();
+        when(movieService.getTrending(1)).thenAnswer(call -> {
+            lanes.add(TmdbLane.current());
+            return page(2L, movie(550), movie(13));
+        });
+        when(movieService.getTrending(2)).thenReturn(page(2L, movie(13), movie(603)));
+        when(movieService.getDetails(anyLong())).thenAnswer(call -> {
+            lanes.add(TmdbLane.current());
+            if (call.getArgument(0, Long.class) == 13L) {
+                throw new IllegalStateException("Invalid movie details received from TMDB");
+            }
+            return null;
+        });
+        when(tvService.getTrending(1)).thenReturn(page(1L, tv(1399)));
+        when(personService.getTrending(1)).thenReturn(page(1L, person(287)));
+
+        TmdbCacheWarmer warmer = warmer(upstream, 5, Duration.ofSeconds(1));
+        warmer.warm();
+
+        verify(movieService, never()).getTrending(3);
+        verify(movieService).getDetails(550);
+        verify(movieService, times(1)).getDetails(13);
+        verify(movieService).getDetails(603);
+        verify(tvService, never()).getTrending(2);
+        verify(tvService).getDetails(1399);
+        verify(personService).getDetails(287);
+        assertEquals(Set.of(TmdbLane.PREFETCH), lanes);
+        assertEquals(4, warmer.getDetails());
+        assertEquals(1, warmer.getFailures());
+        assertEquals(0, warmer.getAbandoned());
+    }
+
+    @Test
+    void warm_shouldBackOffAndGiveUp_whileRateLimiterHasNoHeadroom() {
+        TmdbRepository http = new TmdbRepository() {
+            @Override
+            public byte[] callBytes(String endpoint) {
+                return "{}".getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public Map<String, Object> callMap(String endpoint) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        ThrottledTmdbRepository.LaneLimits limits = new ThrottledTmdbRepository.LaneLimits(10, Duration.ofSeconds(1));
+        ThrottledTmdbRepository throttle = new ThrottledTmdbRepository(http, 0.01, 1, Map.of(
+                TmdbLane.INTERACTIVE, limits, TmdbLane.PREFETCH, limits, TmdbLane.SYNC, limits));
+        throttle.callBytes("/movie/1");
+
+        TmdbCacheWarmer warmer = warmer(throttle, 1, Duration.ofMillis(500));
+        warmer.warm();
+
+        verifyNoInteractions(movieService, tvService, personService);
+        assertTrue(warmer.getBackoffs() > 0);
+        assertEquals(1, warmer.getAbandoned());
+    }
+
+    private TmdbCacheWarmer warmer(TmdbRepository budget, int pages, Duration maxBackoff) {
+        return new TmdbCacheWarmer(movieService, tvService, personService, budget, pages, 2, 0.25, maxBackoff);
+    }
+
+    @SafeVarargs
+    private static <T> ResponseDto<T> page(Long totalPages, T... results) {
+        ResponseDto<T> page = new ResponseDto<>();
+        page.setResults(List.of(results));
+        page.setTotal_pages(totalPages);
+        return page;
+    }
+
+    private static MovieDto movie(long id) {
+        MovieDto movie = new MovieDto();
+        movie.setId(id);
+        return movie;
+    }
+
+    private static TvDto tv(long id) {
+        TvDto tv = new TvDto();
+        tv.setId(id);
+        return tv;
+    }
+
+    private static PersonDto person(long id) {
+        PersonDto person = new PersonDto();
+        person.setId(id);
+        return person;
+    }
+}
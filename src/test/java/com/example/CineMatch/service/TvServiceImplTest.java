@@ -55,7 +55,7 @@ class TvServiceImplTest {
         @DisplayName("Should return trending TV shows correctly")
         void testGetTrending_Success() {
             String json = "{ \"results\": [{ \"id\": 123, \"name\": \"Dora the Explorer\", \"first_air_date\": \"1994-05-19\", \"vote_average\": 8.5 }] }";
-            when(tmdbRepository.call(contains("/trending/tv/week"))).thenReturn(json);
+            when(tmdbRepository.callBytes(contains("/trending/tv/week"))).thenReturn(json.getBytes());
 
             ResponseDto<TvDto> response = tvService.getTrending(1);
 
@@ -85,8 +85,8 @@ class TvServiceImplTest {
             Map<String, Object> movieCredits = new HashMap<>();
             movieCredits.put("cast", List.of(castMember));
 
-            when(tmdbRepository.callMap(eq("/tv/" + tvId))).thenReturn(tvDetails);
-            when(tmdbRepository.callMap(eq("/tv/" + tvId + "/credits"))).thenReturn(movieCredits);
+            when(tmdbRepository.callBytes(eq("/tv/" + tvId))).thenReturn(json(tvDetails));
+            when(tmdbRepository.callBytes(eq("/tv/" + tvId + "/credits"))).thenReturn(json(movieCredits));
 
             TvDetailsDto result = tvService.getDetails(tvId);
 
@@ -109,7 +109,7 @@ class TvServiceImplTest {
             Map<String, Object> invalidDetails = new HashMap<>();
             invalidDetails.put("id", null);
 
-            when(tmdbRepository.callMap(anyString())).thenReturn(invalidDetails);
+            when(tmdbRepository.callBytes(anyString())).thenReturn(json(invalidDetails));
 
             assertThrows(RuntimeException.class, () -> tvService.getDetails(1L));
         }
@@ -117,7 +117,7 @@ class TvServiceImplTest {
         @Test
         @DisplayName("Should propagate RuntimeException if Repository fails")
         void testRepositoryFailure() {
-            when(tmdbRepository.call(anyString())).thenThrow(new RuntimeException("TMDB Down"));
+            when(tmdbRepository.callBytes(anyString())).thenThrow(new RuntimeException("TMDB Down"));
 
             Exception exception = assertThrows(RuntimeException.class, () -> tvService.getTrending(1));
             assertEquals("TMDB Down", exception.getMessage());
@@ -128,7 +128,7 @@ class TvServiceImplTest {
         @DisplayName("Handle various page scenarios")
         void testVariousPages(int page) {
             String emptyJson = "{ \"results\": [] }";
-            when(tmdbRepository.call(anyString())).thenReturn(emptyJson);
+            when(tmdbRepository.callBytes(anyString())).thenReturn(emptyJson.getBytes());
 
             ResponseDto<TvDto> response = tvService.getTrending(page);
             assertNotNull(response);
@@ -146,8 +146,8 @@ class TvServiceImplTest {
             Map<String, Object> credits = new HashMap<>();
             credits.put("cast", null); // Το API επιστρέφει null cast
 
-            when(tmdbRepository.callMap(contains("/tv/100"))).thenReturn(details);
-            when(tmdbRepository.callMap(contains("/credits"))).thenReturn(credits);
+            when(tmdbRepository.callBytes(contains("/tv/100"))).thenReturn(json(details));
+            when(tmdbRepository.callBytes(contains("/credits"))).thenReturn(json(credits));
 
             TvDetailsDto result = tvService.getDetails(id);
 
@@ -155,4 +155,8 @@ class TvServiceImplTest {
             assertNull(result.getCast()); // Ή empty list αν το DTO έχει default τιμή
         }
     }
-}
\ No newline at end of file
+
+    private static byte[] json(Object value) {
+        return new ObjectMapper().writeValueAsBytes(value);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+
+import com.example.CineMatch.Repository.UserPreferenceRepository;
+import com.example.CineMatch.dto.UserPreference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserPreferenceCacheTest {
+
+    @Mock
+    UserPreferenceRepository userPreferenceRepository;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void topGenres_shouldQueryOnce_withinTtl() {
+        UserPreference preference = new UserPreference();
+        preference.setUserId(userId);
+        preference.setGenreAffinityJson("[{\"genre\":\"Drama\",\"percentage\":50},"
+                + "{\"genre\":\"Action\",\"percentage\":30},{\"genre\":\"Horror\",\"percentage\":15},"
+                + "{\"genre\":\"Comedy\",\"percentage\":5}]");
+        when(userPreferenceRepository.findByUserId(userId)).thenReturn(Optional.of(preference));
+        UserPreferenceCache cache = new UserPreferenceCache(userPreferenceRepository, Duration.ofMinutes(10), 100);
+
+        assertEquals(List.of("Drama", "Action", "Horror"), cache.topGenres(userId, 3));
+        assertEquals(List.of("Drama", "Action", "Horror"), cache.topGenres(userId, 3));
+
+        verify(userPreferenceRepository, times(1)).findByUserId(userId);
+    }
+
+    @Test
+    void topGenres_shouldCacheMissingPreferences_untilInvalidated() {
+        when(userPreferenceRepository.findByUserId(userId)).thenReturn(Optional.empty());
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        UserPreferenceCache cache = new UserPreferenceCache(userPreferenceRepository, Duration.ofMinutes(10), 100,
+                Clock.fixed(now, ZoneOffset.UTC));
+
+        assertTrue(cache.topGenres(userId, 3).isEmpty());
+        assertTrue(cache.topGenres(userId, 3).isEmpty());
+        verify(userPreferenceRepository, times(1)).findByUserId(userId);
+
+        cache.invalidate(userId);
+        cache.topGenres(userId, 3);
+        verify(userPreferenceRepository, times(2)).findByUserId(userId);
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * CineMatch
+ * Copyright (C) 2025 <Make a Wish team>
+ * Authors: see AUTHORS.md
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3.
+ *
+ * This program is distributed WITHOUT ANY WARRANTY.
+ * See the GNU General Public License for more details.
+ *
+ * If not, see <https://www.gnu.org/licenses/>.
+ */package com.example.CineMatch.service;
+import com.example.CineMatch.Config.HttpClientConfig;
+import com.example.CineMatch.Config.WebClientConfig;
+import com.example.CineMatch.Repository.CachingTmdbRepository;
+import com.example.CineMatch.Repository.CoalescingTmdbRepository;
+import com.example.CineMatch.Repository.TmdbCachePolicy;
+import com.example.CineMatch.Repository.TmdbRepository;
+import com.example.CineMatch.Repository.TmdbResponseCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the blocking outbound calls on virtual threads and fails if JFR
+ * reports that any of them got pinned to its carrier while blocked: the TMDB
+ * path (coalescing, cache with disk tier, parallel details fetch), the
+ * OpenRouter call that blocks on the WebClient, and the Hugging Face call
+ * through the inference RestTemplate. The last two go through the real
+ * Reactor Netty clients to a local server that answers slowly.
+ */
+class VirtualThreadPinningTest {
+
+    private static final int CALLERS = 200;
+
+    @TempDir
+    Path cacheDir;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private ConnectionProvider connectionProvider;
+    private HttpClient httpClient;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v1/chat/completions", exchange -> respond(exchange, openRouterAnswer()));
+        server.createContext("/models/", exchange -> respond(exchange, "[{\"label\":\"Actor\",\"score\":0.9}]"));
+        // Platform threads: the JDK server reads requests while holding a monitor, which would count as pinning
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+
+        HttpClientConfig config = new HttpClientConfig();
+        connectionProvider = config.connectionProvider(CALLERS, Duration.ofSeconds(30),
+                Duration.ofSeconds(30), Duration.ofMinutes(5));
+        httpClient = config.httpClient(connectionProvider, Duration.ofSeconds(3), Duration.ofSeconds(15));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+        connectionProvider.dispose();
+    }
+
+    @Test
+    void blockingTmdbPath_shouldNotPinVirtualThreads() throws Exception {
+        AtomicInteger platformCalls = new AtomicInteger();
+
+        TmdbRepository upstream = new TmdbRepository() {
+            @Override
+            public byte[] callBytes(String endpoint) {
+                if (!Thread.currentThread().isVirtual()) platformCalls.incrementAndGet();
+                sleep(20);
+                return "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public Map<String, Object> callMap(String endpoint) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        Duration ttl = Duration.ofMinutes(1);
+        TmdbRepository repository = new CoalescingTmdbRepository(new CachingTmdbRepository(
+                upstream,
+                new TmdbResponseCache(1000, 1 << 20, cacheDir),
+                new TmdbCachePolicy(ttl, ttl, ttl, ttl, ttl, ttl),
+                new ObjectMapper()));
+
+        List<RecordedEvent> pinned = pinnedWhileRunning(i -> {
+            String endpoint = "/movie/" + (i % 10);
+            CompletableFuture<byte[]> details = ParallelFetch.async(() -> repository.callBytes(endpoint));
+            CompletableFuture<byte[]> credits = ParallelFetch.async(() -> repository.callBytes(endpoint + "/credits"));
+            ParallelFetch.awaitAll(Duration.ofSeconds(10), details, credits);
+        });
+
+        assertEquals(0, platformCalls.get());
+        assertTrue(pinned.isEmpty(), () -> describe(pinned));
+    }
+
+    @Test
+    void blockingOpenRouterCall_shouldNotPinVirtualThreads() throws Exception {
+        WebClient webClient = new WebClientConfig().webClient(httpClient, Duration.ofSeconds(90)).mutate()
+                .filter((request, next) -> next.exchange(ClientRequest.from(request).url(local(request.url())).build()))
+                .build();
+        QuizGenerator generator = new QuizGenerator(webClient);
+        ReflectionTestUtils.setField(generator, "apiKey", "test-key");
+
+        List<RecordedEvent> pinned = pinnedWhileRunning(i ->
+                assertEquals(QuizGenerator.QUESTIONS_PER_QUIZ, generator.generateRankedQuiz().size()));
+
+        assertTrue(pinned.isEmpty(), () -> describe(pinned));
+    }
+
+    @Test
+    void blockingHuggingFaceCall_shouldNotPinVirtualThreads() throws Exception {
+        RestTemplate restTemplate = new HttpClientConfig().inferenceRestTemplate(httpClient, Duration.ofSeconds(120));
+        restTemplate.getInterceptors().add((request, body, execution) -> execution.execute(new HttpRequestWrapper(request) {
+            @Override
+            public URI getURI() {
+                return local(request.getURI());
+            }
+        }, body));
+        ActorMatchServiceImpl actorMatchService = new ActorMatchServiceImpl(restTemplate);
+        ReflectionTestUtils.setField(actorMatchService, "huggingfaceApiKey", "test-key");
+        MockMultipartFile photo = new MockMultipartFile("photo", new byte[1024]);
+
+        List<RecordedEvent> pinned = pinnedWhileRunning(i ->
+                assertEquals("Actor", actorMatchService.callHuggingFaceApi(photo).getFirst().getLabel()));
+
+        assertTrue(pinned.isEmpty(), () -> describe(pinned));
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        void run(int caller) throws Exception;
+    }
+
+    // Runs the call from CALLERS virtual threads at once and returns the pinning events JFR saw meanwhile
+    private static List<RecordedEvent> pinnedWhileRunning(Call call) throws Exception {
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            recording.startAsync();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> calls = new ArrayList<>();
+                for (int i = 0; i < CALLERS; i++) {
+                    int caller = i;
+                    calls.add(executor.submit(() -> {
+                        call.run(caller);
+                        return null;
+                    }));
+                }
+                for (Future<?> future : calls) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+            }
+
+            recording.stop();
+        }
+        return pinned;
+    }
+
+    // RecordedEvent.toString() cuts the stack after five frames, too early to see what held the carrier
+    private static String describe(List<RecordedEvent> pinned) {
+        StringBuilder description = new StringBuilder("Virtual threads got pinned:");
+        for (RecordedEvent event : pinned) {
+            description.append("\n").append(event.getDuration().toMillis()).append(" ms");
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                description.append("\n    ").append(frame.getMethod().getType().getName())
+                        .append('.').append(frame.getMethod().getName()).append(':').append(frame.getLineNumber());
+            }
+        }
+        return description.toString();
+    }
+
+    private URI local(URI uri) {
+        return UriComponentsBuilder.fromUri(uri)
+                .scheme("http").host("127.0.0.1").port(server.getAddress().getPort())
+                .build(true).toUri();
+    }
+
+    private static String openRouterAnswer() {
+        StringBuilder quiz = new StringBuilder("[");
+        for (int i = 0; i < QuizGenerator.QUESTIONS_PER_QUIZ; i++) {
+            quiz.append(i == 0 ? "" : ",")
+                    .append("{\\\"questionText\\\":\\\"Question ").append(i)
+                    .append("\\\",\\\"options\\\":[\\\"a\\\",\\\"b\\\",\\\"c\\\",\\\"d\\\"],")
+                    .append("\\\"correctAnswerIndex\\\":0,\\\"explanation\\\":\\\"e\\\"}");
+        }
+        return "{\"choices\":[{\"message\":{\"content\":\"" + quiz.append(']') + "\"}}]}";
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        // Drain the request and answer slowly, so every caller is blocked for a while
+        exchange.getRequestBody().readAllBytes();
+        sleep(20);
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}